@@ -39,6 +39,40 @@ public enum AppRoles {
      */
     GUEST;
 
+    private static final Map<String, AppRoles> ROLES_BY_NAME = new HashMap<>();
+
+    static {
+        for (AppRoles role: values()) {
+            ROLES_BY_NAME.put(role.name(), role);
+        }
+    }
+
+    /**
+     * Get the bit of this role in a role mask.
+     *
+     * @return The role bit
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Get the mask of given roles, a role check is then a bitwise AND of two masks.
+     *
+     * @param roleNames Role names, unknown names are ignored
+     * @return          The role mask
+     */
+    public static int getRolesMask(Collection<String> roleNames) {
+        int mask = 0;
+        for (String roleName: roleNames) {
+            AppRoles role = ROLES_BY_NAME.get(roleName);
+            if (role != null) {
+                mask |= role.getMask();
+            }
+        }
+        return mask;
+    }
+
     /**
      * Get all roles along their permissions.
      *
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,16 @@ public class AuthAccessRuleChecker {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    /**
+     * Bit of a rule mask granting access to everybody, see AuthRole.VIRT_ENDPOINT_CHECK and AuthRole.VIRT_ROLE_GUEST
+     */
+    private static final int GRANT_ALL = 1 << 31;
+
+    /**
+     * Access methods which can have rules, the index of a method is its index in rule masks
+     */
+    private static final String[] ACCESS_METHODS = {"GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH"};
+
     /**
      * Resource path
      */
@@ -48,6 +59,16 @@ public class AuthAccessRuleChecker {
      */
     private final Map<String /*access method*/, List<String /*role*/>> accessRules;
 
+    /**
+     * Compiled access rules: a mask of the granted roles (see AppRoles) for every access method
+     */
+    private final int[] accessMasks = new int[ACCESS_METHODS.length];
+
+    /**
+     * Compiled resource path regular expression, null for an invalid path
+     */
+    private final Pattern resourcePathPattern;
+
     /**
      * Create a rule for given resource path.
      * 
@@ -56,6 +77,7 @@ public class AuthAccessRuleChecker {
     public AuthAccessRuleChecker(String path) {
         resourcePath = path;
         resourcePathRegexp = createPathRegExp(path);
+        resourcePathPattern = (resourcePathRegexp != null) ? Pattern.compile(resourcePathRegexp) : null;
         accessRules = new HashMap<>();
     }
 
@@ -104,6 +126,23 @@ public class AuthAccessRuleChecker {
             accessRules.put(accessMethod, roles);
         }
         roles.addAll(accessRoles);
+
+        int methodIndex = getAccessMethodIndex(accessMethod);
+        if (methodIndex < 0) {
+            LOGGER.warn("Unsupported access method '{}' for resource path {}", accessMethod, resourcePath);
+            return true;
+        }
+        for (String role: accessRoles) {
+            if (role.equals(AuthRole.VIRT_ENDPOINT_CHECK) || role.equals(AuthRole.VIRT_ROLE_GUEST)) {
+                accessMasks[methodIndex] |= GRANT_ALL;
+                continue;
+            }
+            int roleMask = AppRoles.getRolesMask(Collections.singletonList(role));
+            if (roleMask == 0) {
+                LOGGER.warn("Unknown role '{}' for resource path {}", role, resourcePath);
+            }
+            accessMasks[methodIndex] |= roleMask;
+        }
         return true;
     }
 
@@ -116,13 +155,28 @@ public class AuthAccessRuleChecker {
      * @return                  Return true if authorization is granted, otherwise false
      */
     public boolean checkFixPath(String path, String accessMethod, List<String> userRoles) {
+        if (userRoles == null) {
+            return false;
+        }
+        return checkFixPath(path, accessMethod, AppRoles.getRolesMask(userRoles));
+    }
+
+    /**
+     * Check if the given roles have access to resource considering a simple fix path.
+     *
+     * @param path              Resource path
+     * @param accessMethod      Access method such as GET, PUT, POST, and DELETE
+     * @param userRolesMask     Mask of user roles to check against for authorization, see AppRoles
+     * @return                  Return true if authorization is granted, otherwise false
+     */
+    public boolean checkFixPath(String path, String accessMethod, int userRolesMask) {
         if ((path == null) || (accessMethod == null)){
             return false;
         }
         if (!path.contentEquals(resourcePath)) {
             return false;
         }
-        return checkRoles(accessMethod, userRoles);
+        return checkRoles(accessMethod, userRolesMask);
     }
 
     /**
@@ -135,13 +189,30 @@ public class AuthAccessRuleChecker {
      * @return                  Return true if authorization is granted, otherwise false
      */
     public boolean checkComplexPath(String complexPath, String accessMethod, List<String> userRoles) {
-        if ((complexPath == null) || (accessMethod == null)) {
+        if (userRoles == null) {
+            return false;
+        }
+        return checkComplexPath(complexPath, accessMethod, AppRoles.getRolesMask(userRoles));
+    }
+
+    /**
+     * Check if the given roles have access to resource considering a complex path consisting
+     * on regular expressions like {id} as specified in JAX-RS.
+     *
+     * @param complexPath       Resource path
+     * @param accessMethod      Access method such as GET, PUT, POST, and DELETE
+     * @param userRolesMask     Mask of user roles to check against for authorization, see AppRoles
+     * @return                  Return true if authorization is granted, otherwise false
+     */
+    public boolean checkComplexPath(String complexPath, String accessMethod, int userRolesMask) {
+        if ((complexPath == null) || (accessMethod == null) || (resourcePathPattern == null)) {
             return false;
         }
-        if (!complexPath.matches(resourcePathRegexp)) {
+        // check the roles first, they are cheaper than the path matching
+        if (!checkRoles(accessMethod, userRolesMask)) {
             return false;
         }
-        return checkRoles(accessMethod, userRoles);
+        return resourcePathPattern.matcher(complexPath).matches();
     }
 
     /**
@@ -181,15 +252,44 @@ public class AuthAccessRuleChecker {
         if ((accessMethod == null) || (userRoles == null)) {
             return false;
         }
-        List<String /*role*/> roles = accessRules.get(accessMethod);
-        if (roles == null) {
+        return checkRoles(accessMethod, AppRoles.getRolesMask(userRoles));
+    }
+
+    /**
+     * Given an access method (such as GET, POST, etc.) check if any of user roles
+     * match to required ones. The check does not allocate any objects.
+     *
+     * NOTE: Access to paths with roles AuthRole.NO_CHECK or AuthRole.VIRT_ROLE_GUEST are always granted.
+     *
+     * @param accessMethod  Access method
+     * @param userRolesMask Mask of user roles, see AppRoles
+     * @return              Return true if at least one role matched, otherwise false.
+     */
+    protected boolean checkRoles(String accessMethod, int userRolesMask) {
+        if (accessMethod == null) {
             return false;
         }
-        // check for no-check and guest resource
-        if (roles.contains(AuthRole.VIRT_ENDPOINT_CHECK) || roles.contains(AuthRole.VIRT_ROLE_GUEST)) {
-            return true;
+        int methodIndex = getAccessMethodIndex(accessMethod);
+        if (methodIndex < 0) {
+            return false;
+        }
+        int accessMask = accessMasks[methodIndex];
+        return ((accessMask & GRANT_ALL) != 0) || ((accessMask & userRolesMask) != 0);
+    }
+
+    /**
+     * Get the index of an access method in the rule masks.
+     *
+     * @param accessMethod  Access method
+     * @return              The index, or -1 if the access method is not supported
+     */
+    private static int getAccessMethodIndex(String accessMethod) {
+        for (int i = 0; i < ACCESS_METHODS.length; i++) {
+            if (ACCESS_METHODS[i].equals(accessMethod)) {
+                return i;
+            }
         }
-        return userRoles.stream().anyMatch((role) -> (roles.contains(role)));
+        return -1;
     }
 
     /**
@@ -44,27 +44,32 @@ public class AuthChecker {
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
     /**
-     * A lookup for access rules with fix paths. In order to speed up the lookup, the resource path is used as key.
+     * A trie of access rules with fix paths and complex paths consisting of placeholders such as {id}.
      */
-    private final Map<String /*resource path*/, AuthAccessRuleChecker> accessRulesFixPath;
+    private final AuthRouteTrie accessRules;
 
     /**
-     * A list of access rules with complex paths consisting of regular expressions.
+     * A list of access rules with complex paths which cannot be resolved by the trie, they are checked by regular expressions.
      */
-    private final List<AuthAccessRuleChecker> accessRulesComplexPath;
+    private final List<AuthAccessRuleChecker> accessRulesRegexpPath;
 
     /**
      * A list of roles getting access to any protected resource (e.g. super user roles)
      */
     private final List<String> grantAlwaysRoles = new ArrayList<>();
 
+    /**
+     * Mask of the grant-always roles, see AppRoles
+     */
+    private int grantAlwaysMask;
+
 
     /**
      * Create the authorization checker.
      */
     public AuthChecker() {
-        accessRulesFixPath = new HashMap<>();
-        accessRulesComplexPath = new ArrayList<>();
+        accessRules = new AuthRouteTrie();
+        accessRulesRegexpPath = new ArrayList<>();
     }
 
     /**
@@ -88,6 +93,7 @@ public class AuthChecker {
     public void setGrantAlwaysRoles(List<String> roles) {
         grantAlwaysRoles.clear();
         grantAlwaysRoles.addAll(roles);
+        grantAlwaysMask = AppRoles.getRolesMask(roles);
         LOGGER.debug("Setting grant-always roles: {}", String.join(",", roles));
     }
 
@@ -125,11 +131,10 @@ public class AuthChecker {
 
                 roles.forEach(rule::addAccessRoles);
 
-                // path entry is relative to class' path, check if a complex path was defined
-                if (fullResourcePath.contains("{")) {
-                    accessRulesComplexPath.add(rule);
-                } else {
-                    accessRulesFixPath.put(fullResourcePath, rule);
+                // path entry is relative to class' path, complex paths unknown to the trie need a regular expression
+                if (!accessRules.addRule(rule)) {
+                    LOGGER.warn("Resource path {} is checked by a regular expression", fullResourcePath);
+                    accessRulesRegexpPath.add(rule);
                 }
                 LOGGER.debug("Adding rule: {}", rule);
             });
@@ -145,47 +150,79 @@ public class AuthChecker {
      * @return          Return true if access authorization was ok, otherwise false.
      */
     public boolean checkAccess(String basePath, HttpServletRequest request, List<String> userRoles) {
+        return checkAccess(basePath, request, AppRoles.getRolesMask(userRoles));
+    }
+
+    /**
+     * Check authorization of incoming request. The roles are checked by bit operations, no role lists are
+     * needed on every request.
+     *
+     * @param basePath      The base path of requesting resource
+     * @param request       Incoming request
+     * @param userRolesMask Mask of user roles, see AppRoles
+     * @return              Return true if access authorization was ok, otherwise false.
+     */
+    public boolean checkAccess(String basePath, HttpServletRequest request, int userRolesMask) {
+        try {
+            URL url = new URL(request.getRequestURL().toString());
+            return checkAccess(basePath, url.getPath(), request.getMethod(), userRolesMask);
+        }
+        catch(MalformedURLException | SecurityException ex) {
+            LOGGER.warn("An exception happened during auth check: {}", ex.getLocalizedMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Check authorization of a request given its already resolved path, e.g. the request URI. Apart from
+     * resources which are only known by regular expressions, the check does not allocate any objects.
+     *
+     * @param basePath      The base path of requesting resource
+     * @param path          Request path including the base path
+     * @param accessMethod  Access method such as GET, PUT, POST, and DELETE
+     * @param userRolesMask Mask of user roles, see AppRoles
+     * @return              Return true if access authorization was ok, otherwise false.
+     */
+    public boolean checkAccess(String basePath, String path, String accessMethod, int userRolesMask) {
 
         // check for no-restriction access
-        if (grantAlwaysRoles.stream().anyMatch(userRoles::contains)) {
+        if ((grantAlwaysMask & userRolesMask) != 0) {
             LOGGER.trace("Access granted to Grant-Always roles");
             return true;
         }
 
-        boolean grantAccess = false;
-        try {
-            URL url = new URL(request.getRequestURL().toString());
-            String path = url.getPath();
-
-            // do some checks first
-            if (!path.startsWith(basePath)) {
-                LOGGER.trace("Access denied: given path '{}' does not start with expected base path '{}'", path, basePath);
-                return false;
-            }
+        // do some checks first
+        if (!path.startsWith(basePath)) {
+            LOGGER.trace("Access denied: given path '{}' does not start with expected base path '{}'", path, basePath);
+            return false;
+        }
+        if ((path.length() > basePath.length()) && (path.charAt(basePath.length()) != '/')) {
+            LOGGER.trace("Access denied: given path '{}' does not continue the base path '{}'", path, basePath);
+            return false;
+        }
 
-            String resourcePath = path.substring(basePath.length());
-            LOGGER.trace("Checking resource path [{}]: {}", request.getMethod(), resourcePath);
+        LOGGER.trace("Checking resource path [{}]: {}", accessMethod, path);
 
-            // first check for fix path match
-            AuthAccessRuleChecker accessRule = accessRulesFixPath.get(resourcePath);
-            if (accessRule != null) {
-                grantAccess = accessRule.checkFixPath(resourcePath, request.getMethod(), userRoles);
-            }
-            else {
-                // if no hit then check for complex path match
-                for (AuthAccessRuleChecker acc: accessRulesComplexPath) {
-                    if (acc.checkComplexPath(resourcePath, request.getMethod(), userRoles)) {
-                        grantAccess = true;
-                        break;
-                    }
+        boolean grantAccess = false;
+        List<AuthAccessRuleChecker> rules = accessRules.findRules(path, basePath.length());
+        if (rules != null) {
+            for (AuthAccessRuleChecker rule: rules) {
+                if (rule.checkRoles(accessMethod, userRolesMask)) {
+                    grantAccess = true;
+                    break;
                 }
             }
-            LOGGER.trace("Access granted: {}", (grantAccess ? "Yes" : "No"));
         }
-        catch(MalformedURLException | SecurityException ex) {
-            LOGGER.warn("An exception happened during auth check: {}", ex.getLocalizedMessage());
-            return false;
+        else if (!accessRulesRegexpPath.isEmpty()) {
+            String resourcePath = path.substring(basePath.length());
+            for (AuthAccessRuleChecker rule: accessRulesRegexpPath) {
+                if (rule.checkComplexPath(resourcePath, accessMethod, userRolesMask)) {
+                    grantAccess = true;
+                    break;
+                }
+            }
         }
+        LOGGER.trace("Access granted: {}", (grantAccess ? "Yes" : "No"));
         return grantAccess;
     }
 }
@@ -7,21 +7,18 @@
  */
 package net.m4e.app.auth;
 
-import net.m4e.app.user.business.UserEntity;
+import net.m4e.app.user.business.*;
 import net.m4e.common.*;
 import net.m4e.system.core.AppConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import javax.servlet.*;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpSession;
+import javax.servlet.http.*;
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
-import java.net.URL;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 
 /**
@@ -54,6 +51,28 @@ public class AuthFilter implements Filter {
      */
     private static final String PARAM_BASE_PATH_PROTECTED = "protectedBasePath";
 
+    /**
+     * Request header carrying the session token
+     */
+    public static final String HEADER_AUTHORIZATION = "Authorization";
+
+    /**
+     * Prefix of a session token in the authorization header
+     */
+    public static final String AUTHORIZATION_BEARER = "Bearer ";
+
+    /**
+     * Result of an access check
+     */
+    private enum Access {
+        GRANTED,
+        DENIED,
+        /**
+         * A valid session token was sent, but its user does not exist, is not active or revoked the token
+         */
+        UNAUTHORIZED
+    }
+
     /**
      * The filter configuration object we are associated with. if
      * this value is null, this filter instance is not currently configured.
@@ -65,15 +84,32 @@ public class AuthFilter implements Filter {
      */
     private final AuthChecker authChecker;
 
+    /**
+     * Used for finding the users of session tokens
+     */
+    @Inject
+    Users users;
+
     private String basePath = "";
     private String publicBasePath = "";
     private String protectedBasePath = "";
 
+    /**
+     * Path prefixes built from the configured base paths, they are set up once instead of on every request.
+     */
+    private String basePathPrefix;
+    private String basePathRoot;
+    private String publicPathPrefix;
+    private String webSocketPath;
+    private String protectedPathPrefix;
+    private String swaggerPathPrefix;
+
     /**
      * Create the filter.
      */
     public AuthFilter() {
         authChecker = new AuthChecker();
+        setupPathPrefixes();
     }
 
     /**
@@ -99,11 +135,25 @@ public class AuthFilter implements Filter {
             LOGGER.debug("Initializing filter: basePath({}) | publicBasePath({}) | protectedBasePath({})",
                     basePath, basePath + "/" + publicBasePath, basePath + "/" + protectedBasePath);
         }
+        setupPathPrefixes();
         LOGGER.debug("Setup authorization check for protected path: {}/{}", basePath, protectedBasePath);
         // setup the auth checker
         authChecker.initialize(AuthorityConfig.getInstance().getAccessBeanClasses());
         // ADMIN role gets always access to resources
         authChecker.setGrantAlwaysRoles(Arrays.asList(AuthRole.USER_ROLE_ADMIN));
+
+        if (users != null) {
+            AuthorityConfig.getInstance().setTokenUserResolver(id -> users.findUser(id));
+        }
+    }
+
+    private void setupPathPrefixes() {
+        basePathPrefix = "/" + basePath;
+        basePathRoot = basePathPrefix + "/";
+        publicPathPrefix = basePathRoot + publicBasePath;
+        webSocketPath = basePathPrefix + AppConfiguration.WEBSOCKET_URL;
+        protectedPathPrefix = basePathRoot + protectedBasePath;
+        swaggerPathPrefix = protectedPathPrefix + "/swagger.";
     }
 
     /**
@@ -129,18 +179,25 @@ public class AuthFilter implements Filter {
         }
 
         HttpServletRequest httpRequest = (HttpServletRequest)request;
-        String             url         = httpRequest.getRequestURL().toString();
-        String             path        = new URL(url).getPath();
+        // the request URI is the path part of the request URL, there is no need for parsing the URL
+        String             path        = httpRequest.getRequestURI();
 
-        LOGGER.trace("Requesting for resource: " + path);
+        LOGGER.trace("Requesting for resource: {}", path);
 
-        if (path.startsWith("/" + basePath)) {
+        if (path.startsWith(basePathPrefix)) {
 
-            boolean allowAccess = checkResourceAccess(httpRequest, path);
+            Access access = checkResourceAccess(httpRequest, path);
 
-            if (allowAccess) {
+            if (access == Access.GRANTED) {
                 processRequest(request, response, chain);
             }
+            else if (access == Access.UNAUTHORIZED) {
+                LOGGER.debug("*** Session token was rejected for protected resource: {}", path);
+                if (response instanceof HttpServletResponse) {
+                    ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                }
+                response.getWriter().print(GenericResponseResult.unauthorized("Session token was rejected").toJSON());
+            }
             else {
                 LOGGER.warn("*** Access denied to protected resource: {}", path);
                 response.getWriter().print(GenericResponseResult.forbidden("Denied access to: " + path).toJSON());
@@ -148,56 +205,96 @@ public class AuthFilter implements Filter {
         }
     }
 
-    private boolean checkResourceAccess(HttpServletRequest httpRequest, String path) {
+    private Access checkResourceAccess(HttpServletRequest httpRequest, String path) {
         boolean allowAccess = false;
 
         // check for accessing html files in base path
-        if (path.equals("/" + basePath + "/") || path.matches("/" + basePath + "/.*\\.html")) {
+        if (path.equals(basePathRoot) || isHtmlPath(path)) {
             allowAccess = true;
         }
         // check for accessing public resources
-        else if (path.startsWith("/" + basePath + "/" + publicBasePath)) {
-            LOGGER.trace("  Fetching public resource: " + path);
+        else if (path.startsWith(publicPathPrefix)) {
+            LOGGER.trace("  Fetching public resource: {}", path);
             allowAccess = true;
         }
         // check for WebSocket endpoint access
-        else if (path.equals("/" + basePath + AppConfiguration.WEBSOCKET_URL)) {
+        else if (path.equals(webSocketPath)) {
             allowAccess = true;
         }
         // check for swagger access
-        else if (path.matches("/" + basePath + "/" + protectedBasePath + "/swagger\\..*")) {
+        else if (path.startsWith(swaggerPathPrefix)) {
             allowAccess = true;
         }
         // check for accessing protected resources such as rest-services
-        else if (path.startsWith("/" + basePath + "/" + protectedBasePath)) {
+        else if (path.startsWith(protectedPathPrefix)) {
             // get the user roles out of the http session
-            allowAccess = checkProtectedPath(httpRequest, path);
+            return checkProtectedPath(httpRequest, path);
         }
-        return allowAccess;
+        return toAccess(allowAccess);
+    }
+
+    private boolean isHtmlPath(String path) {
+        return path.startsWith(basePathRoot) && path.endsWith(".html") &&
+               (path.length() >= basePathRoot.length() + ".html".length());
     }
 
-    private boolean checkProtectedPath(HttpServletRequest httpRequest, String path) {
+    private Access checkProtectedPath(HttpServletRequest httpRequest, String path) {
+        int userRolesMask;
+        SessionTokens.SessionToken sessionToken = getSessionToken(httpRequest);
+        if (sessionToken != null) {
+            LOGGER.trace("   User '{}' accessing protected resource with token: {}", sessionToken.getUserId(), path);
+            // the roles are signed into the token, changing the roles of a user revokes the tokens
+            AuthorityConfig authorityConfig = AuthorityConfig.getInstance();
+            if (authorityConfig.isTokenRevoked(sessionToken)) {
+                return Access.UNAUTHORIZED;
+            }
+            authorityConfig.setTokenAuthorization(httpRequest, sessionToken);
+            userRolesMask = sessionToken.getRolesMask() | AppRoles.USER.getMask();
+            return toAccess(authChecker.checkAccess(protectedPathPrefix, path, httpRequest.getMethod(), userRolesMask));
+        }
+
         UserEntity sessionUser = getSessionUser(httpRequest);
-        List<String> userRoles;
         if (sessionUser != null) {
             LOGGER.trace("   User '{}' accessing protected resource: {}", sessionUser.getLogin(), path);
-            userRoles = sessionUser.getRolesAsString();
+            userRolesMask = sessionUser.getRolesMask();
             // authenticated users get automatically the role USER
-            if (userRoles.contains(AuthRole.VIRT_ROLE_USER)) {
+            if ((userRolesMask & AppRoles.USER.getMask()) != 0) {
                 LOGGER.warn("   *** Virtual user role {} was detected on user!", AuthRole.VIRT_ROLE_USER);
             }
-            userRoles.add(AuthRole.VIRT_ROLE_USER);
+            userRolesMask |= AppRoles.USER.getMask();
         }
         else {
             LOGGER.trace("  Accessing protected resource: {}", path);
             // non-authenticated users get automatically the role GUEST
-            userRoles = new ArrayList<>();
-            userRoles.add(AuthRole.VIRT_ROLE_GUEST);
+            userRolesMask = AppRoles.GUEST.getMask();
+        }
+        return toAccess(authChecker.checkAccess(protectedPathPrefix, path, httpRequest.getMethod(), userRolesMask));
+    }
+
+    private static Access toAccess(boolean allowAccess) {
+        return allowAccess ? Access.GRANTED : Access.DENIED;
+    }
+
+    /**
+     * Get the valid session token sent in the request header "Authorization: Bearer TOKEN".
+     *
+     * @param request   HTTP request
+     * @return          Session token, or null if the stateless authentication is disabled or no valid token was sent
+     */
+    private SessionTokens.SessionToken getSessionToken(HttpServletRequest request) {
+        AuthorityConfig authorityConfig = AuthorityConfig.getInstance();
+        if (!authorityConfig.isStatelessAuth()) {
+            return null;
+        }
+        String authorization = request.getHeader(HEADER_AUTHORIZATION);
+        if ((authorization == null) || !authorization.startsWith(AUTHORIZATION_BEARER)) {
+            return null;
         }
-        if (authChecker.checkAccess("/" + basePath + "/" + protectedBasePath, httpRequest, userRoles)) {
-            return true;
+        SessionTokens.SessionToken token = authorityConfig.getSessionTokens().validate(authorization.substring(AUTHORIZATION_BEARER.length()));
+        if (token == null) {
+            LOGGER.debug("  Invalid session token received");
         }
-        return false;
+        return token;
     }
 
     /**
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * A trie of resource path segments used for finding the access rules of resource paths,
+ * including paths with JAX-RS placeholders such as "/rest/users/{id}".
+ *
+ * A placeholder matches exactly one non-empty path segment. When looking up a path, literal
+ * segments are preferred over placeholders, so "/rest/users/search/{keyword}" wins over
+ * "/rest/users/{from}/{to}". A lookup takes O(segments) steps, uses no regular expressions
+ * and does not allocate any objects.
+ *
+ * The trie is built once on initialization and is read-only afterwards.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class AuthRouteTrie {
+
+    private static class Node {
+
+        private final List<String> literals = new ArrayList<>();
+
+        private final List<Node> literalNodes = new ArrayList<>();
+
+        private Node placeholderNode;
+
+        private final List<AuthAccessRuleChecker> rules = new ArrayList<>();
+
+        private Node getOrCreateLiteral(String segment) {
+            int index = literals.indexOf(segment);
+            if (index >= 0) {
+                return literalNodes.get(index);
+            }
+            Node node = new Node();
+            literals.add(segment);
+            literalNodes.add(node);
+            return node;
+        }
+
+        private Node findLiteral(String path, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < literals.size(); i++) {
+                String literal = literals.get(i);
+                if ((literal.length() == length) && path.regionMatches(start, literal, 0, length)) {
+                    return literalNodes.get(i);
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Node root = new Node();
+
+    private int size;
+
+
+    /**
+     * Add an access rule for its resource path. Empty segments in the resource path (e.g. "//") are ignored.
+     *
+     * @param rule  Access rule
+     * @return      Return false if the resource path contains a segment which cannot be
+     *              matched by the trie (e.g. "file.{ext}"), otherwise true.
+     */
+    public boolean addRule(@NotNull AuthAccessRuleChecker rule) {
+        String[] segments = rule.getResourcePath().split("/");
+        for (String segment: segments) {
+            if (!isPlaceholder(segment) && ((segment.indexOf('{') >= 0) || (segment.indexOf('}') >= 0))) {
+                return false;
+            }
+        }
+
+        Node node = root;
+        for (String segment: segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (isPlaceholder(segment)) {
+                if (node.placeholderNode == null) {
+                    node.placeholderNode = new Node();
+                }
+                node = node.placeholderNode;
+            }
+            else {
+                node = node.getOrCreateLiteral(segment);
+            }
+        }
+        node.rules.add(rule);
+        size++;
+        return true;
+    }
+
+    /**
+     * Find the access rules of given resource path.
+     *
+     * @param path  Resource path
+     * @return      The rules of the best matching path, or null if no path matched
+     */
+    public List<AuthAccessRuleChecker> findRules(@NotNull String path) {
+        return findRules(path, 0);
+    }
+
+    /**
+     * Find the access rules of the resource path starting at given offset of path. A trailing '/' is ignored.
+     *
+     * @param path      String containing the resource path
+     * @param offset    Start of the resource path in given string
+     * @return          The rules of the best matching path, or null if no path matched
+     */
+    public List<AuthAccessRuleChecker> findRules(@NotNull String path, int offset) {
+        Node node = find(root, path, offset);
+        return (node == null) ? null : node.rules;
+    }
+
+    /**
+     * Get the count of rules in trie.
+     *
+     * @return  Count of rules
+     */
+    public int getSize() {
+        return size;
+    }
+
+    private static Node find(Node node, String path, int position) {
+        if ((position < path.length()) && (path.charAt(position) == '/')) {
+            position++;
+        }
+        if (position >= path.length()) {
+            return node.rules.isEmpty() ? null : node;
+        }
+
+        int end = path.indexOf('/', position);
+        if (end < 0) {
+            end = path.length();
+        }
+
+        Node literalNode = node.findLiteral(path, position, end);
+        if (literalNode != null) {
+            Node found = find(literalNode, path, end);
+            if (found != null) {
+                return found;
+            }
+        }
+        if ((node.placeholderNode != null) && (end > position)) {
+            return find(node.placeholderNode, path, end);
+        }
+        return null;
+    }
+
+    private static boolean isPlaceholder(String segment) {
+        return (segment.length() > 2) && (segment.charAt(0) == '{') && (segment.indexOf('}') == segment.length() - 1) &&
+               (segment.indexOf('{', 1) < 0);
+    }
+}
@@ -10,7 +10,7 @@ package net.m4e.app.auth;
 import net.m4e.app.resources.DocumentRestService;
 import net.m4e.app.user.business.UserEntity;
 import net.m4e.common.HashCreator;
-import net.m4e.system.core.AppInfoRestService;
+import net.m4e.system.core.*;
 import net.m4e.system.maintenance.rest.MaintenanceRestService;
 import net.m4e.update.rest.UpdateCheckRestService;
 import org.slf4j.*;
@@ -18,6 +18,7 @@ import org.slf4j.*;
 import javax.servlet.http.*;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.function.LongFunction;
 
 /**
  * Central place for holding all authority related configuration
@@ -34,6 +35,21 @@ public class AuthorityConfig {
      */
     public static final String SESSION_ATTR_USER = "USER";
 
+    /**
+     * Request attribute name for the session token which authorized the request, see SessionTokens.
+     */
+    public static final String REQUEST_ATTR_SESSION_TOKEN = "SESSION_TOKEN";
+
+    /**
+     * Request attribute name for the user of the session token.
+     */
+    private static final String REQUEST_ATTR_TOKEN_USER = "SESSION_TOKEN_USER";
+
+    /**
+     * Default lifetime of session tokens in minutes
+     */
+    private static final long DEFAULT_SESSION_TOKEN_LIFETIME = 720;
+
     /**
      * A list of java beans which should be unter control of authority checker.
      * Extend the list whenever new REST beans are created which need protected access.
@@ -55,19 +71,147 @@ public class AuthorityConfig {
      */
     private static final int PW_HASH_ITERATION = 10;
 
+    private SessionTokens sessionTokens;
+
+    private volatile LongFunction<UserEntity> tokenUserResolver;
+
+    private final TokenRevocations tokenRevocations = new TokenRevocations(this::loadTokensValidAfter, System::currentTimeMillis);
+
     /**
      * Construct the instance.
      */
     private AuthorityConfig() {}
 
     /**
-     * Given a HTTP request object, return the user entity set in its session.
+     * Given a HTTP request object, return the user entity set in its session. If the request
+     * was authorized by a session token then the user of the token is returned.
      * 
      * @param request   HTTP request
      * @return          Return session's UserEntity, or null if no user was set in session
      */
     public UserEntity getSessionUser(HttpServletRequest request) {
-       return getSessionUser(request.getSession());
+        Object token = request.getAttribute(REQUEST_ATTR_SESSION_TOKEN);
+        if (token instanceof SessionTokens.SessionToken) {
+            Object user = request.getAttribute(REQUEST_ATTR_TOKEN_USER);
+            if (!(user instanceof UserEntity)) {
+                user = getTokenUser((SessionTokens.SessionToken) token);
+                request.setAttribute(REQUEST_ATTR_TOKEN_USER, user);
+            }
+            return (UserEntity) user;
+        }
+        return getSessionUser(request.getSession());
+    }
+
+    /**
+     * Set the session token which authorized a request, see getSessionUser. Its user is loaded on first request.
+     *
+     * @param request   HTTP request
+     * @param token     Valid session token
+     */
+    public void setTokenAuthorization(HttpServletRequest request, SessionTokens.SessionToken token) {
+        request.setAttribute(REQUEST_ATTR_SESSION_TOKEN, token);
+    }
+
+    /**
+     * Check if a valid session token was revoked, see TokenRevocations. The user of the token is not loaded
+     * unless the revocation time of the user is not cached.
+     *
+     * @param token Session token
+     * @return      Return true if the token was revoked, or its user does not exist or is not active
+     */
+    public boolean isTokenRevoked(SessionTokens.SessionToken token) {
+        return tokenRevocations.isRevoked(token.getUserId(), token.getIssued());
+    }
+
+    /**
+     * Get the cache of the token revocation times, it must be updated whenever the tokens of a user are revoked.
+     *
+     * @return  Token revocations
+     */
+    public TokenRevocations getTokenRevocations() {
+        return tokenRevocations;
+    }
+
+    /**
+     * Get the user of a valid session token.
+     *
+     * @param token Session token
+     * @return      The user, or null if the user does not exist, is not active or the token was issued
+     *              before the user's tokens were revoked, see UserEntity.getTokensValidAfter
+     */
+    public UserEntity getTokenUser(SessionTokens.SessionToken token) {
+        LongFunction<UserEntity> resolver = tokenUserResolver;
+        if (resolver == null) {
+            LOGGER.warn("*** No user resolver for session tokens was set");
+            return null;
+        }
+        UserEntity user = resolver.apply(token.getUserId());
+        if ((user == null) || (user.getStatus() == null) || !user.getStatus().getIsActive()) {
+            return null;
+        }
+        Long validAfter = user.getTokensValidAfter();
+        if ((validAfter != null) && (token.getIssued() <= validAfter)) {
+            LOGGER.debug("Revoked session token of user {}", user.getId());
+            return null;
+        }
+        return user;
+    }
+
+    /**
+     * Set the function finding a user by its ID, it is used for getting the users of session tokens.
+     *
+     * @param resolver  Function finding a user
+     */
+    public void setTokenUserResolver(LongFunction<UserEntity> resolver) {
+        tokenUserResolver = resolver;
+        tokenRevocations.clear();
+    }
+
+    private long loadTokensValidAfter(long userId) {
+        LongFunction<UserEntity> resolver = tokenUserResolver;
+        UserEntity user = (resolver != null) ? resolver.apply(userId) : null;
+        if ((user == null) || (user.getStatus() == null) || !user.getStatus().getIsActive()) {
+            return TokenRevocations.ALL_REVOKED;
+        }
+        return (user.getTokensValidAfter() != null) ? user.getTokensValidAfter() : 0L;
+    }
+
+    /**
+     * Check if the stateless authentication by session tokens is enabled, see AppConfiguration.TOKEN_STATELESS_AUTH.
+     *
+     * @return  Return true if the session tokens are used
+     */
+    public boolean isStatelessAuth() {
+        return "true".equalsIgnoreCase(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH));
+    }
+
+    /**
+     * Get the session token issuer. It is created on first use with the configured lifetime and shared secret.
+     *
+     * @return  Session tokens
+     */
+    public synchronized SessionTokens getSessionTokens() {
+        if (sessionTokens == null) {
+            sessionTokens = new SessionTokens(getConfiguredSessionTokenLifetime() * 60);
+            String secret = AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_SESSION_TOKEN_SECRET);
+            if ((secret != null) && !secret.isEmpty()) {
+                sessionTokens.addKey("shared", Base64.getDecoder().decode(secret), true);
+            }
+        }
+        return sessionTokens;
+    }
+
+    private static long getConfiguredSessionTokenLifetime() {
+        String value = AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_SESSION_TOKEN_LIFETIME);
+        if (value != null) {
+            try {
+                return Long.parseLong(value);
+            }
+            catch (NumberFormatException ex) {
+                LOGGER.warn("*** Invalid configuration value for {}: {}", AppConfiguration.TOKEN_SESSION_TOKEN_LIFETIME, value);
+            }
+        }
+        return DEFAULT_SESSION_TOKEN_LIFETIME;
     }
 
     /**
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.system.core.AppConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.lang.invoke.MethodHandles;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Protects the login against brute-force attacks and credential stuffing. It limits the failed logins
+ * per user login and all login attempts per client address in a sliding time window. It is checked
+ * before any database access or password hashing takes place, so blocked attempts are cheap.
+ *
+ * Every login and address has a small counter of time buckets, the window slides by one bucket at a time.
+ * Counters of logins and addresses which have no attempts in the window anymore are removed periodically.
+ *
+ * The count of tracked logins and addresses is limited. If the limit is reached then the expired counters
+ * are removed right away. If there is still no room then the attempts are counted by a count-min sketch of
+ * fixed size. It may overestimate, so under such an attack new logins and addresses are rather blocked
+ * than let through unchecked.
+ *
+ * The window and limits can be configured by the app parameters with names given by
+ * AppConfiguration.TOKEN_LOGIN_THROTTLE_WINDOW, TOKEN_LOGIN_MAX_FAILURES and TOKEN_LOGIN_MAX_ATTEMPTS_PER_ADDRESS.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class LoginThrottle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Default window in seconds
+     */
+    public static final long DEFAULT_WINDOW = 900;
+
+    /**
+     * Default count of failed logins per user login in the window
+     */
+    public static final int DEFAULT_MAX_FAILURES = 10;
+
+    /**
+     * Default count of login attempts per client address in the window
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS_PER_ADDRESS = 100;
+
+    /**
+     * Count of time buckets in a window
+     */
+    private static final int BUCKETS = 10;
+
+    /**
+     * Maximal count of tracked logins and addresses each, limits the memory usage during an attack
+     */
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    /**
+     * Count of rows of the overflow sketches
+     */
+    private static final int SKETCH_DEPTH = 4;
+
+    /**
+     * Count of counters in a row of the overflow sketches, a power of two
+     */
+    private static final int SKETCH_WIDTH = 2048;
+
+    /**
+     * Provides the current time in milliseconds
+     */
+    private final LongSupplier clock;
+
+    private final long bucketMillis;
+
+    private final int maxFailures;
+
+    private final int maxAttemptsPerAddress;
+
+    private final int maxTrackedKeys;
+
+    private final ConcurrentHashMap<String /*login*/, Counter> failuresByLogin = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String /*address*/, Counter> attemptsByAddress = new ConcurrentHashMap<>();
+
+    /**
+     * Count the failed logins and the attempts of addresses which do not fit into the maps above
+     */
+    private final Sketch overflowFailures = new Sketch();
+
+    private final Sketch overflowAttempts = new Sketch();
+
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    /**
+     * The last bucket in which the maps were swept because they were full, they are swept at most once per bucket
+     */
+    private final AtomicLong lastFullSweep = new AtomicLong(-1);
+
+    private final AtomicLong countBlockedByLogin = new AtomicLong();
+
+    private final AtomicLong countBlockedByAddress = new AtomicLong();
+
+    private final AtomicLong countUntracked = new AtomicLong();
+
+
+    /**
+     * Create the throttle with the configured window and limits.
+     */
+    public LoginThrottle() {
+        this(getConfiguredValue(AppConfiguration.TOKEN_LOGIN_THROTTLE_WINDOW, DEFAULT_WINDOW),
+             (int) getConfiguredValue(AppConfiguration.TOKEN_LOGIN_MAX_FAILURES, DEFAULT_MAX_FAILURES),
+             (int) getConfiguredValue(AppConfiguration.TOKEN_LOGIN_MAX_ATTEMPTS_PER_ADDRESS, DEFAULT_MAX_ATTEMPTS_PER_ADDRESS));
+    }
+
+    /**
+     * Create the throttle.
+     *
+     * @param windowSeconds         Window in seconds
+     * @param maxFailures           Maximal count of failed logins per user login in the window
+     * @param maxAttemptsPerAddress Maximal count of login attempts per client address in the window
+     */
+    public LoginThrottle(long windowSeconds, int maxFailures, int maxAttemptsPerAddress) {
+        this(System::currentTimeMillis, windowSeconds, maxFailures, maxAttemptsPerAddress);
+    }
+
+    LoginThrottle(@NotNull LongSupplier clock, long windowSeconds, int maxFailures, int maxAttemptsPerAddress) {
+        this(clock, windowSeconds, maxFailures, maxAttemptsPerAddress, MAX_TRACKED_KEYS);
+    }
+
+    LoginThrottle(@NotNull LongSupplier clock, long windowSeconds, int maxFailures, int maxAttemptsPerAddress, int maxTrackedKeys) {
+        this.clock = clock;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.bucketMillis = Math.max(1, windowSeconds * 1000 / BUCKETS);
+        this.maxFailures = maxFailures;
+        this.maxAttemptsPerAddress = maxAttemptsPerAddress;
+    }
+
+    /**
+     * Register a login attempt and check if it may proceed. Call it before the user is looked up.
+     *
+     * @param login     User login
+     * @param address   Client address
+     * @return          Return false if the attempt is blocked
+     */
+    public boolean tryAttempt(@NotNull String login, String address) {
+        long bucket = currentBucket();
+
+        // blocked attempts are counted too, so an address stays blocked as long as it keeps trying
+        if (add(attemptsByAddress, overflowAttempts, String.valueOf(address), bucket) > maxAttemptsPerAddress) {
+            countBlockedByAddress.incrementAndGet();
+            LOGGER.debug("*** Login attempt blocked, too many attempts from address ({})", address);
+            return false;
+        }
+        Counter failures = failuresByLogin.get(login);
+        int countFailures = (failures != null) ? failures.count(bucket) : overflowFailures.count(login, bucket);
+        if (countFailures >= maxFailures) {
+            countBlockedByLogin.incrementAndGet();
+            LOGGER.debug("*** Login attempt blocked, too many failed logins, user ({})", login);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Register a failed login, i.e. an unknown user or a wrong password.
+     *
+     * @param login User login
+     */
+    public void loginFailed(@NotNull String login) {
+        add(failuresByLogin, overflowFailures, login, currentBucket());
+    }
+
+    /**
+     * Register a successful login, the failed logins of the user are forgotten. Failed logins counted by
+     * the overflow sketch cannot be forgotten, they leave with the window.
+     *
+     * @param login User login
+     */
+    public void loginSucceeded(@NotNull String login) {
+        failuresByLogin.remove(login);
+    }
+
+    /**
+     * Get the count of attempts blocked because of too many failed logins of a user since start.
+     */
+    public long getCountBlockedByLogin() {
+        return countBlockedByLogin.get();
+    }
+
+    /**
+     * Get the count of attempts blocked because of too many attempts from a client address since start.
+     */
+    public long getCountBlockedByAddress() {
+        return countBlockedByAddress.get();
+    }
+
+    /**
+     * Get the count of attempts which were counted approximately because too many logins or addresses were tracked.
+     */
+    public long getCountUntracked() {
+        return countUntracked.get();
+    }
+
+    /**
+     * Get the count of user logins with failed logins in the window.
+     */
+    public int getCountTrackedLogins() {
+        return failuresByLogin.size();
+    }
+
+    /**
+     * Get the count of client addresses with login attempts in the window.
+     */
+    public int getCountTrackedAddresses() {
+        return attemptsByAddress.size();
+    }
+
+    private long currentBucket() {
+        long now = clock.getAsLong();
+        long bucket = now / bucketMillis;
+        long sweep = nextSweep.get();
+        if ((now >= sweep) && nextSweep.compareAndSet(sweep, now + bucketMillis * BUCKETS)) {
+            sweep(failuresByLogin, bucket);
+            sweep(attemptsByAddress, bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * Add an attempt to the counter of given key. If too many keys are tracked then the expired counters are removed,
+     * and if this does not make room then the attempt is added to the overflow sketch.
+     *
+     * @return  The count of attempts in the window including the new one, it may be overestimated for an untracked key
+     */
+    private int add(ConcurrentHashMap<String, Counter> counters, Sketch overflow, String key, long bucket) {
+        if ((counters.size() >= maxTrackedKeys) && !counters.containsKey(key)) {
+            long lastSweep = lastFullSweep.get();
+            if ((lastSweep != bucket) && lastFullSweep.compareAndSet(lastSweep, bucket)) {
+                sweep(failuresByLogin, bucket);
+                sweep(attemptsByAddress, bucket);
+            }
+            if (counters.size() >= maxTrackedKeys) {
+                countUntracked.incrementAndGet();
+                return overflow.add(key, bucket);
+            }
+        }
+        int[] count = new int[1];
+        // add in the map's lock, so it cannot get lost by a concurrent sweep
+        counters.compute(key, (k, counter) -> {
+            Counter current = (counter != null) ? counter : new Counter(bucket);
+            count[0] = current.add(bucket);
+            return current;
+        });
+        return count[0];
+    }
+
+    private void sweep(ConcurrentHashMap<String, Counter> counters, long bucket) {
+        counters.keySet().forEach(key -> counters.computeIfPresent(key, (k, counter) -> (counter.count(bucket) == 0) ? null : counter));
+    }
+
+    private static long getConfiguredValue(String token, long defaultValue) {
+        String value = AppConfiguration.getInstance().getConfigValue(token);
+        if (value != null) {
+            try {
+                return Long.parseLong(value);
+            }
+            catch (NumberFormatException ex) {
+                LOGGER.warn("*** Invalid configuration value for {}: {}", token, value);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Count-min sketch of sliding window counters. A key is counted by one counter in every row, the smallest
+     * of them is its estimated count. The rows are hashed by random seeds, so colliding keys cannot be prepared.
+     */
+    private static class Sketch {
+
+        private static final SecureRandom SEEDS = new SecureRandom();
+
+        private final int[] seeds = new int[SKETCH_DEPTH];
+
+        private final Counter[][] rows = new Counter[SKETCH_DEPTH][SKETCH_WIDTH];
+
+        Sketch() {
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                seeds[row] = SEEDS.nextInt();
+                for (int column = 0; column < SKETCH_WIDTH; column++) {
+                    rows[row][column] = new Counter(0);
+                }
+            }
+        }
+
+        int add(String key, long bucket) {
+            int count = Integer.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                count = Math.min(count, rows[row][index(key, row)].add(bucket));
+            }
+            return count;
+        }
+
+        int count(String key, long bucket) {
+            int count = Integer.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                count = Math.min(count, rows[row][index(key, row)].count(bucket));
+            }
+            return count;
+        }
+
+        /**
+         * FNV-1a hash of the key with the row's seed as offset basis.
+         */
+        private int index(String key, int row) {
+            int hash = seeds[row];
+            for (int i = 0; i < key.length(); i++) {
+                hash = (hash ^ key.charAt(i)) * 0x01000193;
+            }
+            return (hash ^ (hash >>> 16)) & (SKETCH_WIDTH - 1);
+        }
+    }
+
+    /**
+     * Count of attempts in a sliding window, made of a ring of time buckets.
+     */
+    private static class Counter {
+
+        private final int[] buckets = new int[BUCKETS];
+
+        private long lastBucket;
+
+        private int total;
+
+        Counter(long bucket) {
+            lastBucket = bucket;
+        }
+
+        synchronized int add(long bucket) {
+            advance(bucket);
+            buckets[(int) (bucket % BUCKETS)]++;
+            return ++total;
+        }
+
+        synchronized int count(long bucket) {
+            advance(bucket);
+            return total;
+        }
+
+        /**
+         * Drop the buckets which left the window.
+         */
+        private void advance(long bucket) {
+            long steps = bucket - lastBucket;
+            if (steps <= 0) {
+                return;
+            }
+            if (steps >= BUCKETS) {
+                Arrays.fill(buckets, 0);
+                total = 0;
+            }
+            else {
+                for (long b = lastBucket + 1; b <= bucket; b++) {
+                    int index = (int) (b % BUCKETS);
+                    total -= buckets[index];
+                    buckets[index] = 0;
+                }
+            }
+            lastBucket = bucket;
+        }
+    }
+}
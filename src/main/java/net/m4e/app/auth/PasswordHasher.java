@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Interface for password hashing algorithms, see Passwords.
+ *
+ * A hash is stored in the versioned format "$id$parameters$salt$hash", the id selects the hasher
+ * and the parameters (e.g. the iteration count) allow for raising the cost of new hashes without
+ * invalidating the existing ones.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public interface PasswordHasher {
+
+    /**
+     * Get the hasher id used in the hash format, e.g. "pbkdf2-sha256".
+     *
+     * @return  Hasher id
+     */
+    String getId();
+
+    /**
+     * Create a hash of given password with a random salt using the current cost parameters.
+     *
+     * @param password  Password
+     * @return          Hash in versioned format
+     */
+    String hash(@NotNull String password);
+
+    /**
+     * Check if a password matches to given hash. The hash may have been created with other cost parameters.
+     *
+     * @param password  Password
+     * @param hash      Hash in versioned format
+     * @return          Return true if the password matches, false if not or if the hash is malformed.
+     */
+    boolean verify(@NotNull String password, @NotNull String hash);
+
+    /**
+     * Check if given hash was created with weaker cost parameters than the current ones.
+     *
+     * @param hash      Hash in versioned format
+     * @return          Return true if the password should be hashed again.
+     */
+    boolean needsRehash(@NotNull String hash);
+}
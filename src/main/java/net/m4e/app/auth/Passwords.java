@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.system.core.AppConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.*;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Central place for hashing and verifying the stored user passwords.
+ *
+ * The stored passwords are hashed by a PasswordHasher, new hashes are created by the current hasher
+ * (PBKDF2, see Pbkdf2PasswordHasher). Passwords stored before are legacy hashes: they are the SHA-512
+ * hashes created by the clients, see AuthorityConfig.createPassword. They and hashes with weaker cost
+ * parameters are replaced on next successful login, see needsRehash.
+ *
+ * Older clients can only login with a legacy hash, see UserAuthenticationRestService for the login
+ * protocols. As long as the legacy login is enabled, passwords are stored as legacy hashes and are
+ * not replaced, see isLegacyLogin.
+ *
+ * Hashing is expensive by intention. It runs on the container's managed executor and the count of
+ * pending hash operations is bounded, so a burst of logins is rejected instead of occupying all
+ * request and executor threads.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class Passwords {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Maximal count of pending hash operations, running or waiting for an executor thread
+     */
+    private static final int MAX_PENDING_HASHES = 64;
+
+    /**
+     * Maximal time for waiting on a hash operation
+     */
+    private static final long HASHING_TIMEOUT_SECONDS = 10;
+
+    private final PasswordHasher currentHasher;
+
+    private final Map<String /*hasher id*/, PasswordHasher> hashers;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private final Semaphore pendingHashes;
+
+    private final int maxPendingHashes;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected Passwords() {
+        currentHasher = null;
+        hashers = null;
+        pendingHashes = null;
+        maxPendingHashes = 0;
+    }
+
+    /**
+     * Create the instance with all available password hashers, new hashes are created by PBKDF2.
+     *
+     * @param hashers   Available password hashers
+     */
+    @Inject
+    public Passwords(@NotNull @Any Instance<PasswordHasher> hashers) {
+        this(findHasher(hashers, Pbkdf2PasswordHasher.ID), hashers, null, MAX_PENDING_HASHES);
+    }
+
+    /**
+     * Create the instance.
+     *
+     * @param currentHasher     Hasher used for new hashes
+     * @param hashers           Hashers used for verifying the existing hashes
+     * @param executor          Executor running the hash operations, pass null for the container's managed executor
+     * @param maxPendingHashes  Maximal count of pending hash operations
+     */
+    public Passwords(@NotNull PasswordHasher currentHasher, @NotNull Iterable<PasswordHasher> hashers,
+                     ManagedExecutorService executor, int maxPendingHashes) {
+        this.currentHasher = currentHasher;
+        this.hashers = new HashMap<>();
+        this.hashers.put(currentHasher.getId(), currentHasher);
+        hashers.forEach(hasher -> this.hashers.putIfAbsent(hasher.getId(), hasher));
+        this.executor = executor;
+        this.maxPendingHashes = maxPendingHashes;
+        pendingHashes = new Semaphore(maxPendingHashes);
+    }
+
+    /**
+     * Check if the login of older clients is kept, see AppConfiguration.TOKEN_LEGACY_PASSWORD_LOGIN. If so then
+     * passwords are stored as legacy hashes, so the clients sending no password digest can login. It is enabled
+     * unless it is configured otherwise.
+     *
+     * @return  Return true if passwords are stored as legacy hashes
+     */
+    public boolean isLegacyLogin() {
+        return !"false".equalsIgnoreCase(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_LEGACY_PASSWORD_LOGIN));
+    }
+
+    /**
+     * Check if a stored password is a legacy hash, i.e. the SHA-512 hash created by the client.
+     *
+     * @param storedPassword    Stored password
+     * @return                  Return true if the password is a legacy hash
+     */
+    public boolean isLegacyHash(@NotNull String storedPassword) {
+        return !storedPassword.startsWith("$");
+    }
+
+    /**
+     * Create a hash of given password using the current hasher.
+     *
+     * @param password  Password as sent by the client
+     * @return          Hash to store
+     * @throws Exception    Throws an exception if the hashing threads are busy
+     */
+    public String hash(@NotNull String password) throws Exception {
+        return execute(() -> currentHasher.hash(password));
+    }
+
+    /**
+     * Check if a password matches to given hash created by one of the hashers.
+     *
+     * @param password  Password as sent by the client
+     * @param hash      Stored hash
+     * @return          Return true if the password matches
+     * @throws Exception    Throws an exception if the hashing threads are busy
+     */
+    public boolean verify(@NotNull String password, @NotNull String hash) throws Exception {
+        PasswordHasher hasher = hashers.get(getHasherId(hash));
+        if (hasher == null) {
+            LOGGER.warn("*** No password hasher found for hash type: {}", getHasherId(hash));
+            return false;
+        }
+        return execute(() -> hasher.verify(password, hash));
+    }
+
+    /**
+     * Check if a stored password should be replaced by a hash of the current hasher with current cost parameters.
+     *
+     * @param storedPassword    Stored password
+     * @return                  Return true if the password needs to be hashed again
+     */
+    public boolean needsRehash(@NotNull String storedPassword) {
+        if (isLegacyHash(storedPassword)) {
+            return !isLegacyLogin();
+        }
+        if (!currentHasher.getId().equals(getHasherId(storedPassword))) {
+            return true;
+        }
+        return currentHasher.needsRehash(storedPassword);
+    }
+
+    /**
+     * Get the count of pending hash operations, running or waiting for an executor thread.
+     *
+     * @return  Count of pending hash operations
+     */
+    public int getCountPendingHashes() {
+        return maxPendingHashes - pendingHashes.availablePermits();
+    }
+
+    private <T> T execute(Callable<T> task) throws Exception {
+        if (!pendingHashes.tryAcquire()) {
+            LOGGER.warn("*** Password hashing rejected, too many pending requests");
+            throw new Exception("Password hashing is busy");
+        }
+        try {
+            return await(task);
+        }
+        finally {
+            pendingHashes.release();
+        }
+    }
+
+    private <T> T await(Callable<T> task) throws Exception {
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        }
+        catch (RejectedExecutionException ex) {
+            LOGGER.warn("*** Password hashing rejected by the executor");
+            throw new Exception("Password hashing is busy");
+        }
+        try {
+            return result.get(HASHING_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        catch (TimeoutException ex) {
+            result.cancel(true);
+            throw new Exception("Password hashing timed out");
+        }
+        catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new Exception("Password hashing was interrupted");
+        }
+        catch (ExecutionException ex) {
+            throw new Exception("Problem occurred while hashing a password, reason: " + ex.getCause().getMessage());
+        }
+    }
+
+    private static String getHasherId(String hash) {
+        int end = hash.indexOf('$', 1);
+        return (hash.startsWith("$") && (end > 0)) ? hash.substring(1, end) : "";
+    }
+
+    private static PasswordHasher findHasher(Iterable<PasswordHasher> hashers, String id) {
+        for (PasswordHasher hasher: hashers) {
+            if (hasher.getId().equals(id)) {
+                return hasher;
+            }
+        }
+        throw new IllegalStateException("No password hasher found for: " + id);
+    }
+}
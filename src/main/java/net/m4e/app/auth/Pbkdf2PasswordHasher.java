@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.system.core.AppConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.enterprise.context.ApplicationScoped;
+import java.lang.invoke.MethodHandles;
+import java.security.*;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+
+
+/**
+ * Password hasher using PBKDF2 with HMAC-SHA256. The hash format is "$pbkdf2-sha256$i=ITERATIONS$SALT$HASH"
+ * with Base64 encoded salt and hash.
+ *
+ * The iteration count can be configured by the app parameter with name given by
+ * AppConfiguration.TOKEN_PASSWORD_HASH_ITERATIONS, use calibrateIterations for finding
+ * a count which fits to the hardware.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    public static final String ID = "pbkdf2-sha256";
+
+    /**
+     * Default iteration count, as recommended for PBKDF2-HMAC-SHA256 by OWASP
+     */
+    public static final int DEFAULT_ITERATIONS = 310_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    private static final String PREFIX = "$" + ID + "$i=";
+
+    private static final int SALT_LENGTH = 16;
+
+    private static final int KEY_LENGTH = 32;
+
+    private final int iterations;
+
+    private final SecureRandom random = new SecureRandom();
+
+
+    /**
+     * Create the hasher with the configured iteration count.
+     */
+    public Pbkdf2PasswordHasher() {
+        this(getConfiguredIterations());
+    }
+
+    /**
+     * Create the hasher with given iteration count.
+     *
+     * @param iterations    Iteration count of new hashes
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    /**
+     * Get the iteration count of new hashes.
+     *
+     * @return  Iteration count
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String hash(@NotNull String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" +
+               encoder.encodeToString(derive(password, salt, iterations, KEY_LENGTH));
+    }
+
+    @Override
+    public boolean verify(@NotNull String password, @NotNull String hash) {
+        String[] parts = split(hash);
+        if (parts == null) {
+            return false;
+        }
+        try {
+            int hashIterations = Integer.parseInt(parts[0]);
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            if ((hashIterations < 1) || (expected.length == 0)) {
+                return false;
+            }
+            return MessageDigest.isEqual(expected, derive(password, salt, hashIterations, expected.length));
+        }
+        catch (IllegalArgumentException ex) {
+            LOGGER.warn("*** Malformed password hash, reason: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean needsRehash(@NotNull String hash) {
+        String[] parts = split(hash);
+        if (parts == null) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(parts[0]) < iterations;
+        }
+        catch (NumberFormatException ex) {
+            return true;
+        }
+    }
+
+    /**
+     * Find an iteration count so that hashing a password takes about the given time on this hardware.
+     * The result can be used for configuring the iteration count.
+     *
+     * @param targetMillis  Time a hash may take in milliseconds
+     * @return              Iteration count, at least 1000
+     */
+    public static int calibrateIterations(long targetMillis) {
+        byte[] salt = new byte[SALT_LENGTH];
+        int probeIterations = 10_000;
+        // warm up the key derivation before measuring
+        derive("calibration", salt, probeIterations, KEY_LENGTH);
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            derive("calibration", salt, probeIterations, KEY_LENGTH);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        long iterations = (targetMillis * 1_000_000L * probeIterations) / Math.max(bestNanos, 1);
+        return (int) Math.max(1000, Math.min(iterations, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Split a hash into iterations, salt and hash.
+     */
+    private static String[] split(String hash) {
+        if (!hash.startsWith(PREFIX)) {
+            return null;
+        }
+        String[] parts = hash.substring(PREFIX.length()).split("\\$");
+        return (parts.length == 3) ? parts : null;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations, int keyLength) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, keyLength * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        }
+        catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
+            throw new IllegalStateException("Problem occurred while deriving a password hash, reason: " + ex.getMessage(), ex);
+        }
+        finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static int getConfiguredIterations() {
+        String value = AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_PASSWORD_HASH_ITERATIONS);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            }
+            catch (NumberFormatException ex) {
+                LOGGER.warn("*** Invalid configuration value for {}: {}", AppConfiguration.TOKEN_PASSWORD_HASH_ITERATIONS, value);
+            }
+        }
+        return DEFAULT_ITERATIONS;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.common.Entities;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+
+
+/**
+ * Registry of the role entities. The roles are static (see AppRoles), so their IDs are loaded
+ * once on first use instead of being looked up in database for every user.
+ *
+ * Only the IDs are cached, the role entities are handed out as references of the current
+ * persistence context. Sharing detached role instances would let the user's role relation
+ * persist them again as new roles.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class RoleRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Entities entities;
+
+    private final EntityManager entityManager;
+
+    private volatile Map<String, Long /*role ID*/> roleIds;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected RoleRegistry() {
+        entities = null;
+        entityManager = null;
+    }
+
+    /**
+     * Create the registry.
+     *
+     * @param entities      Entities used for loading the roles
+     * @param entityManager Entity manager used for getting the role references
+     */
+    @Inject
+    public RoleRegistry(@NotNull Entities entities, @NotNull EntityManager entityManager) {
+        this.entities = entities;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Find a role by its name.
+     *
+     * @param name  Role name
+     * @return      A reference to the role in the current persistence context, or null if there is no role with given name
+     */
+    public RoleEntity findRole(@NotNull String name) {
+        Long id = findRoleId(name);
+        return (id != null) ? entityManager.getReference(RoleEntity.class, id) : null;
+    }
+
+    /**
+     * Find the ID of a role by its name.
+     *
+     * @param name  Role name
+     * @return      The role ID, or null if there is no role with given name
+     */
+    public Long findRoleId(@NotNull String name) {
+        Long id = getRoleIds().get(name);
+        // the application roles may be created after the first loading during initial deployment
+        if ((id == null) && (AppRoles.getRolesMask(Collections.singletonList(name)) != 0)) {
+            roleIds = null;
+            id = getRoleIds().get(name);
+        }
+        return id;
+    }
+
+    private Map<String, Long> getRoleIds() {
+        Map<String, Long> current = roleIds;
+        if (current == null) {
+            synchronized (this) {
+                if (roleIds == null) {
+                    Map<String, Long> loaded = new HashMap<>();
+                    for (RoleEntity role: entities.findAll(RoleEntity.class)) {
+                        if (loaded.putIfAbsent(role.getName(), role.getId()) != null) {
+                            LOGGER.warn("*** Role '" + role.getName() + "' exists more than once, taking the first one");
+                        }
+                    }
+                    roleIds = Collections.unmodifiableMap(loaded);
+                    LOGGER.debug("loaded roles: " + loaded.size());
+                }
+                current = roleIds;
+            }
+        }
+        return current;
+    }
+}
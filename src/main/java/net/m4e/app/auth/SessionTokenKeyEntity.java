@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.common.EntityBase;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * A key of the session tokens shared by all nodes of a cluster, see SessionTokenKeys.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Entity
+public class SessionTokenKeyEntity extends EntityBase implements Serializable {
+
+    /**
+     * Serialization version
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Entity's unique ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * Key ID used in the tokens
+     */
+    @Column(unique=true, nullable=false)
+    private String keyId;
+
+    /**
+     * Base64 encoded key secret
+     */
+    @Column(nullable=false)
+    private String secret;
+
+    /**
+     * Time from which on the key signs new tokens (time in milliseconds)
+     */
+    private Long activationTime = 0L;
+
+    /**
+     * Get the entity ID.
+     */
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Set the entity ID.
+     */
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Get the key ID.
+     */
+    public String getKeyId() {
+        return keyId;
+    }
+
+    /**
+     * Set the key ID.
+     */
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    /**
+     * Get the Base64 encoded key secret.
+     */
+    public String getSecret() {
+        return secret;
+    }
+
+    /**
+     * Set the Base64 encoded key secret.
+     */
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    /**
+     * Get the time from which on the key signs new tokens (milliseconds since epoch).
+     */
+    public Long getActivationTime() {
+        return activationTime;
+    }
+
+    /**
+     * Set the time from which on the key signs new tokens (milliseconds since epoch).
+     */
+    public void setActivationTime(Long activationTime) {
+        this.activationTime = activationTime;
+    }
+}
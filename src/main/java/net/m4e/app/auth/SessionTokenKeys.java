@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.common.Entities;
+import net.m4e.system.core.AppConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the keys of the session tokens in the database, so all nodes of a cluster sign and
+ * validate the tokens by the same keys. Every node synchronizes its SessionTokens with the
+ * stored keys periodically, see SessionTokenKeysJob.
+ *
+ * A rotated key starts signing new tokens after ACTIVATION_DELAY, until then all nodes have
+ * picked it up for validation. A key removal takes effect on all nodes after their next
+ * synchronization.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class SessionTokenKeys {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Delay in milliseconds until a rotated key signs new tokens, it must exceed the synchronization interval
+     */
+    public static final long ACTIVATION_DELAY = 2 * 60 * 1000;
+
+    /**
+     * ID of the key created from the configured secret, see AppConfiguration.TOKEN_SESSION_TOKEN_SECRET
+     */
+    static final String SHARED_KEY_ID = "shared";
+
+    private final Entities entities;
+
+    private final SessionTokens sessionTokens;
+
+    private final LongSupplier clock;
+
+    private final SecureRandom random = new SecureRandom();
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected SessionTokenKeys() {
+        entities = null;
+        sessionTokens = null;
+        clock = null;
+    }
+
+    /**
+     * Create the instance for the application's session tokens.
+     *
+     * @param entities  The entities instance
+     */
+    @Inject
+    public SessionTokenKeys(@NotNull Entities entities) {
+        this(entities, AuthorityConfig.getInstance().getSessionTokens(), System::currentTimeMillis);
+    }
+
+    SessionTokenKeys(@NotNull Entities entities, @NotNull SessionTokens sessionTokens, @NotNull LongSupplier clock) {
+        this.entities = entities;
+        this.sessionTokens = sessionTokens;
+        this.clock = clock;
+    }
+
+    /**
+     * Load the stored keys into the session tokens. The newest active key signs new tokens. If no key
+     * was stored yet then the first key is created, out of the configured secret if there is one.
+     */
+    public void synchronize() {
+        List<SessionTokenKeyEntity> keys = getKeys();
+        if (keys.isEmpty()) {
+            String secret = AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_SESSION_TOKEN_SECRET);
+            if ((secret != null) && !secret.isEmpty()) {
+                keys.add(createKey(SHARED_KEY_ID, Base64.getDecoder().decode(secret), 0L));
+            }
+            else {
+                keys.add(createKey(createKeyId(keys), createSecret(), 0L));
+            }
+        }
+
+        Map<String, byte[]> secrets = new LinkedHashMap<>();
+        keys.forEach(key -> secrets.put(key.getKeyId(), Base64.getDecoder().decode(key.getSecret())));
+        sessionTokens.setKeys(secrets, getSigningKey(keys).getKeyId());
+        LOGGER.trace("Session token keys synchronized, signing key: {}", sessionTokens.getSigningKeyId());
+    }
+
+    /**
+     * Create a new key which signs new tokens after ACTIVATION_DELAY. If there are too many keys then the oldest
+     * ones are removed, except the signing key.
+     *
+     * @return  ID of the new key
+     */
+    public String rotateKey() {
+        List<SessionTokenKeyEntity> keys = getKeys();
+        SessionTokenKeyEntity newKey = createKey(createKeyId(keys), createSecret(), clock.getAsLong() + ACTIVATION_DELAY);
+        SessionTokenKeyEntity signingKey = keys.isEmpty() ? newKey : getSigningKey(keys);
+        keys.add(newKey);
+
+        Iterator<SessionTokenKeyEntity> oldest = keys.iterator();
+        int countKeys = keys.size();
+        while (countKeys > SessionTokens.MAX_KEYS) {
+            SessionTokenKeyEntity key = oldest.next();
+            if (key != signingKey) {
+                entities.delete(key);
+                oldest.remove();
+                countKeys--;
+            }
+        }
+        LOGGER.info("Session token key rotated, new key: {}", newKey.getKeyId());
+        synchronize();
+        return newKey.getKeyId();
+    }
+
+    /**
+     * Remove a key, all tokens signed by it become invalid. The signing key and the keys which are not active yet
+     * cannot be removed.
+     *
+     * @param keyId Key ID
+     * @return      Return false if the key does not exist, is the signing key or is not active yet
+     */
+    public boolean removeKey(@NotNull String keyId) {
+        List<SessionTokenKeyEntity> keys = getKeys();
+        Optional<SessionTokenKeyEntity> key = keys.stream().filter(k -> k.getKeyId().equals(keyId)).findFirst();
+        if (!key.isPresent() || (key.get() == getSigningKey(keys)) || (key.get().getActivationTime() > clock.getAsLong())) {
+            return false;
+        }
+        entities.delete(key.get());
+        LOGGER.info("Session token key removed: {}", keyId);
+        synchronize();
+        return true;
+    }
+
+    /**
+     * Get all stored keys, from oldest to newest.
+     *
+     * @return  Stored keys
+     */
+    public List<SessionTokenKeyEntity> getKeys() {
+        return entities.findAll(SessionTokenKeyEntity.class).stream()
+                .sorted(Comparator.comparing(SessionTokenKeyEntity::getActivationTime).thenComparing(SessionTokenKeyEntity::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the key signing new tokens, it is the newest active key. If no key is active yet then it is the oldest key.
+     */
+    private SessionTokenKeyEntity getSigningKey(List<SessionTokenKeyEntity> keys) {
+        long now = clock.getAsLong();
+        SessionTokenKeyEntity signingKey = keys.get(0);
+        for (SessionTokenKeyEntity key: keys) {
+            if (key.getActivationTime() <= now) {
+                signingKey = key;
+            }
+        }
+        return signingKey;
+    }
+
+    private SessionTokenKeyEntity createKey(String keyId, byte[] secret, long activationTime) {
+        SessionTokenKeyEntity key = new SessionTokenKeyEntity();
+        key.setKeyId(keyId);
+        key.setSecret(Base64.getEncoder().encodeToString(secret));
+        key.setActivationTime(activationTime);
+        entities.create(key);
+        return key;
+    }
+
+    private String createKeyId(List<SessionTokenKeyEntity> keys) {
+        Set<String> keyIds = keys.stream().map(SessionTokenKeyEntity::getKeyId).collect(Collectors.toSet());
+        String keyId;
+        do {
+            keyId = "k" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36);
+        } while (keyIds.contains(keyId));
+        return keyId;
+    }
+
+    private byte[] createSecret() {
+        byte[] secret = new byte[SessionTokens.KEY_LENGTH];
+        random.nextBytes(secret);
+        return secret;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.slf4j.*;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+
+
+/**
+ * Periodically loads the session token keys stored in the database, this picks up the
+ * key rotations and removals made on other nodes. It runs only if the stateless
+ * authentication is enabled.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Singleton
+@Startup
+public class SessionTokenKeysJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final SessionTokenKeys sessionTokenKeys;
+
+    /**
+     * EJB's default constructor.
+     */
+    protected SessionTokenKeysJob() {
+        sessionTokenKeys = null;
+    }
+
+    /**
+     * Create the bean.
+     *
+     * @param sessionTokenKeys  The stored session token keys
+     */
+    @Inject
+    public SessionTokenKeysJob(SessionTokenKeys sessionTokenKeys) {
+        this.sessionTokenKeys = sessionTokenKeys;
+    }
+
+    /**
+     * Load the keys on startup, before any token is issued.
+     */
+    @PostConstruct
+    public void init() {
+        synchronize();
+    }
+
+    /**
+     * Load the keys, the interval must be shorter than SessionTokenKeys.ACTIVATION_DELAY.
+     */
+    @Schedule(hour="*", minute="*", persistent=false)
+    public void synchronize() {
+        if (!AuthorityConfig.getInstance().isStatelessAuth()) {
+            return;
+        }
+        try {
+            sessionTokenKeys.synchronize();
+        }
+        catch (RuntimeException ex) {
+            LOGGER.warn("*** Could not synchronize the session token keys, reason: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Issues and validates stateless session tokens. A token carries the user ID, the roles mask (see AppRoles),
+ * the issue and the expiry time, and it is signed by HMAC-SHA256. So it can be validated without any HTTP
+ * session, and on any node which knows the signing key. The issue time is checked against the user's
+ * "tokens valid after" time on use, see AuthorityConfig.getTokenUser.
+ *
+ * Token format: "KEY_ID.KIND.USER_ID.ROLES_MASK.ISSUED.EXPIRY.SIGNATURE" with the issue time in milliseconds,
+ * the expiry in seconds since epoch and the Base64URL encoded signature of the part before it. The kind
+ * separates the session tokens from the WebSocket handshake tickets, see issueTicket.
+ *
+ * Keys are rotated by rotateKey: new tokens are signed by the new key, the tokens signed by the
+ * previous keys stay valid until they expire or their key is removed. Nodes of a cluster must share
+ * their keys, see SessionTokenKeys and setKeys.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class SessionTokens {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * Maximal count of keys, the oldest key is removed on rotation
+     */
+    public static final int MAX_KEYS = 3;
+
+    /**
+     * Length of random key secrets in bytes
+     */
+    public static final int KEY_LENGTH = 32;
+
+    /**
+     * Lifetime of WebSocket handshake tickets in seconds
+     */
+    public static final long TICKET_LIFETIME = 30;
+
+    private static final String KIND_TOKEN = "t";
+
+    private static final String KIND_TICKET = "w";
+
+    private static final ThreadLocal<Mac> MACS = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    });
+
+    /**
+     * Provides the current time in seconds since epoch
+     */
+    private final LongSupplier clock;
+
+    private final LongSupplier clockMillis;
+
+    private final long lifetimeSeconds;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Keys by their IDs in order of their creation, the map is replaced on every change
+     */
+    private volatile LinkedHashMap<String, SecretKeySpec> keys = new LinkedHashMap<>();
+
+    private volatile String signingKeyId;
+
+    /**
+     * Signatures of the used tickets with their expiry, a ticket can be used only once
+     */
+    private final Map<String, Long> usedTickets = new ConcurrentHashMap<>();
+
+
+    /**
+     * Create the token issuer with a random signing key.
+     *
+     * @param lifetimeSeconds   Lifetime of new tokens in seconds
+     */
+    public SessionTokens(long lifetimeSeconds) {
+        this(lifetimeSeconds, System::currentTimeMillis);
+    }
+
+    SessionTokens(long lifetimeSeconds, @NotNull LongSupplier clockMillis) {
+        this.lifetimeSeconds = lifetimeSeconds;
+        this.clockMillis = clockMillis;
+        this.clock = () -> clockMillis.getAsLong() / 1000;
+        rotateKey();
+    }
+
+    /**
+     * Create a new random signing key. The previous keys are kept for validating the tokens signed by them,
+     * if there are too many keys then the oldest one is removed.
+     *
+     * @return  ID of the new key
+     */
+    public synchronized String rotateKey() {
+        byte[] secret = new byte[KEY_LENGTH];
+        random.nextBytes(secret);
+        // random IDs, so the keys created on different nodes do not clash
+        String keyId;
+        do {
+            keyId = "k" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36);
+        } while (keys.containsKey(keyId));
+        addKey(keyId, secret, true);
+        return keyId;
+    }
+
+    /**
+     * Add a key, e.g. a key shared by all nodes of a cluster. A key with the same ID is replaced.
+     *
+     * @param keyId     Key ID consisting of letters and digits
+     * @param secret    Key secret, at least 16 bytes
+     * @param signing   Pass true for signing new tokens by this key
+     */
+    public synchronized void addKey(@NotNull String keyId, @NotNull byte[] secret, boolean signing) {
+        SecretKeySpec key = createKey(keyId, secret);
+        LinkedHashMap<String, SecretKeySpec> newKeys = new LinkedHashMap<>(keys);
+        newKeys.remove(keyId);
+        newKeys.put(keyId, key);
+        Iterator<String> oldest = newKeys.keySet().iterator();
+        while (newKeys.size() > MAX_KEYS) {
+            String id = oldest.next();
+            if (!id.equals(keyId) && !id.equals(signingKeyId)) {
+                oldest.remove();
+            }
+        }
+        keys = newKeys;
+        if (signing) {
+            signingKeyId = keyId;
+        }
+        LOGGER.debug("Session token key added: {}, signing: {}", keyId, signing);
+    }
+
+    /**
+     * Replace all keys, e.g. by the keys shared by all nodes of a cluster.
+     *
+     * @param secrets       Key secrets by their IDs, from oldest to newest
+     * @param signingKeyId  ID of the key signing new tokens, it must be one of the given keys
+     */
+    public synchronized void setKeys(@NotNull Map<String, byte[]> secrets, @NotNull String signingKeyId) {
+        if (!secrets.containsKey(signingKeyId)) {
+            throw new IllegalArgumentException("Unknown signing key: " + signingKeyId);
+        }
+        LinkedHashMap<String, SecretKeySpec> newKeys = new LinkedHashMap<>();
+        secrets.forEach((keyId, secret) -> newKeys.put(keyId, createKey(keyId, secret)));
+        keys = newKeys;
+        this.signingKeyId = signingKeyId;
+    }
+
+    private static SecretKeySpec createKey(String keyId, byte[] secret) {
+        if (keyId.isEmpty() || !keyId.chars().allMatch(Character::isLetterOrDigit)) {
+            throw new IllegalArgumentException("Invalid session token key ID: " + keyId);
+        }
+        if (secret.length < 16) {
+            throw new IllegalArgumentException("Session token key is too short");
+        }
+        return new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    /**
+     * Remove a key, all tokens signed by it become invalid. The signing key cannot be removed.
+     *
+     * @param keyId Key ID
+     * @return      Return false if the key does not exist or if it is the signing key
+     */
+    public synchronized boolean removeKey(@NotNull String keyId) {
+        if (keyId.equals(signingKeyId) || !keys.containsKey(keyId)) {
+            return false;
+        }
+        LinkedHashMap<String, SecretKeySpec> newKeys = new LinkedHashMap<>(keys);
+        newKeys.remove(keyId);
+        keys = newKeys;
+        return true;
+    }
+
+    /**
+     * Get the IDs of all keys, from oldest to newest.
+     *
+     * @return  Key IDs
+     */
+    public List<String> getKeyIds() {
+        return new ArrayList<>(keys.keySet());
+    }
+
+    /**
+     * Get the ID of the key signing new tokens.
+     *
+     * @return  Signing key ID
+     */
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    /**
+     * Issue a token for a user.
+     *
+     * @param userId    User ID
+     * @param rolesMask User's roles mask, see AppRoles
+     * @return          Signed token
+     */
+    public String issue(long userId, int rolesMask) {
+        return issue(KIND_TOKEN, userId, rolesMask, lifetimeSeconds);
+    }
+
+    /**
+     * Issue a WebSocket handshake ticket for a user. Browsers cannot set headers on WebSocket handshakes,
+     * so the ticket is sent as query parameter and may end up in access logs. It expires after
+     * TICKET_LIFETIME seconds and can be used only once on a node, see validateTicket.
+     *
+     * @param userId    User ID
+     * @param rolesMask User's roles mask, see AppRoles
+     * @return          Signed ticket
+     */
+    public String issueTicket(long userId, int rolesMask) {
+        return issue(KIND_TICKET, userId, rolesMask, TICKET_LIFETIME);
+    }
+
+    /**
+     * Validate a token.
+     *
+     * @param token Token
+     * @return      The token content, or null if the token is malformed, has an invalid signature or is expired.
+     */
+    public SessionToken validate(String token) {
+        return validate(KIND_TOKEN, token);
+    }
+
+    /**
+     * Validate a WebSocket handshake ticket and mark it as used.
+     *
+     * @param ticket    Ticket
+     * @return          The ticket content, or null if the ticket is invalid, expired or was used before.
+     */
+    public SessionToken validateTicket(String ticket) {
+        SessionToken sessionToken = validate(KIND_TICKET, ticket);
+        if (sessionToken == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        usedTickets.values().removeIf(expiry -> expiry <= now);
+        if (usedTickets.putIfAbsent(ticket.substring(ticket.lastIndexOf('.') + 1), sessionToken.getExpiry()) != null) {
+            LOGGER.debug("WebSocket ticket was used before");
+            return null;
+        }
+        return sessionToken;
+    }
+
+    private String issue(String kind, long userId, int rolesMask, long lifetime) {
+        String keyId = signingKeyId;
+        String payload = keyId + "." + kind + "." + userId + "." + rolesMask + "." + clockMillis.getAsLong() + "." + (clock.getAsLong() + lifetime);
+        return payload + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(keys.get(keyId), payload));
+    }
+
+    private SessionToken validate(String kind, String token) {
+        if (token == null) {
+            return null;
+        }
+        int keyEnd = token.indexOf('.');
+        int signatureStart = token.lastIndexOf('.') + 1;
+        if ((keyEnd <= 0) || (signatureStart <= keyEnd + 1)) {
+            return null;
+        }
+        SecretKeySpec key = keys.get(token.substring(0, keyEnd));
+        if (key == null) {
+            LOGGER.debug("Session token with unknown key");
+            return null;
+        }
+
+        String payload = token.substring(0, signatureStart - 1);
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(signatureStart));
+        }
+        catch (IllegalArgumentException ex) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(signature, sign(key, payload))) {
+            LOGGER.debug("Session token with invalid signature");
+            return null;
+        }
+
+        String[] fields = payload.split("\\.");
+        if ((fields.length != 6) || !fields[1].equals(kind)) {
+            return null;
+        }
+        try {
+            SessionToken sessionToken = new SessionToken(Long.parseLong(fields[2]), Integer.parseInt(fields[3]),
+                    Long.parseLong(fields[4]), Long.parseLong(fields[5]));
+            return (sessionToken.getExpiry() > clock.getAsLong()) ? sessionToken : null;
+        }
+        catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static byte[] sign(SecretKeySpec key, String payload) {
+        Mac mac = MACS.get();
+        try {
+            mac.init(key);
+        }
+        catch (InvalidKeyException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+        return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Content of a valid token.
+     */
+    public static final class SessionToken {
+
+        private final long userId;
+
+        private final int rolesMask;
+
+        private final long issued;
+
+        private final long expiry;
+
+        public SessionToken(final long userId, final int rolesMask, final long issued, final long expiry) {
+            this.userId = userId;
+            this.rolesMask = rolesMask;
+            this.issued = issued;
+            this.expiry = expiry;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        /**
+         * Get the roles mask of the user at the time the token was issued, see AppRoles.
+         */
+        public int getRolesMask() {
+            return rolesMask;
+        }
+
+        /**
+         * Get the issue time in milliseconds since epoch.
+         */
+        public long getIssued() {
+            return issued;
+        }
+
+        /**
+         * Get the expiry time in seconds since epoch.
+         */
+        public long getExpiry() {
+            return expiry;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.*;
+
+/**
+ * Small cache of the times before which the session tokens of a user are revoked, see
+ * UserEntity.getTokensValidAfter. It lets a session token be checked on every request without
+ * loading its user.
+ *
+ * A time is loaded on first use and reloaded after REFRESH_INTERVAL, so a revocation on another
+ * node of a cluster takes effect after that time at the latest. A revocation on this node takes
+ * effect at once, see revoke.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class TokenRevocations {
+
+    /**
+     * Time in milliseconds after which a cached time is reloaded
+     */
+    public static final long REFRESH_INTERVAL = 60 * 1000;
+
+    /**
+     * Maximal count of cached users, the expired entries are dropped when it is exceeded
+     */
+    static final int MAX_ENTRIES = 10_000;
+
+    /**
+     * Loaded for a user who does not exist or is not active, all tokens of the user are revoked
+     */
+    public static final long ALL_REVOKED = Long.MAX_VALUE;
+
+    private final LongUnaryOperator loader;
+
+    private final LongSupplier clock;
+
+    private final Map<Long /*user ID*/, Entry> entries = new ConcurrentHashMap<>();
+
+
+    /**
+     * Create the cache.
+     *
+     * @param loader    Loads the time in milliseconds before which the tokens of a user are revoked, or ALL_REVOKED
+     * @param clock     Current time in milliseconds
+     */
+    public TokenRevocations(@NotNull LongUnaryOperator loader, @NotNull LongSupplier clock) {
+        this.loader = loader;
+        this.clock = clock;
+    }
+
+    /**
+     * Check if the tokens of a user issued at given time are revoked.
+     *
+     * @param userId    User ID
+     * @param issued    Issue time of the token in milliseconds
+     * @return          Return true if the token is revoked
+     */
+    public boolean isRevoked(long userId, long issued) {
+        long now = clock.getAsLong();
+        Entry entry = entries.get(userId);
+        if ((entry == null) || (entry.loaded + REFRESH_INTERVAL < now)) {
+            if (entries.size() >= MAX_ENTRIES) {
+                evict(now);
+            }
+            entry = new Entry(loader.applyAsLong(userId), now);
+            entries.put(userId, entry);
+        }
+        return issued <= entry.validAfter;
+    }
+
+    /**
+     * Revoke the tokens of a user issued until given time on this node. The time must also be stored in the user.
+     *
+     * @param userId        User ID
+     * @param validAfter    Time in milliseconds until which the tokens are revoked
+     */
+    public void revoke(long userId, long validAfter) {
+        entries.merge(userId, new Entry(validAfter, clock.getAsLong()),
+                (current, revoked) -> (current.validAfter > revoked.validAfter) ? new Entry(current.validAfter, revoked.loaded) : revoked);
+    }
+
+    /**
+     * Drop all cached times.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Get the count of cached users.
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.loaded + REFRESH_INTERVAL < now);
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.clear();
+        }
+    }
+
+    private static final class Entry {
+
+        private final long validAfter;
+
+        private final long loaded;
+
+        Entry(final long validAfter, final long loaded) {
+            this.validAfter = validAfter;
+            this.loaded = loaded;
+        }
+    }
+}
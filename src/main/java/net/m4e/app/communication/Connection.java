@@ -19,6 +19,7 @@ import javax.websocket.*;
 import javax.websocket.server.ServerEndpoint;
 
 import net.m4e.app.auth.AuthorityConfig;
+import net.m4e.app.auth.SessionTokens;
 import net.m4e.app.user.business.UserEntity;
 import net.m4e.system.core.AppConfiguration;
 import org.slf4j.Logger;
@@ -64,15 +65,22 @@ public class Connection {
     @OnOpen
     public void open(Session session, EndpointConfig config) throws IOException, EncodeException {
         LOGGER.trace("new client connected, id: {}", session.getId());
-        HttpSession httpSession = (HttpSession) config.getUserProperties().get(ConnectionConfigurator.KEY_HTTP_SESSION);
-        if (httpSession == null) {
-            // close the connection, no http session exists
-            LOGGER.debug("closing websocket connection, no session was established before");
-            CloseReason reason = new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "No HTTP session exists.");
-            session.close(reason);
-            return;
+        SessionTokens.SessionToken sessionToken = (SessionTokens.SessionToken) config.getUserProperties().get(ConnectionConfigurator.KEY_SESSION_TOKEN);
+        if (sessionToken != null) {
+            // the token was validated on handshake, no HTTP session is needed
+            user = AuthorityConfig.getInstance().getTokenUser(sessionToken);
+        }
+        else {
+            HttpSession httpSession = (HttpSession) config.getUserProperties().get(ConnectionConfigurator.KEY_HTTP_SESSION);
+            if (httpSession == null) {
+                // close the connection, no http session exists
+                LOGGER.debug("closing websocket connection, no session was established before");
+                CloseReason reason = new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "No HTTP session exists.");
+                session.close(reason);
+                return;
+            }
+            user = AuthorityConfig.getInstance().getSessionUser(httpSession);
         }
-        user = AuthorityConfig.getInstance().getSessionUser(httpSession);
         if (user == null) {
             // close the connection, user is not authorized
             LOGGER.debug("closing websocket connection, user was not authenticated before");
@@ -7,13 +7,22 @@
  */
 package net.m4e.app.communication;
 
+import net.m4e.app.auth.*;
+
 import javax.websocket.HandshakeResponse;
 import javax.websocket.server.HandshakeRequest;
 import javax.websocket.server.ServerEndpointConfig;
+import java.util.List;
 
 /**
  * This configurator is used for making the HTTP session available to the WebSocket
- * endpoint Connection.
+ * endpoint Connection. If the stateless authentication is enabled then a session token
+ * sent by the client is validated already during the handshake.
+ *
+ * Browsers cannot set headers on WebSocket handshakes, so they send a one-time ticket as query
+ * parameter instead of the session token, see UserAuthenticationRestService.webSocketTicket.
+ * Query parameters end up in access logs, but a logged ticket is of no use: it expires after
+ * a few seconds and is accepted only once.
  * 
  * @author boto
  * Date of creation Oct 3, 2017
@@ -26,7 +35,17 @@ public class ConnectionConfigurator extends ServerEndpointConfig.Configurator {
     public final static String KEY_HTTP_SESSION = "httpSession";
 
     /**
-     * Intercept in handshaking and store the HTTP session in user properties.
+     * User property key for storing the validated session token
+     */
+    public final static String KEY_SESSION_TOKEN = "sessionToken";
+
+    /**
+     * Query parameter carrying the WebSocket ticket, see SessionTokens.issueTicket
+     */
+    public final static String PARAM_TICKET = "ticket";
+
+    /**
+     * Intercept in handshaking and store the HTTP session and the session token in user properties.
      * 
      * @param endpointConfig
      * @param request
@@ -35,5 +54,29 @@ public class ConnectionConfigurator extends ServerEndpointConfig.Configurator {
     @Override
     public void modifyHandshake(ServerEndpointConfig endpointConfig, HandshakeRequest request, HandshakeResponse response) {
         endpointConfig.getUserProperties().put(KEY_HTTP_SESSION, request.getHttpSession());
+
+        SessionTokens.SessionToken sessionToken = null;
+        AuthorityConfig authorityConfig = AuthorityConfig.getInstance();
+        if (authorityConfig.isStatelessAuth()) {
+            sessionToken = validateSessionToken(authorityConfig.getSessionTokens(), request);
+        }
+        if (sessionToken != null) {
+            endpointConfig.getUserProperties().put(KEY_SESSION_TOKEN, sessionToken);
+        }
+        else {
+            endpointConfig.getUserProperties().remove(KEY_SESSION_TOKEN);
+        }
+    }
+
+    /**
+     * Validate the session token of the header "Authorization: Bearer TOKEN", or the ticket query parameter.
+     */
+    private SessionTokens.SessionToken validateSessionToken(SessionTokens sessionTokens, HandshakeRequest request) {
+        List<String> authorization = request.getHeaders().get(AuthFilter.HEADER_AUTHORIZATION);
+        if ((authorization != null) && !authorization.isEmpty() && authorization.get(0).startsWith(AuthFilter.AUTHORIZATION_BEARER)) {
+            return sessionTokens.validate(authorization.get(0).substring(AuthFilter.AUTHORIZATION_BEARER.length()));
+        }
+        List<String> ticket = request.getParameterMap().get(PARAM_TICKET);
+        return ((ticket != null) && !ticket.isEmpty()) ? sessionTokens.validateTicket(ticket.get(0)) : null;
     }
 }
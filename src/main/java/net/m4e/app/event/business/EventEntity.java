@@ -22,6 +22,71 @@ import java.util.Collection;
  * Date of creation Aug 18, 2017
  */
 @Entity
+@NamedQueries({
+    /**
+     * Find the IDs of all members of an event without loading the member entities.
+     *
+     * Query parameters:
+     *
+     * eventId                  The event ID
+     */
+    @NamedQuery(
+      name = "EventEntity.findMemberIds",
+      query = "SELECT member.id FROM EventEntity event JOIN event.members member WHERE event.id = :eventId"
+    ),
+    /**
+     * Count the membership of a user in an event, the result is 0 or 1. It uses the index of the
+     * event member join table.
+     *
+     * Query parameters:
+     *
+     * eventId                  The event ID
+     * memberId                 The user ID
+     */
+    @NamedQuery(
+      name = "EventEntity.countMember",
+      query = "SELECT COUNT(member.id) FROM EventEntity event JOIN event.members member WHERE event.id = :eventId AND member.id = :memberId"
+    ),
+    /**
+     * Find a location of an event without loading the other event locations.
+     *
+     * Query parameters:
+     *
+     * eventId                  The event ID
+     * locationId               The location ID
+     */
+    @NamedQuery(
+      name = "EventEntity.findLocation",
+      query = "SELECT location FROM EventEntity event JOIN event.locations location WHERE event.id = :eventId AND location.id = :locationId"
+    ),
+    /**
+     * Find the event ID and coordinates of all active locations which have coordinates.
+     * The result rows are: event ID, location ID, latitude, longitude
+     */
+    @NamedQuery(
+      name = "EventEntity.findLocationCoordinates",
+      query = "SELECT event.id, location.id, location.latitude, location.longitude FROM EventEntity event JOIN event.locations location WHERE location.latitude IS NOT NULL AND location.longitude IS NOT NULL AND location.status.dateDeletion = 0"
+    ),
+    /**
+     * Find the event a location belongs to.
+     *
+     * Query parameters:
+     *
+     * locationId               The location ID
+     */
+    @NamedQuery(
+      name = "EventEntity.findLocationEventId",
+      query = "SELECT event.id FROM EventEntity event JOIN event.locations location WHERE location.id = :locationId"
+    ),
+    /**
+     * Find the timing of all active events without loading the event entities.
+     * The result rows are: event ID, event start, repeat week days, repeat day time, voting time begin
+     */
+    @NamedQuery(
+      name = "EventEntity.findActiveTimings",
+      query = "SELECT event.id, event.eventStart, event.repeatWeekDays, event.repeatDayTime, event.votingTimeBegin FROM EventEntity event WHERE event.status.enabled = TRUE AND event.status.dateDeletion = 0 AND event.status.dateBan = 0"
+    )
+})
 public class EventEntity extends EntityBase implements Serializable, EntityWithPhoto {
 
     /**
@@ -67,6 +132,10 @@ public class EventEntity extends EntityBase implements Serializable, EntityWithP
      * Event members
      */
     @OneToMany(targetEntity=UserEntity.class, cascade = {CascadeType.REFRESH, CascadeType.DETACH})
+    @JoinTable(name = "EVENTENTITY_USERENTITY",
+               joinColumns = @JoinColumn(name = "EventEntity_ID"),
+               inverseJoinColumns = @JoinColumn(name = "members_ID"),
+               indexes = @Index(name = "IDX_EVENTMEMBER_EVENT_MEMBER", columnList = "EventEntity_ID, members_ID"))
     private Collection<UserEntity> members;
 
     /**
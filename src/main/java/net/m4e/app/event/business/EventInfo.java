@@ -180,17 +180,78 @@ public class EventInfo {
 
     @JsonbTransient
     public static EventInfo fromEventEntity(@NotNull EventEntity eventEntity, @NotNull ConnectedClients connectedClients, @NotNull Users users) {
+        return createSnapshot(eventEntity, users).withOnlineStatus(connectedClients);
+    }
+
+    /**
+     * Create an event info out of given entity without the volatile online status fields of
+     * owner and members. The returned snapshot is meant to be cached and must not be modified,
+     * use withOnlineStatus for getting a complete event info out of it.
+     */
+    @JsonbTransient
+    public static EventInfo createSnapshot(@NotNull EventEntity eventEntity, @NotNull Users users) {
         EventInfo eventInfo = new EventInfo();
 
         //! NOTE we cannot take setupEventXXX as method name as JSON-B does not like it (because of beginning "set").
         createEventInfo(eventInfo, eventEntity);
-        createEventMembers(eventInfo, eventEntity, connectedClients);
-        createEventOwnership(eventInfo, eventEntity, users, connectedClients);
+        createEventMembers(eventInfo, eventEntity);
+        createEventOwnership(eventInfo, eventEntity, users);
         createEventLocations(eventInfo, eventEntity);
 
+        eventInfo.setMembers(Collections.unmodifiableList(eventInfo.getMembers()));
+        eventInfo.setLocations(Collections.unmodifiableList(eventInfo.getLocations()));
+
         return eventInfo;
     }
 
+    /**
+     * Create a copy of this event info and patch in the current online status of owner and members.
+     * The member entries are copied, all other fields are shared with this instance.
+     */
+    @JsonbTransient
+    public EventInfo withOnlineStatus(@NotNull final ConnectedClients connectedClients) {
+        EventInfo eventInfo = new EventInfo();
+        eventInfo.setId(id);
+        eventInfo.setName(name);
+        eventInfo.setDescription(description);
+        eventInfo.setPublic(isPublic);
+        eventInfo.setPhotoId(photoId);
+        eventInfo.setPhotoETag(photoETag);
+        eventInfo.setEventStart(eventStart);
+        eventInfo.setRepeatDayTime(repeatDayTime);
+        eventInfo.setRepeatWeekDays(repeatWeekDays);
+        eventInfo.setVotingTimeBegin(votingTimeBegin);
+        eventInfo.setLocations(locations);
+        eventInfo.setOwnerId(ownerId);
+        eventInfo.setOwnerName(ownerName);
+        eventInfo.setOwnerPhotoId(ownerPhotoId);
+        eventInfo.setOwnerPhotoETag(ownerPhotoETag);
+        eventInfo.setOwnerStatus(getOnlineStatus(ownerId, connectedClients));
+
+        List<EventMember> onlineMembers = new ArrayList<>(members.size());
+        for (EventMember member: members) {
+            EventMember onlineMember = new EventMember();
+            onlineMember.setId(member.getId());
+            onlineMember.setName(member.getName());
+            onlineMember.setPhotoId(member.getPhotoId());
+            onlineMember.setPhotoETag(member.getPhotoETag());
+            onlineMember.setStatus(getOnlineStatus(member.getId(), connectedClients));
+            onlineMembers.add(onlineMember);
+        }
+        eventInfo.setMembers(onlineMembers);
+
+        return eventInfo;
+    }
+
+    @JsonbTransient
+    private static EventMember.OnlineStatus getOnlineStatus(final String userId, @NotNull final ConnectedClients connectedClients) {
+        if ((userId == null) || userId.isEmpty()) {
+            return EventMember.OnlineStatus.offline;
+        }
+        boolean online = (connectedClients.getConnectedUser(Long.valueOf(userId)) != null);
+        return online ? EventMember.OnlineStatus.online : EventMember.OnlineStatus.offline;
+    }
+
     @JsonbTransient
     private static void createEventInfo(@NotNull EventInfo eventInfo, @NotNull final EventEntity eventEntity) {
         eventInfo.setId("" + eventEntity.getId());
@@ -207,8 +268,7 @@ public class EventInfo {
 
     @JsonbTransient
     private static void createEventMembers(@NotNull EventInfo eventInfo,
-                                           @NotNull final EventEntity eventEntity,
-                                           @NotNull final ConnectedClients connectedClients) {
+                                           @NotNull final EventEntity eventEntity) {
         eventInfo.setMembers(new ArrayList<>());
         if (eventEntity.getMembers() != null) {
             eventEntity.getMembers()
@@ -220,8 +280,6 @@ public class EventInfo {
                         eventMember.setName(member.getName());
                         eventMember.setPhotoId((member.getPhoto() != null) ? member.getPhoto().getId().toString() : "");
                         eventMember.setPhotoETag((member.getPhoto() != null) ? member.getPhoto().getETag() : "");
-                        boolean online = (connectedClients.getConnectedUser(member.getId()) != null);
-                        eventMember.setStatus(online ? EventMember.OnlineStatus.online : EventMember.OnlineStatus.offline);
                         return eventMember;
                     })
                     .forEach(member -> eventInfo.getMembers().add(member));
@@ -231,16 +289,13 @@ public class EventInfo {
     @JsonbTransient
     private static void createEventOwnership(@NotNull EventInfo eventInfo,
                                              @NotNull final EventEntity eventEntity,
-                                             @NotNull final Users users,
-                                             @NotNull final ConnectedClients connectedClients) {
+                                             @NotNull final Users users) {
         String ownerName, ownerPhotoETag;
         Long ownerPhotoId;
         Long ownerId = eventEntity.getStatus().getIdOwner();
         UserEntity owner = users.findUser(ownerId);
-        boolean ownerOnline;
 
         if ((owner == null) || !owner.getStatus().getIsActive()) {
-            ownerOnline = false;
             ownerId = 0L;
             ownerName = "";
             ownerPhotoId = 0L;
@@ -250,14 +305,12 @@ public class EventInfo {
             ownerName = owner.getName();
             ownerPhotoId = (owner.getPhoto() != null) ? owner.getPhoto().getId() : 0L;
             ownerPhotoETag = (owner.getPhoto() != null) ? owner.getPhoto().getETag() : "";
-            ownerOnline = (connectedClients.getConnectedUser(owner.getId()) != null);
         }
 
         eventInfo.setOwnerId((ownerId > 0)? ownerId.toString() : "");
         eventInfo.setOwnerName(ownerName);
         eventInfo.setOwnerPhotoId((ownerPhotoId > 0)? ownerPhotoId.toString() : "");
         eventInfo.setOwnerPhotoETag(ownerPhotoETag);
-        eventInfo.setOwnerStatus(ownerOnline ? EventMember.OnlineStatus.online : EventMember.OnlineStatus.offline);
     }
 
     @JsonbTransient
@@ -274,6 +327,8 @@ public class EventInfo {
                     eventLocation.setDescription(location.getDescription());
                     eventLocation.setPhotoId(location.getPhoto() != null ? location.getPhoto().getId().toString() : "");
                     eventLocation.setPhotoETag(location.getPhoto() != null ? location.getPhoto().getETag() : "");
+                    eventLocation.setLatitude(location.getLatitude());
+                    eventLocation.setLongitude(location.getLongitude());
 
                     return eventLocation;
                 })
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.app.event.rest.comm.*;
+import net.m4e.common.TransactionCallbacks;
+import org.jetbrains.annotations.NotNull;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.*;
+
+
+/**
+ * An in-memory view of exported events. It holds an EventInfo snapshot for every event which
+ * was exported before, excluding the volatile online status of owner and members. Those are
+ * patched in on every read (see EventInfo.withOnlineStatus).
+ *
+ * The view is maintained incrementally: every mutation of an event, its locations or one of its
+ * members drops the affected snapshots, they are rebuilt on next export. The snapshots are dropped
+ * again after the mutating transaction was committed, so a snapshot built from the data before
+ * the commit does not survive it.
+ *
+ * The view is bounded in size, and snapshots expire after SNAPSHOT_LIFETIME.
+ *
+ * NOTE: The view is local to the node, it is not shared in a cluster. Mutations on other nodes
+ *       become visible when the snapshots expire.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class EventInfoCache {
+
+    /**
+     * Maximal count of snapshots
+     */
+    public static final int MAX_SNAPSHOTS = 10_000;
+
+    /**
+     * Lifetime of a snapshot in milliseconds
+     */
+    public static final long SNAPSHOT_LIFETIME = 5 * 60 * 1000L;
+
+    private final TransactionCallbacks transactionCallbacks;
+
+    /**
+     * Provides the current time in milliseconds
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Event info snapshots (without online status)
+     */
+    private final ConcurrentMap<Long /*event ID*/, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Lookup for finding the event of a location, used when a location is updated
+     */
+    private final ConcurrentMap<Long /*location ID*/, Long /*event ID*/> locationEvents = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every invalidation. A snapshot which was built while an invalidation happened
+     * may contain stale data and is not stored.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected EventInfoCache() {
+        transactionCallbacks = null;
+        clock = null;
+    }
+
+    /**
+     * Create the instance.
+     *
+     * @param transactionCallbacks  Used for invalidating snapshots after commit
+     */
+    @Inject
+    public EventInfoCache(@NotNull TransactionCallbacks transactionCallbacks) {
+        this(transactionCallbacks, System::currentTimeMillis);
+    }
+
+    EventInfoCache(@NotNull TransactionCallbacks transactionCallbacks, @NotNull LongSupplier clock) {
+        this.transactionCallbacks = transactionCallbacks;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the snapshot of given event. If there is no valid snapshot then a new one is created by given
+     * builder and stored.
+     *
+     * @param eventId   Event ID
+     * @param builder   Used for creating a new snapshot if needed
+     * @return          Event info snapshot, it must not be modified.
+     */
+    public EventInfo getOrCreate(@NotNull Long eventId, @NotNull Supplier<EventInfo> builder) {
+        long now = clock.getAsLong();
+        Snapshot snapshot = snapshots.get(eventId);
+        if (snapshot != null) {
+            if (snapshot.expiry > now) {
+                return snapshot.eventInfo;
+            }
+            remove(eventId, snapshot);
+        }
+
+        long buildGeneration = generation.get();
+        EventInfo eventInfo = builder.get();
+        if ((buildGeneration != generation.get()) || !makeRoom(now)) {
+            return eventInfo;
+        }
+        Snapshot newSnapshot = new Snapshot(eventInfo, now + SNAPSHOT_LIFETIME);
+        Snapshot existing = snapshots.putIfAbsent(eventId, newSnapshot);
+        if (existing != null) {
+            return existing.eventInfo;
+        }
+        eventInfo.getLocations().forEach(location -> locationEvents.put(Long.valueOf(location.getId()), eventId));
+        // an invalidation may have happened while the snapshot was stored
+        if (buildGeneration != generation.get()) {
+            remove(eventId, newSnapshot);
+        }
+        return eventInfo;
+    }
+
+    /**
+     * Drop the snapshot of given event, now and after the current transaction was committed.
+     *
+     * @param eventId   Event ID, null is ignored.
+     */
+    public void invalidateEvent(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+        invalidate(() -> {
+            Snapshot snapshot = snapshots.get(eventId);
+            if (snapshot != null) {
+                remove(eventId, snapshot);
+            }
+        });
+    }
+
+    /**
+     * Drop the snapshot of the event containing given location, now and after the current transaction was committed.
+     *
+     * @param locationId    Location ID, null is ignored.
+     */
+    public void invalidateLocation(Long locationId) {
+        if (locationId == null) {
+            return;
+        }
+        invalidate(() -> {
+            Long eventId = locationEvents.remove(locationId);
+            Snapshot snapshot = (eventId != null) ? snapshots.get(eventId) : null;
+            if (snapshot != null) {
+                remove(eventId, snapshot);
+            }
+        });
+    }
+
+    /**
+     * Drop the snapshots of all events which have the given user as owner or member, now and after the
+     * current transaction was committed. This is needed when user data appearing in event info (e.g. name
+     * or photo) changes.
+     *
+     * @param userId    User ID, null is ignored.
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        String id = userId.toString();
+        invalidate(() -> snapshots.forEach((eventId, snapshot) -> {
+            if (isOwnerOrMember(snapshot.eventInfo, id)) {
+                remove(eventId, snapshot);
+            }
+        }));
+    }
+
+    /**
+     * Drop all snapshots.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        snapshots.clear();
+        locationEvents.clear();
+    }
+
+    /**
+     * Get the count of currently stored snapshots.
+     */
+    public int getSize() {
+        return snapshots.size();
+    }
+
+    /**
+     * Get the count of locations which are mapped to a stored snapshot.
+     */
+    public int getCountLocations() {
+        return locationEvents.size();
+    }
+
+    private void invalidate(Runnable invalidation) {
+        generation.incrementAndGet();
+        invalidation.run();
+        transactionCallbacks.afterCommit(() -> {
+            generation.incrementAndGet();
+            invalidation.run();
+        });
+    }
+
+    /**
+     * Make sure that a new snapshot can be stored, expired snapshots are removed if the view is full.
+     *
+     * @return  Return false if the view is full of valid snapshots
+     */
+    private boolean makeRoom(long now) {
+        if (snapshots.size() < MAX_SNAPSHOTS) {
+            return true;
+        }
+        snapshots.forEach((eventId, snapshot) -> {
+            if (snapshot.expiry <= now) {
+                remove(eventId, snapshot);
+            }
+        });
+        return snapshots.size() < MAX_SNAPSHOTS;
+    }
+
+    private void remove(Long eventId, Snapshot snapshot) {
+        if (snapshots.remove(eventId, snapshot)) {
+            snapshot.eventInfo.getLocations().forEach(location -> locationEvents.remove(Long.valueOf(location.getId()), eventId));
+        }
+    }
+
+    private boolean isOwnerOrMember(@NotNull EventInfo snapshot, @NotNull String userId) {
+        if (Objects.equals(snapshot.getOwnerId(), userId)) {
+            return true;
+        }
+        for (EventMember member: snapshot.getMembers()) {
+            if (Objects.equals(member.getId(), userId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Snapshot {
+
+        private final EventInfo eventInfo;
+
+        /**
+         * Expiry time in milliseconds
+         */
+        private final long expiry;
+
+        Snapshot(EventInfo eventInfo, long expiry) {
+            this.eventInfo = eventInfo;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -56,6 +56,16 @@ public class EventLocationEntity extends EntityBase implements Serializable, Ent
     @OneToOne(cascade = {CascadeType.REFRESH, CascadeType.MERGE, CascadeType.DETACH})
     private DocumentEntity photo;
 
+    /**
+     * Optional latitude in degrees
+     */
+    private Double latitude;
+
+    /**
+     * Optional longitude in degrees
+     */
+    private Double longitude;
+
     /**
      * Get the entity ID.
      */
@@ -130,4 +140,39 @@ public class EventLocationEntity extends EntityBase implements Serializable, Ent
     public void setPhoto(DocumentEntity photo) {
         this.photo = photo;
     }
+
+    /**
+     * Get event location latitude in degrees, null if the location has no coordinates.
+     */
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Set event location latitude in degrees.
+     */
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    /**
+     * Get event location longitude in degrees, null if the location has no coordinates.
+     */
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Set event location longitude in degrees.
+     */
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    /**
+     * Check if the location has coordinates.
+     */
+    public boolean getHasCoordinates() {
+        return (latitude != null) && (longitude != null);
+    }
 }
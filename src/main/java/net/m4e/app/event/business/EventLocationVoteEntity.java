@@ -13,8 +13,6 @@ import javax.persistence.*;
 import java.io.Serializable;
 import java.util.*;
 
-import static javax.persistence.FetchType.EAGER;
-
 /**
  * Entity for storing the results of event location votes.
  * 
@@ -22,6 +20,10 @@ import static javax.persistence.FetchType.EAGER;
  * Date of creation Nov 11, 2017
  */
 @Entity
+@Table(indexes = {
+    @Index(name = "IDX_LOCATIONVOTE_EVENT_TIME", columnList = "eventId, creationTime"),
+    @Index(name = "IDX_LOCATIONVOTE_LOCATION_TIME", columnList = "locationId, creationTime")
+})
 @NamedQueries({
     /**
      * Find all votes for all event locations in a given time window.
@@ -46,6 +48,20 @@ import static javax.persistence.FetchType.EAGER;
     @NamedQuery(
       name = "EventLocationVoteEntity.findLocationVotes",
       query = "SELECT vote FROM EventLocationVoteEntity vote WHERE vote.creationTime >= :timeBegin AND vote.creationTime <= :timeEnd AND vote.locationId = :locationId"
+    ),
+    /**
+     * Find the closed voting windows of given events which have votes, but were not added to the vote rollups.
+     * The result rows contain the event ID, window begin and window end.
+     *
+     * Query parameters:
+     *
+     * eventIds                 The events
+     * timeBegin                Earliest creation time of the votes
+     * timeEnd                  The windows ended before this time
+     */
+    @NamedQuery(
+      name = "EventLocationVoteEntity.findMissedWindows",
+      query = "SELECT DISTINCT vote.eventId, vote.voteTimeBegin, vote.voteTimeEnd FROM EventLocationVoteEntity vote WHERE vote.eventId IN :eventIds AND vote.creationTime >= :timeBegin AND vote.voteTimeEnd < :timeEnd AND NOT EXISTS (SELECT marker.id FROM EventVoteWindowEntity marker WHERE marker.eventId = vote.eventId AND marker.windowBegin = vote.voteTimeBegin AND marker.windowEnd = vote.voteTimeEnd)"
     )
 })
 public class EventLocationVoteEntity extends EntityBase implements Serializable {
@@ -93,20 +109,17 @@ public class EventLocationVoteEntity extends EntityBase implements Serializable
     private String locationName = "";
 
     /**
-     * IDs of users voted for this location
+     * IDs of users voted for this location, encoded by VoterIds.
+     * The names of voters are not stored, they are resolved on export.
      */
-    @ElementCollection(fetch = EAGER)
-    private Set<Long> userIds;
+    @Lob
+    private byte[] voterIds;
 
     /**
-     * Names of users voted for this location.
-     * This is a redundant information for reducing the server traffic as the
-     * names can be also retrieved from user IDs. However, that would mean another
-     * entity fetch (UserEntity). In most use-cases knowing the voting user names
-     * is completely sufficient.
+     * Version for optimistic locking, the cluster nodes merge their votes into the entity concurrently
      */
-    @ElementCollection(fetch = EAGER)
-    private Set<String> userNames;
+    @Version
+    private Long entityVersion = 0L;
 
     /**
      * Get the entity ID.
@@ -124,6 +137,13 @@ public class EventLocationVoteEntity extends EntityBase implements Serializable
         this.id = id;
     }
 
+    /**
+     * Get the version used for optimistic locking.
+     */
+    public Long getEntityVersion() {
+        return entityVersion;
+    }
+
     /**
      * Get the begin of voting.
      */
@@ -210,69 +230,45 @@ public class EventLocationVoteEntity extends EntityBase implements Serializable
 
     /**
      * Get the IDs of users who voted for this location.
+     * The returned set is a copy, use setUserIds for changing the voters.
      */
     public Set<Long> getUserIds() {
-        return userIds;
+        return VoterIds.toSet(voterIds);
     }
 
     /**
      * Set the IDs of users who voted for this location.
      */
     public void setUserIds(Set<Long> userIds) {
-        this.userIds = userIds;
+        this.voterIds = VoterIds.encode(userIds);
     }
 
     /**
      * Add the given user ID to voted user IDs.
      */
     public void addUserId(Long userId) {
-        if (userIds == null) {
-            userIds = new HashSet();
+        Set<Long> ids = getUserIds();
+        if (ids.add(userId)) {
+            setUserIds(ids);
         }
-        userIds.add(userId);
     }
 
     /**
      * Remove the given user ID from voted user IDs.
      */
     public boolean removeUserId(Long userId) {
-        if (userIds == null) {
+        Set<Long> ids = getUserIds();
+        if (!ids.remove(userId)) {
             return false;
         }
-        return userIds.remove(userId);
-    }
-
-    /**
-     * Get the names of users who voted for this location.
-     */
-    public Set<String> getUserNames() {
-        return userNames;
-    }
-
-    /**
-     * Set the names of users who voted for this location.
-     */
-    public void setUserNames(Set<String> userNames) {
-        this.userNames = userNames;
-    }
-
-    /**
-     * Add the given user name to voted user names.
-     */
-    public void addUserName(String userName) {
-        if (userNames == null) {
-            userNames = new HashSet();
-        }
-        userNames.add(userName);
+        setUserIds(ids);
+        return true;
     }
 
     /**
-     * Remove the given user name from voted user names.
+     * Get the count of users who voted for this location.
      */
-    public boolean removeUserName(String userName) {
-        if (userNames == null) {
-            return false;
-        }
-        return userNames.remove(userName);
+    public int getCountVoters() {
+        return VoterIds.count(voterIds);
     }
 }
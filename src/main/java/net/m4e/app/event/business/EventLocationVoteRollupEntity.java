@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.EntityBase;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Daily rollup of the votes of an event location. It is updated whenever a voting window
+ * of the event is closed, see VoteRollups.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Entity
+@Table(indexes = {
+    @Index(name = "IDX_LOCATIONVOTEROLLUP_EVENT_DAY", columnList = "eventId, day")
+})
+@NamedQueries({
+    /**
+     * Find the location rollups of an event in a given range of days.
+     *
+     * Query parameters:
+     *
+     * eventId                  The event ID
+     * dayBegin - dayEnd        Range of days since epoch
+     */
+    @NamedQuery(
+      name = "EventLocationVoteRollupEntity.findRange",
+      query = "SELECT rollup FROM EventLocationVoteRollupEntity rollup WHERE rollup.eventId = :eventId AND rollup.day >= :dayBegin AND rollup.day <= :dayEnd"
+    )
+})
+public class EventLocationVoteRollupEntity extends EntityBase implements Serializable {
+
+    /**
+     * Serialization version
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Unique entity ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * Event ID
+     */
+    private Long eventId = 0L;
+
+    /**
+     * Event location ID
+     */
+    private Long locationId = 0L;
+
+    /**
+     * Event location name at the time of last update
+     */
+    private String locationName = "";
+
+    /**
+     * Day since epoch (UTC) the voting windows ended
+     */
+    private Long day = 0L;
+
+    /**
+     * Sum of votes over all windows
+     */
+    private Long countVotes = 0L;
+
+    /**
+     * Count of windows the location has won, ties count as win for all tied locations
+     */
+    private Long countWins = 0L;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public Long getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(Long locationId) {
+        this.locationId = locationId;
+    }
+
+    public String getLocationName() {
+        return locationName;
+    }
+
+    public void setLocationName(String locationName) {
+        this.locationName = locationName;
+    }
+
+    public Long getDay() {
+        return day;
+    }
+
+    public void setDay(Long day) {
+        this.day = day;
+    }
+
+    public Long getCountVotes() {
+        return countVotes;
+    }
+
+    public void setCountVotes(Long countVotes) {
+        this.countVotes = countVotes;
+    }
+
+    public Long getCountWins() {
+        return countWins;
+    }
+
+    public void setCountWins(Long countWins) {
+        this.countWins = countWins;
+    }
+}
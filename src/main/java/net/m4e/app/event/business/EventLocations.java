@@ -9,7 +9,7 @@ package net.m4e.app.event.business;
 
 import net.m4e.app.event.rest.comm.*;
 import net.m4e.app.resources.*;
-import net.m4e.app.user.business.UserEntity;
+import net.m4e.app.user.business.*;
 import net.m4e.common.*;
 import net.m4e.system.core.*;
 import org.jetbrains.annotations.NotNull;
@@ -21,7 +21,9 @@ import javax.json.*;
 import javax.persistence.*;
 import java.io.StringReader;
 import java.lang.invoke.MethodHandles;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.*;
 
 
 /**
@@ -43,9 +45,25 @@ public class EventLocations {
 
     private final DocumentPool docPool;
 
-    private long voteEnd;
+    private final EventInfoCache eventInfoCache;
 
-    private long voteBegin;
+    private final EntityCounters entityCounters;
+
+    private final VoteTallyEngine voteTallyEngine;
+
+    private final UserNameCache userNameCache;
+
+    private final LocationGeoIndex locationGeoIndex;
+
+    private final EventSearchIndex eventSearchIndex;
+
+    private final LocationVoteStore locationVoteStore;
+
+    /**
+     * Precomputed voting schedules of the active events, they are shared by all request threads.
+     * Events removes the schedule of an event which is deleted or deactivated.
+     */
+    private final ConcurrentMap<Long /*event ID*/, VoteSchedule> voteSchedules = new ConcurrentHashMap<>();
 
 
     /**
@@ -56,6 +74,13 @@ public class EventLocations {
         entities = null;
         appInfos = null;
         docPool = null;
+        eventInfoCache = null;
+        entityCounters = null;
+        voteTallyEngine = null;
+        userNameCache = null;
+        locationGeoIndex = null;
+        eventSearchIndex = null;
+        locationVoteStore = null;
     }
 
     /**
@@ -65,11 +90,25 @@ public class EventLocations {
     public EventLocations(@NotNull EntityManager entityManager,
                           @NotNull Entities entities,
                           @NotNull AppInfos appInfos,
-                          @NotNull DocumentPool docPool) {
+                          @NotNull DocumentPool docPool,
+                          @NotNull EventInfoCache eventInfoCache,
+                          @NotNull EntityCounters entityCounters,
+                          @NotNull VoteTallyEngine voteTallyEngine,
+                          @NotNull UserNameCache userNameCache,
+                          @NotNull LocationGeoIndex locationGeoIndex,
+                          @NotNull EventSearchIndex eventSearchIndex,
+                          @NotNull LocationVoteStore locationVoteStore) {
         this.entityManager = entityManager;
         this.entities = entities;
         this.appInfos = appInfos;
         this.docPool = docPool;
+        this.eventInfoCache = eventInfoCache;
+        this.entityCounters = entityCounters;
+        this.voteTallyEngine = voteTallyEngine;
+        this.userNameCache = userNameCache;
+        this.locationGeoIndex = locationGeoIndex;
+        this.eventSearchIndex = eventSearchIndex;
+        this.locationVoteStore = locationVoteStore;
     }
 
     /**
@@ -85,6 +124,8 @@ public class EventLocations {
         EventLocationEntity newLocation = new EventLocationEntity();
         newLocation.setName(inputEntity.getName());
         newLocation.setDescription(inputEntity.getDescription());
+        newLocation.setLatitude(inputEntity.getLatitude());
+        newLocation.setLongitude(inputEntity.getLongitude());
         if (inputEntity.getPhoto() != null) {
             updateEventLocationImage(newLocation, inputEntity.getPhoto());
         }
@@ -99,6 +140,7 @@ public class EventLocations {
         newLocation.setStatus(status);
 
         entities.create(newLocation);
+        entityCounters.addLocations(1);
         Collection<EventLocationEntity> locs = event.getLocations();
         if (locs == null) {
             locs = new ArrayList<>();
@@ -106,6 +148,9 @@ public class EventLocations {
         }
         event.getLocations().add(newLocation);
         entities.update(event);
+        eventInfoCache.invalidateEvent(event.getId());
+        locationGeoIndex.putLocation(event.getId(), newLocation);
+        eventSearchIndex.putLocation(event.getId(), newLocation);
         return newLocation;
     }
 
@@ -131,8 +176,15 @@ public class EventLocations {
         if (inputLocation.getPhoto() != null) {
             updateEventLocationImage(location, inputLocation.getPhoto());
         }
+        if (inputLocation.getHasCoordinates()) {
+            location.setLatitude(inputLocation.getLatitude());
+            location.setLongitude(inputLocation.getLongitude());
+        }
 
         entities.update(location);
+        eventInfoCache.invalidateLocation(location.getId());
+        locationGeoIndex.updateLocation(location);
+        eventSearchIndex.updateLocation(location);
         return location;
     }
 
@@ -185,88 +237,99 @@ public class EventLocations {
      * 
      * The voting window ends at event start time or repeated day time (for repeated events) and begins the amount of
      * 'voting time begin' before the end.
+     *
+     * The vote is applied to the in-memory vote tally of the location, the vote entity is updated later by the
+     * VoteTallyEngine. Only the first vote of a location in a voting window touches the database.
      * 
      * @param voter     Voting user
      * @param event     The event the location belongs to
      * @param location  Event location the vote goes for
      * @param vote      true for voting, false for unvoting the location.
-     * @return          Return the vote entity, or null if it is currently outside the voting time window.
+     * @return          Return the vote tally, or null if it is currently outside the voting time window.
      */
-    public EventLocationVoteEntity createOrUpdateVote(UserEntity voter, EventEntity event, EventLocationEntity location, boolean vote) {
-        if (!calculateVoteBeginAndEndTime(event)) {
+    public VoteTally createOrUpdateVote(UserEntity voter, EventEntity event, EventLocationEntity location, boolean vote) {
+        VoteWindow voteWindow = getCurrentVoteWindow(event);
+        if (voteWindow == null) {
             return null;
         }
 
-        EventLocationVoteEntity voteEntity = getOrCreateVoteEntity(event, location);
+        VoteTally tally = voteTallyEngine.getOrCreateTally(location.getId(), voteWindow,
+                () -> getOrCreateVoteEntity(event, location, voteWindow));
 
-        if (vote) {
-            voteEntity.addUserId(voter.getId());
-            voteEntity.addUserName(voter.getName());
-        }
-        else {
-            voteEntity.removeUserId(voter.getId());
-            voteEntity.removeUserName(voter.getName());
-        }
+        tally.vote(voter.getId(), vote);
 
-        entities.update(voteEntity);
+        return tally;
+    }
 
-        return voteEntity;
+    /**
+     * Load the already existing votes of a voting window into the vote tallies, so that
+     * the next votes do not need to touch the database.
+     *
+     * @param event     The event
+     * @param window    The voting window
+     * @return          Count of loaded tallies
+     */
+    public int warmVoteTallies(EventEntity event, VoteWindow window) {
+        getVoteSchedule(event);
+        List<EventLocationVoteEntity> voteEntities = getVotes(event, window.getBegin(), window.getEnd());
+        voteEntities.forEach(voteEntity ->
+                voteTallyEngine.getOrCreateTally(voteEntity.getLocationId(), window, () -> voteEntity));
+        return voteEntities.size();
     }
 
-    protected boolean calculateVoteBeginAndEndTime(EventEntity event) {
-        long now = Calendar.getInstance(TimeZone.getDefault()).getTimeInMillis() / 1000;
-
-        // for repeated events check the current day
-        Long weekDays = event.getRepeatWeekDays();
-        if (weekDays > 0L) {
-            int currentDay = Calendar.getInstance().get(Calendar.DAY_OF_WEEK);
-            //! NOTE Calendar.DAY_OF_WEEK begins with a 1 for Sunday, convert the day flag
-            currentDay = (1 << ((currentDay + 5) % 7));
-            if ((currentDay & weekDays) == 0) {
-                return false;
-            }
-            //! NOTE the repeat day time is expected to be in UTC
-            voteEnd = event.getRepeatDayTime();
-            long daysDivider = 60 * 60 * 24;
-            voteEnd += (now / daysDivider) * daysDivider;
-            voteBegin = voteEnd - event.getVotingTimeBegin();
+    /**
+     * Get the voting window which is currently open for given event.
+     *
+     * @param event     The event
+     * @return          The current voting window, or null if voting is currently not possible.
+     */
+    protected VoteWindow getCurrentVoteWindow(EventEntity event) {
+        long now = System.currentTimeMillis() / 1000;
+        return getVoteSchedule(event).getWindowAt(now, ZoneId.systemDefault());
+    }
+
+    /**
+     * Get the voting schedule of given event. The schedule is recomputed if the event timing has changed.
+     *
+     * @param event     The event
+     * @return          The voting schedule
+     */
+    protected VoteSchedule getVoteSchedule(EventEntity event) {
+        if ((event.getId() == null) || (event.getStatus() == null) || !event.getStatus().getIsActive()) {
+            return VoteSchedule.fromEvent(event);
         }
-        else {
-            voteEnd   = event.getEventStart();
-            voteBegin = voteEnd - event.getVotingTimeBegin();
+        VoteSchedule schedule = voteSchedules.get(event.getId());
+        if ((schedule == null) || !schedule.matches(event)) {
+            schedule = VoteSchedule.fromEvent(event);
+            voteSchedules.put(event.getId(), schedule);
         }
+        return schedule;
+    }
 
-        // check if the vote is happening in the right time window
-        if ((now < voteBegin) || (now > voteEnd)) {
-            return false;
+    /**
+     * Remove the precomputed voting schedule of given event, it is recomputed on next use.
+     *
+     * @param eventId   Event ID, null is ignored.
+     */
+    public void removeVoteSchedule(Long eventId) {
+        if (eventId != null) {
+            voteSchedules.remove(eventId);
         }
-
-        return true;
     }
 
-    protected EventLocationVoteEntity getOrCreateVoteEntity(EventEntity event, EventLocationEntity location) {
-        TypedQuery<EventLocationVoteEntity> query = entityManager.createNamedQuery("EventLocationVoteEntity.findLocationVotes", EventLocationVoteEntity.class);
-        query.setParameter("timeBegin", voteBegin);
-        query.setParameter("timeEnd", voteEnd);
-        query.setParameter("locationId", location.getId());
+    /**
+     * Get the count of precomputed voting schedules.
+     */
+    public int getCountVoteSchedules() {
+        return voteSchedules.size();
+    }
 
-        EventLocationVoteEntity voteEntity;
-        //! NOTE we expect maximal 1 result here
-        List<EventLocationVoteEntity> voteEntities = query.getResultList();
-        if (voteEntities.isEmpty()) {
-            voteEntity = new EventLocationVoteEntity();
-            voteEntity.setEventId(event.getId());
-            voteEntity.setLocationId(location.getId());
-            voteEntity.setLocationName(location.getName());
-            voteEntity.setVoteTimeBegin(voteBegin);
-            voteEntity.setVoteTimeEnd(voteEnd);
-            voteEntity.setCreationTime((new Date()).getTime() / 1000);
-            entities.create(voteEntity);
-        }
-        else {
-            voteEntity = voteEntities.get(0);
-        }
-        return voteEntity;
+    /**
+     * Get the persisted vote entity of given location and window. A missing entity is created and
+     * committed in an own transaction.
+     */
+    protected EventLocationVoteEntity getOrCreateVoteEntity(EventEntity event, EventLocationEntity location, VoteWindow voteWindow) {
+        return locationVoteStore.getOrCreateVoteEntity(event.getId(), location.getId(), location.getName(), voteWindow);
     }
 
     /**
@@ -280,13 +343,15 @@ public class EventLocations {
         if (locationToRemove.getStatus().getIsDeleted()) {
             throw new Exception("Location is already deleted.");            
         }
-        Collection<EventLocationEntity> locations = event.getLocations();
-        if ((locations == null) || !locations.contains(locationToRemove)) {
+        if (!isEventLocation(event, locationToRemove)) {
             throw new Exception("Location is not part of event.");
         }
         // mark the location entity as deleted
         locationToRemove.getStatus().setDateDeletion((new Date()).getTime());
         entities.update(locationToRemove);
+        eventInfoCache.invalidateEvent(event.getId());
+        locationGeoIndex.removeLocation(locationToRemove.getId());
+        eventSearchIndex.removeLocation(locationToRemove.getId());
 
         // update the app stats
         AppInfoEntity appinfo = appInfos.getAppInfoEntity();
@@ -295,6 +360,21 @@ public class EventLocations {
         }
         appinfo.incrementEventLocationCountPurge(1L);
         entities.update(appinfo);
+        entityCounters.addLocations(-1);
+    }
+
+    /**
+     * Check if the given location belongs to an event. Only the join table is queried,
+     * the event locations are not loaded.
+     */
+    protected boolean isEventLocation(EventEntity event, EventLocationEntity location) {
+        if ((event.getId() == null) || (location.getId() == null)) {
+            return false;
+        }
+        TypedQuery<EventLocationEntity> query = entityManager.createNamedQuery("EventEntity.findLocation", EventLocationEntity.class);
+        query.setParameter("eventId", event.getId());
+        query.setParameter("locationId", location.getId());
+        return !query.getResultList().isEmpty();
     }
 
     /**
@@ -333,6 +413,8 @@ public class EventLocations {
         entity.setName(locationCmd.getName());
         entity.setDescription(locationCmd.getDescription());
         entity.setName(locationCmd.getName());
+        entity.setLatitude(locationCmd.getLatitude());
+        entity.setLongitude(locationCmd.getLongitude());
 
         if (locationCmd.getPhoto() != null) {
             entity.setPhoto(PhotoCreator.createPhoto(locationCmd.getPhoto().getBytes()));
@@ -354,26 +436,55 @@ public class EventLocations {
                 entity.getDescription(),
                 (entity.getPhoto() != null) ? entity.getPhoto().getId().toString() : null,
                 (entity.getPhoto() != null) ? entity.getPhoto().getETag() : null);
+        location.setLatitude(entity.getLatitude());
+        location.setLongitude(entity.getLongitude());
 
         return location;
     }
 
     /**
-     * Export the given event location vote entity.
+     * Export the given event location vote entity. The voter names are resolved by the user name cache.
      */
     public LocationVoteInfo exportLocationVotes(final EventLocationVoteEntity voteEntity) {
-        return LocationVoteInfo.fromLocationVoteEntity(voteEntity);
+        LocationVoteInfo voteInfo = exportVoterIds(voteEntity);
+        setVoterNames(voteInfo, userNameCache.getNames(voteInfo.getUserIds()));
+        return voteInfo;
     }
 
     /**
-     * Export a list of event location votes.
+     * Export a list of event location votes. The names of all voters are resolved at once.
      */
     public List<LocationVoteInfo> exportLocationVotes(final List<EventLocationVoteEntity> voteEntities) {
         List<LocationVoteInfo> exportVotes = new ArrayList<>();
+        Set<Long> voterIds = new HashSet<>();
         voteEntities.forEach((v) -> {
-            LocationVoteInfo obj = exportLocationVotes(v);
+            LocationVoteInfo obj = exportVoterIds(v);
+            voterIds.addAll(obj.getUserIds());
             exportVotes.add(obj);
         });
+        Map<Long, String> names = userNameCache.getNames(voterIds);
+        exportVotes.forEach(voteInfo -> setVoterNames(voteInfo, names));
         return exportVotes;
     }
+
+    private LocationVoteInfo exportVoterIds(final EventLocationVoteEntity voteEntity) {
+        LocationVoteInfo voteInfo = LocationVoteInfo.fromLocationVoteEntity(voteEntity);
+        // the entity may not contain the latest votes yet, take them from the tally
+        VoteTally tally = voteTallyEngine.getTally(voteEntity.getId());
+        if (tally != null) {
+            voteInfo.setUserIds(new ArrayList<>(tally.getUserIds()));
+        }
+        return voteInfo;
+    }
+
+    private void setVoterNames(LocationVoteInfo voteInfo, Map<Long, String> names) {
+        List<String> voterNames = new ArrayList<>();
+        voteInfo.getUserIds().forEach(id -> {
+            String name = names.get(id);
+            if (name != null) {
+                voterNames.add(name);
+            }
+        });
+        voteInfo.setUserNames(voterNames);
+    }
 }
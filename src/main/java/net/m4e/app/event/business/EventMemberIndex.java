@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.TransactionCallbacks;
+import org.jetbrains.annotations.NotNull;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+/**
+ * An index of event member IDs. For every event an array of member IDs is kept, it is used for
+ * counting and notifying the members. The IDs are loaded by a query over the event member join
+ * table, so the members collection of an event is never initialized.
+ *
+ * An event's entry is dropped on every change of the event, again after the change was committed,
+ * and it expires after ENTRY_LIFETIME. It is reloaded on next access.
+ *
+ * NOTE: The index is local to the node, it is not shared in a cluster. Changes on other nodes are
+ *       seen after the entries expired. Therefore the member IDs must not be used for access checks,
+ *       isMember queries the database instead.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class EventMemberIndex {
+
+    /**
+     * Lifetime of an entry in milliseconds
+     */
+    public static final long ENTRY_LIFETIME = 60 * 1000L;
+
+    private static final long[] NO_MEMBERS = new long[0];
+
+    private final EntityManager entityManager;
+
+    private final TransactionCallbacks transactionCallbacks;
+
+    /**
+     * Provides the current time in milliseconds
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Member IDs in database order
+     */
+    private final ConcurrentMap<Long /*event ID*/, Entry> memberIds = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every invalidation. Member IDs which were loaded while an invalidation happened
+     * may be stale and are not stored.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected EventMemberIndex() {
+        entityManager = null;
+        transactionCallbacks = null;
+        clock = null;
+    }
+
+    /**
+     * Create the index.
+     *
+     * @param entityManager         Entity manager used for loading the member IDs
+     * @param transactionCallbacks  Used for dropping entries after commit
+     */
+    @Inject
+    public EventMemberIndex(@NotNull EntityManager entityManager, @NotNull TransactionCallbacks transactionCallbacks) {
+        this(entityManager, transactionCallbacks, System::currentTimeMillis);
+    }
+
+    EventMemberIndex(@NotNull EntityManager entityManager, @NotNull TransactionCallbacks transactionCallbacks, @NotNull LongSupplier clock) {
+        this.entityManager = entityManager;
+        this.transactionCallbacks = transactionCallbacks;
+        this.clock = clock;
+    }
+
+    /**
+     * Check if the given user is member of an event. The event owner is not considered.
+     *
+     * The check is used for access control, so it counts the user's row in the member
+     * join table instead of using the cached member IDs, see Update_0_9_5 for the index
+     * of the join table.
+     *
+     * @param eventId   Event ID
+     * @param userId    User ID, null is never a member.
+     * @return          Return true if the user is member of given event.
+     */
+    public boolean isMember(@NotNull Long eventId, Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        TypedQuery<Long> query = entityManager.createNamedQuery("EventEntity.countMember", Long.class);
+        query.setParameter("eventId", eventId);
+        query.setParameter("memberId", userId);
+        return query.getSingleResult() > 0;
+    }
+
+    /**
+     * Get the IDs of all members of given event. The event owner is not included.
+     * The IDs may be stale for up to ENTRY_LIFETIME, see isMember for access checks.
+     *
+     * @param eventId   Event ID
+     * @return          Member IDs in no particular order, the array must not be modified.
+     */
+    public long[] getMemberIds(@NotNull Long eventId) {
+        long now = clock.getAsLong();
+        Entry entry = memberIds.get(eventId);
+        if (entry != null) {
+            if (entry.expiry > now) {
+                return entry.ids;
+            }
+            memberIds.remove(eventId, entry);
+        }
+
+        long loadGeneration = generation.get();
+        long[] ids = loadMemberIds(eventId);
+        if (loadGeneration == generation.get()) {
+            Entry newEntry = new Entry(ids, now + ENTRY_LIFETIME);
+            Entry existing = memberIds.putIfAbsent(eventId, newEntry);
+            if (existing != null) {
+                return existing.ids;
+            }
+            // an invalidation may have happened while the entry was stored
+            if (loadGeneration != generation.get()) {
+                memberIds.remove(eventId, newEntry);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Drop the member IDs of given event, now and after the current transaction was committed.
+     *
+     * @param eventId   Event ID, null is ignored.
+     */
+    public void invalidateEvent(Long eventId) {
+        if (eventId == null) {
+            return;
+        }
+        drop(eventId);
+        transactionCallbacks.afterCommit(() -> drop(eventId));
+    }
+
+    /**
+     * Drop all entries.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        memberIds.clear();
+    }
+
+    /**
+     * Get the count of events currently in index.
+     */
+    public int getSize() {
+        return memberIds.size();
+    }
+
+    private void drop(Long eventId) {
+        generation.incrementAndGet();
+        memberIds.remove(eventId);
+    }
+
+    private long[] loadMemberIds(@NotNull Long eventId) {
+        TypedQuery<Long> query = entityManager.createNamedQuery("EventEntity.findMemberIds", Long.class);
+        query.setParameter("eventId", eventId);
+        List<Long> results = query.getResultList();
+        if (results.isEmpty()) {
+            return NO_MEMBERS;
+        }
+        long[] ids = new long[results.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = results.get(i);
+        }
+        return ids;
+    }
+
+    private static class Entry {
+
+        private final long[] ids;
+
+        /**
+         * Expiry time in milliseconds
+         */
+        private final long expiry;
+
+        Entry(long[] ids, long expiry) {
+            this.ids = ids;
+            this.expiry = expiry;
+        }
+    }
+}
@@ -160,6 +160,27 @@ public class EventNotifications {
         notifyEventMembers(user, event, notification);
     }
 
+    /**
+     * Notify event members about opening/closing a voting window.
+     *
+     * @param open          Pass true for opening, false for closing the voting window
+     * @param event         Members of this event are notified.
+     * @param window        The voting window
+     */
+    public void sendNotifyVotingWindow(boolean open, EventEntity event, VoteWindow window) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", event.getId().toString());
+        data.put("timeBegin", window.getBegin());
+        data.put("timeEnd", window.getEnd());
+
+        Notification notification = new Notification("Location Vote",
+                "Location voting was " + (open ? "opened." : "closed."),
+                open ? "openvoting" : "closevoting",
+                data);
+
+        notifyEventMembers(null, event, notification);
+    }
+
     /**
      * Notify event members about adding/removing a member.
      * 
@@ -180,6 +201,28 @@ public class EventNotifications {
     }
 
 
+    /**
+     * Notify event members about adding/removing multiple members with one single notification.
+     *
+     * @param changeType    Change type
+     * @param user          User sending the notification
+     * @param event         Members of this event are notified.
+     * @param memberIds     IDs of members which were added/removed
+     */
+    public void sendNotifyMembersChanged(ChangeType changeType, UserEntity user, EventEntity event, List<Long> memberIds) {
+        List<String> ids = new ArrayList<>();
+        memberIds.forEach(id -> ids.add(id.toString()));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", event.getId().toString());
+        data.put("memberIds", ids);
+
+        Notification notification = new Notification("Event Member",
+                "Members were " + changeType.pastForm() + ".", changeType.value() + "members", data);
+
+        notifyEventMembers(user, event, notification);
+    }
+
     /**
      * Notify user relatives about going on/off, i.e. the online status.
      * 
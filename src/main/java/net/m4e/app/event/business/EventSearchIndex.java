@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.*;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+
+/**
+ * Full-text index over the names and descriptions of all active events and their locations.
+ *
+ * The index is loaded on first use and is kept up to date by Events and EventLocations on
+ * every change of an event or location.
+ *
+ * NOTE: The index is local to the node, it is not shared in a cluster.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class EventSearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Weight of terms in names
+     */
+    private static final float WEIGHT_NAME = 2.0f;
+
+    /**
+     * Weight of terms in descriptions
+     */
+    private static final float WEIGHT_DESCRIPTION = 1.0f;
+
+    private final Entities entities;
+
+    private final TextIndex<Long /*event ID*/> eventIndex = new TextIndex<>();
+
+    private final TextIndex<Long /*location ID*/> locationIndex = new TextIndex<>();
+
+    private final Map<Long /*location ID*/, Long /*event ID*/> locationEvents = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected EventSearchIndex() {
+        entities = null;
+    }
+
+    /**
+     * Create the index.
+     *
+     * @param entities  Entities used for loading the events
+     */
+    @Inject
+    public EventSearchIndex(@NotNull Entities entities) {
+        this.entities = entities;
+    }
+
+    /**
+     * Add or update an event. Inactive events are removed along with their locations.
+     *
+     * @param event     The event
+     */
+    public void putEvent(@NotNull EventEntity event) {
+        if (!loaded) {
+            return;
+        }
+        if (!event.getStatus().getIsActive()) {
+            removeEvent(event.getId());
+            return;
+        }
+        eventIndex.put(event.getId(), getWeightedTexts(event.getName(), event.getDescription()));
+    }
+
+    /**
+     * Remove an event and all its locations.
+     *
+     * @param eventId   Event ID
+     */
+    public void removeEvent(@NotNull Long eventId) {
+        if (!loaded) {
+            return;
+        }
+        eventIndex.remove(eventId);
+        locationEvents.entrySet().removeIf(entry -> {
+            if (entry.getValue().equals(eventId)) {
+                locationIndex.remove(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Add a location of an event. Inactive locations are removed.
+     *
+     * @param eventId   The event the location belongs to
+     * @param location  The location
+     */
+    public void putLocation(@NotNull Long eventId, @NotNull EventLocationEntity location) {
+        if (!loaded) {
+            return;
+        }
+        if (!location.getStatus().getIsActive()) {
+            removeLocation(location.getId());
+            return;
+        }
+        locationEvents.put(location.getId(), eventId);
+        locationIndex.put(location.getId(), getWeightedTexts(location.getName(), location.getDescription()));
+    }
+
+    /**
+     * Update an already indexed location.
+     *
+     * @param location  The location
+     */
+    public void updateLocation(@NotNull EventLocationEntity location) {
+        Long eventId = locationEvents.get(location.getId());
+        if (eventId != null) {
+            putLocation(eventId, location);
+        }
+    }
+
+    /**
+     * Remove a location.
+     *
+     * @param locationId    Location ID
+     */
+    public void removeLocation(@NotNull Long locationId) {
+        if (!loaded) {
+            return;
+        }
+        locationIndex.remove(locationId);
+        locationEvents.remove(locationId);
+    }
+
+    /**
+     * Search for events and locations.
+     *
+     * @param query         The query text
+     * @param eventFilter   Only events accepted by this filter and their locations are returned
+     * @param maxResults    Maximal count of results
+     * @return              The best hits, ordered by descending score
+     */
+    public List<EventSearchHit> search(String query, @NotNull Predicate<Long> eventFilter, int maxResults) {
+        ensureLoaded();
+        List<EventSearchHit> hits = new ArrayList<>();
+        eventIndex.search(query, eventFilter, maxResults)
+                .forEach(hit -> hits.add(new EventSearchHit(hit.getKey(), null, hit.getScore())));
+        locationIndex.search(query, locationId -> {
+                    Long eventId = locationEvents.get(locationId);
+                    return (eventId != null) && eventFilter.test(eventId);
+                }, maxResults)
+                .forEach(hit -> {
+                    Long eventId = locationEvents.get(hit.getKey());
+                    if (eventId != null) {
+                        hits.add(new EventSearchHit(eventId, hit.getKey(), hit.getScore()));
+                    }
+                });
+
+        hits.sort(Comparator.comparingDouble(EventSearchHit::getScore).reversed());
+        return (hits.size() > maxResults) ? new ArrayList<>(hits.subList(0, maxResults)) : hits;
+    }
+
+    /**
+     * Get the count of indexed events and locations.
+     */
+    public int getSize() {
+        ensureLoaded();
+        return eventIndex.getSize() + locationIndex.getSize();
+    }
+
+    /**
+     * Drop all entries, the index is loaded again on next use.
+     */
+    public synchronized void clear() {
+        loaded = false;
+        eventIndex.clear();
+        locationIndex.clear();
+        locationEvents.clear();
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        for (EventEntity event: entities.findAll(EventEntity.class)) {
+            if (!event.getStatus().getIsActive()) {
+                continue;
+            }
+            eventIndex.put(event.getId(), getWeightedTexts(event.getName(), event.getDescription()));
+            if (event.getLocations() == null) {
+                continue;
+            }
+            for (EventLocationEntity location: event.getLocations()) {
+                if (location.getStatus().getIsActive()) {
+                    locationEvents.put(location.getId(), event.getId());
+                    locationIndex.put(location.getId(), getWeightedTexts(location.getName(), location.getDescription()));
+                }
+            }
+        }
+        loaded = true;
+        LOGGER.debug("indexed events: " + eventIndex.getSize() + ", locations: " + locationIndex.getSize());
+    }
+
+    private static Map<String, Float> getWeightedTexts(String name, String description) {
+        Map<String, Float> texts = new HashMap<>();
+        if (name != null) {
+            texts.put(name, WEIGHT_NAME);
+        }
+        if (description != null) {
+            texts.merge(description, WEIGHT_DESCRIPTION, Float::sum);
+        }
+        return texts;
+    }
+
+    /**
+     * A search hit, either an event or an event location
+     */
+    public static final class EventSearchHit {
+
+        private final Long eventId;
+
+        private final Long locationId;
+
+        private final float score;
+
+        public EventSearchHit(final Long eventId, final Long locationId, final float score) {
+            this.eventId = eventId;
+            this.locationId = locationId;
+            this.score = score;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        /**
+         * The location ID, or null if the hit is an event
+         */
+        public Long getLocationId() {
+            return locationId;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+}
@@ -13,7 +13,7 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.*;
 
 import javax.annotation.PostConstruct;
-import javax.ejb.Singleton;
+import javax.ejb.*;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.ObservesAsync;
 import javax.inject.Inject;
@@ -38,23 +38,39 @@ public class EventSystem {
 
     private final ConnectedClients connections;
 
+    private final VoteCountPublisher voteCountPublisher;
+
+    /**
+     * Client command for subscribing the live vote counts of an event
+     */
+    public static final String CMD_SUBSCRIBE_VOTES = "subscribevotes";
+
+    /**
+     * Client command for unsubscribing the live vote counts of an event
+     */
+    public static final String CMD_UNSUBSCRIBE_VOTES = "unsubscribevotes";
+
     /**
      * Default constructor for making the container happy.
      */
     protected EventSystem() {
         events = null;
         connections = null;
+        voteCountPublisher = null;
     }
 
     /**
      * Create the bean and inject the necessary resources.
      * 
-     * @param events    The Events instance
+     * @param events              The Events instance
+     * @param connections         Connected clients
+     * @param voteCountPublisher  Publisher of live vote counts
      */
     @Inject
-    public EventSystem(@NotNull Events events, @NotNull ConnectedClients connections) {
+    public EventSystem(@NotNull Events events, @NotNull ConnectedClients connections, @NotNull VoteCountPublisher voteCountPublisher) {
         this.events = events;
         this.connections = connections;
+        this.voteCountPublisher = voteCountPublisher;
     }
 
     /**
@@ -90,7 +106,16 @@ public class EventSystem {
         try {
             if (!maybeEventId.isEmpty()) {
                 Long eventId = Long.parseLong(maybeEventId);
-                sendMessageEvent(user, eventId, packet);
+                String cmd = (String) packetData.getOrDefault("cmd", "");
+                if (CMD_SUBSCRIBE_VOTES.equals(cmd)) {
+                    voteCountPublisher.subscribe(user, eventId);
+                }
+                else if (CMD_UNSUBSCRIBE_VOTES.equals(cmd)) {
+                    voteCountPublisher.unsubscribe(user.getId(), eventId);
+                }
+                else {
+                    sendMessageEvent(user, eventId, packet);
+                }
             }
             else {
                 LOGGER.warn("invalid receiver event ID detected, ignoring the event message!");
@@ -101,6 +126,17 @@ public class EventSystem {
         }
     }
 
+    /**
+     * Push the throttled live vote counts which are pending. The push needs no transaction and
+     * must not block the other callers of the singleton.
+     */
+    @Schedule(hour="*", minute="*", second="*", persistent=false)
+    @Lock(LockType.READ)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void pushVoteCounts() {
+        voteCountPublisher.pushPending();
+    }
+
     /**
      * Send a message to all event members.
      * 
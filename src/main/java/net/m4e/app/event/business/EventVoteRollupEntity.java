@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.EntityBase;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Daily rollup of the voting windows of an event. It is updated whenever a voting window
+ * of the event is closed, see VoteRollups.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Entity
+@Table(indexes = {
+    @Index(name = "IDX_EVENTVOTEROLLUP_EVENT_DAY", columnList = "eventId, day")
+})
+@NamedQueries({
+    /**
+     * Find the rollups of an event in a given range of days.
+     *
+     * Query parameters:
+     *
+     * eventId                  The event ID
+     * dayBegin - dayEnd        Range of days since epoch
+     */
+    @NamedQuery(
+      name = "EventVoteRollupEntity.findRange",
+      query = "SELECT rollup FROM EventVoteRollupEntity rollup WHERE rollup.eventId = :eventId AND rollup.day >= :dayBegin AND rollup.day <= :dayEnd"
+    )
+})
+public class EventVoteRollupEntity extends EntityBase implements Serializable {
+
+    /**
+     * Serialization version
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Unique entity ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * Event ID
+     */
+    private Long eventId = 0L;
+
+    /**
+     * Day since epoch (UTC) the voting windows ended
+     */
+    private Long day = 0L;
+
+    /**
+     * Count of closed voting windows
+     */
+    private Long countWindows = 0L;
+
+    /**
+     * Sum of voting users over all windows
+     */
+    private Long countParticipants = 0L;
+
+    /**
+     * Sum of users who were able to vote over all windows (members and owner)
+     */
+    private Long countMembers = 0L;
+
+    /**
+     * End of the latest voting window which was added
+     */
+    private Long lastWindowEnd = 0L;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public Long getDay() {
+        return day;
+    }
+
+    public void setDay(Long day) {
+        this.day = day;
+    }
+
+    public Long getCountWindows() {
+        return countWindows;
+    }
+
+    public void setCountWindows(Long countWindows) {
+        this.countWindows = countWindows;
+    }
+
+    public Long getCountParticipants() {
+        return countParticipants;
+    }
+
+    public void setCountParticipants(Long countParticipants) {
+        this.countParticipants = countParticipants;
+    }
+
+    public Long getCountMembers() {
+        return countMembers;
+    }
+
+    public void setCountMembers(Long countMembers) {
+        this.countMembers = countMembers;
+    }
+
+    public Long getLastWindowEnd() {
+        return lastWindowEnd;
+    }
+
+    public void setLastWindowEnd(Long lastWindowEnd) {
+        this.lastWindowEnd = lastWindowEnd;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.EntityBase;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Marks a voting window of an event which was added to the vote rollups. Every window is
+ * added only once, also if several nodes try to add it, see VoteRollups.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Entity
+@Table(uniqueConstraints = {
+    @UniqueConstraint(name = "UQ_EVENTVOTEWINDOW_EVENT_WINDOW", columnNames = {"eventId", "windowBegin", "windowEnd"})
+})
+@NamedQueries({
+    /**
+     * Count the markers of a voting window, it is 1 if the window was already added.
+     *
+     * Query parameters:
+     *
+     * eventId                  The event ID
+     * windowBegin - windowEnd  The voting window
+     */
+    @NamedQuery(
+      name = "EventVoteWindowEntity.countWindow",
+      query = "SELECT COUNT(marker.id) FROM EventVoteWindowEntity marker WHERE marker.eventId = :eventId AND marker.windowBegin = :windowBegin AND marker.windowEnd = :windowEnd"
+    )
+})
+public class EventVoteWindowEntity extends EntityBase implements Serializable {
+
+    /**
+     * Serialization version
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Unique entity ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * Event ID
+     */
+    private Long eventId = 0L;
+
+    /**
+     * Begin of the voting window in seconds
+     */
+    private Long windowBegin = 0L;
+
+    /**
+     * End of the voting window in seconds
+     */
+    private Long windowEnd = 0L;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public Long getWindowBegin() {
+        return windowBegin;
+    }
+
+    public void setWindowBegin(Long windowBegin) {
+        this.windowBegin = windowBegin;
+    }
+
+    public Long getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(Long windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+}
@@ -19,6 +19,7 @@ import org.slf4j.*;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.persistence.*;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
 
@@ -36,6 +37,8 @@ public class Events {
 
     private final Users users;
 
+    private final EntityManager entityManager;
+
     private final Entities entities;
 
     private final AppInfos appInfos;
@@ -46,34 +49,67 @@ public class Events {
 
     private final ConnectedClients connectedClients;
 
+    private final EventInfoCache eventInfoCache;
+
+    private final EntityCounters entityCounters;
+
+    private final EventMemberIndex eventMemberIndex;
+
+    private final VoteWindowScheduler voteWindowScheduler;
+
+    private final EventSearchIndex eventSearchIndex;
+
+    private final EventLocations eventLocations;
+
     /**
      * Default constructor needed by the container.
      */
     protected Events() {
+        entityManager = null;
         entities = null;
         users = null;
         appInfos = null;
         mails = null;
         documentPool = null;
         connectedClients = null;
+        eventInfoCache = null;
+        entityCounters = null;
+        eventMemberIndex = null;
+        voteWindowScheduler = null;
+        eventSearchIndex = null;
+        eventLocations = null;
     }
 
     /**
      * Create the Events instance.
      */
     @Inject
-    public Events(@NotNull Entities entities,
+    public Events(@NotNull EntityManager entityManager,
+                  @NotNull Entities entities,
                   @NotNull Users users,
                   @NotNull AppInfos appInfos,
                   @NotNull Mails mails,
                   @NotNull DocumentPool documentPool,
-                  @NotNull ConnectedClients connectedClients) {
+                  @NotNull ConnectedClients connectedClients,
+                  @NotNull EventInfoCache eventInfoCache,
+                  @NotNull EntityCounters entityCounters,
+                  @NotNull EventMemberIndex eventMemberIndex,
+                  @NotNull VoteWindowScheduler voteWindowScheduler,
+                  @NotNull EventSearchIndex eventSearchIndex,
+                  @NotNull EventLocations eventLocations) {
+        this.entityManager = entityManager;
         this.entities = entities;
         this.users = users;
         this.appInfos = appInfos;
         this.mails = mails;
         this.documentPool = documentPool;
         this.connectedClients = connectedClients;
+        this.eventInfoCache = eventInfoCache;
+        this.entityCounters = entityCounters;
+        this.eventMemberIndex = eventMemberIndex;
+        this.voteWindowScheduler = voteWindowScheduler;
+        this.eventSearchIndex = eventSearchIndex;
+        this.eventLocations = eventLocations;
     }
 
     /**
@@ -124,12 +160,15 @@ public class Events {
         event.setMembers(null);
 
         entities.create(event);
+        entityCounters.addEvents(1);
 
         // now re-add photo and members to event entity and update it
         event.setPhoto(photo);
         event.setMembers(members);
 
         entities.update(event);
+        voteWindowScheduler.scheduleEvent(event);
+        eventSearchIndex.putEvent(event);
     }
 
     /**
@@ -139,6 +178,20 @@ public class Events {
      */
     public void deleteEvent(EventEntity event) {
         entities.delete(event);
+        eventInfoCache.invalidateEvent(event.getId());
+        eventMemberIndex.invalidateEvent(event.getId());
+        voteWindowScheduler.unscheduleEvent(event.getId());
+        eventLocations.removeVoteSchedule(event.getId());
+        eventSearchIndex.removeEvent(event.getId());
+        // entities marked as deleted are already excluded from the counts, the locations are deleted along with the event
+        if (!event.getStatus().getIsDeleted()) {
+            entityCounters.addEvents(-1);
+        }
+        if (event.getLocations() != null) {
+            entityCounters.addLocations(-event.getLocations().stream()
+                    .filter(location -> !location.getStatus().getIsDeleted())
+                    .count());
+        }
     }
 
     /**
@@ -148,6 +201,13 @@ public class Events {
      */
     public void updateEvent(EventEntity event) {
         entities.update(event);
+        eventInfoCache.invalidateEvent(event.getId());
+        eventMemberIndex.invalidateEvent(event.getId());
+        voteWindowScheduler.scheduleEvent(event);
+        if ((event.getStatus() == null) || !event.getStatus().getIsActive()) {
+            eventLocations.removeVoteSchedule(event.getId());
+        }
+        eventSearchIndex.putEvent(event);
     }
 
     /**
@@ -174,17 +234,15 @@ public class Events {
         if ((event == null) || !event.getStatus().getIsActive()){
             return null;
         }
-        // go through the event locations and check if the given locationId is found among the event locations and is active
-        EventLocationEntity loc = null;
-        if (event.getLocations() != null) {
-            for(EventLocationEntity l: event.getLocations()) {
-                if (l.getStatus().getIsActive() && (Objects.equals(l.getId(), locationId))) {
-                    loc = l;
-                    break;
-                }
-            }
+        // look up the location in the event's location join table, the other locations are not loaded
+        TypedQuery<EventLocationEntity> query = entityManager.createNamedQuery("EventEntity.findLocation", EventLocationEntity.class);
+        query.setParameter("eventId", eventId);
+        query.setParameter("locationId", locationId);
+        List<EventLocationEntity> results = query.getResultList();
+        if (results.isEmpty() || !results.get(0).getStatus().getIsActive()) {
+            return null;
         }
-        return loc;
+        return results.get(0);
     }
 
     /**
@@ -197,6 +255,7 @@ public class Events {
         // make sure that the resource URL is set
         image.setResourceURL("/Event/Image");
         documentPool.updatePhoto(event, image);
+        eventInfoCache.invalidateEvent(event.getId());
     }
 
     /**
@@ -207,13 +266,14 @@ public class Events {
      * @return          Return true if the user is owner or member of given event, otherwise return false.
      */
     public boolean getUserIsEventOwnerOrMember(UserEntity user, EventEntity event) {
-        boolean owner = Objects.equals(user.getId(), event.getStatus().getIdOwner());
-        if (!owner && (event.getMembers() != null)) {
-            if (event.getMembers().stream().anyMatch((u) -> (Objects.equals(u.getId(), user.getId())))) {
-                return true;
-            } 
+        if (Objects.equals(user.getId(), event.getStatus().getIdOwner())) {
+            return true;
+        }
+        // an event which is not yet persisted cannot be found in the member index
+        if (event.getId() == null) {
+            return (event.getMembers() != null) && event.getMembers().stream().anyMatch((u) -> (Objects.equals(u.getId(), user.getId())));
         }
-        return owner;
+        return eventMemberIndex.isMember(event.getId(), user.getId());
     }
 
     /**
@@ -230,13 +290,10 @@ public class Events {
             return memberids;
         }
 
-        Collection<UserEntity> members = event.getMembers();
         // avoid duplicate IDs by using a set (the sender can be also the owner or part of the members)
         memberids.add(event.getStatus().getIdOwner());
-        if (members != null) {
-            members.forEach((m) -> {
-                memberids.add(m.getId());
-            });
+        for (long memberId: eventMemberIndex.getMemberIds(eventId)) {
+            memberids.add(memberId);
         }
         return memberids;
     }
@@ -282,6 +339,67 @@ public class Events {
         updateEvent(event);
     }
 
+    /**
+     * Add multiple users to given event with one single update. Users which are already members
+     * or the event owner are skipped.
+     *
+     * @param event       Event
+     * @param usersToAdd  Users to add
+     * @return            The users which were added
+     */
+    public List<UserEntity> addMembers(EventEntity event, Collection<UserEntity> usersToAdd) {
+        Collection<UserEntity> members = event.getMembers();
+        if (members == null) {
+            members = new ArrayList<>();
+            event.setMembers(members);
+        }
+        Set<Long> memberIds = new HashSet<>();
+        members.forEach(member -> memberIds.add(member.getId()));
+        memberIds.add(event.getStatus().getIdOwner());
+
+        List<UserEntity> addedUsers = new ArrayList<>();
+        for (UserEntity user: usersToAdd) {
+            if (memberIds.add(user.getId())) {
+                members.add(user);
+                addedUsers.add(user);
+            }
+        }
+        if (!addedUsers.isEmpty()) {
+            updateEvent(event);
+        }
+        return addedUsers;
+    }
+
+    /**
+     * Remove multiple users from given event with one single update. Users which are not members
+     * are skipped.
+     *
+     * @param event           Event
+     * @param usersToRemove   Users to remove
+     * @return                The users which were removed
+     */
+    public List<UserEntity> removeMembers(EventEntity event, Collection<UserEntity> usersToRemove) {
+        List<UserEntity> removedUsers = new ArrayList<>();
+        Collection<UserEntity> members = event.getMembers();
+        if (members == null) {
+            return removedUsers;
+        }
+        Map<Long, UserEntity> toRemove = new HashMap<>();
+        usersToRemove.forEach(user -> toRemove.put(user.getId(), user));
+        members.removeIf(member -> {
+            UserEntity user = toRemove.remove(member.getId());
+            if (user == null) {
+                return false;
+            }
+            removedUsers.add(user);
+            return true;
+        });
+        if (!removedUsers.isEmpty()) {
+            updateEvent(event);
+        }
+        return removedUsers;
+    }
+
     /**
      * Remove any user in given list from an event.
      * 
@@ -314,6 +432,11 @@ public class Events {
         }
         status.setDateDeletion((new Date().getTime()));
         entities.update(event);
+        eventInfoCache.invalidateEvent(event.getId());
+        eventMemberIndex.invalidateEvent(event.getId());
+        voteWindowScheduler.unscheduleEvent(event.getId());
+        eventLocations.removeVoteSchedule(event.getId());
+        eventSearchIndex.removeEvent(event.getId());
 
         // update the app stats
         AppInfoEntity appinfo = appInfos.getAppInfoEntity();
@@ -322,6 +445,7 @@ public class Events {
         }
         appinfo.incrementEventCountPurge(1L);
         entities.update(appinfo);
+        entityCounters.addEvents(-1);
     }
 
     /**
@@ -349,6 +473,69 @@ public class Events {
      * @param member    The new member
      */
     public void createEventJoiningMail(EventEntity event, UserEntity member) {
+        createMails(Collections.singletonList(createJoiningMail(event, member)));
+    }
+
+    /**
+     * Create inbox messages for multiple new event members. The mails are persisted in the
+     * current transaction, their inserts are sent to database in JDBC batches on commit
+     * (see eclipselink.jdbc.batch-writing in persistence.xml).
+     *
+     * @param event     The event
+     * @param members   The new members
+     */
+    public void createEventJoiningMails(EventEntity event, Collection<UserEntity> members) {
+        List<MailEntity> mailsToCreate = new ArrayList<>();
+        members.forEach(member -> mailsToCreate.add(createJoiningMail(event, member)));
+        createMails(mailsToCreate);
+    }
+
+    /**
+     * Create inbox messages for multiple members who have left an event. Every member gets a mail,
+     * the event owner gets one single mail listing all members, if the owner still exists.
+     *
+     * @param event     The event
+     * @param members   Members who left the event
+     */
+    public void createEventLeavingMails(EventEntity event, Collection<UserEntity> members) {
+        if (members.isEmpty()) {
+            return;
+        }
+        List<MailEntity> mailsToCreate = new ArrayList<>();
+        for (UserEntity member: members) {
+            MailEntity mailUser = new MailEntity();
+            mailUser.setSenderId(0L);
+            mailUser.setReceiverId(member.getId());
+            mailUser.setReceiverName(member.getName());
+            mailUser.setSendDate((new Date()).getTime());
+            mailUser.setSubject("You have left an event");
+            mailUser.setContent("Hi " + member.getName() + ",\n\nwe wanted to confirm that you have left the event '" +
+                                    event.getName() + "'.\n\nBest Regards\nMeet4Eat Team\n");
+            mailsToCreate.add(mailUser);
+        }
+
+        UserEntity ownerEntity = entities.find(UserEntity.class, event.getStatus().getIdOwner());
+        if (ownerEntity != null) {
+            StringBuilder memberNames = new StringBuilder();
+            members.forEach(member -> memberNames.append("\n  ").append(member.getName()));
+
+            MailEntity mailOwner = new MailEntity();
+            mailOwner.setSenderId(0L);
+            mailOwner.setReceiverId(ownerEntity.getId());
+            mailOwner.setReceiverName(ownerEntity.getName());
+            mailOwner.setSendDate((new Date()).getTime());
+            mailOwner.setSubject("Members have left your event");
+            mailOwner.setContent("Hi " + ownerEntity.getName() + ",\n\nwe wanted to let you know that following members have left your event '" +
+                                    event.getName() + "':\n" + memberNames + "\n\nBest Regards\nMeet4Eat Team\n");
+            mailsToCreate.add(mailOwner);
+        }
+        else {
+            LOGGER.warn("*** could not find the owner of event {}, no leaving mail is sent to the owner", event.getId());
+        }
+        createMails(mailsToCreate);
+    }
+
+    private MailEntity createJoiningMail(EventEntity event, UserEntity member) {
         MailEntity mail = new MailEntity();
         mail.setSenderId(0L);
         mail.setReceiverId(member.getId());
@@ -357,8 +544,14 @@ public class Events {
         mail.setSubject("You joined an event");
         mail.setContent("Hi " + member.getName() + ",\n\nwe wanted to let you know that you joined the event '" +
                                 event.getName() + "'.\n\nBest Regards\nMeet4Eat Team\n");
+        return mail;
+    }
+
+    private void createMails(List<MailEntity> mailsToCreate) {
         try {
-            mails.createMail(mail);
+            for (MailEntity mail: mailsToCreate) {
+                mails.createMail(mail);
+            }
         }
         catch (Exception ex) {
             LOGGER.warn("*** could not create mail, reason: " + ex.getLocalizedMessage());
@@ -427,9 +620,14 @@ public class Events {
     }
 
     /**
-     * Export the given event.
+     * Export the given event. The event info is taken from the event info cache and completed by
+     * the current online status of owner and members.
      */
     public EventInfo exportEvent(EventEntity event) {
-        return EventInfo.fromEventEntity(event, connectedClients, users);
+        if (event.getId() == null) {
+            return EventInfo.fromEventEntity(event, connectedClients, users);
+        }
+        EventInfo snapshot = eventInfoCache.getOrCreate(event.getId(), () -> EventInfo.createSnapshot(event, users));
+        return snapshot.withOnlineStatus(connectedClients);
     }
 }
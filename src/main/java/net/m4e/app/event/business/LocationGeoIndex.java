@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.*;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.function.Predicate;
+
+
+/**
+ * A spatial index of all event locations which have coordinates. The locations are kept in a
+ * grid of latitude/longitude cells, so a radius search only looks into the cells overlapping the
+ * search circle. A nearest search runs radius searches with growing radius until enough
+ * locations are found.
+ *
+ * The index is loaded on first use and is kept up to date by EventLocations on location creation,
+ * update and deletion.
+ *
+ * NOTE: The index is local to the node, it is not shared in a cluster.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class LocationGeoIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Mean earth radius in meters
+     */
+    public static final double EARTH_RADIUS = 6_371_008.8;
+
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS * Math.PI / 180.0;
+
+    /**
+     * Cell size in degrees, about 11 km in latitude
+     */
+    private static final double CELL_DEGREES = 0.1;
+
+    private static final int COUNT_LAT_CELLS = (int) Math.round(180.0 / CELL_DEGREES);
+
+    private static final int COUNT_LON_CELLS = (int) Math.round(360.0 / CELL_DEGREES);
+
+    /**
+     * Largest distance between two points on earth, with a margin for rounding errors
+     */
+    private static final double MAX_DISTANCE = Math.PI * EARTH_RADIUS + 1.0;
+
+    /**
+     * First search radius in meters of a nearest search
+     */
+    private static final double NEAREST_START_RADIUS = 1000.0;
+
+    private final EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long /*cell key*/, List<GeoEntry>> cells = new HashMap<>();
+
+    private final Map<Long /*location ID*/, GeoEntry> entries = new HashMap<>();
+
+    private volatile boolean loaded;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected LocationGeoIndex() {
+        entityManager = null;
+    }
+
+    /**
+     * Create the index.
+     *
+     * @param entityManager     Entity manager used for loading the location coordinates
+     */
+    @Inject
+    public LocationGeoIndex(@NotNull EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Check if the given coordinates are valid.
+     *
+     * @param latitude      Latitude in degrees
+     * @param longitude     Longitude in degrees
+     * @return              Return true if both values are given and in range.
+     */
+    public static boolean isValidCoordinate(Double latitude, Double longitude) {
+        return (latitude != null) && (longitude != null) &&
+               (latitude >= -90.0) && (latitude <= 90.0) &&
+               (longitude >= -180.0) && (longitude <= 180.0);
+    }
+
+    /**
+     * Get the great-circle distance between two points.
+     *
+     * @return  Distance in meters
+     */
+    public static double getDistance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double lat1 = Math.toRadians(latitude1);
+        double lat2 = Math.toRadians(latitude2);
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Add a new location of an event. Locations without coordinates are not indexed.
+     *
+     * @param eventId   The event the location belongs to
+     * @param location  The location
+     */
+    public void putLocation(@NotNull Long eventId, @NotNull EventLocationEntity location) {
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(location.getId());
+            if (location.getHasCoordinates() && location.getStatus().getIsActive()) {
+                addEntry(new GeoEntry(location.getId(), eventId, location.getLatitude(), location.getLongitude()));
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Update a location after its coordinates or status have changed.
+     *
+     * @param location  The location
+     */
+    public void updateLocation(@NotNull EventLocationEntity location) {
+        if (!loaded) {
+            return;
+        }
+        Long eventId;
+        lock.readLock().lock();
+        try {
+            GeoEntry entry = entries.get(location.getId());
+            eventId = (entry != null) ? entry.eventId : null;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        if (eventId == null) {
+            eventId = findEventId(location.getId());
+        }
+        if (eventId == null) {
+            removeLocation(location.getId());
+        }
+        else {
+            putLocation(eventId, location);
+        }
+    }
+
+    /**
+     * Remove a location from index.
+     *
+     * @param locationId    Location ID
+     */
+    public void removeLocation(Long locationId) {
+        if (!loaded || (locationId == null)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(locationId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find all locations within a radius around a point.
+     *
+     * @param latitude      Latitude of the point
+     * @param longitude     Longitude of the point
+     * @param radius        Radius in meters
+     * @param eventFilter   Only locations of events accepted by this filter are considered. It is called
+     *                      outside of the index lock in distance order until enough locations are found.
+     * @param maxResults    Maximal count of results
+     * @return              The found locations ordered by their distance
+     */
+    public List<GeoMatch> findWithinRadius(double latitude, double longitude, double radius,
+                                           @NotNull Predicate<Long> eventFilter, int maxResults) {
+        ensureLoaded();
+        return filterNearest(getCandidates(latitude, longitude, radius), eventFilter, maxResults);
+    }
+
+    /**
+     * Find the nearest locations to a point. The search radius starts small and is doubled
+     * until enough locations are found, so only the cells around the point are visited.
+     *
+     * @param latitude      Latitude of the point
+     * @param longitude     Longitude of the point
+     * @param count         Count of locations to find
+     * @param eventFilter   Only locations of events accepted by this filter are considered. It is called
+     *                      outside of the index lock in distance order, an event may be tested again after
+     *                      the radius was grown, so the filter should cache its results.
+     * @return              The found locations ordered by their distance
+     */
+    public List<GeoMatch> findNearest(double latitude, double longitude, int count, @NotNull Predicate<Long> eventFilter) {
+        ensureLoaded();
+        if (count < 1) {
+            return new ArrayList<>();
+        }
+        double radius = NEAREST_START_RADIUS;
+        while (true) {
+            List<GeoMatch> candidates = getCandidates(latitude, longitude, radius);
+            // no need to filter as long as there are not enough candidates at all
+            if ((candidates.size() >= count) || (radius >= MAX_DISTANCE)) {
+                // all locations outside of the radius are farther than the accepted ones inside
+                List<GeoMatch> matches = filterNearest(candidates, eventFilter, count);
+                if ((matches.size() >= count) || (radius >= MAX_DISTANCE)) {
+                    return matches;
+                }
+            }
+            radius = Math.min(2 * radius, MAX_DISTANCE);
+        }
+    }
+
+    /**
+     * Get the count of indexed locations.
+     */
+    public int getSize() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drop all entries, the index is loaded again on next use.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            cells.clear();
+            entries.clear();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get all locations within a radius, the read lock is held only while collecting them.
+     */
+    private List<GeoMatch> getCandidates(double latitude, double longitude, double radius) {
+        lock.readLock().lock();
+        try {
+            return collectWithinRadius(latitude, longitude, radius);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collect the locations within a radius. Only the cells overlapping the bounding box of the
+     * search circle are visited, or all entries if there are fewer entries than cells in the box.
+     * The caller must hold the read lock.
+     */
+    private List<GeoMatch> collectWithinRadius(double latitude, double longitude, double radius) {
+        double deltaLat = radius / METERS_PER_DEGREE;
+        int latBegin = getLatCell(latitude - deltaLat);
+        int latEnd = getLatCell(latitude + deltaLat);
+
+        // the circle is widest in longitude at its latitude farthest from equator
+        double maxLat = Math.min(90.0, Math.max(Math.abs(latitude - deltaLat), Math.abs(latitude + deltaLat)));
+        double cosLat = Math.cos(Math.toRadians(maxLat));
+        int lonBegin = 0;
+        int lonEnd = COUNT_LON_CELLS - 1;
+        if ((cosLat > 1e-9) && (deltaLat / cosLat < 180.0)) {
+            double deltaLon = deltaLat / cosLat;
+            int begin = (int) Math.floor((longitude - deltaLon + 180.0) / CELL_DEGREES);
+            int end = (int) Math.floor((longitude + deltaLon + 180.0) / CELL_DEGREES);
+            if (end - begin + 1 < COUNT_LON_CELLS) {
+                lonBegin = begin;
+                lonEnd = end;
+            }
+        }
+
+        List<GeoMatch> matches = new ArrayList<>();
+        long countCells = (long) (latEnd - latBegin + 1) * (lonEnd - lonBegin + 1);
+        if (countCells > entries.size()) {
+            entries.values().forEach(entry -> matchEntry(entry, latitude, longitude, radius, matches));
+            return matches;
+        }
+        for (int latCell = latBegin; latCell <= latEnd; latCell++) {
+            for (int lonCell = lonBegin; lonCell <= lonEnd; lonCell++) {
+                List<GeoEntry> cell = cells.get(getCellKey(latCell, lonCell));
+                if (cell != null) {
+                    cell.forEach(entry -> matchEntry(entry, latitude, longitude, radius, matches));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static void matchEntry(GeoEntry entry, double latitude, double longitude, double radius, List<GeoMatch> matches) {
+        double distance = getDistance(latitude, longitude, entry.latitude, entry.longitude);
+        if (distance <= radius) {
+            matches.add(new GeoMatch(entry.locationId, entry.eventId, distance));
+        }
+    }
+
+    /**
+     * Sort the candidates by distance and take the accepted ones until the limit is reached, so the
+     * filter is not called for candidates beyond the limit.
+     */
+    private static List<GeoMatch> filterNearest(List<GeoMatch> candidates, Predicate<Long> eventFilter, int maxResults) {
+        candidates.sort(Comparator.comparingDouble(GeoMatch::getDistance));
+        List<GeoMatch> matches = new ArrayList<>();
+        for (GeoMatch candidate: candidates) {
+            if (matches.size() >= maxResults) {
+                break;
+            }
+            if (eventFilter.test(candidate.eventId)) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+
+    private static int getLatCell(double latitude) {
+        int cell = (int) Math.floor((latitude + 90.0) / CELL_DEGREES);
+        return Math.max(0, Math.min(COUNT_LAT_CELLS - 1, cell));
+    }
+
+    private static int getLonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / CELL_DEGREES), COUNT_LON_CELLS);
+    }
+
+    private static long getCellKey(int latCell, int lonCell) {
+        return (long) latCell * COUNT_LON_CELLS + Math.floorMod(lonCell, COUNT_LON_CELLS);
+    }
+
+    private void addEntry(GeoEntry entry) {
+        entries.put(entry.locationId, entry);
+        cells.computeIfAbsent(getCellKey(getLatCell(entry.latitude), getLonCell(entry.longitude)), key -> new ArrayList<>()).add(entry);
+    }
+
+    private void removeEntry(Long locationId) {
+        GeoEntry entry = entries.remove(locationId);
+        if (entry == null) {
+            return;
+        }
+        long cellKey = getCellKey(getLatCell(entry.latitude), getLonCell(entry.longitude));
+        List<GeoEntry> cell = cells.get(cellKey);
+        cell.remove(entry);
+        if (cell.isEmpty()) {
+            cells.remove(cellKey);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            TypedQuery<Object[]> query = entityManager.createNamedQuery("EventEntity.findLocationCoordinates", Object[].class);
+            for (Object[] row: query.getResultList()) {
+                addEntry(new GeoEntry((Long) row[1], (Long) row[0], (Double) row[2], (Double) row[3]));
+            }
+            loaded = true;
+            LOGGER.debug("loaded location coordinates: " + entries.size());
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Long findEventId(Long locationId) {
+        TypedQuery<Long> query = entityManager.createNamedQuery("EventEntity.findLocationEventId", Long.class);
+        query.setParameter("locationId", locationId);
+        List<Long> results = query.getResultList();
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    /**
+     * A location found by a search
+     */
+    public static final class GeoMatch {
+
+        private final Long locationId;
+
+        private final Long eventId;
+
+        private final double distance;
+
+        public GeoMatch(final Long locationId, final Long eventId, final double distance) {
+            this.locationId = locationId;
+            this.eventId = eventId;
+            this.distance = distance;
+        }
+
+        public Long getLocationId() {
+            return locationId;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        /**
+         * Distance to the search point in meters
+         */
+        public double getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * An indexed location
+     */
+    private static final class GeoEntry {
+
+        private final Long locationId;
+
+        private final Long eventId;
+
+        private final double latitude;
+
+        private final double longitude;
+
+        GeoEntry(final Long locationId, final Long eventId, final double latitude, final double longitude) {
+            this.locationId = locationId;
+            this.eventId = eventId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+}
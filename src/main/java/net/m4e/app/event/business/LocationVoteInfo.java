@@ -117,13 +117,7 @@ public class LocationVoteInfo {
         voteInfo.setTimeEnd(voteEntity.getVoteTimeEnd());
         voteInfo.setCreationTime(voteEntity.getCreationTime());
 
-        if (voteEntity.getUserIds() != null) {
-            voteInfo.setUserIds(new ArrayList<>(voteEntity.getUserIds()));
-        }
-
-        if (voteEntity.getUserNames() != null) {
-            voteInfo.setUserNames(new ArrayList<>(voteEntity.getUserNames()));
-        }
+        voteInfo.setUserIds(new ArrayList<>(voteEntity.getUserIds()));
 
         return voteInfo;
     }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.Entities;
+import org.jetbrains.annotations.NotNull;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.*;
+import javax.transaction.Transactional;
+import java.util.*;
+
+
+/**
+ * Creates the persisted vote entities of the location vote tallies. The entity is created in
+ * an own transaction, so a tally is only built on an entity which was really committed.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class LocationVoteStore {
+
+    private final EntityManager entityManager;
+
+    private final Entities entities;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected LocationVoteStore() {
+        entityManager = null;
+        entities = null;
+    }
+
+    /**
+     * Create the store.
+     */
+    @Inject
+    public LocationVoteStore(@NotNull EntityManager entityManager, @NotNull Entities entities) {
+        this.entityManager = entityManager;
+        this.entities = entities;
+    }
+
+    /**
+     * Get the vote entity of given location and voting window, create one if it does not exist yet.
+     * The transaction is committed before the method returns.
+     *
+     * @param eventId       Event ID
+     * @param locationId    Event location ID
+     * @param locationName  Event location name
+     * @param voteWindow    Voting window
+     * @return              The vote entity
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public EventLocationVoteEntity getOrCreateVoteEntity(Long eventId, Long locationId, String locationName, VoteWindow voteWindow) {
+        TypedQuery<EventLocationVoteEntity> query = entityManager.createNamedQuery("EventLocationVoteEntity.findLocationVotes", EventLocationVoteEntity.class);
+        query.setParameter("timeBegin", voteWindow.getBegin());
+        query.setParameter("timeEnd", voteWindow.getEnd());
+        query.setParameter("locationId", locationId);
+
+        //! NOTE we expect maximal 1 result here
+        List<EventLocationVoteEntity> voteEntities = query.getResultList();
+        if (!voteEntities.isEmpty()) {
+            return voteEntities.get(0);
+        }
+
+        EventLocationVoteEntity voteEntity = new EventLocationVoteEntity();
+        voteEntity.setEventId(eventId);
+        voteEntity.setLocationId(locationId);
+        voteEntity.setLocationName(locationName);
+        voteEntity.setVoteTimeBegin(voteWindow.getBegin());
+        voteEntity.setVoteTimeEnd(voteWindow.getEnd());
+        voteEntity.setCreationTime((new Date()).getTime() / 1000);
+        entities.create(voteEntity);
+        return voteEntity;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.app.communication.*;
+import net.m4e.app.user.business.UserEntity;
+import net.m4e.common.Entities;
+import net.m4e.system.core.AppConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.concurrent.*;
+
+
+/**
+ * Pushes live location vote counts to event members which subscribed for them over their
+ * WebSocket connection. Vote changes of an event are coalesced and pushed at most a configured
+ * count of times per second, changes arriving in between are sent by the next push.
+ * The membership of the subscribers is checked again on every push, so users removed from an
+ * event stop receiving its vote counts.
+ *
+ * The rate can be configured by the app parameter with name given by AppConfiguration.TOKEN_VOTE_UPDATES_PER_SECOND.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class VoteCountPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    public final static int DEFAULT_VOTE_UPDATES_PER_SECOND = 2;
+
+    private final Entities entities;
+
+    private final Events events;
+
+    private final ConnectedClients connections;
+
+    /**
+     * Minimal time between two pushes of an event in milliseconds
+     */
+    private final long pushInterval;
+
+    private final ConcurrentMap<Long /*event ID*/, EventVoteStream> streams = new ConcurrentHashMap<>();
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected VoteCountPublisher() {
+        entities = null;
+        events = null;
+        connections = null;
+        pushInterval = 0;
+    }
+
+    /**
+     * Create the publisher.
+     */
+    @Inject
+    public VoteCountPublisher(@NotNull Entities entities, @NotNull Events events, @NotNull ConnectedClients connections) {
+        this(entities, events, connections, getConfiguredUpdatesPerSecond());
+    }
+
+    VoteCountPublisher(@NotNull Entities entities, @NotNull Events events, @NotNull ConnectedClients connections, int updatesPerSecond) {
+        this.entities = entities;
+        this.events = events;
+        this.connections = connections;
+        this.pushInterval = 1000L / Math.max(1, updatesPerSecond);
+    }
+
+    /**
+     * Subscribe a user for the vote counts of an event. Only active events and their members are accepted.
+     *
+     * @param user      The user
+     * @param eventId   Event ID
+     * @return          Return false if the user is not allowed to subscribe.
+     */
+    public boolean subscribe(@NotNull UserEntity user, @NotNull Long eventId) {
+        EventEntity event = entities.find(EventEntity.class, eventId);
+        if ((event == null) || !event.getStatus().getIsActive()) {
+            LOGGER.warn("*** Cannot subscribe for vote counts, invalid event: {}", eventId);
+            return false;
+        }
+        if (!events.getUserIsEventOwnerOrMember(user, event)) {
+            LOGGER.warn("*** Cannot subscribe for vote counts, user {} is no member of event: {}", user.getId(), eventId);
+            return false;
+        }
+        EventVoteStream stream = streams.computeIfAbsent(eventId, id -> new EventVoteStream());
+        stream.ownerId = event.getStatus().getIdOwner();
+        stream.subscriberIds.add(user.getId());
+        return true;
+    }
+
+    /**
+     * Unsubscribe a user from the vote counts of an event.
+     */
+    public void unsubscribe(@NotNull Long userId, @NotNull Long eventId) {
+        EventVoteStream stream = streams.get(eventId);
+        if (stream != null) {
+            stream.subscriberIds.remove(userId);
+        }
+    }
+
+    /**
+     * Get the subscribers of given event.
+     */
+    public Set<Long> getSubscribers(@NotNull Long eventId) {
+        EventVoteStream stream = streams.get(eventId);
+        return (stream == null) ? Collections.emptySet() : new HashSet<>(stream.subscriberIds);
+    }
+
+    /**
+     * Publish the changed tally of a location. The update is pushed immediately if the event's
+     * rate allows, otherwise it is pushed by a later call of pushPending.
+     *
+     * @param tally     The changed vote tally
+     */
+    public void publishVote(@NotNull VoteTally tally) {
+        publishVote(tally, System.currentTimeMillis());
+    }
+
+    void publishVote(@NotNull VoteTally tally, long now) {
+        EventVoteStream stream = streams.get(tally.getEventId());
+        if ((stream == null) || stream.subscriberIds.isEmpty()) {
+            return;
+        }
+        VoteCountUpdate update;
+        synchronized (stream) {
+            stream.changedTallies.put(tally.getLocationId(), tally);
+            update = stream.takeUpdate(tally.getEventId(), now, pushInterval);
+        }
+        send(tally.getEventId(), stream, update);
+    }
+
+    /**
+     * Push the pending updates of all events whose rate allows another push.
+     * This is called periodically, see EventSystem.
+     */
+    public void pushPending() {
+        pushPending(System.currentTimeMillis());
+    }
+
+    void pushPending(long now) {
+        streams.forEach((eventId, stream) -> {
+            VoteCountUpdate update;
+            synchronized (stream) {
+                update = stream.takeUpdate(eventId, now, pushInterval);
+            }
+            send(eventId, stream, update);
+            if (stream.subscriberIds.isEmpty()) {
+                streams.remove(eventId, stream);
+            }
+        });
+    }
+
+    private void send(Long eventId, EventVoteStream stream, VoteCountUpdate update) {
+        if (update == null) {
+            return;
+        }
+        // drop the subscribers which are no longer members or no longer connected
+        Set<Long> memberIds = events.getMembers(eventId);
+        stream.subscriberIds.removeIf(id -> (!Objects.equals(id, stream.ownerId) && !memberIds.contains(id)) ||
+                (connections.getConnectedUser(id) == null));
+        if (stream.subscriberIds.isEmpty()) {
+            return;
+        }
+
+        Packet<VoteCountUpdate> packet = new Packet<>();
+        packet.setChannel(Packet.CHANNEL_EVENT);
+        packet.setData(update);
+        packet.setTime((new Date()).getTime());
+        connections.sendPacket(packet, new ArrayList<>(stream.subscriberIds));
+    }
+
+    private static int getConfiguredUpdatesPerSecond() {
+        String value = AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_VOTE_UPDATES_PER_SECOND);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            }
+            catch (NumberFormatException ex) {
+                LOGGER.warn("*** Invalid configuration value for {}: {}", AppConfiguration.TOKEN_VOTE_UPDATES_PER_SECOND, value);
+            }
+        }
+        return DEFAULT_VOTE_UPDATES_PER_SECOND;
+    }
+
+    /**
+     * Subscribers and pending changes of one event
+     */
+    private static class EventVoteStream {
+
+        private final Set<Long> subscriberIds = ConcurrentHashMap.newKeySet();
+
+        private volatile Long ownerId;
+
+        private final Map<Long /*location ID*/, VoteTally> changedTallies = new HashMap<>();
+
+        /**
+         * The last pushed counts, they are used for computing the deltas
+         */
+        private final Map<Long /*location ID*/, Integer> pushedCounts = new HashMap<>();
+
+        private VoteWindow pushedWindow;
+
+        private long lastPushTime;
+
+        /**
+         * Create the update of the changed tallies if the push interval has elapsed. Must be called synchronized.
+         */
+        VoteCountUpdate takeUpdate(Long eventId, long now, long pushInterval) {
+            if (changedTallies.isEmpty() || (now - lastPushTime < pushInterval)) {
+                return null;
+            }
+
+            VoteWindow window = changedTallies.values().iterator().next().getWindow();
+            if (!window.equals(pushedWindow)) {
+                pushedCounts.clear();
+                pushedWindow = window;
+            }
+
+            VoteCountUpdate update = new VoteCountUpdate(eventId.toString(), window.getBegin(), window.getEnd());
+            changedTallies.values().forEach(tally -> {
+                if (!window.equals(tally.getWindow())) {
+                    return;
+                }
+                int count = tally.getCountVotes();
+                Integer lastCount = pushedCounts.put(tally.getLocationId(), count);
+                int delta = count - ((lastCount == null) ? 0 : lastCount);
+                if ((delta != 0) || (lastCount == null)) {
+                    update.addCount(tally.getLocationId().toString(), count, delta);
+                }
+            });
+            changedTallies.clear();
+            lastPushTime = now;
+
+            return update.getCounts().isEmpty() ? null : update;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import java.util.*;
+
+/**
+ * Incremental vote counts of event locations pushed to subscribed event members.
+ * Only the locations whose counts changed since the previous update are contained.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class VoteCountUpdate {
+
+    /**
+     * Packet data type, it lets clients recognize the update in event channel
+     */
+    public static final String TYPE = "votecounts";
+
+    private final String eventId;
+    private final long timeBegin;
+    private final long timeEnd;
+    private final List<LocationCount> counts = new ArrayList<>();
+
+    public VoteCountUpdate(final String eventId, final long timeBegin, final long timeEnd) {
+        this.eventId = eventId;
+        this.timeBegin = timeBegin;
+        this.timeEnd = timeEnd;
+    }
+
+    public String getType() {
+        return TYPE;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public long getTimeBegin() {
+        return timeBegin;
+    }
+
+    public long getTimeEnd() {
+        return timeEnd;
+    }
+
+    public List<LocationCount> getCounts() {
+        return counts;
+    }
+
+    public void addCount(final String locationId, final int count, final int delta) {
+        counts.add(new LocationCount(locationId, count, delta));
+    }
+
+    /**
+     * Vote count of a location and its change since the last update
+     */
+    public static class LocationCount {
+        private final String locationId;
+        private final int count;
+        private final int delta;
+
+        public LocationCount(final String locationId, final int count, final int delta) {
+            this.locationId = locationId;
+            this.count = count;
+            this.delta = delta;
+        }
+
+        public String getLocationId() {
+            return locationId;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getDelta() {
+            return delta;
+        }
+    }
+}
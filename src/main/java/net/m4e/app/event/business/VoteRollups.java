@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.Entities;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.*;
+import javax.transaction.Transactional;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Maintains the daily vote rollups of events and computes voting statistics from them.
+ * The rollups are updated incrementally when a voting window is closed, so statistics
+ * never read the location vote entries.
+ *
+ * A closed window is queued and added when its last votes were flushed (see VoteTallyFlushJob).
+ * It is added from the persisted location votes in an own transaction, a marker entity makes
+ * sure that every window is added only once.
+ *
+ * The queue is kept in memory. The windows which were lost on a shutdown, or which were closed while
+ * no node was running, are queued again by queueMissedWindows.
+ *
+ * NOTE: A window counts the members of the event at the time the window is added, not when it was
+ *       closed. Members which joined or left in between, e.g. while the node was down, change the
+ *       participation rate of the window.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class VoteRollups {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final long SECONDS_PER_DAY = 60 * 60 * 24;
+
+    /**
+     * Count of attempts for adding a window before it is dropped
+     */
+    static final int MAX_ADD_ATTEMPTS = 5;
+
+    /**
+     * Time in seconds for looking back for missed windows, see queueMissedWindows
+     */
+    static final long RECOVERY_PERIOD = 2 * SECONDS_PER_DAY;
+
+    /**
+     * Maximal count of events per query for missed windows
+     */
+    private static final int MAX_RECOVERY_EVENTS = 500;
+
+    private final EntityManager entityManager;
+
+    private final Entities entities;
+
+    private final EventMemberIndex eventMemberIndex;
+
+    /**
+     * Closed windows waiting to be added, the value is the time in seconds when a window is due
+     */
+    private final ConcurrentMap<PendingWindow, Long> pendingWindows = new ConcurrentHashMap<>();
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected VoteRollups() {
+        entityManager = null;
+        entities = null;
+        eventMemberIndex = null;
+    }
+
+    /**
+     * Create the rollups instance.
+     */
+    @Inject
+    public VoteRollups(@NotNull EntityManager entityManager, @NotNull Entities entities, @NotNull EventMemberIndex eventMemberIndex) {
+        this.entityManager = entityManager;
+        this.entities = entities;
+        this.eventMemberIndex = eventMemberIndex;
+    }
+
+    /**
+     * Queue a closed voting window for adding it to the rollups. It becomes due when the votes
+     * which passed the window check right before its end were flushed, see VoteTallyEngine.EVICTION_DELAY.
+     *
+     * @param eventId   Event ID
+     * @param window    The closed voting window
+     * @return          Return false if the window was queued already.
+     */
+    public boolean queueWindow(@NotNull Long eventId, @NotNull VoteWindow window) {
+        return pendingWindows.putIfAbsent(new PendingWindow(eventId, window), window.getEnd() + VoteTallyEngine.EVICTION_DELAY) == null;
+    }
+
+    /**
+     * Queue the windows of given events which were closed within RECOVERY_PERIOD and have votes, but were
+     * not added to the rollups yet.
+     *
+     * @param eventIds  Event IDs
+     * @param now       Current time in seconds since epoch
+     * @return          Count of newly queued windows
+     */
+    public int queueMissedWindows(@NotNull Collection<Long> eventIds, long now) {
+        List<Long> ids = new ArrayList<>(eventIds);
+        int countQueued = 0;
+        for (int first = 0; first < ids.size(); first += MAX_RECOVERY_EVENTS) {
+            TypedQuery<Object[]> query = entityManager.createNamedQuery("EventLocationVoteEntity.findMissedWindows", Object[].class);
+            query.setParameter("eventIds", ids.subList(first, Math.min(first + MAX_RECOVERY_EVENTS, ids.size())));
+            query.setParameter("timeBegin", now - RECOVERY_PERIOD);
+            query.setParameter("timeEnd", now);
+            for (Object[] row: query.getResultList()) {
+                if (queueWindow((Long) row[0], new VoteWindow((Long) row[1], (Long) row[2]))) {
+                    countQueued++;
+                }
+            }
+        }
+        return countQueued;
+    }
+
+    /**
+     * Get the queued windows which are due.
+     *
+     * @param now   Current time in seconds since epoch
+     * @return      The due windows, the earliest first
+     */
+    public List<PendingWindow> getDueWindows(long now) {
+        List<PendingWindow> dueWindows = new ArrayList<>();
+        pendingWindows.forEach((pendingWindow, dueTime) -> {
+            if (dueTime <= now) {
+                dueWindows.add(pendingWindow);
+            }
+        });
+        dueWindows.sort(Comparator.comparingLong((PendingWindow pending) -> pending.getWindow().getEnd()));
+        return dueWindows;
+    }
+
+    /**
+     * Remove a window from the queue after it was added to the rollups.
+     */
+    public void completeWindow(@NotNull PendingWindow pendingWindow) {
+        pendingWindows.remove(pendingWindow);
+    }
+
+    /**
+     * Count a failed attempt of adding a window, the window is dropped after MAX_ADD_ATTEMPTS.
+     */
+    public void failWindow(@NotNull PendingWindow pendingWindow) {
+        if (pendingWindow.attempts.incrementAndGet() >= MAX_ADD_ATTEMPTS) {
+            LOGGER.warn("*** Dropping voting window from rollups after {} attempts, event: {}", MAX_ADD_ATTEMPTS, pendingWindow.getEventId());
+            pendingWindows.remove(pendingWindow);
+        }
+    }
+
+    /**
+     * Get the count of queued windows.
+     */
+    public int getCountPendingWindows() {
+        return pendingWindows.size();
+    }
+
+    /**
+     * Add the persisted votes of a closed voting window to the rollups of the day the window ended.
+     * This runs in an own transaction, windows may be added in any order.
+     *
+     * @param eventId   Event ID
+     * @param window    The closed voting window
+     * @return          Return false if the window was already added before.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public boolean addWindow(@NotNull Long eventId, @NotNull VoteWindow window) {
+        if (isWindowAdded(eventId, window)) {
+            return false;
+        }
+        // a concurrent add of the same window on another node fails by the marker's unique constraint
+        EventVoteWindowEntity marker = new EventVoteWindowEntity();
+        marker.setEventId(eventId);
+        marker.setWindowBegin(window.getBegin());
+        marker.setWindowEnd(window.getEnd());
+        entities.create(marker);
+
+        long day = Math.floorDiv(window.getEnd(), SECONDS_PER_DAY);
+        List<EventLocationVoteEntity> votes = findWindowVotes(eventId, window);
+
+        Set<Long> participants = new HashSet<>();
+        int maxVotes = 0;
+        for (EventLocationVoteEntity vote: votes) {
+            Set<Long> voterIds = vote.getUserIds();
+            participants.addAll(voterIds);
+            maxVotes = Math.max(maxVotes, voterIds.size());
+        }
+
+        List<EventVoteRollupEntity> dayRollups = findEventRollups(eventId, day, day);
+        EventVoteRollupEntity eventRollup;
+        if (dayRollups.isEmpty()) {
+            eventRollup = new EventVoteRollupEntity();
+            eventRollup.setEventId(eventId);
+            eventRollup.setDay(day);
+        }
+        else {
+            eventRollup = dayRollups.get(0);
+        }
+        eventRollup.setCountWindows(eventRollup.getCountWindows() + 1);
+        eventRollup.setCountParticipants(eventRollup.getCountParticipants() + participants.size());
+        // the owner is able to vote as well
+        eventRollup.setCountMembers(eventRollup.getCountMembers() + eventMemberIndex.getMemberIds(eventId).length + 1);
+        eventRollup.setLastWindowEnd(Math.max(eventRollup.getLastWindowEnd(), window.getEnd()));
+        save(eventRollup);
+
+        Map<Long, EventLocationVoteRollupEntity> locationRollups = new HashMap<>();
+        findLocationRollups(eventId, day, day).forEach(rollup -> locationRollups.put(rollup.getLocationId(), rollup));
+        for (EventLocationVoteEntity vote: votes) {
+            EventLocationVoteRollupEntity rollup = locationRollups.computeIfAbsent(vote.getLocationId(), id -> {
+                EventLocationVoteRollupEntity newRollup = new EventLocationVoteRollupEntity();
+                newRollup.setEventId(eventId);
+                newRollup.setLocationId(id);
+                newRollup.setDay(day);
+                return newRollup;
+            });
+            int countVotes = vote.getCountVoters();
+            rollup.setLocationName(vote.getLocationName());
+            rollup.setCountVotes(rollup.getCountVotes() + countVotes);
+            if ((countVotes > 0) && (countVotes == maxVotes)) {
+                rollup.setCountWins(rollup.getCountWins() + 1);
+            }
+            save(rollup);
+        }
+        return true;
+    }
+
+    /**
+     * Compute the voting statistics of an event from its rollups.
+     *
+     * @param eventId       Event ID
+     * @param timeBegin     Begin of time range in seconds since epoch
+     * @param timeEnd       End of time range in seconds since epoch
+     * @return              The statistics of all days touched by the time range
+     */
+    public VoteStats getStats(@NotNull Long eventId, long timeBegin, long timeEnd) {
+        long dayBegin = Math.floorDiv(timeBegin, SECONDS_PER_DAY);
+        long dayEnd = Math.floorDiv(timeEnd, SECONDS_PER_DAY);
+
+        long countWindows = 0;
+        long countParticipants = 0;
+        long countMembers = 0;
+        for (EventVoteRollupEntity rollup: findEventRollups(eventId, dayBegin, dayEnd)) {
+            countWindows += rollup.getCountWindows();
+            countParticipants += rollup.getCountParticipants();
+            countMembers += rollup.getCountMembers();
+        }
+
+        VoteStats stats = new VoteStats(eventId.toString(), dayBegin, dayEnd, countWindows, countParticipants,
+                ratio(countParticipants, countMembers));
+
+        Map<Long, List<EventLocationVoteRollupEntity>> locationRollups = new TreeMap<>();
+        findLocationRollups(eventId, dayBegin, dayEnd).forEach(rollup ->
+                locationRollups.computeIfAbsent(rollup.getLocationId(), id -> new ArrayList<>()).add(rollup));
+
+        final long windows = countWindows;
+        locationRollups.forEach((locationId, rollups) -> {
+            long countVotes = 0;
+            long countWins = 0;
+            String locationName = "";
+            long lastDay = Long.MIN_VALUE;
+            for (EventLocationVoteRollupEntity rollup: rollups) {
+                countVotes += rollup.getCountVotes();
+                countWins += rollup.getCountWins();
+                if (rollup.getDay() > lastDay) {
+                    lastDay = rollup.getDay();
+                    locationName = rollup.getLocationName();
+                }
+            }
+            stats.getLocations().add(new VoteStats.LocationStats(locationId.toString(), locationName, countVotes, countWins,
+                    ratio(countWins, windows), getTrend(rollups, dayBegin, dayEnd)));
+        });
+        return stats;
+    }
+
+    /**
+     * Slope of a least squares fit of the daily votes over the day range, days without votes count as zero.
+     */
+    protected double getTrend(List<EventLocationVoteRollupEntity> rollups, long dayBegin, long dayEnd) {
+        long countDays = dayEnd - dayBegin + 1;
+        if (countDays < 2) {
+            return 0.0;
+        }
+        double sumVotes = 0;
+        double sumDayVotes = 0;
+        for (EventLocationVoteRollupEntity rollup: rollups) {
+            double x = rollup.getDay() - dayBegin;
+            sumVotes += rollup.getCountVotes();
+            sumDayVotes += x * rollup.getCountVotes();
+        }
+        // x runs over 0 .. n-1
+        double n = countDays;
+        double sumX = n * (n - 1) / 2;
+        double sumXX = (n - 1) * n * (2 * n - 1) / 6;
+        return (n * sumDayVotes - sumX * sumVotes) / (n * sumXX - sumX * sumX);
+    }
+
+    private static double ratio(long value, long total) {
+        return (total == 0) ? 0.0 : ((double) value) / total;
+    }
+
+    private void save(EventVoteRollupEntity rollup) {
+        if (rollup.getId() == null) {
+            entities.create(rollup);
+        }
+        else {
+            entities.update(rollup);
+        }
+    }
+
+    private void save(EventLocationVoteRollupEntity rollup) {
+        if (rollup.getId() == null) {
+            entities.create(rollup);
+        }
+        else {
+            entities.update(rollup);
+        }
+    }
+
+    private boolean isWindowAdded(Long eventId, VoteWindow window) {
+        TypedQuery<Long> query = entityManager.createNamedQuery("EventVoteWindowEntity.countWindow", Long.class);
+        query.setParameter("eventId", eventId);
+        query.setParameter("windowBegin", window.getBegin());
+        query.setParameter("windowEnd", window.getEnd());
+        return query.getSingleResult() > 0;
+    }
+
+    private List<EventVoteRollupEntity> findEventRollups(Long eventId, long dayBegin, long dayEnd) {
+        TypedQuery<EventVoteRollupEntity> query = entityManager.createNamedQuery("EventVoteRollupEntity.findRange", EventVoteRollupEntity.class);
+        query.setParameter("eventId", eventId);
+        query.setParameter("dayBegin", dayBegin);
+        query.setParameter("dayEnd", dayEnd);
+        return query.getResultList();
+    }
+
+    private List<EventLocationVoteRollupEntity> findLocationRollups(Long eventId, long dayBegin, long dayEnd) {
+        TypedQuery<EventLocationVoteRollupEntity> query = entityManager.createNamedQuery("EventLocationVoteRollupEntity.findRange", EventLocationVoteRollupEntity.class);
+        query.setParameter("eventId", eventId);
+        query.setParameter("dayBegin", dayBegin);
+        query.setParameter("dayEnd", dayEnd);
+        return query.getResultList();
+    }
+
+    private List<EventLocationVoteEntity> findWindowVotes(Long eventId, VoteWindow window) {
+        TypedQuery<EventLocationVoteEntity> query = entityManager.createNamedQuery("EventLocationVoteEntity.findVotes", EventLocationVoteEntity.class);
+        query.setParameter("timeBegin", window.getBegin());
+        query.setParameter("timeEnd", window.getEnd());
+        query.setParameter("eventId", eventId);
+        return query.getResultList();
+    }
+
+    /**
+     * A closed voting window of an event waiting to be added to the rollups
+     */
+    public static final class PendingWindow {
+
+        private final Long eventId;
+
+        private final VoteWindow window;
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        PendingWindow(final Long eventId, final VoteWindow window) {
+            this.eventId = eventId;
+            this.window = window;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        public VoteWindow getWindow() {
+            return window;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof PendingWindow)) {
+                return false;
+            }
+            PendingWindow pendingWindow = (PendingWindow) other;
+            return eventId.equals(pendingWindow.eventId) && window.equals(pendingWindow.window);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * eventId.hashCode() + window.hashCode();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import org.jetbrains.annotations.*;
+
+import java.time.*;
+import java.util.Objects;
+
+/**
+ * The precomputed voting schedule of an event. It is created from the event's timing fields
+ * and is immutable, so it can be shared by all request threads.
+ *
+ * The voting window ends at event start time or repeated day time (for repeated events) and
+ * begins the amount of 'voting time begin' before the end. Repeated events have a voting window
+ * only on their repeat week days, the week day of a window is the one of its end in the given
+ * time zone. So a window crossing midnight belongs to the day it ends.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public final class VoteSchedule {
+
+    private static final long SECONDS_PER_DAY = 60 * 60 * 24;
+
+    private final long eventStart;
+
+    private final long repeatWeekDays;
+
+    private final long repeatDayTime;
+
+    private final long votingTimeBegin;
+
+    /**
+     * Voting window of a one-shot event
+     */
+    private final VoteWindow oneShotWindow;
+
+    /**
+     * The last window asked for, repeated events mostly ask for the same window.
+     * Replacing it is a benign race, every thread computes the same value.
+     */
+    private volatile ZonedWindow lastWindow;
+
+
+    private VoteSchedule(final long eventStart, final long repeatWeekDays, final long repeatDayTime, final long votingTimeBegin) {
+        this.eventStart = eventStart;
+        this.repeatWeekDays = repeatWeekDays;
+        this.repeatDayTime = repeatDayTime;
+        this.votingTimeBegin = votingTimeBegin;
+        this.oneShotWindow = new VoteWindow(eventStart - votingTimeBegin, eventStart);
+    }
+
+    /**
+     * Create the schedule of given event.
+     */
+    public static VoteSchedule fromEvent(@NotNull EventEntity event) {
+        return fromTiming(event.getEventStart(), event.getRepeatWeekDays(), event.getRepeatDayTime(), event.getVotingTimeBegin());
+    }
+
+    /**
+     * Create the schedule from the timing fields of an event, e.g. loaded by a projection query.
+     */
+    public static VoteSchedule fromTiming(Long eventStart, Long repeatWeekDays, Long repeatDayTime, Long votingTimeBegin) {
+        return new VoteSchedule(toLong(eventStart), toLong(repeatWeekDays), toLong(repeatDayTime), toLong(votingTimeBegin));
+    }
+
+    /**
+     * Check if this schedule was created from the current timing fields of given event.
+     */
+    public boolean matches(@NotNull EventEntity event) {
+        return (eventStart == toLong(event.getEventStart())) &&
+               (repeatWeekDays == toLong(event.getRepeatWeekDays())) &&
+               (repeatDayTime == toLong(event.getRepeatDayTime())) &&
+               (votingTimeBegin == toLong(event.getVotingTimeBegin()));
+    }
+
+    public boolean isRepeated() {
+        return repeatWeekDays > 0L;
+    }
+
+    /**
+     * Get the voting window containing the given time.
+     *
+     * @param now       Time in seconds since epoch
+     * @param zoneId    Time zone used for determining the week day of repeated events
+     * @return          The voting window, or null if there is no voting at given time.
+     */
+    @Nullable
+    public VoteWindow getWindowAt(long now, @NotNull ZoneId zoneId) {
+        if (!isRepeated()) {
+            return oneShotWindow.contains(now) ? oneShotWindow : null;
+        }
+        ZonedWindow cached = lastWindow;
+        if ((cached != null) && cached.window.contains(now) && cached.zoneId.equals(zoneId)) {
+            return cached.window;
+        }
+        // the first window which has not ended contains the time, if any does
+        VoteWindow window = getNextWindow(now, zoneId);
+        if ((window == null) || !window.contains(now)) {
+            return null;
+        }
+        lastWindow = new ZonedWindow(window, zoneId);
+        return window;
+    }
+
+    /**
+     * Get the first voting window which has not ended before the given time. This can be
+     * the window containing the time.
+     *
+     * @param time      Time in seconds since epoch
+     * @param zoneId    Time zone used for determining the week day of repeated events
+     * @return          The voting window, or null if there is no more voting.
+     */
+    @Nullable
+    public VoteWindow getNextWindow(long time, @NotNull ZoneId zoneId) {
+        if (!isRepeated()) {
+            return (oneShotWindow.getEnd() >= time) ? oneShotWindow : null;
+        }
+        //! NOTE the repeat day time is expected to be in UTC
+        // one more day than a week, the window of today may have already ended
+        long firstDay = Math.floorDiv(time, SECONDS_PER_DAY);
+        for (long day = firstDay; day <= firstDay + 7; day++) {
+            long end = repeatDayTime + day * SECONDS_PER_DAY;
+            if ((end >= time) && isRepeatWeekDay(end, zoneId)) {
+                return new VoteWindow(end - votingTimeBegin, end);
+            }
+        }
+        return null;
+    }
+
+    private boolean isRepeatWeekDay(long time, ZoneId zoneId) {
+        //! NOTE bit 0 of the repeat week days is Monday
+        int weekDay = Instant.ofEpochSecond(time).atZone(zoneId).getDayOfWeek().getValue() - 1;
+        return ((1L << weekDay) & repeatWeekDays) != 0L;
+    }
+
+    private static long toLong(Long value) {
+        return Objects.isNull(value) ? 0L : value;
+    }
+
+    /**
+     * A window and the time zone it was computed in
+     */
+    private static final class ZonedWindow {
+
+        private final VoteWindow window;
+
+        private final ZoneId zoneId;
+
+        ZonedWindow(final VoteWindow window, final ZoneId zoneId) {
+            this.window = window;
+            this.zoneId = zoneId;
+        }
+    }
+}
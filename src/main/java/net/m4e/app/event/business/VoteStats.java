@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import java.util.*;
+
+/**
+ * Aggregated voting statistics of an event in a range of days, see VoteRollups.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class VoteStats {
+
+    private final String eventId;
+    private final long dayBegin;
+    private final long dayEnd;
+    private final long countWindows;
+    private final long countParticipants;
+    private final double participationRate;
+    private final List<LocationStats> locations = new ArrayList<>();
+
+    public VoteStats(final String eventId,
+                     final long dayBegin,
+                     final long dayEnd,
+                     final long countWindows,
+                     final long countParticipants,
+                     final double participationRate) {
+        this.eventId = eventId;
+        this.dayBegin = dayBegin;
+        this.dayEnd = dayEnd;
+        this.countWindows = countWindows;
+        this.countParticipants = countParticipants;
+        this.participationRate = participationRate;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    /**
+     * First day of the range, in days since epoch (UTC)
+     */
+    public long getDayBegin() {
+        return dayBegin;
+    }
+
+    /**
+     * Last day of the range, in days since epoch (UTC)
+     */
+    public long getDayEnd() {
+        return dayEnd;
+    }
+
+    public long getCountWindows() {
+        return countWindows;
+    }
+
+    public long getCountParticipants() {
+        return countParticipants;
+    }
+
+    /**
+     * Ratio of voting users and users who were able to vote, over all windows
+     */
+    public double getParticipationRate() {
+        return participationRate;
+    }
+
+    public List<LocationStats> getLocations() {
+        return locations;
+    }
+
+    /**
+     * Statistics of one location
+     */
+    public static class LocationStats {
+        private final String locationId;
+        private final String locationName;
+        private final long countVotes;
+        private final long countWins;
+        private final double winRate;
+        private final double trend;
+
+        public LocationStats(final String locationId,
+                             final String locationName,
+                             final long countVotes,
+                             final long countWins,
+                             final double winRate,
+                             final double trend) {
+            this.locationId = locationId;
+            this.locationName = locationName;
+            this.countVotes = countVotes;
+            this.countWins = countWins;
+            this.winRate = winRate;
+            this.trend = trend;
+        }
+
+        public String getLocationId() {
+            return locationId;
+        }
+
+        public String getLocationName() {
+            return locationName;
+        }
+
+        public long getCountVotes() {
+            return countVotes;
+        }
+
+        public long getCountWins() {
+            return countWins;
+        }
+
+        /**
+         * Ratio of won windows and all windows
+         */
+        public double getWinRate() {
+            return winRate;
+        }
+
+        /**
+         * Change of daily votes per day over the range (slope of a linear fit),
+         * a positive value means the location gets more popular.
+         */
+        public double getTrend() {
+            return trend;
+        }
+    }
+}
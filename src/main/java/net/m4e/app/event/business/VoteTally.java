@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The in-memory votes of one event location in one voting window. It is backed by an
+ * EventLocationVoteEntity, which is updated by the VoteTallyEngine (write-behind).
+ *
+ * The tally keeps the votes changed on this node since the last flush, only these changes are
+ * merged into the entity. So the votes of other cluster nodes are not overwritten, and they are
+ * taken into the tally whenever it is flushed.
+ *
+ * Every change increments the version. The tally is dirty as long as the flushed version is behind.
+ * Reading the voters is lock-free.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class VoteTally {
+
+    private final Long votesId;
+
+    private final Long eventId;
+
+    private final Long locationId;
+
+    private final VoteWindow window;
+
+    private final Set<Long> userIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * The votes changed since the last flush by voter ID: true for voting, false for unvoting
+     */
+    private final Map<Long, Boolean> pendingVotes = new HashMap<>();
+
+    private volatile long flushedVersion;
+
+
+    /**
+     * Create a tally with the current votes in given entity.
+     *
+     * @param voteEntity    The persisted vote entity
+     * @param window        The voting window of the entity
+     */
+    public VoteTally(@NotNull EventLocationVoteEntity voteEntity, @NotNull VoteWindow window) {
+        this.votesId = voteEntity.getId();
+        this.eventId = voteEntity.getEventId();
+        this.locationId = voteEntity.getLocationId();
+        this.window = window;
+        userIds.addAll(voteEntity.getUserIds());
+    }
+
+    /**
+     * Vote or unvote for the location.
+     *
+     * @param userId    Voter ID
+     * @param vote      true for voting, false for unvoting
+     */
+    public synchronized void vote(Long userId, boolean vote) {
+        boolean changed = vote ? userIds.add(userId) : userIds.remove(userId);
+        if (changed) {
+            pendingVotes.put(userId, vote);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * ID of the backing EventLocationVoteEntity
+     */
+    public Long getVotesId() {
+        return votesId;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public Long getLocationId() {
+        return locationId;
+    }
+
+    public VoteWindow getWindow() {
+        return window;
+    }
+
+    /**
+     * Get a snapshot of the voter IDs.
+     */
+    public Set<Long> getUserIds() {
+        return new HashSet<>(userIds);
+    }
+
+    public int getCountVotes() {
+        return userIds.size();
+    }
+
+    /**
+     * Are there changes which were not flushed yet?
+     */
+    public boolean isDirty() {
+        return version.get() != flushedVersion;
+    }
+
+    /**
+     * Get the votes changed since the last flush together with the current version.
+     */
+    synchronized Changes getChanges() {
+        return new Changes(version.get(), new HashMap<>(pendingVotes));
+    }
+
+    /**
+     * Mark the given changes as flushed and take over the committed voters of all nodes. Commits of concurrent
+     * flushes may complete in any order, an older version never replaces a newer one.
+     *
+     * @param changes           The flushed changes
+     * @param committedUserIds  The voters written to the entity, or null if the entity no longer exists
+     */
+    synchronized void flushed(@NotNull Changes changes, Set<Long> committedUserIds) {
+        if (changes.version > flushedVersion) {
+            flushedVersion = changes.version;
+        }
+        changes.votes.forEach(pendingVotes::remove);
+        if (committedUserIds == null) {
+            return;
+        }
+        // the votes changed meanwhile on this node are kept
+        userIds.removeIf(userId -> !committedUserIds.contains(userId) && !pendingVotes.containsKey(userId));
+        committedUserIds.forEach(userId -> {
+            if (!pendingVotes.containsKey(userId)) {
+                userIds.add(userId);
+            }
+        });
+    }
+
+    /**
+     * Votes changed on this node which are not flushed yet
+     */
+    static final class Changes {
+
+        private final long version;
+
+        private final Map<Long, Boolean> votes;
+
+        Changes(long version, Map<Long, Boolean> votes) {
+            this.version = version;
+            this.votes = votes;
+        }
+
+        /**
+         * Apply the changes to given voters.
+         */
+        void applyTo(@NotNull Set<Long> voterIds) {
+            votes.forEach((userId, vote) -> {
+                if (vote) {
+                    voterIds.add(userId);
+                }
+                else {
+                    voterIds.remove(userId);
+                }
+            });
+        }
+    }
+}
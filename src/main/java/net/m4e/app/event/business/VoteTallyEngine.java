@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.*;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.transaction.Transactional;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+
+/**
+ * In-memory vote tallies of all event locations which are voted in an open voting window.
+ * Votes only change the tallies, the backing EventLocationVoteEntity instances are updated
+ * in batches by calling flush (see VoteTallyFlushJob).
+ *
+ * A tally is kept until its voting window is closed and its last changes are flushed, so the
+ * final votes of every window are written to database. A tally counts as flushed only after
+ * the transaction which wrote it was committed.
+ *
+ * Every node of a cluster keeps own tallies. A flush merges only the votes changed on the node
+ * into a freshly read entity, which is versioned. If another node committed the entity meanwhile
+ * then the transaction fails with an optimistic lock error and the changes are flushed again
+ * next time, so no node overwrites the votes of the others.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class VoteTallyEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Time in seconds a tally is kept after its window was closed. It covers votes which passed
+     * the window check right before the window was closed.
+     */
+    public static final long EVICTION_DELAY = 60;
+
+    private final Entities entities;
+
+    private final TransactionCallbacks transactionCallbacks;
+
+    private final ConcurrentMap<TallyKey, VoteTally> tallies = new ConcurrentHashMap<>();
+
+    /**
+     * Locks of the tallies which are currently created, the vote entities are loaded outside of the tally map
+     */
+    private final ConcurrentMap<TallyKey, Object> creationLocks = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long /*votes ID*/, VoteTally> talliesById = new ConcurrentHashMap<>();
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected VoteTallyEngine() {
+        entities = null;
+        transactionCallbacks = null;
+    }
+
+    /**
+     * Create the engine.
+     *
+     * @param entities                Entities used for flushing the tallies
+     * @param transactionCallbacks    Used for marking the tallies as flushed after commit
+     */
+    @Inject
+    public VoteTallyEngine(@NotNull Entities entities, @NotNull TransactionCallbacks transactionCallbacks) {
+        this.entities = entities;
+        this.transactionCallbacks = transactionCallbacks;
+    }
+
+    /**
+     * Get the tally of given location and voting window. If there is none yet then one is created
+     * from the vote entity provided by given loader, the loader is called at most once per tally.
+     * The loader is expected to commit a newly created entity before it returns, the tally is only
+     * cached after the loader succeeded.
+     *
+     * @param locationId    Event location ID
+     * @param window        Voting window
+     * @param loader        Provides the persisted vote entity of location and window
+     * @return              The vote tally
+     */
+    public VoteTally getOrCreateTally(@NotNull Long locationId, @NotNull VoteWindow window, @NotNull Supplier<EventLocationVoteEntity> loader) {
+        TallyKey key = new TallyKey(locationId, window);
+        VoteTally tally = tallies.get(key);
+        if (tally != null) {
+            return tally;
+        }
+        Object lock = creationLocks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                tally = tallies.get(key);
+                if (tally == null) {
+                    tally = new VoteTally(loader.get(), window);
+                    if (tally.getVotesId() != null) {
+                        talliesById.put(tally.getVotesId(), tally);
+                    }
+                    tallies.put(key, tally);
+                }
+                return tally;
+            }
+        }
+        finally {
+            creationLocks.remove(key, lock);
+        }
+    }
+
+    /**
+     * Get the tally backed by the vote entity with given ID.
+     *
+     * @param votesId   ID of the EventLocationVoteEntity
+     * @return          The tally or null if there is no tally for the given entity.
+     */
+    public VoteTally getTally(Long votesId) {
+        return (votesId == null) ? null : talliesById.get(votesId);
+    }
+
+    /**
+     * Get the tallies of given event.
+     */
+    public List<VoteTally> getEventTallies(@NotNull Long eventId) {
+        List<VoteTally> eventTallies = new ArrayList<>();
+        tallies.values().forEach(tally -> {
+            if (Objects.equals(tally.getEventId(), eventId)) {
+                eventTallies.add(tally);
+            }
+        });
+        return eventTallies;
+    }
+
+    /**
+     * Write all changed tallies to their entities in an own transaction.
+     *
+     * @return      Count of updated entities
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public int flushTallies() {
+        return flush();
+    }
+
+    /**
+     * Write all changed tallies to their entities. This must be called in a transaction, the
+     * tallies are marked as flushed when the transaction was committed.
+     *
+     * @return      Count of updated entities
+     */
+    public int flush() {
+        int countFlushed = 0;
+        for (VoteTally tally: tallies.values()) {
+            if (tally.isDirty() && flushTally(tally)) {
+                countFlushed++;
+            }
+        }
+        return countFlushed;
+    }
+
+    /**
+     * Drop the flushed tallies of closed windows.
+     *
+     * @param now   Current time in seconds since epoch
+     * @return      The dropped tallies
+     */
+    public List<VoteTally> evictClosed(long now) {
+        List<VoteTally> evicted = new ArrayList<>();
+        for (Map.Entry<TallyKey, VoteTally> entry: tallies.entrySet()) {
+            VoteTally tally = entry.getValue();
+            if (!tally.isDirty() && (tally.getWindow().getEnd() + EVICTION_DELAY < now) && tallies.remove(entry.getKey(), tally)) {
+                if (tally.getVotesId() != null) {
+                    talliesById.remove(tally.getVotesId(), tally);
+                }
+                evicted.add(tally);
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Get the count of current tallies.
+     */
+    public int getSize() {
+        return tallies.size();
+    }
+
+    private boolean flushTally(@NotNull VoteTally tally) {
+        VoteTally.Changes changes = tally.getChanges();
+        try {
+            // the entity may have been changed by another node, so don't take it from the shared cache
+            EventLocationVoteEntity voteEntity = entities.findUncached(EventLocationVoteEntity.class, tally.getVotesId());
+            if (voteEntity == null) {
+                LOGGER.warn("*** Vote entity no longer exists, dropping its votes, ID: {}", tally.getVotesId());
+                tally.flushed(changes, null);
+                return false;
+            }
+            Set<Long> userIds = new HashSet<>(voteEntity.getUserIds());
+            changes.applyTo(userIds);
+            voteEntity.setUserIds(userIds);
+            entities.update(voteEntity);
+            transactionCallbacks.afterCommit(() -> tally.flushed(changes, userIds));
+            return true;
+        }
+        catch (Exception ex) {
+            LOGGER.warn("*** Could not flush location votes, ID: {}, reason: {}", tally.getVotesId(), ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Key of a tally: location and voting window
+     */
+    private static final class TallyKey {
+
+        private final Long locationId;
+
+        private final VoteWindow window;
+
+        TallyKey(final Long locationId, final VoteWindow window) {
+            this.locationId = locationId;
+            this.window = window;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof TallyKey)) {
+                return false;
+            }
+            TallyKey key = (TallyKey) other;
+            return locationId.equals(key.locationId) && window.equals(key.window);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * locationId.hashCode() + window.hashCode();
+        }
+    }
+}
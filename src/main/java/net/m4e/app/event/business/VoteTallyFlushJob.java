@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import org.slf4j.*;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+
+
+/**
+ * Periodically writes the in-memory location vote tallies to database and adds the closed
+ * voting windows to the vote rollups. The tallies are written and every window is added in
+ * an own transaction, so a window is only added from committed votes. If the tallies could not
+ * be written, e.g. because another node changed the same votes meanwhile, then they are written
+ * on the next run. The last changes are written on shutdown.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Singleton
+@Startup
+public class VoteTallyFlushJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final VoteTallyEngine voteTallyEngine;
+
+    private final VoteRollups voteRollups;
+
+    /**
+     * EJB's default constructor.
+     */
+    protected VoteTallyFlushJob() {
+        voteTallyEngine = null;
+        voteRollups = null;
+    }
+
+    /**
+     * Create the bean.
+     *
+     * @param voteTallyEngine   The vote tally engine
+     * @param voteRollups       The vote rollups
+     */
+    @Inject
+    public VoteTallyFlushJob(VoteTallyEngine voteTallyEngine, VoteRollups voteRollups) {
+        this.voteTallyEngine = voteTallyEngine;
+        this.voteRollups = voteRollups;
+    }
+
+    /**
+     * Flush the changed tallies, then add the due voting windows to the rollups. A window is
+     * postponed as long as this node still holds one of its tallies, it may not be flushed yet.
+     */
+    @Schedule(hour="*", minute="*", second="*/10", persistent=false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void flush() {
+        try {
+            int countFlushed = voteTallyEngine.flushTallies();
+            if (countFlushed > 0) {
+                LOGGER.debug("flushed location votes: " + countFlushed);
+            }
+        }
+        catch (Exception ex) {
+            LOGGER.warn("*** Could not flush location votes, retrying on next run, reason: {}", ex.getMessage());
+        }
+        long now = System.currentTimeMillis() / 1000;
+        voteTallyEngine.evictClosed(now);
+
+        int countWindows = 0;
+        for (VoteRollups.PendingWindow pendingWindow: voteRollups.getDueWindows(now)) {
+            if (hasTallies(pendingWindow)) {
+                continue;
+            }
+            try {
+                if (voteRollups.addWindow(pendingWindow.getEventId(), pendingWindow.getWindow())) {
+                    countWindows++;
+                }
+                voteRollups.completeWindow(pendingWindow);
+            }
+            catch (Exception ex) {
+                LOGGER.warn("*** Could not add voting window to rollups, event: {}, reason: {}", pendingWindow.getEventId(), ex.getMessage());
+                voteRollups.failWindow(pendingWindow);
+            }
+        }
+        if (countWindows > 0) {
+            LOGGER.debug("added voting windows to rollups: " + countWindows);
+        }
+    }
+
+    /**
+     * Flush all pending votes before the application goes down.
+     */
+    @PreDestroy
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void flushOnShutdown() {
+        LOGGER.info("flushing pending location votes");
+        voteTallyEngine.flush();
+    }
+
+    private boolean hasTallies(VoteRollups.PendingWindow pendingWindow) {
+        return voteTallyEngine.getEventTallies(pendingWindow.getEventId()).stream()
+                .anyMatch(tally -> tally.getWindow().equals(pendingWindow.getWindow()));
+    }
+}
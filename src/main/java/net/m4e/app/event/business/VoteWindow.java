@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+/**
+ * An immutable voting time window. Begin and end are given in seconds since epoch (UTC),
+ * both are part of the window.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public final class VoteWindow {
+
+    private final long begin;
+
+    private final long end;
+
+
+    public VoteWindow(final long begin, final long end) {
+        this.begin = begin;
+        this.end = end;
+    }
+
+    public long getBegin() {
+        return begin;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Check if the given time is inside of the window.
+     *
+     * @param time  Time in seconds since epoch
+     * @return      Return true if begin <= time <= end
+     */
+    public boolean contains(long time) {
+        return (time >= begin) && (time <= end);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof VoteWindow)) {
+            return false;
+        }
+        VoteWindow window = (VoteWindow) other;
+        return (begin == window.begin) && (end == window.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(begin) + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return "VoteWindow[" + begin + " - " + end + "]";
+    }
+}
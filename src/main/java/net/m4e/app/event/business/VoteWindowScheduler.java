@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.TimerWheel;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.*;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Drives the voting windows of all active events. The next window of every event is precomputed
+ * and its begin and end are kept in a timer wheel. When a window opens the event's vote caches are
+ * warmed up and the members are notified. When it closes the window is queued for the vote rollups,
+ * the members are notified and the next window of the event is scheduled.
+ *
+ * Events are scheduled on startup and whenever they are created or changed, see Events.
+ * A periodic refresh catches up with changes made by other nodes. It also queues the recently
+ * closed windows which were not added to the vote rollups, e.g. because they were closed while
+ * the node was down.
+ *
+ * The scheduling state is kept in concurrent structures, so scheduling an event never waits for
+ * the database work of due windows. That work is done by VoteWindowTasks, one transaction per window
+ * begin or end.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Singleton
+@Startup
+@Lock(LockType.READ)
+public class VoteWindowScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Timer wheel slots, one per second. Windows further ahead wait in their slot for more revolutions.
+     */
+    private static final int COUNT_WHEEL_SLOTS = 4096;
+
+    private final VoteWindowTasks voteWindowTasks;
+
+    /**
+     * Provides the current time in seconds since epoch
+     */
+    private final LongSupplier clock;
+
+    private final ZoneId zoneId;
+
+    private final TimerWheel<WindowTask> timerWheel;
+
+    private final ConcurrentMap<Long /*event ID*/, VoteWindow> scheduledWindows = new ConcurrentHashMap<>();
+
+    /**
+     * Is set while a tick processes the due windows, a tick which takes longer is not overrun by the next one
+     */
+    private final AtomicBoolean ticking = new AtomicBoolean();
+
+
+    /**
+     * EJB's default constructor.
+     */
+    protected VoteWindowScheduler() {
+        voteWindowTasks = null;
+        clock = null;
+        zoneId = null;
+        timerWheel = null;
+    }
+
+    /**
+     * Create the bean.
+     */
+    @Inject
+    public VoteWindowScheduler(@NotNull VoteWindowTasks voteWindowTasks) {
+        this(voteWindowTasks, () -> System.currentTimeMillis() / 1000, ZoneId.systemDefault());
+    }
+
+    VoteWindowScheduler(@NotNull VoteWindowTasks voteWindowTasks, @NotNull LongSupplier clock, @NotNull ZoneId zoneId) {
+        this.voteWindowTasks = voteWindowTasks;
+        this.clock = clock;
+        this.zoneId = zoneId;
+        this.timerWheel = new TimerWheel<>(1, COUNT_WHEEL_SLOTS, clock.getAsLong());
+    }
+
+    /**
+     * Called on post-construction of the instance.
+     */
+    @PostConstruct
+    public void voteWindowSchedulerInit() {
+        refresh();
+    }
+
+    /**
+     * Schedule the voting windows of all active events and remove the windows of the other ones.
+     * Only the timing of the events is loaded. The missed windows of the active events are queued
+     * for the vote rollups.
+     */
+    @Schedule(hour="*", minute="*/10", persistent=false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void refresh() {
+        Map<Long, VoteSchedule> schedules = voteWindowTasks.findActiveSchedules();
+        schedules.forEach(this::scheduleEvent);
+        new ArrayList<>(scheduledWindows.keySet()).stream()
+                .filter(eventId -> !schedules.containsKey(eventId))
+                .forEach(this::unscheduleEvent);
+        LOGGER.debug("scheduled voting windows: " + scheduledWindows.size());
+
+        try {
+            int countMissed = voteWindowTasks.queueMissedWindows(schedules.keySet(), clock.getAsLong());
+            if (countMissed > 0) {
+                LOGGER.info("queued missed voting windows for rollups: " + countMissed);
+            }
+        }
+        catch (Exception ex) {
+            LOGGER.warn("*** Could not queue the missed voting windows, reason: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Process the window begins and ends which became due, each one in an own transaction.
+     */
+    @Schedule(hour="*", minute="*", second="*", persistent=false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void tick() {
+        if (!ticking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (WindowTask task: timerWheel.advance(clock.getAsLong())) {
+                processTask(task);
+            }
+        }
+        finally {
+            ticking.set(false);
+        }
+    }
+
+    /**
+     * Schedule the next voting window of given event, or remove its window if the event is no longer active.
+     * An already scheduled window is replaced if the event timing has changed.
+     *
+     * @param event     The event
+     */
+    public void scheduleEvent(@NotNull EventEntity event) {
+        if ((event.getId() == null) || (event.getStatus() == null) || !event.getStatus().getIsActive()) {
+            if (event.getId() != null) {
+                unscheduleEvent(event.getId());
+            }
+            return;
+        }
+        scheduleEvent(event.getId(), VoteSchedule.fromEvent(event));
+    }
+
+    /**
+     * Remove the scheduled voting window of given event.
+     *
+     * @param eventId   Event ID
+     */
+    public void unscheduleEvent(@NotNull Long eventId) {
+        synchronized (timerWheel) {
+            if (scheduledWindows.remove(eventId) != null) {
+                timerWheel.remove(task -> task.eventId.equals(eventId));
+            }
+        }
+    }
+
+    /**
+     * Get the scheduled voting window of given event.
+     *
+     * @param eventId   Event ID
+     * @return          The next or current voting window, or null if none is scheduled.
+     */
+    public VoteWindow getScheduledWindow(@NotNull Long eventId) {
+        return scheduledWindows.get(eventId);
+    }
+
+    private void scheduleEvent(Long eventId, VoteSchedule schedule) {
+        long now = clock.getAsLong();
+        VoteWindow window = schedule.getNextWindow(now, zoneId);
+        // the check and the replacement are atomic, they are in-memory only
+        synchronized (timerWheel) {
+            if (Objects.equals(window, scheduledWindows.get(eventId))) {
+                return;
+            }
+            unscheduleEvent(eventId);
+            if (window == null) {
+                return;
+            }
+
+            scheduledWindows.put(eventId, window);
+            // an already open window gets no opening notification
+            if (window.getBegin() >= now) {
+                timerWheel.schedule(window.getBegin(), new WindowTask(eventId, window, true));
+            }
+            // the end time is still part of the window
+            timerWheel.schedule(window.getEnd() + 1, new WindowTask(eventId, window, false));
+        }
+    }
+
+    private void processTask(WindowTask task) {
+        try {
+            EventEntity event;
+            if (task.open) {
+                event = voteWindowTasks.openWindow(task.eventId, task.window);
+            }
+            else {
+                scheduledWindows.remove(task.eventId, task.window);
+                event = voteWindowTasks.closeWindow(task.eventId, task.window);
+            }
+            // the event timing may have been changed on another node, and a closed window is followed by the next one
+            if (event == null) {
+                unscheduleEvent(task.eventId);
+            }
+            else {
+                scheduleEvent(event);
+            }
+        }
+        catch (Exception ex) {
+            LOGGER.warn("*** Could not process voting window of event {}, reason: {}", task.eventId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Begin or end of a voting window
+     */
+    private static final class WindowTask {
+
+        private final Long eventId;
+
+        private final VoteWindow window;
+
+        private final boolean open;
+
+        WindowTask(final Long eventId, final VoteWindow window, final boolean open) {
+            this.eventId = eventId;
+            this.window = window;
+            this.open = open;
+        }
+    }
+}
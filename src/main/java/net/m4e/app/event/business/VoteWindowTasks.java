@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.Entities;
+import org.jetbrains.annotations.NotNull;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.time.ZoneId;
+import java.util.*;
+
+
+/**
+ * The database work of the voting window begins and ends, see VoteWindowScheduler. Every
+ * window begin or end is processed in an own transaction, so a failing one neither rolls
+ * back the others nor keeps the scheduler busy.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class VoteWindowTasks {
+
+    private final EntityManager entityManager;
+
+    private final Entities entities;
+
+    private final EventLocations eventLocations;
+
+    private final EventNotifications eventNotifications;
+
+    private final EventMemberIndex eventMemberIndex;
+
+    private final VoteRollups voteRollups;
+
+    private final ZoneId zoneId;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected VoteWindowTasks() {
+        entityManager = null;
+        entities = null;
+        eventLocations = null;
+        eventNotifications = null;
+        eventMemberIndex = null;
+        voteRollups = null;
+        zoneId = null;
+    }
+
+    /**
+     * Create the bean.
+     */
+    @Inject
+    public VoteWindowTasks(@NotNull EntityManager entityManager,
+                           @NotNull Entities entities,
+                           @NotNull EventLocations eventLocations,
+                           @NotNull EventNotifications eventNotifications,
+                           @NotNull EventMemberIndex eventMemberIndex,
+                           @NotNull VoteRollups voteRollups) {
+        this(entityManager, entities, eventLocations, eventNotifications, eventMemberIndex, voteRollups, ZoneId.systemDefault());
+    }
+
+    VoteWindowTasks(@NotNull EntityManager entityManager,
+                    @NotNull Entities entities,
+                    @NotNull EventLocations eventLocations,
+                    @NotNull EventNotifications eventNotifications,
+                    @NotNull EventMemberIndex eventMemberIndex,
+                    @NotNull VoteRollups voteRollups,
+                    @NotNull ZoneId zoneId) {
+        this.entityManager = entityManager;
+        this.entities = entities;
+        this.eventLocations = eventLocations;
+        this.eventNotifications = eventNotifications;
+        this.eventMemberIndex = eventMemberIndex;
+        this.voteRollups = voteRollups;
+        this.zoneId = zoneId;
+    }
+
+    /**
+     * Get the voting schedules of all active events. Only the timing fields are loaded.
+     *
+     * @return  The schedules by event ID
+     */
+    public Map<Long, VoteSchedule> findActiveSchedules() {
+        List<Object[]> rows = entityManager.createNamedQuery("EventEntity.findActiveTimings", Object[].class).getResultList();
+        Map<Long, VoteSchedule> schedules = new HashMap<>();
+        rows.forEach(row -> schedules.put((Long) row[0], VoteSchedule.fromTiming((Long) row[1], (Long) row[2], (Long) row[3], (Long) row[4])));
+        return schedules;
+    }
+
+    /**
+     * Open a voting window: warm up the vote caches of the event and notify its members.
+     * Nothing is done if the event timing was changed in the meantime, e.g. on another node.
+     *
+     * @param eventId   Event ID
+     * @param window    The voting window which begins
+     * @return          The event for rescheduling it, or null if it is no longer active.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public EventEntity openWindow(@NotNull Long eventId, @NotNull VoteWindow window) {
+        EventEntity event = findActiveEvent(eventId);
+        if ((event == null) || !window.equals(VoteSchedule.fromEvent(event).getNextWindow(window.getBegin(), zoneId))) {
+            return event;
+        }
+        eventMemberIndex.getMemberIds(event.getId());
+        eventLocations.warmVoteTallies(event, window);
+        eventNotifications.sendNotifyVotingWindow(true, event, window);
+        return event;
+    }
+
+    /**
+     * Close a voting window: queue it for the vote rollups and notify the event members.
+     *
+     * @param eventId   Event ID
+     * @param window    The voting window which ended
+     * @return          The event for scheduling its next window, or null if it is no longer active.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public EventEntity closeWindow(@NotNull Long eventId, @NotNull VoteWindow window) {
+        voteRollups.queueWindow(eventId, window);
+        EventEntity event = findActiveEvent(eventId);
+        if (event != null) {
+            eventNotifications.sendNotifyVotingWindow(false, event, window);
+        }
+        return event;
+    }
+
+    /**
+     * Queue the recently closed windows of given events which were not added to the vote rollups,
+     * see VoteRollups.queueMissedWindows.
+     *
+     * @param eventIds  Event IDs
+     * @param now       Current time in seconds since epoch
+     * @return          Count of newly queued windows
+     */
+    public int queueMissedWindows(@NotNull Collection<Long> eventIds, long now) {
+        return voteRollups.queueMissedWindows(eventIds, now);
+    }
+
+    private EventEntity findActiveEvent(Long eventId) {
+        EventEntity event = entities.find(EventEntity.class, eventId);
+        if ((event == null) || !event.getStatus().getIsActive()) {
+            return null;
+        }
+        return event;
+    }
+}
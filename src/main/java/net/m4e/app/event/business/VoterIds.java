@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import org.jetbrains.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Compact encoding of voter IDs for storing them in one column. The IDs are stored as a
+ * sorted array of distinct longs (8 bytes each, big-endian), so a set of voters is read
+ * and written with one column access instead of one row per voter.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public final class VoterIds {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private VoterIds() {}
+
+    /**
+     * Encode the given IDs, null IDs are ignored.
+     *
+     * @param ids   Voter IDs
+     * @return      The encoded IDs, never null
+     */
+    @NotNull
+    public static byte[] encode(@Nullable Collection<Long> ids) {
+        if ((ids == null) || ids.isEmpty()) {
+            return EMPTY;
+        }
+        long[] sorted = ids.stream().filter(Objects::nonNull).mapToLong(Long::longValue).sorted().distinct().toArray();
+        ByteBuffer buffer = ByteBuffer.allocate(sorted.length * Long.BYTES);
+        for (long id: sorted) {
+            buffer.putLong(id);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decode the given IDs.
+     *
+     * @param encoded   Encoded IDs, may be null
+     * @return          Sorted voter IDs
+     */
+    @NotNull
+    public static long[] decode(@Nullable byte[] encoded) {
+        if (encoded == null) {
+            return new long[0];
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        long[] ids = new long[encoded.length / Long.BYTES];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buffer.getLong();
+        }
+        return ids;
+    }
+
+    /**
+     * Decode the given IDs into a mutable set.
+     */
+    @NotNull
+    public static Set<Long> toSet(@Nullable byte[] encoded) {
+        long[] ids = decode(encoded);
+        Set<Long> set = new HashSet<>(ids.length * 2);
+        for (long id: ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    /**
+     * Get the count of encoded IDs without decoding them.
+     */
+    public static int count(@Nullable byte[] encoded) {
+        return (encoded == null) ? 0 : encoded.length / Long.BYTES;
+    }
+}
@@ -53,6 +53,10 @@ public class EventLocationVoteRestService {
 
     private final EventNotifications eventNotifications;
 
+    private final VoteCountPublisher voteCountPublisher;
+
+    private final VoteRollups voteRollups;
+
     /**
      * Make the EJB container happy.
      */
@@ -61,6 +65,8 @@ public class EventLocationVoteRestService {
         entities = null;
         eventLocations = null;
         eventNotifications = null;
+        voteCountPublisher = null;
+        voteRollups = null;
     }
 
     /**
@@ -70,11 +76,15 @@ public class EventLocationVoteRestService {
     public EventLocationVoteRestService(@NotNull Events events,
                                         @NotNull Entities entities,
                                         @NotNull EventLocations eventLocations,
-                                        @NotNull EventNotifications eventNotifications) {
+                                        @NotNull EventNotifications eventNotifications,
+                                        @NotNull VoteCountPublisher voteCountPublisher,
+                                        @NotNull VoteRollups voteRollups) {
         this.events = events;
         this.entities = entities;
         this.eventLocations = eventLocations;
         this.eventNotifications = eventNotifications;
+        this.voteCountPublisher = voteCountPublisher;
+        this.voteRollups = voteRollups;
     }
 
     /**
@@ -102,16 +112,18 @@ public class EventLocationVoteRestService {
             return GenericResponseResult.badRequest("Failed to set location vote, invalid event location.");
         }
 
-        EventLocationVoteEntity voteEntity = eventLocations.createOrUpdateVote(sessionUser, event, locationEntity, vote);
-        if (voteEntity == null) {
+        VoteTally voteTally = eventLocations.createOrUpdateVote(sessionUser, event, locationEntity, vote);
+        if (voteTally == null) {
             LOGGER.warn("*** Cannot update event location vote, outside of voting time window!");
             return GenericResponseResult.badRequest("Failed to set location vote, invalid voting time window.");
         }
 
         // notify all event members about the vote
         eventNotifications.sendNotifyLocationVote(EventNotifications.ChangeType.Modify, sessionUser, event, locationId, vote);
+        // push the new vote counts to subscribed members
+        voteCountPublisher.publishVote(voteTally);
 
-        LocationVote locationVote = new LocationVote(vote, voteEntity.getId().toString(), eventId.toString(), locationId.toString());
+        LocationVote locationVote = new LocationVote(vote, voteTally.getVotesId().toString(), eventId.toString(), locationId.toString());
         return GenericResponseResult.ok("Location vote was successfully updated.", locationVote);
     }
 
@@ -172,4 +184,34 @@ public class EventLocationVoteRestService {
 
         return GenericResponseResult.ok("Event location votes were successfully exported.", voteInfo);
     }
+
+    /**
+     * Get the voting statistics of an event for a given time range.
+     */
+    @GET
+    @Path("getstats/{eventId}/{timeBegin}/{timeEnd}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Get the voting statistics of an event for a given time range")
+    public GenericResponseResult<VoteStats> getStats(@PathParam("eventId") Long eventId, @PathParam("timeBegin") Long timeBegin, @PathParam("timeEnd") Long timeEnd, @Context HttpServletRequest request) {
+        UserEntity sessionUser = AuthorityConfig.getInstance().getSessionUser(request);
+        if ((timeBegin == null) || (timeEnd == null) || (timeBegin > timeEnd)) {
+            LOGGER.warn("*** Cannot get event voting statistics, invalid time range!");
+            return GenericResponseResult.badRequest("Failed to get voting statistics, invalid time range.");
+        }
+
+        EventEntity event = entities.find(EventEntity.class, eventId);
+        if ((event == null) || !event.getStatus().getIsActive()) {
+            LOGGER.warn("*** Cannot get event voting statistics, event does not exit!");
+            return GenericResponseResult.badRequest("Failed to get voting statistics, invalid event.");
+        }
+
+        if (!events.getUserIsEventOwnerOrMember(sessionUser, event)) {
+            LOGGER.warn("*** Cannot get event voting statistics, user is no member of event!");
+            return GenericResponseResult.unauthorized("Failed to get voting statistics, you are not a member of event.");
+        }
+
+        VoteStats stats = voteRollups.getStats(eventId, timeBegin, timeEnd);
+        return GenericResponseResult.ok("Event voting statistics were successfully computed.", stats);
+    }
 }
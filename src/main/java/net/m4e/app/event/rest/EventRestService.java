@@ -7,7 +7,6 @@
  */
 package net.m4e.app.event.rest;
 
-import com.sun.tools.javah.Gen;
 import io.swagger.annotations.*;
 import net.m4e.app.auth.*;
 import net.m4e.app.event.business.*;
@@ -16,7 +15,7 @@ import net.m4e.app.notification.Notification;
 import net.m4e.app.user.business.*;
 import net.m4e.common.*;
 import net.m4e.system.core.*;
-import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.*;
 import org.slf4j.*;
 
 import javax.ejb.Stateless;
@@ -28,6 +27,8 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * REST services for Event related operations.
@@ -42,6 +43,26 @@ public class EventRestService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    /**
+     * Maximal count of members which can be added or removed in one request
+     */
+    public static final int MAX_BULK_MEMBERS = 1000;
+
+    /**
+     * Maximal radius in meters of a nearby location search
+     */
+    public static final double MAX_GEO_RADIUS = 100_000.0;
+
+    /**
+     * Maximal count of locations returned by a geo search
+     */
+    public static final int MAX_GEO_RESULTS = 100;
+
+    /**
+     * Maximal count of hits returned by a search
+     */
+    public static final int MAX_SEARCH_RESULTS = 20;
+
     private final Entities entities;
 
     private final Events events;
@@ -52,10 +73,14 @@ public class EventRestService {
 
     private final EventNotifications eventNotifications;
 
-    private final AppInfos appInfos;
+    private final EntityCounters entityCounters;
 
     private final EventValidator validator;
 
+    private final LocationGeoIndex locationGeoIndex;
+
+    private final EventSearchIndex eventSearchIndex;
+
     /**
      * The default constructor is needed fon an EJB.
      */
@@ -66,7 +91,9 @@ public class EventRestService {
         validator = null;
         eventLocations = null;
         eventNotifications = null;
-        appInfos = null;
+        entityCounters = null;
+        locationGeoIndex = null;
+        eventSearchIndex = null;
     }
 
     /**
@@ -79,7 +106,9 @@ public class EventRestService {
                             @NotNull EventValidator validator,
                             @NotNull EventLocations eventLocations,
                             @NotNull EventNotifications eventNotifications,
-                            @NotNull AppInfos appInfos) {
+                            @NotNull EntityCounters entityCounters,
+                            @NotNull LocationGeoIndex locationGeoIndex,
+                            @NotNull EventSearchIndex eventSearchIndex) {
 
         this.entities = entities;
         this.events = events;
@@ -87,7 +116,9 @@ public class EventRestService {
         this.validator = validator;
         this.eventLocations = eventLocations;
         this.eventNotifications = eventNotifications;
-        this.appInfos = appInfos;
+        this.entityCounters = entityCounters;
+        this.locationGeoIndex = locationGeoIndex;
+        this.eventSearchIndex = eventSearchIndex;
     }
 
     /**
@@ -272,6 +303,25 @@ public class EventRestService {
         return createEventsResponse(sessionUser, foundEvents);
     }
 
+    /**
+     * Get all events. The events are streamed to the client while they are fetched from database,
+     * use this instead of findAllEvents for large amounts of events.
+     */
+    @GET
+    @Path("stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Stream all events accessible by user")
+    public StreamingOutput streamAllEvents(@Context HttpServletRequest request) {
+        UserEntity sessionUser = AuthorityConfig.getInstance().getSessionUser(request);
+        boolean privilegedUser = users.checkUserRoles(sessionUser, Arrays.asList(AuthRole.USER_ROLE_ADMIN));
+
+        return StreamingResponseResult.ok("List of events", sink -> entities.processAll(EventEntity.class, stream -> stream
+                .filter(event -> (event.getStatus().getIsActive() && (privilegedUser || event.getIsPublic() || events.getUserIsEventOwnerOrMember(sessionUser, event))))
+                .map(events::exportEvent)
+                .forEach(sink)));
+    }
+
     @NotNull
     protected GenericResponseResult<List<EventInfo>> createEventsResponse(UserEntity sessionUser, List<EventEntity> foundEvents) {
         boolean privilegedUser = users.checkUserRoles(sessionUser, Arrays.asList(AuthRole.USER_ROLE_ADMIN));
@@ -283,6 +333,44 @@ public class EventRestService {
         return GenericResponseResult.ok("List of events", exportedEvents);
     }
 
+    /**
+     * Search for events and locations by their names and descriptions. The keyword terms may be
+     * prefixes or slightly misspelled. Only events accessible by the user and their locations are
+     * returned, a maximal of MAX_SEARCH_RESULTS hits.
+     *
+     * @param keyword Keyword to search for, minimal 2 characters
+     * @return Result
+     */
+    @GET
+    @Path("search/{keyword}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Search for given keyword in event and location names or descriptions")
+    public GenericResponseResult<List<SearchHitEvent>> search(@PathParam("keyword") String keyword, @Context HttpServletRequest request) {
+        List<SearchHitEvent> searchHits = new ArrayList<>();
+        if ((keyword == null) || (keyword.trim().length() < 2)) {
+            return GenericResponseResult.ok("Search results", searchHits);
+        }
+
+        UserEntity sessionUser = AuthorityConfig.getInstance().getSessionUser(request);
+        for (EventSearchIndex.EventSearchHit hit: eventSearchIndex.search(keyword, createEventAccessFilter(sessionUser), MAX_SEARCH_RESULTS)) {
+            // the index may lag behind changes made on other nodes
+            if (hit.getLocationId() == null) {
+                EventEntity event = events.findEvent(hit.getEventId());
+                if ((event != null) && event.getStatus().getIsActive()) {
+                    searchHits.add(new SearchHitEvent(event.getId().toString(), "", event.getName(), hit.getScore()));
+                }
+            }
+            else {
+                EventLocationEntity location = eventLocations.findLocation(hit.getLocationId());
+                if ((location != null) && location.getStatus().getIsActive()) {
+                    searchHits.add(new SearchHitEvent(hit.getEventId().toString(), location.getId().toString(), location.getName(), hit.getScore()));
+                }
+            }
+        }
+        return GenericResponseResult.ok("Search results", searchHits);
+    }
+
     /**
      * Get the total count of events.
      */
@@ -292,8 +380,7 @@ public class EventRestService {
     @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
     @ApiOperation(value = "Get the count of events")
     public GenericResponseResult<EventCount> count() {
-        AppInfoEntity appInfo = appInfos.getAppInfoEntity();
-        EventCount count = new EventCount(entities.getCount(EventEntity.class) - appInfo.getEventCountPurge());
+        EventCount count = new EventCount(entityCounters.getEventCount());
         return GenericResponseResult.ok("Count of users", count);
     }
 
@@ -410,6 +497,124 @@ public class EventRestService {
         return GenericResponseResult.ok("Member was removed from event.", response);
     }
 
+    /**
+     * Add multiple members to given event in one request.
+     */
+    @PUT
+    @Path("addmembers/{eventId}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Add multiple members to an event")
+    public GenericResponseResult<AddRemoveEventMembers> addMembers(@PathParam("eventId") Long eventId, EventMembersCmd membersCmd, @Context HttpServletRequest request) {
+        GenericResponseResult<AddRemoveEventMembers> invalidInput = checkMembersInput(eventId, membersCmd);
+        if (invalidInput != null) {
+            return invalidInput;
+        }
+
+        UserEntity sessionUser = AuthorityConfig.getInstance().getSessionUser(request);
+        AddRemoveEventMembers response = new AddRemoveEventMembers(eventId.toString());
+
+        EventEntity event = events.findEvent(eventId);
+        if ((event == null) || !event.getStatus().getIsActive()) {
+            LOGGER.warn("*** Cannot add members to event: non-existing event!");
+            return GenericResponseResult.notFound("Failed to add members to event, invalid event ID.", response);
+        }
+        if (!users.userIsOwnerOrAdmin(sessionUser, event.getStatus())) {
+            LOGGER.warn("*** User was attempting to modify (add members) an event without proper privilege!");
+            return GenericResponseResult.unauthorized("Failed to add members to event, insufficient privilege.", response);
+        }
+
+        List<UserEntity> usersToAdd = findActiveUsers(membersCmd.getMemberIds());
+        List<UserEntity> addedUsers = events.addMembers(event, usersToAdd);
+        fillMembersResponse(response, membersCmd.getMemberIds(), addedUsers);
+
+        if (!addedUsers.isEmpty()) {
+            eventNotifications.sendNotifyMembersChanged(EventNotifications.ChangeType.Add, sessionUser, event, getUserIds(addedUsers));
+            events.createEventJoiningMails(event, addedUsers);
+        }
+
+        return GenericResponseResult.ok("Members were added to event.", response);
+    }
+
+    /**
+     * Remove multiple members from given event in one request.
+     */
+    @PUT
+    @Path("removemembers/{eventId}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Remove multiple members from an event")
+    public GenericResponseResult<AddRemoveEventMembers> removeMembers(@PathParam("eventId") Long eventId, EventMembersCmd membersCmd, @Context HttpServletRequest request) {
+        GenericResponseResult<AddRemoveEventMembers> invalidInput = checkMembersInput(eventId, membersCmd);
+        if (invalidInput != null) {
+            return invalidInput;
+        }
+
+        UserEntity sessionUser = AuthorityConfig.getInstance().getSessionUser(request);
+        AddRemoveEventMembers response = new AddRemoveEventMembers(eventId.toString());
+
+        EventEntity event = events.findEvent(eventId);
+        if ((event == null) || !event.getStatus().getIsActive()) {
+            LOGGER.warn("*** Cannot remove members from event: non-existing event!");
+            return GenericResponseResult.notFound("Failed to remove members from event, invalid event ID.", response);
+        }
+        if (!users.userIsOwnerOrAdmin(sessionUser, event.getStatus())) {
+            LOGGER.warn("*** User was attempting to modify (remove members) an event without proper privilege!");
+            return GenericResponseResult.unauthorized("Failed to remove members from event, insufficient privilege.", response);
+        }
+
+        List<UserEntity> usersToRemove = findActiveUsers(membersCmd.getMemberIds());
+        List<UserEntity> removedUsers = events.removeMembers(event, usersToRemove);
+        fillMembersResponse(response, membersCmd.getMemberIds(), removedUsers);
+
+        if (!removedUsers.isEmpty()) {
+            eventNotifications.sendNotifyMembersChanged(EventNotifications.ChangeType.Remove, sessionUser, event, getUserIds(removedUsers));
+            events.createEventLeavingMails(event, removedUsers);
+        }
+
+        return GenericResponseResult.ok("Members were removed from event.", response);
+    }
+
+    @Nullable
+    protected GenericResponseResult<AddRemoveEventMembers> checkMembersInput(final Long eventId, final EventMembersCmd membersCmd) {
+        if ((eventId == null) || (membersCmd == null) || (membersCmd.getMemberIds() == null) || membersCmd.getMemberIds().isEmpty()) {
+            LOGGER.error("*** Cannot change event members, no valid inputs!");
+            return GenericResponseResult.notAcceptable("Failed to change event members, invalid input.");
+        }
+        if (membersCmd.getMemberIds().size() > MAX_BULK_MEMBERS) {
+            LOGGER.warn("*** Cannot change event members, too many members in one request: {}", membersCmd.getMemberIds().size());
+            return GenericResponseResult.notAcceptable("Failed to change event members, at most " + MAX_BULK_MEMBERS + " members are allowed per request.");
+        }
+        return null;
+    }
+
+    @NotNull
+    protected List<UserEntity> findActiveUsers(final List<Long> userIds) {
+        Set<Long> ids = userIds.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        return users.findUsers(ids).stream()
+                .filter(user -> user.getStatus().getIsActive())
+                .collect(Collectors.toList());
+    }
+
+    protected void fillMembersResponse(AddRemoveEventMembers response, final List<Long> requestedIds, final List<UserEntity> changedUsers) {
+        Set<Long> changedIds = new HashSet<>(getUserIds(changedUsers));
+        new LinkedHashSet<>(requestedIds).forEach(id -> {
+            if (changedIds.contains(id)) {
+                response.getMemberIds().add(String.valueOf(id));
+            }
+            else {
+                response.getSkippedMemberIds().add(String.valueOf(id));
+            }
+        });
+    }
+
+    @NotNull
+    protected List<Long> getUserIds(final List<UserEntity> userEntities) {
+        return userEntities.stream().map(UserEntity::getId).collect(Collectors.toList());
+    }
+
     /**
      * Send a notification to all event members. This service method is only meant to be used by an admin.
      */
@@ -476,6 +681,81 @@ public class EventRestService {
         return GenericResponseResult.ok("Location was successfully added/update.", eventLocations.exportEventLocation(location));
     }
 
+    /**
+     * Find the locations within a radius around given coordinates. Only locations of events
+     * which are accessible by the user are considered.
+     */
+    @GET
+    @Path("locations/nearby/{latitude}/{longitude}/{radius}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Find event locations within a radius in meters")
+    public GenericResponseResult<List<NearbyLocation>> findNearbyLocations(@PathParam("latitude") Double latitude, @PathParam("longitude") Double longitude,
+                                                                           @PathParam("radius") Double radius, @Context HttpServletRequest request) {
+        if (!LocationGeoIndex.isValidCoordinate(latitude, longitude) || (radius == null) || (radius < 0.0) || (radius > MAX_GEO_RADIUS)) {
+            LOGGER.warn("*** Cannot find nearby locations, invalid input!");
+            return GenericResponseResult.badRequest("Failed to find nearby locations, invalid input.");
+        }
+
+        UserEntity sessionUser = AuthorityConfig.getInstance().getSessionUser(request);
+        List<LocationGeoIndex.GeoMatch> matches = locationGeoIndex.findWithinRadius(latitude, longitude, radius,
+                createEventAccessFilter(sessionUser), MAX_GEO_RESULTS);
+
+        return GenericResponseResult.ok("List of nearby locations", exportGeoMatches(matches));
+    }
+
+    /**
+     * Find the locations nearest to given coordinates. Only locations of events which are
+     * accessible by the user are considered.
+     */
+    @GET
+    @Path("locations/nearest/{latitude}/{longitude}/{count}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Find the nearest event locations")
+    public GenericResponseResult<List<NearbyLocation>> findNearestLocations(@PathParam("latitude") Double latitude, @PathParam("longitude") Double longitude,
+                                                                            @PathParam("count") Integer count, @Context HttpServletRequest request) {
+        if (!LocationGeoIndex.isValidCoordinate(latitude, longitude) || (count == null) || (count < 1) || (count > MAX_GEO_RESULTS)) {
+            LOGGER.warn("*** Cannot find nearest locations, invalid input!");
+            return GenericResponseResult.badRequest("Failed to find nearest locations, invalid input.");
+        }
+
+        UserEntity sessionUser = AuthorityConfig.getInstance().getSessionUser(request);
+        List<LocationGeoIndex.GeoMatch> matches = locationGeoIndex.findNearest(latitude, longitude, count,
+                createEventAccessFilter(sessionUser));
+
+        return GenericResponseResult.ok("List of nearest locations", exportGeoMatches(matches));
+    }
+
+    /**
+     * Create a filter accepting the IDs of active events which are accessible by given user.
+     * Every event is checked only once.
+     */
+    @NotNull
+    protected Predicate<Long> createEventAccessFilter(UserEntity sessionUser) {
+        boolean privilegedUser = users.checkUserRoles(sessionUser, Arrays.asList(AuthRole.USER_ROLE_ADMIN));
+        Map<Long, Boolean> accessibleEvents = new HashMap<>();
+        return eventId -> accessibleEvents.computeIfAbsent(eventId, id -> {
+            EventEntity event = events.findEvent(id);
+            return (event != null) && event.getStatus().getIsActive() &&
+                   (privilegedUser || event.getIsPublic() || events.getUserIsEventOwnerOrMember(sessionUser, event));
+        });
+    }
+
+    @NotNull
+    protected List<NearbyLocation> exportGeoMatches(List<LocationGeoIndex.GeoMatch> matches) {
+        List<NearbyLocation> nearbyLocations = new ArrayList<>();
+        for (LocationGeoIndex.GeoMatch match: matches) {
+            EventLocationEntity location = eventLocations.findLocation(match.getLocationId());
+            // the index may lag behind changes made on other nodes
+            if ((location == null) || !location.getStatus().getIsActive()) {
+                continue;
+            }
+            nearbyLocations.add(new NearbyLocation(match.getEventId().toString(), eventLocations.exportEventLocation(location), match.getDistance()));
+        }
+        return nearbyLocations;
+    }
+
     /**
      * Add a new or update an existing location. If the input has an id field, then
      * an update attempt for that location entity with given ID is performed. If no id
@@ -128,6 +128,15 @@ public class EventValidator {
                 throw new Exception(getLenRangeText("Event description", EVENT_INPUT_MIN_LEN_DESC, EVENT_INPUT_MAX_LEN_DESC));
             }            
         }
+
+        if ((entity.getLatitude() != null) || (entity.getLongitude() != null)) {
+            if (!entity.getHasCoordinates()) {
+                throw new Exception("Location coordinates need both latitude and longitude.");
+            }
+            if (!LocationGeoIndex.isValidCoordinate(entity.getLatitude(), entity.getLongitude())) {
+                throw new Exception("Invalid location coordinates.");
+            }
+        }
         return entity;
     }
 
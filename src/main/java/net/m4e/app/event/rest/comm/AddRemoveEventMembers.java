@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.rest.comm;
+
+import java.util.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class AddRemoveEventMembers {
+    private String eventId;
+    private List<String> memberIds = new ArrayList<>();
+    private List<String> skippedMemberIds = new ArrayList<>();
+
+    public AddRemoveEventMembers(final String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public List<String> getMemberIds() {
+        return memberIds;
+    }
+
+    public List<String> getSkippedMemberIds() {
+        return skippedMemberIds;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public void setMemberIds(List<String> memberIds) {
+        this.memberIds = memberIds;
+    }
+
+    public void setSkippedMemberIds(List<String> skippedMemberIds) {
+        this.skippedMemberIds = skippedMemberIds;
+    }
+}
@@ -18,6 +18,8 @@ public class EventLocation {
     private String description;
     private String photoId;
     private String photoETag;
+    private Double latitude;
+    private Double longitude;
 
     public EventLocation() {}
 
@@ -72,4 +74,20 @@ public class EventLocation {
     public void setPhotoETag(String photoETag) {
         this.photoETag = photoETag;
     }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
 }
@@ -23,6 +23,10 @@ public class EventLocationCmd {
 
     private String photo;
 
+    private Double latitude;
+
+    private Double longitude;
+
     public EventLocationCmd() {}
 
     public EventLocationCmd(final String id,
@@ -70,4 +74,22 @@ public class EventLocationCmd {
     public String getPhoto() {
         return photo;
     }
+
+    @JsonbProperty("latitude")
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    @JsonbProperty("longitude")
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
 }
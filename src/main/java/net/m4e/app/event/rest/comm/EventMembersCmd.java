@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.rest.comm;
+
+import javax.json.bind.annotation.JsonbProperty;
+import java.util.List;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class EventMembersCmd {
+
+    private List<Long> memberIds;
+
+
+    public EventMembersCmd() {}
+
+    public EventMembersCmd(final List<Long> memberIds) {
+        this.memberIds = memberIds;
+    }
+
+    @JsonbProperty("memberIds")
+    public void setMemberIds(List<Long> memberIds) {
+        this.memberIds = memberIds;
+    }
+
+    public List<Long> getMemberIds() {
+        return memberIds;
+    }
+}
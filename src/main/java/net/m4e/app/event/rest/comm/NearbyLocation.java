@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.rest.comm;
+
+/**
+ * An event location found by a geo search.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class NearbyLocation {
+    private String eventId;
+    private EventLocation location;
+    private double distance;
+
+    public NearbyLocation(final String eventId,
+                          final EventLocation location,
+                          final double distance) {
+        this.eventId = eventId;
+        this.location = location;
+        this.distance = distance;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public EventLocation getLocation() {
+        return location;
+    }
+
+    public void setLocation(EventLocation location) {
+        this.location = location;
+    }
+
+    /**
+     * Distance to the search point in meters
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(double distance) {
+        this.distance = distance;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.rest.comm;
+
+/**
+ * An event or event location found by a search. The location ID is empty if the hit is an event.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class SearchHitEvent {
+
+    private final String eventId;
+    private final String locationId;
+    private final String name;
+    private final float score;
+
+    public SearchHitEvent(final String eventId, final String locationId,
+                          final String name, final float score) {
+        this.eventId = eventId;
+        this.locationId = locationId;
+        this.name = name;
+        this.score = score;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public float getScore() {
+        return score;
+    }
+}
@@ -7,7 +7,7 @@
  */
 package net.m4e.app.user.business;
 
-import net.m4e.app.auth.RoleEntity;
+import net.m4e.app.auth.*;
 import net.m4e.app.resources.*;
 import net.m4e.common.*;
 
@@ -23,6 +23,43 @@ import java.util.*;
  * Date of creation Aug 18, 2017
  */
 @Entity
+@NamedQueries({
+    /**
+     * Find the names of given users without loading the user entities.
+     *
+     * Query parameters:
+     *
+     * ids                      The user IDs
+     */
+    @NamedQuery(
+      name = "UserEntity.findNames",
+      query = "SELECT user.id, user.name FROM UserEntity user WHERE user.id IN :ids"
+    ),
+    /**
+     * Find the name and email of all active users which do not have given role.
+     * The result rows are: user ID, name, email
+     *
+     * Query parameters:
+     *
+     * adminRole                The name of the excluded role
+     */
+    @NamedQuery(
+      name = "UserEntity.findSearchable",
+      query = "SELECT user.id, user.name, user.email FROM UserEntity user WHERE user.status.enabled = TRUE AND user.status.dateDeletion = 0 AND user.status.dateBan = 0 AND user.id NOT IN (SELECT admin.id FROM UserEntity admin JOIN admin.roles role WHERE role.name = :adminRole)"
+    ),
+    /**
+     * Find the name and photo of all active users which do not have given role.
+     * The result rows are: user ID, name, photo ID, photo ETag
+     *
+     * Query parameters:
+     *
+     * adminRole                The name of the excluded role
+     */
+    @NamedQuery(
+      name = "UserEntity.findSuggestions",
+      query = "SELECT user.id, user.name, photo.id, photo.eTag FROM UserEntity user LEFT JOIN user.photo photo WHERE user.status.enabled = TRUE AND user.status.dateDeletion = 0 AND user.status.dateBan = 0 AND user.id NOT IN (SELECT admin.id FROM UserEntity admin JOIN admin.roles role WHERE role.name = :adminRole)"
+    )
+})
 public class UserEntity extends EntityBase implements Serializable, EntityWithPhoto {
 
     /**
@@ -90,6 +127,26 @@ public class UserEntity extends EntityBase implements Serializable, EntityWithPh
      */
     private Long dateLastLogin = 0L;
 
+    /**
+     * Only the session tokens issued after this time are valid (time in milliseconds), see SessionTokens
+     */
+    private Long tokensValidAfter = 0L;
+
+    /**
+     * Cached mask of the roles, see AppRoles
+     */
+    @Transient
+    private transient int rolesMask;
+
+    /**
+     * The role collection and its size the cached mask was built of
+     */
+    @Transient
+    private transient Collection<RoleEntity> rolesMaskSource;
+
+    @Transient
+    private transient int rolesMaskSourceSize;
+
     /**
      * Get the entity ID.
      */
@@ -172,6 +229,19 @@ public class UserEntity extends EntityBase implements Serializable, EntityWithPh
         return stringList;
     }
 
+    /**
+     * Get the mask of user roles, see AppRoles. The mask is built again when the roles change.
+     */
+    public int getRolesMask() {
+        int size = (roles != null) ? roles.size() : 0;
+        if ((rolesMaskSource != roles) || (rolesMaskSourceSize != size)) {
+            rolesMask = AppRoles.getRolesMask(getRolesAsString());
+            rolesMaskSource = roles;
+            rolesMaskSourceSize = size;
+        }
+        return rolesMask;
+    }
+
     /**
      * Set user roles.
      */
@@ -248,4 +318,19 @@ public class UserEntity extends EntityBase implements Serializable, EntityWithPh
     public void setDateLastLogin(Long timeStamp) {
         this.dateLastLogin = timeStamp;
     }
+
+    /**
+     * Get the time after which the valid session tokens were issued (milliseconds since epoch).
+     */
+    public Long getTokensValidAfter() {
+        return tokensValidAfter;
+    }
+
+    /**
+     * Set the time after which the valid session tokens were issued (milliseconds since epoch).
+     * Setting it to the current time revokes all tokens of the user.
+     */
+    public void setTokensValidAfter(Long timeStamp) {
+        this.tokensValidAfter = timeStamp;
+    }
 }
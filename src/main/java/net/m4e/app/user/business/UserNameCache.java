@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.business;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A cache of user names, used for resolving the names of users given their IDs. Missing names
+ * are loaded by one query for all requested IDs, without loading the user entities.
+ *
+ * A user's entry is dropped whenever the user is updated or deleted.
+ *
+ * NOTE: The cache is local to the node, it is not shared in a cluster.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class UserNameCache {
+
+    /**
+     * Maximal count of cached names, the cache is cleared when exceeded.
+     */
+    public static final int MAX_ENTRIES = 100000;
+
+    private final EntityManager entityManager;
+
+    private final ConcurrentMap<Long /*user ID*/, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every invalidation. Names which were loaded while an invalidation happened
+     * may be stale and are not stored.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected UserNameCache() {
+        entityManager = null;
+    }
+
+    /**
+     * Create the cache.
+     *
+     * @param entityManager     Entity manager used for loading the names
+     */
+    @Inject
+    public UserNameCache(@NotNull EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Get the names of given users.
+     *
+     * @param userIds   User IDs
+     * @return          Map of user ID and name, IDs of non-existing users are missing.
+     */
+    public Map<Long, String> getNames(@NotNull Collection<Long> userIds) {
+        Map<Long, String> result = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        userIds.forEach(id -> {
+            String name = names.get(id);
+            if (name != null) {
+                result.put(id, name);
+            }
+            else {
+                missingIds.add(id);
+            }
+        });
+        if (!missingIds.isEmpty()) {
+            long loadGeneration = generation.get();
+            Map<Long, String> loaded = loadNames(missingIds);
+            result.putAll(loaded);
+            if (loadGeneration == generation.get()) {
+                if (names.size() + loaded.size() > MAX_ENTRIES) {
+                    names.clear();
+                }
+                names.putAll(loaded);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop the name of given user.
+     *
+     * @param userId    User ID, null is ignored.
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        names.remove(userId);
+    }
+
+    /**
+     * Drop all entries.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        names.clear();
+    }
+
+    /**
+     * Get the count of cached names.
+     */
+    public int getSize() {
+        return names.size();
+    }
+
+    private Map<Long, String> loadNames(@NotNull List<Long> userIds) {
+        TypedQuery<Object[]> query = entityManager.createNamedQuery("UserEntity.findNames", Object[].class);
+        query.setParameter("ids", userIds);
+        Map<Long, String> loaded = new HashMap<>();
+        query.getResultList().forEach(row -> loaded.put((Long) row[0], (String) row[1]));
+        return loaded;
+    }
+}
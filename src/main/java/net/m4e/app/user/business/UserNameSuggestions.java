@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.business;
+
+import net.m4e.app.auth.*;
+import net.m4e.app.resources.DocumentEntity;
+import net.m4e.common.TransactionCallbacks;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.*;
+import java.lang.invoke.MethodHandles;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Name suggestions for a typeahead over the names of all active users which are no admins.
+ * Names starting with the typed prefix come first, followed by names with a word starting
+ * with the prefix. The comparison ignores case and diacritics.
+ *
+ * The names are kept in sorted arrays, so a lookup is a binary search followed by reading
+ * the next entries. The arrays are rebuilt from database in the background and swapped
+ * atomically, single user changes go into a small overlay until the next rebuild. A change
+ * goes into the overlay after its transaction was committed.
+ *
+ * NOTE: The suggestions are local to the node, changes on other nodes show up after the
+ *       next rebuild.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class UserNameSuggestions {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int MATCH_NAME = 0;
+
+    private static final int MATCH_WORD = 1;
+
+    private final EntityManager entityManager;
+
+    private final TransactionCallbacks transactionCallbacks;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Users changed since the last rebuild
+     */
+    private final Map<Long /*user ID*/, Change> changes = new ConcurrentHashMap<>();
+
+    private final AtomicLong changeSequence = new AtomicLong();
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected UserNameSuggestions() {
+        entityManager = null;
+        transactionCallbacks = null;
+    }
+
+    /**
+     * Create the suggestions.
+     *
+     * @param entityManager         Entity manager used for loading the user names
+     * @param transactionCallbacks  TransactionCallbacks instance
+     */
+    @Inject
+    public UserNameSuggestions(@NotNull EntityManager entityManager, @NotNull TransactionCallbacks transactionCallbacks) {
+        this.entityManager = entityManager;
+        this.transactionCallbacks = transactionCallbacks;
+    }
+
+    /**
+     * Add or update a user after the current transaction was committed. Users which are not
+     * active or are admins are removed.
+     *
+     * @param user  The user
+     */
+    public void putUser(@NotNull UserEntity user) {
+        if ((snapshot == null) || (user.getId() == null)) {
+            return;
+        }
+        boolean suggested = (user.getStatus() != null) && user.getStatus().getIsActive() &&
+                            ((user.getRolesMask() & AppRoles.ADMIN.getMask()) == 0);
+        UserSuggestion suggestion = null;
+        if (suggested) {
+            DocumentEntity photo = user.getPhoto();
+            suggestion = new UserSuggestion(user.getId(), user.getName(),
+                    (photo != null) ? photo.getId() : null, (photo != null) ? photo.getETag() : null);
+        }
+        putChange(user.getId(), suggestion);
+    }
+
+    /**
+     * Remove a user after the current transaction was committed.
+     *
+     * @param userId    User ID
+     */
+    public void removeUser(Long userId) {
+        if ((snapshot == null) || (userId == null)) {
+            return;
+        }
+        putChange(userId, null);
+    }
+
+    /**
+     * Get the users whose name or a word of their name starts with the given prefix.
+     *
+     * @param prefix        The typed prefix
+     * @param maxResults    Maximal count of results
+     * @return              The suggestions, name matches first, each in alphabetical order
+     */
+    public List<UserSuggestion> suggest(@NotNull String prefix, int maxResults) {
+        String key = UserSearchIndex.normalize(prefix);
+        if (key.isEmpty() || (maxResults < 1)) {
+            return new ArrayList<>();
+        }
+        Snapshot current = getSnapshot();
+
+        List<Candidate> candidates = new ArrayList<>();
+        current.collect(current.nameKeys, current.nameEntries, MATCH_NAME, key, maxResults, changes.keySet(), candidates);
+        current.collect(current.wordKeys, current.wordEntries, MATCH_WORD, key, maxResults, changes.keySet(), candidates);
+        changes.values().forEach(change -> {
+            if (change.suggestion != null) {
+                addCandidates(change.suggestion, key, candidates);
+            }
+        });
+        Collections.sort(candidates);
+
+        Set<Long> userIds = new HashSet<>();
+        List<UserSuggestion> suggestions = new ArrayList<>();
+        for (Candidate candidate: candidates) {
+            if (suggestions.size() == maxResults) {
+                break;
+            }
+            if (userIds.add(candidate.suggestion.getUserId())) {
+                suggestions.add(candidate.suggestion);
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Put a change into the overlay after commit, the sequence is taken then so a rebuild
+     * started before the commit keeps the change.
+     */
+    private void putChange(Long userId, UserSuggestion suggestion) {
+        transactionCallbacks.afterCommit(() -> changes.put(userId, new Change(changeSequence.incrementAndGet(), suggestion)));
+    }
+
+    /**
+     * Rebuild the suggestions if they were already used, otherwise they are built on first use.
+     */
+    public void refresh() {
+        if (snapshot != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Load all user names from database and swap the suggestions.
+     */
+    public synchronized void rebuild() {
+        long sequence = changeSequence.get();
+
+        TypedQuery<Object[]> query = entityManager.createNamedQuery("UserEntity.findSuggestions", Object[].class);
+        query.setParameter("adminRole", AuthRole.USER_ROLE_ADMIN);
+        List<UserSuggestion> suggestions = new ArrayList<>();
+        for (Object[] row: query.getResultList()) {
+            suggestions.add(new UserSuggestion((Long) row[0], (String) row[1], (Long) row[2], (String) row[3]));
+        }
+        snapshot = new Snapshot(suggestions);
+
+        // the changes made before loading are part of the new snapshot
+        changes.values().removeIf(change -> change.sequence <= sequence);
+        LOGGER.debug("rebuilt user name suggestions: " + suggestions.size());
+    }
+
+    /**
+     * Get the count of suggested users.
+     */
+    public int getSize() {
+        Snapshot current = getSnapshot();
+        int size = current.entries.length;
+        for (Map.Entry<Long, Change> change: changes.entrySet()) {
+            if (current.userIds.contains(change.getKey())) {
+                size--;
+            }
+            if (change.getValue().suggestion != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Get the word keys of a normalized name: the rest of the name from the beginning of
+     * every word after the first one.
+     */
+    private static List<String> getWordKeys(String name) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isLetterOrDigit(name.charAt(i - 1)) && Character.isLetterOrDigit(name.charAt(i))) {
+                keys.add(name.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static void addCandidates(UserSuggestion suggestion, String prefix, List<Candidate> candidates) {
+        String name = UserSearchIndex.normalize(suggestion.getName());
+        if (name.startsWith(prefix)) {
+            candidates.add(new Candidate(MATCH_NAME, name, suggestion));
+        }
+        for (String wordKey: getWordKeys(name)) {
+            if (wordKey.startsWith(prefix)) {
+                candidates.add(new Candidate(MATCH_WORD, wordKey, suggestion));
+                break;
+            }
+        }
+    }
+
+    /**
+     * A suggested user
+     */
+    public static final class UserSuggestion {
+
+        private final Long userId;
+
+        private final String name;
+
+        private final Long photoId;
+
+        private final String photoETag;
+
+        public UserSuggestion(final Long userId, final String name, final Long photoId, final String photoETag) {
+            this.userId = userId;
+            this.name = (name != null) ? name : "";
+            this.photoId = photoId;
+            this.photoETag = photoETag;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The photo ID, or null if the user has no photo
+         */
+        public Long getPhotoId() {
+            return photoId;
+        }
+
+        /**
+         * The photo ETag, or null if the user has no photo
+         */
+        public String getPhotoETag() {
+            return photoETag;
+        }
+    }
+
+    /**
+     * A user change, a missing suggestion means that the user is no longer suggested
+     */
+    private static final class Change {
+
+        private final long sequence;
+
+        private final UserSuggestion suggestion;
+
+        Change(final long sequence, final UserSuggestion suggestion) {
+            this.sequence = sequence;
+            this.suggestion = suggestion;
+        }
+    }
+
+    /**
+     * A matching user, ordered by kind of match, then by key
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+
+        private final int match;
+
+        private final String key;
+
+        private final UserSuggestion suggestion;
+
+        Candidate(final int match, final String key, final UserSuggestion suggestion) {
+            this.match = match;
+            this.key = key;
+            this.suggestion = suggestion;
+        }
+
+        @Override
+        public int compareTo(@NotNull Candidate other) {
+            if (match != other.match) {
+                return Integer.compare(match, other.match);
+            }
+            int order = key.compareTo(other.key);
+            return (order != 0) ? order : suggestion.getUserId().compareTo(other.suggestion.getUserId());
+        }
+    }
+
+    /**
+     * A key of an entry in the snapshot
+     */
+    private static final class Key {
+
+        private final String key;
+
+        private final int entry;
+
+        Key(final String key, final int entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Immutable sorted keys of all suggested users
+     */
+    private static final class Snapshot {
+
+        private static final Comparator<Key> KEY_ORDER = Comparator.<Key, String>comparing(key -> key.key).thenComparingInt(key -> key.entry);
+
+        /**
+         * Suggestions ordered by user ID, so equal keys are ordered by user ID too
+         */
+        private final UserSuggestion[] entries;
+
+        private final Set<Long> userIds = new HashSet<>();
+
+        private final String[] nameKeys;
+
+        private final int[] nameEntries;
+
+        private final String[] wordKeys;
+
+        private final int[] wordEntries;
+
+        Snapshot(List<UserSuggestion> suggestions) {
+            entries = suggestions.toArray(new UserSuggestion[0]);
+            Arrays.sort(entries, Comparator.comparing(UserSuggestion::getUserId));
+            List<Key> names = new ArrayList<>(entries.length);
+            List<Key> words = new ArrayList<>();
+            for (int i = 0; i < entries.length; i++) {
+                userIds.add(entries[i].getUserId());
+                String name = UserSearchIndex.normalize(entries[i].getName());
+                names.add(new Key(name, i));
+                for (String wordKey: getWordKeys(name)) {
+                    words.add(new Key(wordKey, i));
+                }
+            }
+            names.sort(KEY_ORDER);
+            words.sort(KEY_ORDER);
+            nameKeys = new String[names.size()];
+            nameEntries = new int[names.size()];
+            fill(names, nameKeys, nameEntries);
+            wordKeys = new String[words.size()];
+            wordEntries = new int[words.size()];
+            fill(words, wordKeys, wordEntries);
+        }
+
+        private static void fill(List<Key> sortedKeys, String[] keys, int[] entryIndexes) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = sortedKeys.get(i).key;
+                entryIndexes[i] = sortedKeys.get(i).entry;
+            }
+        }
+
+        /**
+         * Collect the matches of the first users for a prefix, skipping the changed users.
+         */
+        void collect(String[] keys, int[] entryIndexes, int match, String prefix, int maxResults,
+                     Set<Long> changedUsers, List<Candidate> candidates) {
+            // find the first key which is not less than the prefix
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle].compareTo(prefix) < 0) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            Set<Long> users = new HashSet<>();
+            for (int i = low; (i < keys.length) && (users.size() < maxResults) && keys[i].startsWith(prefix); i++) {
+                UserSuggestion suggestion = entries[entryIndexes[i]];
+                if (!changedUsers.contains(suggestion.getUserId())) {
+                    candidates.add(new Candidate(match, keys[i], suggestion));
+                    users.add(suggestion.getUserId());
+                }
+            }
+        }
+    }
+}
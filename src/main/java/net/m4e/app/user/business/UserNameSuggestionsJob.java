@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.business;
+
+import javax.ejb.*;
+import javax.inject.Inject;
+
+
+/**
+ * Periodically rebuilds the user name suggestions in the background, this also picks up
+ * the user changes made on other nodes.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Singleton
+@Startup
+public class UserNameSuggestionsJob {
+
+    private final UserNameSuggestions userNameSuggestions;
+
+    /**
+     * EJB's default constructor.
+     */
+    protected UserNameSuggestionsJob() {
+        userNameSuggestions = null;
+    }
+
+    /**
+     * Create the bean.
+     *
+     * @param userNameSuggestions   The user name suggestions
+     */
+    @Inject
+    public UserNameSuggestionsJob(UserNameSuggestions userNameSuggestions) {
+        this.userNameSuggestions = userNameSuggestions;
+    }
+
+    /**
+     * Rebuild the suggestions, the requests are served by the previous suggestions meanwhile.
+     */
+    @Schedule(hour="*", minute="*/5", persistent=false)
+    public void rebuild() {
+        userNameSuggestions.refresh();
+    }
+}
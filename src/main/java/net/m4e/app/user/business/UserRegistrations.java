@@ -174,6 +174,7 @@ public class UserRegistrations {
 
         UserEntity user = registrationEntity.getUser();
         user.getStatus().setEnabled(true);
+        users.updateUser(user);
         return user;
     }
 
@@ -185,7 +186,7 @@ public class UserRegistrations {
         Long elapsedTimeSinceRegistration = (new Date()).getTime() - registrationEntity.getRequestDate();
         elapsedTimeSinceRegistration /= (1000 * 60 * 60);
         if (elapsedTimeSinceRegistration > UserResourcePurger.REGISTER_EXPIRATION_HOURS) {
-            entities.delete(user);
+            users.deleteUser(user);
             throw new Exception("Activation token was expired.");
         }
     }
@@ -288,7 +289,10 @@ public class UserRegistrations {
         }
 
         UserEntity user = passwordResetEntity.getUser();
-        user.setPassword(newPassword);
+        user.setPassword(users.hashPassword(newPassword));
+        // the session tokens issued with the former password are revoked
+        user.setTokensValidAfter(new Date().getTime());
+        AuthorityConfig.getInstance().getTokenRevocations().revoke(user.getId(), user.getTokensValidAfter());
         return user;
     }
 
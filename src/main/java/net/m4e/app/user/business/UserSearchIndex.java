@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.business;
+
+import net.m4e.app.auth.*;
+import net.m4e.common.TransactionCallbacks;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.*;
+import java.lang.invoke.MethodHandles;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.regex.Pattern;
+
+
+/**
+ * A trigram index over the names and emails of all searchable users, i.e. active users which
+ * are no admins. A keyword search finds all users whose name or email contains the keyword,
+ * the same as a LIKE '%keyword%' query, but only the users sharing the rarest trigram of the
+ * keyword are examined instead of all users.
+ *
+ * The hits are ranked by match quality: equal field, field prefix, word prefix, any substring.
+ * The comparison ignores case and diacritics.
+ *
+ * The index is loaded on first use and is kept up to date by Users on every committed user
+ * change. It is periodically rebuilt by UserSearchIndexJob, this also picks up the user changes
+ * made on other nodes.
+ *
+ * NOTE: The index is local to the node, it is not shared in a cluster.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class UserSearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int FIELD_NAME = 0;
+
+    private static final int FIELD_EMAIL = 1;
+
+    private static final int MATCH_EQUAL = 0;
+
+    private static final int MATCH_PREFIX = 1;
+
+    private static final int MATCH_WORD_PREFIX = 2;
+
+    private static final int MATCH_SUBSTRING = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final EntityManager entityManager;
+
+    private final TransactionCallbacks transactionCallbacks;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index();
+
+    /**
+     * The changes made while rebuilding, they are replayed on the rebuilt index. A null entry
+     * is a removed user. It is null if no rebuild is running.
+     */
+    private Map<Long /*user ID*/, UserEntry> rebuildChanges;
+
+    private volatile boolean loaded;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected UserSearchIndex() {
+        entityManager = null;
+        transactionCallbacks = null;
+    }
+
+    /**
+     * Create the index.
+     *
+     * @param entityManager         Entity manager used for loading the users
+     * @param transactionCallbacks  TransactionCallbacks instance
+     */
+    @Inject
+    public UserSearchIndex(@NotNull EntityManager entityManager, @NotNull TransactionCallbacks transactionCallbacks) {
+        this.entityManager = entityManager;
+        this.transactionCallbacks = transactionCallbacks;
+    }
+
+    /**
+     * Add or update a user after the current transaction was committed. Users which are not
+     * searchable are removed.
+     *
+     * @param user  The user
+     */
+    public void putUser(@NotNull UserEntity user) {
+        if (!loaded || (user.getId() == null)) {
+            return;
+        }
+        boolean searchable = (user.getStatus() != null) && user.getStatus().getIsActive() &&
+                             ((user.getRolesMask() & AppRoles.ADMIN.getMask()) == 0);
+        Long userId = user.getId();
+        UserEntry entry = searchable ? new UserEntry(userId, normalize(user.getName()), normalize(user.getEmail())) : null;
+        transactionCallbacks.afterCommit(() -> putEntry(userId, entry));
+    }
+
+    /**
+     * Remove a user after the current transaction was committed.
+     *
+     * @param userId    User ID
+     */
+    public void removeUser(Long userId) {
+        if (!loaded || (userId == null)) {
+            return;
+        }
+        transactionCallbacks.afterCommit(() -> putEntry(userId, null));
+    }
+
+    /**
+     * Find the users whose name, or optionally email, contains the keyword.
+     *
+     * @param keyword       The keyword
+     * @param searchEmail   Pass true for searching the emails too
+     * @param maxResults    Maximal count of results
+     * @return              IDs of found users, best matches first
+     */
+    public List<Long> search(@NotNull String keyword, boolean searchEmail, int maxResults) {
+        ensureLoaded();
+        String normalizedKeyword = normalize(keyword);
+        if (normalizedKeyword.isEmpty() || (maxResults < 1)) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Match> matches = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            collectMatches(FIELD_NAME, normalizedKeyword, matches);
+            if (searchEmail) {
+                collectMatches(FIELD_EMAIL, normalizedKeyword, matches);
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+
+        // the worst match is on top
+        PriorityQueue<Match> topMatches = new PriorityQueue<>(Math.min(maxResults, Math.max(1, matches.size())), Collections.reverseOrder());
+        for (Match match: matches.values()) {
+            topMatches.add(match);
+            if (topMatches.size() > maxResults) {
+                topMatches.poll();
+            }
+        }
+        List<Match> sorted = new ArrayList<>(topMatches);
+        Collections.sort(sorted);
+        List<Long> userIds = new ArrayList<>();
+        sorted.forEach(match -> userIds.add(match.userId));
+        return userIds;
+    }
+
+    /**
+     * Get the count of indexed users.
+     */
+    public int getSize() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return index.userSlots.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the index if it was already used, otherwise it is loaded on first use.
+     */
+    public void refresh() {
+        if (loaded) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Load all searchable users from database and swap the index. The searches are served
+     * by the previous index meanwhile, the changes made meanwhile are applied to both.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            rebuildChanges = new HashMap<>();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+
+        Index newIndex = new Index();
+        boolean built = false;
+        try {
+            loadUsers(newIndex);
+            built = true;
+        }
+        finally {
+            lock.writeLock().lock();
+            try {
+                if (built) {
+                    rebuildChanges.forEach(newIndex::put);
+                    index = newIndex;
+                    loaded = true;
+                }
+                rebuildChanges = null;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+        LOGGER.debug("rebuilt user search index: " + newIndex.userSlots.size());
+    }
+
+    /**
+     * Drop all entries, the index is loaded again on next use.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            index = new Index();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lower case text without diacritics.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Collect the matches of given field. The caller must hold the read lock.
+     */
+    private void collectMatches(int field, String keyword, Map<Long, Match> matches) {
+        if (keyword.length() < 3) {
+            // too short for trigrams, check all users
+            for (UserEntry entry: index.slots) {
+                if (entry != null) {
+                    addMatch(entry, field, keyword, matches);
+                }
+            }
+            return;
+        }
+
+        // the users containing the keyword are a subset of the users of its rarest trigram
+        IntList rarest = null;
+        for (int i = 0; i + 3 <= keyword.length(); i++) {
+            IntList posting = index.postings.get(getTrigramKey(field, keyword, i));
+            if (posting == null) {
+                return;
+            }
+            if ((rarest == null) || (posting.size < rarest.size)) {
+                rarest = posting;
+            }
+        }
+        for (int i = 0; i < rarest.size; i++) {
+            addMatch(index.slots.get(rarest.values[i]), field, keyword, matches);
+        }
+    }
+
+    private static void addMatch(UserEntry entry, int field, String keyword, Map<Long, Match> matches) {
+        String text = (field == FIELD_NAME) ? entry.name : entry.email;
+        int position = text.indexOf(keyword);
+        if (position < 0) {
+            return;
+        }
+        int quality;
+        if (position == 0) {
+            quality = (text.length() == keyword.length()) ? MATCH_EQUAL : MATCH_PREFIX;
+        }
+        else if (!Character.isLetterOrDigit(text.charAt(position - 1)) || (text.indexOf(" " + keyword) >= 0)) {
+            quality = MATCH_WORD_PREFIX;
+        }
+        else {
+            quality = MATCH_SUBSTRING;
+        }
+        Match match = new Match(entry.userId, quality, text.length());
+        matches.merge(entry.userId, match, (match1, match2) -> (match1.compareTo(match2) <= 0) ? match1 : match2);
+    }
+
+    private static long getTrigramKey(int field, String text, int position) {
+        return ((long) field << 48) | ((long) text.charAt(position) << 32) | ((long) text.charAt(position + 1) << 16) | text.charAt(position + 2);
+    }
+
+    private static Set<Long> getTrigramKeys(int field, String text) {
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            keys.add(getTrigramKey(field, text, i));
+        }
+        return keys;
+    }
+
+    /**
+     * Put an entry, or remove the user if the entry is null.
+     */
+    private void putEntry(Long userId, UserEntry entry) {
+        lock.writeLock().lock();
+        try {
+            index.put(userId, entry);
+            if (rebuildChanges != null) {
+                rebuildChanges.put(userId, entry);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void loadUsers(Index target) {
+        TypedQuery<Object[]> query = entityManager.createNamedQuery("UserEntity.findSearchable", Object[].class);
+        query.setParameter("adminRole", AuthRole.USER_ROLE_ADMIN);
+        for (Object[] row: query.getResultList()) {
+            Long userId = (Long) row[0];
+            target.put(userId, new UserEntry(userId, normalize((String) row[1]), normalize((String) row[2])));
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            loadUsers(index);
+            loaded = true;
+            LOGGER.debug("indexed searchable users: " + index.userSlots.size());
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The indexed users and their trigram posting lists
+     */
+    private static final class Index {
+
+        /**
+         * The indexed users, the posting lists refer to the slots in this list
+         */
+        private final List<UserEntry> slots = new ArrayList<>();
+
+        private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+        private final Map<Long /*user ID*/, Integer /*slot*/> userSlots = new HashMap<>();
+
+        private final Map<Long /*field and trigram*/, IntList /*slots*/> postings = new HashMap<>();
+
+        /**
+         * Put an entry, or remove the user if the entry is null.
+         */
+        void put(Long userId, UserEntry entry) {
+            remove(userId);
+            if (entry != null) {
+                add(entry);
+            }
+        }
+
+        private void add(UserEntry entry) {
+            int slot;
+            if (freeSlots.isEmpty()) {
+                slot = slots.size();
+                slots.add(entry);
+            }
+            else {
+                slot = freeSlots.pop();
+                slots.set(slot, entry);
+            }
+            userSlots.put(entry.userId, slot);
+            getTrigramKeys(FIELD_NAME, entry.name).forEach(key -> postings.computeIfAbsent(key, k -> new IntList()).add(slot));
+            getTrigramKeys(FIELD_EMAIL, entry.email).forEach(key -> postings.computeIfAbsent(key, k -> new IntList()).add(slot));
+        }
+
+        private void remove(Long userId) {
+            Integer slot = userSlots.remove(userId);
+            if (slot == null) {
+                return;
+            }
+            UserEntry entry = slots.get(slot);
+            Set<Long> keys = getTrigramKeys(FIELD_NAME, entry.name);
+            keys.addAll(getTrigramKeys(FIELD_EMAIL, entry.email));
+            for (Long key: keys) {
+                IntList posting = postings.get(key);
+                posting.remove(slot);
+                if (posting.size == 0) {
+                    postings.remove(key);
+                }
+            }
+            slots.set(slot, null);
+            freeSlots.push(slot);
+        }
+    }
+
+    /**
+     * Normalized search fields of a user
+     */
+    private static final class UserEntry {
+
+        private final Long userId;
+
+        private final String name;
+
+        private final String email;
+
+        UserEntry(final Long userId, final String name, final String email) {
+            this.userId = userId;
+            this.name = name;
+            this.email = email;
+        }
+    }
+
+    /**
+     * A matching user, ordered by match quality, then by shorter field, then by user ID
+     */
+    private static final class Match implements Comparable<Match> {
+
+        private final Long userId;
+
+        private final int quality;
+
+        private final int length;
+
+        Match(final Long userId, final int quality, final int length) {
+            this.userId = userId;
+            this.quality = quality;
+            this.length = length;
+        }
+
+        @Override
+        public int compareTo(@NotNull Match other) {
+            if (quality != other.quality) {
+                return Integer.compare(quality, other.quality);
+            }
+            if (length != other.length) {
+                return Integer.compare(length, other.length);
+            }
+            return userId.compareTo(other.userId);
+        }
+    }
+
+    /**
+     * A compact, unordered list of slots
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.business;
+
+import javax.ejb.*;
+import javax.inject.Inject;
+
+
+/**
+ * Periodically rebuilds the user search index in the background, this also picks up
+ * the user changes made on other nodes.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@Singleton
+@Startup
+public class UserSearchIndexJob {
+
+    private final UserSearchIndex userSearchIndex;
+
+    /**
+     * EJB's default constructor.
+     */
+    protected UserSearchIndexJob() {
+        userSearchIndex = null;
+    }
+
+    /**
+     * Create the bean.
+     *
+     * @param userSearchIndex   The user search index
+     */
+    @Inject
+    public UserSearchIndexJob(UserSearchIndex userSearchIndex) {
+        this.userSearchIndex = userSearchIndex;
+    }
+
+    /**
+     * Rebuild the index, the searches are served by the previous index meanwhile.
+     */
+    @Schedule(hour="*", minute="*/5", persistent=false)
+    public void rebuild() {
+        userSearchIndex.refresh();
+    }
+}
@@ -9,7 +9,7 @@ package net.m4e.app.user.business;
 
 import net.m4e.app.auth.*;
 import net.m4e.app.communication.ConnectedClients;
-import net.m4e.app.event.business.EventEntity;
+import net.m4e.app.event.business.*;
 import net.m4e.app.resources.*;
 import net.m4e.app.user.rest.comm.UserCmd;
 import net.m4e.common.*;
@@ -40,6 +40,20 @@ public class Users {
 
     private final DocumentPool docPool;
 
+    private final EventInfoCache eventInfoCache;
+
+    private final EntityCounters entityCounters;
+
+    private final UserNameCache userNameCache;
+
+    private final UserSearchIndex userSearchIndex;
+
+    private final UserNameSuggestions userNameSuggestions;
+
+    private final RoleRegistry roleRegistry;
+
+    private final Passwords passwords;
+
 
     /**
      * Default constructor, make the container happy.
@@ -48,6 +62,13 @@ public class Users {
         entities = null;
         appInfos = null;
         docPool = null;
+        eventInfoCache = null;
+        entityCounters = null;
+        userNameCache = null;
+        userSearchIndex = null;
+        userNameSuggestions = null;
+        roleRegistry = null;
+        passwords = null;
     }
 
     /**
@@ -56,10 +77,24 @@ public class Users {
     @Inject
     public Users(@NotNull Entities entities,
                  @NotNull AppInfos appInfos,
-                 @NotNull DocumentPool docPool) {
+                 @NotNull DocumentPool docPool,
+                 @NotNull EventInfoCache eventInfoCache,
+                 @NotNull EntityCounters entityCounters,
+                 @NotNull UserNameCache userNameCache,
+                 @NotNull UserSearchIndex userSearchIndex,
+                 @NotNull UserNameSuggestions userNameSuggestions,
+                 @NotNull RoleRegistry roleRegistry,
+                 @NotNull Passwords passwords) {
         this.entities = entities;
         this.appInfos = appInfos;
         this.docPool = docPool;
+        this.eventInfoCache = eventInfoCache;
+        this.entityCounters = entityCounters;
+        this.userNameCache = userNameCache;
+        this.userSearchIndex = userSearchIndex;
+        this.userNameSuggestions = userNameSuggestions;
+        this.roleRegistry = roleRegistry;
+        this.passwords = passwords;
     }
 
     /**
@@ -88,7 +123,7 @@ public class Users {
             throw new IllegalArgumentException("Invalid user or resource object");
         }
         return Objects.equals(user.getId(), resourceStatus.getIdOwner()) ||
-               checkUserRoles(user, Arrays.asList(AuthRole.USER_ROLE_ADMIN));
+               checkUserRoles(user, AppRoles.ADMIN.getMask());
     }
 
     /**
@@ -99,10 +134,18 @@ public class Users {
      * @return          Return true if at least one of given roles matches.
      */
     public boolean checkUserRoles(@NotNull UserEntity user, List<String> roles) {
-        if (user.getRolesAsString().isEmpty() || roles.isEmpty()) {
-            return false;
-        }
-        return user.getRolesAsString().stream().anyMatch((role) -> (roles.contains(role)));
+        return checkUserRoles(user, AppRoles.getRolesMask(roles));
+    }
+
+    /**
+     * Check if at least one of given roles matches to user's roles.
+     *
+     * @param user      User for role checking
+     * @param rolesMask Mask of the roles to check against user's roles, see AppRoles
+     * @return          Return true if at least one of given roles matches.
+     */
+    public boolean checkUserRoles(@NotNull UserEntity user, int rolesMask) {
+        return (user.getRolesMask() & rolesMask) != 0;
     }
 
     /**
@@ -116,7 +159,7 @@ public class Users {
      * @return A list of valid roles. An empty list is returned if the requestRoles is null.
      */
     public Collection<RoleEntity> adaptRequestedRoles(@Nullable UserEntity requestingUser, Collection<RoleEntity> requestedRoles) {
-        boolean isAdmin = (requestingUser != null) && checkUserRoles(requestingUser, Arrays.asList(AuthRole.USER_ROLE_ADMIN));
+        boolean isAdmin = (requestingUser != null) && checkUserRoles(requestingUser, AppRoles.ADMIN.getMask());
 
         return (requestedRoles == null) ? Collections.emptyList() : addUniqueRoles(requestedRoles, isAdmin);
     }
@@ -151,8 +194,9 @@ public class Users {
      * @param inputEntity   Input data for new entity
      * @param creatorID     ID of creator, let null in order to take the new user itself as creator.
      * @return              New created entity
+     * @throws Exception    Throws an exception if the password could not be hashed
      */
-    public UserEntity createNewUser(@NotNull UserEntity inputEntity, Long creatorID) {
+    public UserEntity createNewUser(@NotNull UserEntity inputEntity, Long creatorID) throws Exception {
         UserEntity newUser = createUserEntityCopy(inputEntity);
 
         // setup the status
@@ -168,15 +212,19 @@ public class Users {
         newUser.setStatus(status);
 
         updateUserLastLogin(newUser);
+        userSearchIndex.putUser(newUser);
+        userNameSuggestions.putUser(newUser);
 
         return newUser;
     }
 
     @NotNull
-    private UserEntity createUserEntityCopy(UserEntity inputEntity) {
+    private UserEntity createUserEntityCopy(UserEntity inputEntity) throws Exception {
         UserEntity newUser = new UserEntity();
         newUser.setLogin(inputEntity.getLogin());
-        newUser.setPassword(inputEntity.getPassword());
+        // the password of an imported user is hashed already
+        String password = inputEntity.getPassword();
+        newUser.setPassword(((password != null) && passwords.isLegacyHash(password)) ? hashPassword(password) : password);
         newUser.setName(inputEntity.getName());
         newUser.setEmail(inputEntity.getEmail());
         addUserRoles(newUser, inputEntity.getRolesAsString());
@@ -194,6 +242,7 @@ public class Users {
         List<String> roles = user.getRolesAsString();
         user.setRoles(null);
         entities.create(user);
+        entityCounters.addUsers(1);
         // now add set the roles
         if (roles.size() > 0) {
             addUserRoles(user, roles);
@@ -208,6 +257,10 @@ public class Users {
      */
     public void updateUser(@NotNull UserEntity user) {
         entities.update(user);
+        eventInfoCache.invalidateUser(user.getId());
+        userNameCache.invalidateUser(user.getId());
+        userSearchIndex.putUser(user);
+        userNameSuggestions.putUser(user);
     }
 
     /**
@@ -221,6 +274,8 @@ public class Users {
         // make sure that the resource URL is set
         image.setResourceURL("/User/Image");
         docPool.updatePhoto(user, image);
+        eventInfoCache.invalidateUser(user.getId());
+        userNameSuggestions.putUser(user);
     }
 
     /**
@@ -237,6 +292,10 @@ public class Users {
         }
         status.setDateDeletion((new Date().getTime()));
         entities.update(user);
+        AuthorityConfig.getInstance().getTokenRevocations().revoke(user.getId(), TokenRevocations.ALL_REVOKED);
+        eventInfoCache.invalidateUser(user.getId());
+        userSearchIndex.removeUser(user.getId());
+        userNameSuggestions.removeUser(user.getId());
 
         // update the app stats
         AppInfoEntity appinfo = appInfos.getAppInfoEntity();
@@ -245,6 +304,7 @@ public class Users {
         }
         appinfo.incrementUserCountPurge(1L);
         entities.update(appinfo);
+        entityCounters.addUsers(-1);
     }
 
     /**
@@ -271,6 +331,14 @@ public class Users {
      */
     public void deleteUser(UserEntity user) {
         entities.delete(user);
+        eventInfoCache.invalidateUser(user.getId());
+        userNameCache.invalidateUser(user.getId());
+        userSearchIndex.removeUser(user.getId());
+        userNameSuggestions.removeUser(user.getId());
+        // users marked as deleted are already excluded from the count
+        if (!user.getStatus().getIsDeleted()) {
+            entityCounters.addUsers(-1);
+        }
     }
 
     /**
@@ -283,6 +351,55 @@ public class Users {
         return entities.find(UserEntity.class, id);
     }
 
+    /**
+     * Find all users with given IDs in one database query.
+     *
+     * @param ids User IDs
+     * @return Return all found user entities, IDs of non-existing users are ignored.
+     */
+    public List<UserEntity> findUsers(Collection<Long> ids) {
+        return entities.findByIds(UserEntity.class, ids);
+    }
+
+    /**
+     * Search for active users which are no admins and whose name, or optionally email,
+     * contains the given keyword.
+     *
+     * @param keyword       Keyword to search for
+     * @param searchEmail   Pass true for searching the emails too
+     * @param maxResults    Maximal count of results
+     * @return              Found users, best matches first
+     */
+    public List<UserEntity> searchUsers(@NotNull String keyword, boolean searchEmail, int maxResults) {
+        List<Long> ids = userSearchIndex.search(keyword, searchEmail, maxResults);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, UserEntity> foundUsers = new HashMap<>();
+        findUsers(ids).forEach(user -> foundUsers.put(user.getId(), user));
+        List<UserEntity> hits = new ArrayList<>();
+        for (Long id: ids) {
+            UserEntity user = foundUsers.get(id);
+            // skip users changed by another node
+            if ((user != null) && user.getStatus().getIsActive()) {
+                hits.add(user);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Get name suggestions for active users which are no admins and whose name or a word of
+     * their name starts with the given prefix.
+     *
+     * @param prefix        The typed prefix
+     * @param maxResults    Maximal count of results
+     * @return              The suggestions
+     */
+    public List<UserNameSuggestions.UserSuggestion> suggestUsers(@NotNull String prefix, int maxResults) {
+        return userNameSuggestions.suggest(prefix, maxResults);
+    }
+
     /**
      * Try to find a user with given login.
      * 
@@ -366,6 +483,28 @@ public class Users {
         entities.update(user);
     }
 
+    /**
+     * Revoke all session tokens issued to a user until now, see SessionTokens.
+     *
+     * @param user User entity to update
+     */
+    public void revokeUserTokens(@NotNull UserEntity user) {
+        user.setTokensValidAfter(new Date().getTime());
+        entities.update(user);
+        AuthorityConfig.getInstance().getTokenRevocations().revoke(user.getId(), user.getTokensValidAfter());
+    }
+
+    /**
+     * Replace the stored password of a user, e.g. by a stronger hash of it.
+     *
+     * @param user          User entity to update
+     * @param passwordHash  New password hash, see Passwords
+     */
+    public void updateUserPassword(@NotNull UserEntity user, @NotNull String passwordHash) {
+        user.setPassword(passwordHash);
+        entities.update(user);
+    }
+
     /**
      * Add the given roles to entity.
      * 
@@ -378,15 +517,15 @@ public class Users {
             if (role.isEmpty()) {
                 continue;
             }
-            List<RoleEntity> roleEntities = entities.findByField(RoleEntity.class, "name", role);
-            if (roleEntities.size() != 1) {
-                LOGGER.error("*** Unexpected count of role type found in database '" + role + "', count: " + roleEntities.size());
+            RoleEntity roleEntity = roleRegistry.findRole(role);
+            if (roleEntity == null) {
+                LOGGER.error("*** Role type not found in database '" + role + "'");
                 continue;
             }
             if (user.getRoles() == null) {
                 user.setRoles(new ArrayList<>());
             }
-            user.getRoles().add(roleEntities.get(0));
+            user.getRoles().add(roleEntity);
         }
     }
 
@@ -415,7 +554,7 @@ public class Users {
     public List<UserInfo> exportUsers(@NotNull List<UserEntity> users, @NotNull UserEntity authUser, @NotNull ConnectedClients connections) {
         List<UserInfo> allUsers = new ArrayList<>();
         // if the user has no admin role then return only himself
-        if (!checkUserRoles(authUser, Arrays.asList(AuthRole.USER_ROLE_ADMIN))) {
+        if (!checkUserRoles(authUser, AppRoles.ADMIN.getMask())) {
             allUsers.add(exportUser(authUser, connections));
         }
         else {
@@ -428,17 +567,34 @@ public class Users {
         return allUsers;
     }
 
+    /**
+     * Create the hash of a password sent by a client, see Passwords. If the legacy login is enabled then the
+     * password is stored as sent by the client, so older clients can login.
+     *
+     * @param password      Password as sent by the client
+     * @return              The password hash to store, or null if no password was given
+     * @throws Exception    Throws an exception if the password could not be hashed
+     */
+    public String hashPassword(String password) throws Exception {
+        if ((password == null) || passwords.isLegacyLogin()) {
+            return password;
+        }
+        return passwords.hash(password);
+    }
+
     /**
      * Give an user input data import the necessary fields and create a user entity.
+     * The password is hashed, so validate it before importing.
      *
-     * @param userCmd Data representing an user entity
-     * @return        User entity
+     * @param userCmd       Data representing an user entity
+     * @return              User entity
+     * @throws Exception    Throws an exception if the password could not be hashed
      */
-    public UserEntity importUser(@NotNull UserCmd userCmd) {
+    public UserEntity importUser(@NotNull UserCmd userCmd) throws Exception {
         UserEntity userEntity = new UserEntity();
         userEntity.setLogin(userCmd.getLogin());
         userEntity.setName(userCmd.getName());
-        userEntity.setPassword(userCmd.getPassword());
+        userEntity.setPassword(hashPassword(userCmd.getPassword()));
         userEntity.setEmail(userCmd.getEmail());
 
         if (userCmd.getRoles() != null) {
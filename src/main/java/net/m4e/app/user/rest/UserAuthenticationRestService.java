@@ -21,6 +21,8 @@ import javax.servlet.http.*;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 
 /**
  * REST services for user authentication and creation
@@ -40,14 +42,22 @@ public class UserAuthenticationRestService {
 
     private final Users users;
 
+    private final Passwords passwords;
+
+    private final LoginThrottle loginThrottle;
+
     /**
      * Create the bean.
      * 
-     * @param users Injected Users instance
+     * @param users         Injected Users instance
+     * @param passwords     Injected Passwords instance
+     * @param loginThrottle Injected LoginThrottle instance
      */
     @Inject
-    public UserAuthenticationRestService(@NotNull Users users) {
+    public UserAuthenticationRestService(@NotNull Users users, @NotNull Passwords passwords, @NotNull LoginThrottle loginThrottle) {
         this.users = users;
+        this.passwords = passwords;
+        this.loginThrottle = loginThrottle;
     }
 
     @GET
@@ -58,7 +68,7 @@ public class UserAuthenticationRestService {
     @ApiOperation(value = "Get the authentication state")
     public GenericResponseResult<AuthState> state(@Context HttpServletRequest request) {
         HttpSession session = request.getSession();
-        UserEntity userEntity = (UserEntity)session.getAttribute(AuthorityConfig.SESSION_ATTR_USER);
+        UserEntity userEntity = AuthorityConfig.getInstance().getSessionUser(request);
         boolean auth = false;
         String  uid = "";
         if (userEntity != null) {
@@ -82,6 +92,11 @@ public class UserAuthenticationRestService {
         }
         LOGGER.trace("User tries to login: " + loginCmd.getLogin());
 
+        // check before any database access or password hashing
+        if (!loginThrottle.tryAttempt(loginCmd.getLogin(), request.getRemoteAddr())) {
+            return GenericResponseResult.tooManyRequests("Failed to login user. Too many login attempts, please try again later.");
+        }
+
         HttpSession session = request.getSession();
         Object      user    = session.getAttribute(AuthorityConfig.SESSION_ATTR_USER);
         if (user != null) {
@@ -93,24 +108,123 @@ public class UserAuthenticationRestService {
         UserEntity existingUser = users.findUser(loginCmd.getLogin());
         if ((existingUser == null) || !existingUser.getStatus().getIsActive()) {
             LOGGER.debug("  User login attempt failed, no user with this login found, user ({})", loginCmd.getLogin());
+            loginThrottle.loginFailed(loginCmd.getLogin());
             return GenericResponseResult.notFound("Failed to login user.");
         }
         // check user password
-        String saltedPassword = AuthorityConfig.getInstance().createPassword(existingUser.getPassword() + session.getId());
-        if (!saltedPassword.contentEquals(loginCmd.getPassword())) {
-            LOGGER.debug("  User login attempt failed, wrong password, user ({})", loginCmd.getLogin());
-            return GenericResponseResult.unauthorized("Failed to login user.");
+        try {
+            if (!checkPassword(existingUser, loginCmd, request)) {
+                LOGGER.debug("  User login attempt failed, wrong password, user ({})", loginCmd.getLogin());
+                loginThrottle.loginFailed(loginCmd.getLogin());
+                return GenericResponseResult.unauthorized("Failed to login user.");
+            }
+        }
+        catch (Exception ex) {
+            LOGGER.warn("*** Could not check the password of user ({}), reason: {}", loginCmd.getLogin(), ex.getMessage());
+            return GenericResponseResult.serviceUnavailable("Failed to login user. Please try again later.");
         }
 
         LOGGER.trace(" User successfully logged in: {}", loginCmd.getLogin());
-        // store the user in client session
-        session.setAttribute(AuthorityConfig.SESSION_ATTR_USER, existingUser);
+        loginThrottle.loginSucceeded(loginCmd.getLogin());
         // update user
         users.updateUserLastLogin(existingUser);
 
+        AuthorityConfig authorityConfig = AuthorityConfig.getInstance();
+        if (authorityConfig.isStatelessAuth()) {
+            // the client authenticates by the token, the user is not stored in session
+            String token = authorityConfig.getSessionTokens().issue(existingUser.getId(), existingUser.getRolesMask());
+            return GenericResponseResult.ok("User was successfully logged in.", new LoggedIn(existingUser.getId().toString(), session.getId(), token));
+        }
+
+        // store the user in client session
+        session.setAttribute(AuthorityConfig.SESSION_ATTR_USER, existingUser);
+
         return GenericResponseResult.ok("User was successfully logged in.", new LoggedIn(existingUser.getId().toString(), session.getId()));
     }
 
+    /**
+     * Check the password given on login. There are two login protocols:
+     *
+     *  - Protocol 1, older clients send only "password": their password hash salted by the session ID,
+     *    createHash(createHash(password) + sessionId). It is checked against a legacy stored password.
+     *  - Protocol 2, current clients send "passwordDigest" in addition: their password hash createHash(password).
+     *    It is checked against a hashed stored password.
+     *
+     * As long as the legacy login is enabled (see Passwords.isLegacyLogin), the passwords are stored as legacy hashes
+     * and both protocols work. Otherwise a legacy password is replaced by a hash of the digest on the first login by
+     * protocol 2, if the digest matches to the checked salted hash. From then on the user can only login by protocol 2.
+     * A hash with weaker cost parameters is replaced on login, too.
+     *
+     * Unlike the salted password, the digest is the same on every login, whoever captures it can login. So it is only
+     * accepted on secure requests.
+     *
+     * @param user          User trying to login
+     * @param loginCmd      Login data sent by the client
+     * @param request       Login request, its session ID is the salt of the salted password
+     * @return              Return true if the password is valid
+     * @throws Exception    Throws an exception if the password could not be checked
+     */
+    private boolean checkPassword(UserEntity user, LoginCmd loginCmd, HttpServletRequest request) throws Exception {
+        String sessionId = request.getSession().getId();
+        String storedPassword = user.getPassword();
+        String digest = ((loginCmd.getPasswordDigest() != null) && !loginCmd.getPasswordDigest().isEmpty()) ? loginCmd.getPasswordDigest() : null;
+        if ((digest != null) && !request.isSecure()) {
+            LOGGER.debug("  Password digest is ignored, the request is not secure, user ({})", user.getLogin());
+            digest = null;
+        }
+        boolean valid;
+        if (passwords.isLegacyHash(storedPassword)) {
+            valid = isSaltedPassword(storedPassword, loginCmd.getPassword(), sessionId);
+            // only a digest matching the checked salted hash can replace the legacy password
+            if (!valid || (digest == null) || !isSaltedPassword(digest, loginCmd.getPassword(), sessionId)) {
+                return valid;
+            }
+        }
+        else if (digest == null) {
+            LOGGER.debug("  Client sent no usable password digest, it cannot login with a hashed password, user ({})", user.getLogin());
+            return false;
+        }
+        else {
+            valid = passwords.verify(digest, storedPassword);
+        }
+
+        if (valid && passwords.needsRehash(storedPassword)) {
+            LOGGER.debug("  Upgrading the password hash of user ({})", user.getLogin());
+            try {
+                users.updateUserPassword(user, passwords.hash(digest));
+            }
+            catch (Exception ex) {
+                // the login is valid anyway, the upgrade is tried again on next login
+                LOGGER.warn("*** Could not upgrade the password hash of user ({}), reason: {}", user.getLogin(), ex.getMessage());
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Check if the salted password sent by the client was created out of given password hash and the session ID.
+     */
+    private static boolean isSaltedPassword(String passwordHash, String saltedPassword, String sessionId) {
+        String expected = AuthorityConfig.getInstance().createPassword(passwordHash + sessionId);
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), saltedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @GET
+    @Path("wsticket")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Get a one-time ticket for the WebSocket handshake, it is only available with session tokens")
+    public GenericResponseResult<WebSocketTicket> webSocketTicket(@Context HttpServletRequest request) {
+        UserEntity user = AuthorityConfig.getInstance().getSessionUser(request);
+        if ((user == null) || (request.getAttribute(AuthorityConfig.REQUEST_ATTR_SESSION_TOKEN) == null)) {
+            LOGGER.debug("*** WebSocket ticket was requested without a session token");
+            return GenericResponseResult.notAcceptable("Failed to create a WebSocket ticket. Session tokens are not used.");
+        }
+        String ticket = AuthorityConfig.getInstance().getSessionTokens().issueTicket(user.getId(), user.getRolesMask());
+        return GenericResponseResult.ok("WebSocket ticket was created.", new WebSocketTicket(ticket, SessionTokens.TICKET_LIFETIME));
+    }
+
     @POST
     @Path("logout")
     @Consumes(MediaType.APPLICATION_JSON)
@@ -119,11 +233,15 @@ public class UserAuthenticationRestService {
     @ApiOperation(value = "Logout user")
     public GenericResponseResult<Void> logout(@Context HttpServletRequest request) {
         HttpSession session = request.getSession();
-        Object user = session.getAttribute(AuthorityConfig.SESSION_ATTR_USER);
+        UserEntity user = AuthorityConfig.getInstance().getSessionUser(request);
         if (user == null) {
             LOGGER.debug("*** Invalid logout attempt");
             return GenericResponseResult.notAcceptable("Failed to logout user. User was not logged in before.");
         }
+        if (request.getAttribute(AuthorityConfig.REQUEST_ATTR_SESSION_TOKEN) != null) {
+            // a token cannot be taken back from the client, so all tokens of the user are revoked
+            users.revokeUserTokens(user);
+        }
         session.invalidate();
         return GenericResponseResult.ok("User was successfully logged out.");
     }
@@ -24,6 +24,7 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * REST services for User entity operations
@@ -38,6 +39,11 @@ public class UserRestService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    /**
+     * Maximal count of returned name suggestions
+     */
+    public static final int MAX_SUGGESTIONS = 10;
+
     private final Entities entities;
 
     private final Users users;
@@ -46,7 +52,7 @@ public class UserRestService {
 
     private final UserRegistrations registration;
 
-    private final AppInfos appInfos;
+    private final EntityCounters entityCounters;
 
     private final ConnectedClients connections;
 
@@ -59,7 +65,7 @@ public class UserRestService {
         entities = null;
         validator = null;
         registration = null;
-        appInfos = null;
+        entityCounters = null;
         connections = null;
     }
 
@@ -71,14 +77,14 @@ public class UserRestService {
                            @NotNull Entities entities,
                            @NotNull UserValidator validator,
                            @NotNull UserRegistrations registration,
-                           @NotNull AppInfos appInfos,
+                           @NotNull EntityCounters entityCounters,
                            @NotNull ConnectedClients connections) {
 
         this.users = users;
         this.entities = entities;
         this.validator = validator;
         this.registration = registration;
-        this.appInfos = appInfos;
+        this.entityCounters = entityCounters;
         this.connections = connections;
     }
 
@@ -102,7 +108,13 @@ public class UserRestService {
             return GenericResponseResult.badRequest(ex.getMessage());
         }
 
-        UserEntity createdUser = users.createNewUser(userEntity, sessionUser.getId());
+        UserEntity createdUser;
+        try {
+            createdUser = users.createNewUser(userEntity, sessionUser.getId());
+        } catch (Exception ex) {
+            LOGGER.warn("*** Could not create new user, reason: {}", ex.getMessage());
+            return GenericResponseResult.internalError("Failed to create user.");
+        }
 
         return GenericResponseResult.ok("User was successfully created.", new UserId(createdUser.getId().toString()));
     }
@@ -140,6 +152,7 @@ public class UserRestService {
             newEntity = users.createNewUser(userEntity, null);
             // the user is not enabled until the registration process was completed
             newEntity.getStatus().setEnabled(false);
+            users.updateUser(newEntity);
         } catch (Exception ex) {
             LOGGER.warn("*** Could not register a new user, reason: {}", ex.getLocalizedMessage());
             return GenericResponseResult.internalError("Failed to register a new user.");
@@ -313,7 +326,12 @@ public class UserRestService {
         }
 
         // validate the requested roles, check for roles, e.g. only admins can define admin role for other users
+        int rolesMask = existingUser.getRolesMask();
         existingUser.setRoles(users.adaptRequestedRoles(sessionUser, updateEntity.getRoles()));
+        if (existingUser.getRolesMask() != rolesMask) {
+            // the session tokens carry the former roles
+            users.revokeUserTokens(existingUser);
+        }
 
         // take over non-empty fields
         boolean needsUpdate = false;
@@ -321,6 +339,7 @@ public class UserRestService {
             existingUser.setName(updateEntity.getName());
             needsUpdate = true;
         }
+        // the password was hashed on import, see Users.importUser
         if ((updateEntity.getPassword() != null) && !updateEntity.getPassword().isEmpty()) {
             existingUser.setPassword(updateEntity.getPassword());
             needsUpdate = true;
@@ -398,23 +417,14 @@ public class UserRestService {
             return GenericResponseResult.ok("Search results", new ArrayList<SearchHitUser>());
         }
 
-        List<String> searchFields = new ArrayList();
-        searchFields.add("name");
-        if (keyword.contains("@")) {
-            searchFields.add("email");
-        }
-
-        return GenericResponseResult.ok("Search results", searchForUsers(keyword, searchFields));
+        return GenericResponseResult.ok("Search results", searchForUsers(keyword, keyword.contains("@")));
     }
 
-    private List<SearchHitUser> searchForUsers(final String keyword, final List<String> searchFields) {
+    private List<SearchHitUser> searchForUsers(final String keyword, final boolean searchEmail) {
         List<SearchHitUser> searchHits = new ArrayList<>();
-        List<UserEntity> hits = entities.searchForString(UserEntity.class, keyword, searchFields, 10);
+        // the search index contains neither non-active users nor admins
+        List<UserEntity> hits = users.searchUsers(keyword, searchEmail, 10);
         for (UserEntity hit : hits) {
-            // exclude non-active users and admins from hit list
-            if (!hit.getStatus().getIsActive() || users.checkUserRoles(hit, Arrays.asList(AuthRole.USER_ROLE_ADMIN))) {
-                continue;
-            }
             searchHits.add(new SearchHitUser(
                     hit.getId().toString(),
                     hit.getName(),
@@ -424,6 +434,34 @@ public class UserRestService {
         return searchHits;
     }
 
+    /**
+     * Suggest users while typing their name, e.g. in a member picker. Users whose name or a word
+     * of their name starts with the given prefix are returned, names starting with the prefix first.
+     * The returned list does not contain admins and inactive users.
+     *
+     * @param prefix The typed name prefix
+     * @return Result
+     */
+    @GET
+    @Path("/suggest/{prefix}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles = {AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Suggest users whose names start with given prefix")
+    public GenericResponseResult<List<SearchHitUser>> suggest(@PathParam("prefix") String prefix) {
+        List<SearchHitUser> hits = new ArrayList<>();
+        if ((prefix == null) || prefix.trim().isEmpty()) {
+            return GenericResponseResult.ok("Suggestions", hits);
+        }
+        for (UserNameSuggestions.UserSuggestion suggestion: users.suggestUsers(prefix, MAX_SUGGESTIONS)) {
+            hits.add(new SearchHitUser(
+                    suggestion.getUserId().toString(),
+                    suggestion.getName(),
+                    (suggestion.getPhotoId() != null) ? suggestion.getPhotoId().toString() : "",
+                    (suggestion.getPhotoETag() != null) ? suggestion.getPhotoETag() : ""));
+        }
+        return GenericResponseResult.ok("Suggestions", hits);
+    }
+
     /**
      * Find an user with given ID.
      */
@@ -463,6 +501,28 @@ public class UserRestService {
         return GenericResponseResult.ok("List of users", exportUsers);
     }
 
+    /**
+     * Get all users. The users are streamed to the client while they are fetched from database,
+     * use this instead of findAllUsers for large amounts of users.
+     */
+    @GET
+    @Path("stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles = {AuthRole.VIRT_ROLE_USER})
+    @ApiOperation(value = "Stream all users. An admin gets all users but a non-admin gets only herself/himself.")
+    public StreamingOutput streamAllUsers(@Context HttpServletRequest request) {
+        UserEntity sessionUser = AuthorityConfig.getInstance().getSessionUser(request);
+        // if the user has no admin role then return only himself
+        if (!users.checkUserRoles(sessionUser, Arrays.asList(AuthRole.USER_ROLE_ADMIN))) {
+            UserInfo userInfo = users.exportUser(sessionUser, connections);
+            return StreamingResponseResult.ok("List of users", () -> Stream.of(userInfo));
+        }
+        return StreamingResponseResult.ok("List of users", sink -> entities.processAll(UserEntity.class, stream -> stream
+                .filter(user -> user.getStatus().getIsActive())
+                .map(user -> users.exportUser(user, connections))
+                .forEach(sink)));
+    }
+
     /**
      * Get users in given range.
      */
@@ -487,9 +547,7 @@ public class UserRestService {
     @net.m4e.app.auth.AuthRole(grantRoles = {AuthRole.VIRT_ROLE_USER})
     @ApiOperation(value = "Get the count of active users")
     public GenericResponseResult<UserCount> count() {
-        // NOTE the final user count is the count of UserEntity entries in database minus the count of users to be purged
-        AppInfoEntity appInfo = appInfos.getAppInfoEntity();
-        UserCount count = new UserCount(entities.getCount(UserEntity.class) - appInfo.getUserCountPurge());
+        UserCount count = new UserCount(entityCounters.getUserCount());
         return GenericResponseResult.ok("Count of users", count);
     }
 }
@@ -66,6 +66,15 @@ public class UserValidator {
      * @throws Exception     Throws an exception if the validation fails.
      */
     public UserEntity validateNewEntityInput(@Nullable UserEntity requestingUser, UserCmd userCmd) throws Exception {
+        // the password is hashed on import, check it before
+        if (!Strings.checkMinMaxLength(userCmd.getPassword(), USER_INPUT_MIN_LEN_PASSWD, USER_INPUT_MAX_LEN_PASSWD)) {
+            throw new Exception(getLenRangeText("The password", USER_INPUT_MIN_LEN_PASSWD, USER_INPUT_MAX_LEN_PASSWD));
+        }
+
+        if (AuthorityConfig.getInstance().createPassword("").equals(userCmd.getPassword())) {
+            throw new Exception("The password must not be empty.");
+        }
+
         UserEntity newEntity = users.importUser(userCmd);
         if (newEntity == null) {
             throw new Exception("Failed to create user, invalid input.");
@@ -80,14 +89,6 @@ public class UserValidator {
             throw new Exception(getLenRangeText("User name", USER_INPUT_MIN_LEN_NAME, USER_INPUT_MAX_LEN_NAME));
         }
 
-        if (!Strings.checkMinMaxLength(newEntity.getPassword(), USER_INPUT_MIN_LEN_PASSWD, USER_INPUT_MAX_LEN_PASSWD)) {
-            throw new Exception(getLenRangeText("The password", USER_INPUT_MIN_LEN_PASSWD, USER_INPUT_MAX_LEN_PASSWD));
-        }
-
-        if (AuthorityConfig.getInstance().createPassword("").equals(newEntity.getPassword())) {
-            throw new Exception("The password must not be empty.");            
-        }
-
         if (!Strings.checkMinMaxLength(newEntity.getEmail(), USER_INPUT_MIN_LEN_EMAIL, USER_INPUT_MAX_LEN_EMAIL)) {
             throw new Exception(getLenRangeText("The E-Mail address", USER_INPUT_MIN_LEN_EMAIL, USER_INPUT_MAX_LEN_EMAIL));
         }
@@ -129,20 +130,21 @@ public class UserValidator {
      * @throws Exception     Throws an exception if the validation fails.
      */
     public UserEntity validateUpdateEntityInput(UserCmd userCmd) throws Exception {
+        // NOTE: for updating an entity, some fields may not exist, those fields do not get changed.
+        // the password is hashed on import, check it before
+        if ((userCmd.getPassword() != null) && !Strings.checkMinMaxLength(userCmd.getPassword(), USER_INPUT_MIN_LEN_PASSWD, USER_INPUT_MAX_LEN_PASSWD)) {
+            throw new Exception(getLenRangeText("The password", USER_INPUT_MIN_LEN_PASSWD, USER_INPUT_MAX_LEN_PASSWD));
+        }
+
         UserEntity userEntity = users.importUser(userCmd);
         if (userEntity == null) {
             throw new Exception("Failed to update user, invalid input.");
         }
 
-        // NOTE: for updating an entity, some fields may not exist, those fields do not get changed.
         if ((userEntity.getName() != null) && !Strings.checkMinMaxLength(userEntity.getName(), USER_INPUT_MIN_LEN_NAME, USER_INPUT_MAX_LEN_NAME)) {
             throw new Exception(getLenRangeText("User name", USER_INPUT_MIN_LEN_NAME, USER_INPUT_MAX_LEN_NAME));
         }
 
-        if ((userEntity.getPassword() != null) && !Strings.checkMinMaxLength(userEntity.getPassword(), USER_INPUT_MIN_LEN_PASSWD, USER_INPUT_MAX_LEN_PASSWD)) {
-            throw new Exception(getLenRangeText("The password", USER_INPUT_MIN_LEN_PASSWD, USER_INPUT_MAX_LEN_PASSWD));
-        }
-
         // validate the roles
         List<String> allowedRoles = Users.getAvailableUserRoles();
         List<String> reqEntityRoles = userEntity.getRolesAsString();
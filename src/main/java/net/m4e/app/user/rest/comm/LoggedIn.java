@@ -14,10 +14,16 @@ package net.m4e.app.user.rest.comm;
 public class LoggedIn {
     private final String id;
     private final String sid;
+    private final String token;
 
     public LoggedIn(final String id, String sid) {
+        this(id, sid, null);
+    }
+
+    public LoggedIn(final String id, final String sid, final String token) {
         this.id = id;
         this.sid = sid;
+        this.token = token;
     }
 
     public String getId() {
@@ -27,4 +33,11 @@ public class LoggedIn {
     public String getSid() {
         return sid;
     }
+
+    /**
+     * Get the session token, it is only issued if the stateless authentication is enabled.
+     */
+    public String getToken() {
+        return token;
+    }
 }
@@ -13,6 +13,8 @@ import javax.json.bind.annotation.JsonbProperty;
 import javax.validation.constraints.Size;
 
 /**
+ * Login data, see UserAuthenticationRestService for the login protocol.
+ *
  * @author boto
  * Date of creation January 22, 2018
  */
@@ -24,6 +26,9 @@ public class LoginCmd {
     @Size(min = UserValidator.USER_INPUT_MIN_LEN_PASSWD, max = UserValidator.USER_INPUT_MAX_LEN_PASSWD)
     private String password;
 
+    @Size(max = UserValidator.USER_INPUT_MAX_LEN_PASSWD)
+    private String passwordDigest;
+
     public LoginCmd() {}
 
     public LoginCmd(final String login,
@@ -32,6 +37,14 @@ public class LoginCmd {
         this.password = password;
     }
 
+    public LoginCmd(final String login,
+                    final String password,
+                    final String passwordDigest) {
+        this.login = login;
+        this.password = password;
+        this.passwordDigest = passwordDigest;
+    }
+
     public String getLogin() {
         return login;
     }
@@ -49,4 +62,13 @@ public class LoginCmd {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public String getPasswordDigest() {
+        return passwordDigest;
+    }
+
+    @JsonbProperty("passwordDigest")
+    public void setPasswordDigest(String passwordDigest) {
+        this.passwordDigest = passwordDigest;
+    }
 }
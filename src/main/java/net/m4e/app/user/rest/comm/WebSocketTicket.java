@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.rest.comm;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class WebSocketTicket {
+    private final String ticket;
+    private final long lifetime;
+
+    public WebSocketTicket(final String ticket, final long lifetime) {
+        this.ticket = ticket;
+        this.lifetime = lifetime;
+    }
+
+    /**
+     * Get the one-time ticket, it is sent as query parameter on the WebSocket handshake.
+     */
+    public String getTicket() {
+        return ticket;
+    }
+
+    /**
+     * Get the ticket lifetime in seconds.
+     */
+    public long getLifetime() {
+        return lifetime;
+    }
+}
@@ -12,12 +12,15 @@ import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.persistence.CacheRetrieveMode;
 import javax.persistence.EntityManager;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.Predicate;
+import javax.transaction.Transactional;
 import java.lang.invoke.MethodHandles;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.*;
 
 
 
@@ -35,6 +38,21 @@ public class Entities {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    /**
+     * Query hint of EclipseLink for fetching the results by a scrollable cursor
+     */
+    private static final String HINT_SCROLLABLE_CURSOR = "eclipselink.cursor.scrollable";
+
+    /**
+     * Query hint of EclipseLink for the JDBC fetch size
+     */
+    private static final String HINT_FETCH_SIZE = "eclipselink.jdbc.fetch-size";
+
+    /**
+     * Count of entities fetched at once when streaming, the persistence context is cleared after each batch
+     */
+    public static final int STREAM_FETCH_SIZE = 100;
+
     private final EntityManager entityManager;
 
 
@@ -127,6 +145,78 @@ public class Entities {
         return res;
     }
 
+    /**
+     * Stream all entities of given type and pass the stream to given consumer. It runs in an own
+     * transaction, so it can be called after a request method returned (e.g. when writing a
+     * StreamingResponseResult). See streamAll for details.
+     *
+     * @param <T>           Entity class type
+     * @param entityClass   Pass the entity class
+     * @param consumer      Consumer of the stream, the entities must not be used after the consumer returned.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public <T> void processAll(Class<T> entityClass, Consumer<Stream<T>> consumer) {
+        try (Stream<T> stream = streamAll(entityClass)) {
+            consumer.accept(stream);
+        }
+    }
+
+    /**
+     * Stream all entities of given type. The entities are fetched from database by a cursor while
+     * the stream is consumed, so the stream must be consumed in a transaction and closed after usage.
+     *
+     * The persistence context is cleared after every STREAM_FETCH_SIZE entities, so only those are kept
+     * in memory. Hence the stream must be consumed in an own transaction (see processAll), entities loaded
+     * before in the same transaction become detached, and a streamed entity must not be used after the
+     * stream advanced.
+     *
+     * NOTE: The cursor is a feature of EclipseLink.
+     *
+     * @param <T>           Entity class type
+     * @param entityClass   Pass the entity class
+     * @return Stream of entities.
+     */
+    public <T> Stream<T> streamAll(Class<T> entityClass) {
+        javax.persistence.criteria.CriteriaQuery cq = entityManager.getCriteriaBuilder().createQuery();
+        cq.select(cq.from(entityClass));
+        javax.persistence.Query q = entityManager.createQuery(cq);
+        q.setHint(HINT_SCROLLABLE_CURSOR, Boolean.TRUE);
+        q.setHint(HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+        // with a cursor hint the single result is the cursor
+        Object cursor = q.getSingleResult();
+        if (!(cursor instanceof Iterator)) {
+            throw new IllegalStateException("The persistence provider does not support cursors");
+        }
+
+        Iterator<T> rows = (Iterator<T>) cursor;
+        Spliterator<T> entities = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int countRows;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (!rows.hasNext()) {
+                    return false;
+                }
+                action.accept(rows.next());
+                if (++countRows % STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+                return true;
+            }
+        };
+        return StreamSupport.stream(entities, false).onClose(() -> closeCursor(cursor));
+    }
+
+    private void closeCursor(Object cursor) {
+        try {
+            // the cursor class is provider specific, it holds the JDBC connection until it is closed
+            cursor.getClass().getMethod("close").invoke(cursor);
+        }
+        catch (ReflectiveOperationException ex) {
+            LOGGER.warn("*** Could not close a cursor, reason: {}", ex.getMessage());
+        }
+    }
+
     /** 
      * Find entities in given range, used usually for pagination. 
      * 
@@ -157,6 +247,39 @@ public class Entities {
         return entityManager.find(entityClass, id);
     }
 
+    /**
+     * Find an entity by reading it from database, the shared cache is bypassed. Use it for entities
+     * which may be changed by other cluster nodes.
+     *
+     * @param <T>           Entity class type
+     * @param entityClass   Pass the entity class
+     * @param id            Entity's ID
+     * @return Instance of found entity, or null if no entity with given ID was found.
+     */
+    public <T> T findUncached(Class<T> entityClass, Long id) {
+        return entityManager.find(entityClass, id, Collections.singletonMap("javax.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS));
+    }
+
+    /**
+     * Find all entities with given IDs in one query. IDs of non-existing entities are ignored.
+     *
+     * @param <T>           Entity class type
+     * @param entityClass   Pass the entity class
+     * @param ids           Entity IDs
+     * @return List of found entities, the order is not defined.
+     */
+    public <T> List<T> findByIds(Class<T> entityClass, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        javax.persistence.criteria.CriteriaQuery cq = entityManager.getCriteriaBuilder().createQuery();
+        javax.persistence.criteria.Root<T> rt = cq.from(entityClass);
+        cq.select(rt).where(rt.get("id").in(ids));
+        javax.persistence.Query q = entityManager.createQuery(cq);
+        List<T> res = q.getResultList();
+        return res;
+    }
+
     /**
      * Try to find all entities which has the value 'matchName' in their field 'fieldValue'.
      * 
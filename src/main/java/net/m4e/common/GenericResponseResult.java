@@ -54,6 +54,11 @@ public class GenericResponseResult<T> {
      */
     public final static int CODE_NOT_ACCEPTABLE = 406;
 
+    /**
+     * Code for too many requests
+     */
+    public final static int CODE_TOO_MANY_REQUESTS = 429;
+
     /**
      * Code for not internal server error
      */
@@ -154,6 +159,14 @@ public class GenericResponseResult<T> {
         return new GenericResponseResult<>(STATUS_NOT_OK, desc, CODE_NOT_ACCEPTABLE, getResponseData(data));
     }
 
+    /**
+     * 429
+     */
+    @SafeVarargs
+    public static <T> GenericResponseResult<T> tooManyRequests(final String desc, final T... data) {
+        return new GenericResponseResult<>(STATUS_NOT_OK, desc, CODE_TOO_MANY_REQUESTS, getResponseData(data));
+    }
+
     /**
      * 500.
      */
@@ -162,6 +175,14 @@ public class GenericResponseResult<T> {
         return new GenericResponseResult<>(STATUS_NOT_OK, desc, CODE_INTERNAL_SRV_ERROR, getResponseData(data));
     }
 
+    /**
+     * 503.
+     */
+    @SafeVarargs
+    public static <T> GenericResponseResult<T> serviceUnavailable(final String desc, final T... data) {
+        return new GenericResponseResult<>(STATUS_NOT_OK, desc, CODE_SERVICE_UNAVAILABLE, getResponseData(data));
+    }
+
     public String toJSON() {
         Jsonb json = JsonbBuilder.create();
         return json.toJson(this);
@@ -9,12 +9,17 @@ package net.m4e.common;
 
 import org.slf4j.*;
 
+import java.io.*;
 import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
 import java.security.*;
 
 
 /**
  * A class helping to create hashes.
+ *
+ * The message digests are reused per thread, and large content can be hashed out of a stream
+ * or a buffer without copying it into a byte array first.
 
  * @author boto
  * Date of creation February 7, 2018
@@ -23,17 +28,47 @@ public class HashCreator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-    private static final String ALGO_SHA215 = "SHA-256";
+    private static final String ALGO_SHA256 = "SHA-256";
 
     private static final String ALGO_SHA512 = "SHA-512";
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<MessageDigest> SHA256_DIGESTS = ThreadLocal.withInitial(() -> createDigest(ALGO_SHA256));
+
+    private static final ThreadLocal<MessageDigest> SHA512_DIGESTS = ThreadLocal.withInitial(() -> createDigest(ALGO_SHA512));
+
     /**
      * Create a SHA 256 hash out of given content.
      *
      * @throws Exception if something goes wrong.
      */
     public static String createSHA256(byte[] content) throws Exception {
-        return createHash(content, ALGO_SHA215);
+        MessageDigest digest = getDigest(SHA256_DIGESTS);
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Create a SHA 256 hash out of the remaining content of given buffer. The buffer position is not changed.
+     *
+     * @throws Exception if something goes wrong.
+     */
+    public static String createSHA256(ByteBuffer content) throws Exception {
+        MessageDigest digest = getDigest(SHA256_DIGESTS);
+        digest.update(content.duplicate());
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Create a SHA 256 hash out of the content read from given stream until its end. The stream is not closed.
+     *
+     * @throws Exception if something goes wrong, e.g. the stream cannot be read.
+     */
+    public static String createSHA256(InputStream content) throws Exception {
+        return createHash(content, SHA256_DIGESTS);
     }
 
     /**
@@ -42,28 +77,68 @@ public class HashCreator {
      * @throws Exception if something goes wrong.
      */
     public static String createSHA512(byte[] content) throws Exception {
-        return createHash(content, ALGO_SHA512);
+        MessageDigest digest = getDigest(SHA512_DIGESTS);
+        digest.update(content);
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Create a SHA 512 hash out of the content read from given stream until its end. The stream is not closed.
+     *
+     * @throws Exception if something goes wrong, e.g. the stream cannot be read.
+     */
+    public static String createSHA512(InputStream content) throws Exception {
+        return createHash(content, SHA512_DIGESTS);
+    }
+
+    /**
+     * Convert the given bytes to a lower-case hex string.
+     */
+    public static String toHex(byte[] data) {
+        char[] hex = new char[data.length * 2];
+        for (int i = 0; i < data.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(data[i] >> 4) & 0x0f];
+            hex[i * 2 + 1] = HEX_DIGITS[data[i] & 0x0f];
+        }
+        return new String(hex);
     }
 
-    private static String createHash(byte[] content, final String algorithmName) throws Exception {
+    private static String createHash(InputStream content, ThreadLocal<MessageDigest> digests) throws Exception {
+        MessageDigest digest = getDigest(digests);
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
         try {
-            MessageDigest digest = MessageDigest.getInstance(algorithmName);
-            digest.update(content);
-            byte data[] = digest.digest();
-            StringBuilder hexString = new StringBuilder();
-            for (int i = 0; i < data.length; i++) {
-                String hex = Integer.toHexString(0xff & data[i]);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
+            int count;
+            while ((count = content.read(buffer)) >= 0) {
+                digest.update(buffer, 0, count);
             }
+        }
+        catch (IOException ex) {
+            digest.reset();
+            LOGGER.error("Problem occurred while reading content for hashing, reason: " + ex.getMessage());
+            throw new Exception(ex.getMessage());
+        }
+        return toHex(digest.digest());
+    }
 
-            return hexString.toString();
-
-        } catch (NoSuchAlgorithmException ex) {
-            LOGGER.error("Problem occurred while creating a SHA-256 hash, reason: " + ex.getMessage());
+    private static MessageDigest getDigest(ThreadLocal<MessageDigest> digests) throws Exception {
+        try {
+            MessageDigest digest = digests.get();
+            // a digest is reset after each hash, but not if an update has failed
+            digest.reset();
+            return digest;
+        }
+        catch (IllegalStateException ex) {
             throw new Exception(ex.getMessage());
         }
     }
+
+    private static MessageDigest createDigest(final String algorithmName) {
+        try {
+            return MessageDigest.getInstance(algorithmName);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            LOGGER.error("Problem occurred while creating a " + algorithmName + " hash, reason: " + ex.getMessage());
+            throw new IllegalStateException(ex.getMessage());
+        }
+    }
 }
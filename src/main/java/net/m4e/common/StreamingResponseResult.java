@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import javax.json.*;
+import javax.json.bind.*;
+import javax.json.stream.JsonGenerator;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.*;
+import java.util.function.*;
+import java.util.stream.Stream;
+
+/**
+ * A successful response with a list as data which is written element by element while the
+ * elements are produced, instead of building the complete list in memory first. The JSON
+ * document has the same fields as a GenericResponseResult.
+ *
+ * The data is produced only when the response is written, after the request method returned.
+ * So the producer must not depend on the request being still in progress (e.g. an HTTP session
+ * or the request's transaction). Data fetched from database must be produced in an own
+ * transaction, see Entities.processAll.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class StreamingResponseResult<T> implements StreamingOutput {
+
+    /**
+     * JSON-B instances are thread-safe and expensive to create, so share one.
+     */
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    private final String description;
+
+    private final Producer<T> data;
+
+
+    /**
+     * Create a streaming response.
+     *
+     * @param description   Response description
+     * @param data          Producer of the data elements
+     */
+    public StreamingResponseResult(final String description, final Producer<T> data) {
+        this.description = description;
+        this.data = data;
+    }
+
+    /**
+     * 200.
+     */
+    public static <T> StreamingResponseResult<T> ok(final String description, final Producer<T> data) {
+        return new StreamingResponseResult<>(description, data);
+    }
+
+    /**
+     * 200, with data elements which are available without database access.
+     *
+     * @param description   Response description
+     * @param data          Supplier of the data elements, the stream is closed after writing.
+     */
+    public static <T> StreamingResponseResult<T> ok(final String description, final Supplier<Stream<T>> data) {
+        return new StreamingResponseResult<>(description, sink -> {
+            try (Stream<T> elements = data.get()) {
+                elements.forEach(sink);
+            }
+        });
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        try (JsonGenerator generator = Json.createGenerator(output)) {
+
+            generator.writeStartObject()
+                    .write("code", GenericResponseResult.CODE_OK)
+                    .write("description", description)
+                    .write("status", GenericResponseResult.STATUS_OK)
+                    .writeStartArray("data");
+
+            data.produce(element -> generator.write(toJsonValue(element)));
+
+            generator.writeEnd()
+                    .writeEnd();
+        }
+    }
+
+    private JsonValue toJsonValue(T element) {
+        if (element == null) {
+            return JsonValue.NULL;
+        }
+        try (JsonReader reader = Json.createReader(new StringReader(JSONB.toJson(element)))) {
+            return reader.readValue();
+        }
+    }
+
+    /**
+     * Produces the data elements of a response.
+     */
+    @FunctionalInterface
+    public interface Producer<T> {
+
+        /**
+         * Produce all data elements.
+         *
+         * @param sink  Consumer of the elements, they are written immediately
+         */
+        void produce(Consumer<T> sink);
+    }
+}
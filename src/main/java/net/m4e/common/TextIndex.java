@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+
+/**
+ * An in-memory inverted index for full-text search over short documents. Every document has
+ * a key and one or more texts, each text having a weight, e.g. a name weighs more than a
+ * description. The texts are split into lower case terms without diacritics.
+ *
+ * A search matches every query term exactly, as prefix of an indexed term and with a small
+ * edit distance. All query terms must match, the hits are ranked by the weights of the
+ * matched terms, their rarity and the kind of match.
+ *
+ * The index is safe for concurrent use.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class TextIndex<K> {
+
+    /**
+     * Minimal length of a query term for prefix matching
+     */
+    public static final int MIN_PREFIX_LENGTH = 2;
+
+    /**
+     * Minimal length of a query term for fuzzy matching with one edit
+     */
+    public static final int MIN_FUZZY_LENGTH = 4;
+
+    /**
+     * Minimal length of a query term for fuzzy matching with two edits
+     */
+    public static final int MIN_FUZZY2_LENGTH = 8;
+
+    /**
+     * Maximal length of an indexed term, longer terms are truncated
+     */
+    public static final int MAX_TERM_LENGTH = 32;
+
+    private static final float PREFIX_MATCH_FACTOR = 0.7f;
+
+    private static final float FUZZY_MATCH_FACTOR = 0.5f;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Sorted terms, for prefix and fuzzy lookups
+     */
+    private final NavigableMap<String, Map<K, Float /*term weight*/>> postings = new TreeMap<>();
+
+    private final Map<K, Map<String, Float /*term weight*/>> documents = new HashMap<>();
+
+
+    /**
+     * Split a text into lower case terms without diacritics.
+     *
+     * @param text  The text
+     * @return      The terms in order of their occurrence
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String term: SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                terms.add((term.length() > MAX_TERM_LENGTH) ? term.substring(0, MAX_TERM_LENGTH) : term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Add a document or replace an existing document with same key.
+     *
+     * @param key           Document key
+     * @param weightedTexts The document texts and their weights, null texts are skipped.
+     */
+    public void put(@NotNull K key, @NotNull Map<String, Float> weightedTexts) {
+        Map<String, Float> termWeights = new HashMap<>();
+        weightedTexts.forEach((text, weight) ->
+                tokenize(text).forEach(term -> termWeights.merge(term, weight, Float::sum)));
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(key);
+            if (termWeights.isEmpty()) {
+                return;
+            }
+            documents.put(key, termWeights);
+            termWeights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document.
+     *
+     * @param key   Document key
+     */
+    public void remove(@NotNull K key) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(key);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all documents.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the count of documents.
+     */
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the count of distinct terms.
+     */
+    public int getCountTerms() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Search for documents matching all terms of a query. The filter is called outside of the index
+     * lock, in order of descending score until enough hits are found, so it may be expensive.
+     *
+     * @param query         The query text
+     * @param filter        Only documents accepted by this filter are returned
+     * @param maxResults    Maximal count of results
+     * @return              The best hits, ordered by descending score
+     */
+    public List<Hit<K>> search(String query, @NotNull Predicate<K> filter, int maxResults) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty() || (maxResults < 1)) {
+            return new ArrayList<>();
+        }
+
+        Map<K, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryTerm: queryTerms) {
+                scores = scoreTerm(queryTerm, scores);
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit<K>> candidates = new ArrayList<>(scores.size());
+        scores.forEach((key, score) -> candidates.add(new Hit<>(key, score)));
+        candidates.sort(Comparator.comparingDouble(Hit<K>::getScore).reversed());
+
+        List<Hit<K>> hits = new ArrayList<>();
+        for (Hit<K> candidate: candidates) {
+            if (hits.size() >= maxResults) {
+                break;
+            }
+            if (filter.test(candidate.getKey())) {
+                hits.add(candidate);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Get the edit distance between two strings if it does not exceed a limit.
+     *
+     * @return  The edit distance, or maxDistance + 1 if the strings differ more.
+     */
+    static int getEditDistance(String text1, String text2, int maxDistance) {
+        if (Math.abs(text1.length() - text2.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[text2.length() + 1];
+        int[] current = new int[text2.length() + 1];
+        for (int j = 0; j <= text2.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= text1.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= text2.length(); j++) {
+                int cost = (text1.charAt(i - 1) == text2.charAt(j - 1)) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[text2.length()], maxDistance + 1);
+    }
+
+    /**
+     * Score the documents matching a query term. If candidates are given, then only those are
+     * considered and their scores are accumulated. The caller must hold the read lock.
+     */
+    private Map<K, Float> scoreTerm(String queryTerm, Map<K, Float> candidates) {
+        Map<K, Float> termScores = new HashMap<>();
+
+        // exact and prefix matches, the exact term is the first one of the prefix range
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            for (Map.Entry<String, Map<K, Float>> entry: postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, true).entrySet()) {
+                float factor = entry.getKey().equals(queryTerm) ? 1.0f : PREFIX_MATCH_FACTOR;
+                addScores(entry.getValue(), factor, candidates, termScores);
+            }
+        }
+        else {
+            Map<K, Float> posting = postings.get(queryTerm);
+            if (posting != null) {
+                addScores(posting, 1.0f, candidates, termScores);
+            }
+        }
+
+        // fuzzy matches, the terms must begin with the same character
+        int maxEdits = (queryTerm.length() >= MIN_FUZZY2_LENGTH) ? 2 : ((queryTerm.length() >= MIN_FUZZY_LENGTH) ? 1 : 0);
+        if (maxEdits > 0) {
+            String first = queryTerm.substring(0, 1);
+            for (Map.Entry<String, Map<K, Float>> entry: postings.subMap(first, true, first + Character.MAX_VALUE, true).entrySet()) {
+                String term = entry.getKey();
+                if (term.startsWith(queryTerm)) {
+                    continue;
+                }
+                int distance = getEditDistance(queryTerm, term, maxEdits);
+                if (distance <= maxEdits) {
+                    addScores(entry.getValue(), FUZZY_MATCH_FACTOR / distance, candidates, termScores);
+                }
+            }
+        }
+
+        if (candidates != null) {
+            termScores.replaceAll((key, score) -> score + candidates.get(key));
+        }
+        return termScores;
+    }
+
+    /**
+     * Add the scores of a posting list. A document gets the score of its best matching term.
+     */
+    private void addScores(Map<K, Float> posting, float factor, Map<K, Float> candidates, Map<K, Float> termScores) {
+        float idf = (float) Math.log(1.0 + (double) documents.size() / posting.size());
+        posting.forEach((key, weight) -> {
+            if ((candidates == null) || candidates.containsKey(key)) {
+                termScores.merge(key, weight * idf * factor, Math::max);
+            }
+        });
+    }
+
+    private void removeDocument(K key) {
+        Map<String, Float> termWeights = documents.remove(key);
+        if (termWeights == null) {
+            return;
+        }
+        for (String term: termWeights.keySet()) {
+            Map<K, Float> posting = postings.get(term);
+            posting.remove(key);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * A search hit
+     */
+    public static final class Hit<K> {
+
+        private final K key;
+
+        private final float score;
+
+        public Hit(final K key, final float score) {
+            this.key = key;
+            this.score = score;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+}
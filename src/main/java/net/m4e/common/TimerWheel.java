@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A hashed timer wheel holding tasks which become due at given times. Scheduling a task
+ * is O(1), advancing the wheel touches only the slots of elapsed ticks.
+ * Tasks due more than one revolution ahead stay in their slot until their tick is reached.
+ *
+ * The wheel does not run by itself, it is advanced by the owner, e.g. by a periodic timer.
+ * All methods are thread-safe.
+ *
+ * @param <T>   Task type
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class TimerWheel<T> {
+
+    private final long tickDuration;
+
+    private final List<List<Entry<T>>> slots;
+
+    /**
+     * The last tick which was processed
+     */
+    private long currentTick;
+
+    private int size;
+
+
+    /**
+     * Create a wheel.
+     *
+     * @param tickDuration  Duration of one tick in units of the used time, e.g. seconds
+     * @param countSlots    Count of slots, i.e. ticks per revolution
+     * @param startTime     Current time, tasks due before it are handled by the next advance
+     */
+    public TimerWheel(long tickDuration, int countSlots, long startTime) {
+        if ((tickDuration < 1) || (countSlots < 1)) {
+            throw new IllegalArgumentException("Invalid timer wheel dimension");
+        }
+        this.tickDuration = tickDuration;
+        this.slots = new ArrayList<>(countSlots);
+        for (int i = 0; i < countSlots; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = Math.floorDiv(startTime, tickDuration) - 1;
+    }
+
+    /**
+     * Schedule a task. A task due at a past time is returned by the next advance.
+     *
+     * @param time  Time the task is due
+     * @param task  The task
+     */
+    public synchronized void schedule(long time, @NotNull T task) {
+        long tick = Math.max(Math.floorDiv(time, tickDuration), currentTick + 1);
+        slots.get(slotOf(tick)).add(new Entry<>(tick, task));
+        size++;
+    }
+
+    /**
+     * Remove all tasks matching the given filter.
+     *
+     * @return  Count of removed tasks
+     */
+    public synchronized int remove(@NotNull Predicate<T> filter) {
+        int countRemoved = 0;
+        for (List<Entry<T>> slot: slots) {
+            int slotSize = slot.size();
+            slot.removeIf(entry -> filter.test(entry.task));
+            countRemoved += slotSize - slot.size();
+        }
+        size -= countRemoved;
+        return countRemoved;
+    }
+
+    /**
+     * Advance the wheel to the given time and take all tasks which became due.
+     *
+     * @param now   Current time
+     * @return      The due tasks ordered by their due time
+     */
+    public synchronized List<T> advance(long now) {
+        long nowTick = Math.floorDiv(now, tickDuration);
+        if (nowTick <= currentTick) {
+            return Collections.emptyList();
+        }
+        // after a long pause every slot is visited only once
+        long lastTick = Math.min(nowTick, currentTick + slots.size());
+        List<Entry<T>> due = new ArrayList<>();
+        for (long tick = currentTick + 1; tick <= lastTick; tick++) {
+            List<Entry<T>> slot = slots.get(slotOf(tick));
+            Iterator<Entry<T>> iterator = slot.iterator();
+            while (iterator.hasNext()) {
+                Entry<T> entry = iterator.next();
+                if (entry.tick <= nowTick) {
+                    due.add(entry);
+                    iterator.remove();
+                }
+            }
+        }
+        currentTick = nowTick;
+        size -= due.size();
+
+        due.sort(Comparator.comparingLong(entry -> entry.tick));
+        List<T> tasks = new ArrayList<>(due.size());
+        due.forEach(entry -> tasks.add(entry.task));
+        return tasks;
+    }
+
+    /**
+     * Get the count of scheduled tasks.
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+
+    private static final class Entry<T> {
+
+        private final long tick;
+
+        private final T task;
+
+        Entry(final long tick, final T task) {
+            this.tick = tick;
+            this.task = task;
+        }
+    }
+}
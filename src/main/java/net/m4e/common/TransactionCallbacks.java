@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.transaction.*;
+import java.lang.invoke.MethodHandles;
+
+
+/**
+ * Runs actions when the current JTA transaction completes. It is used for updating in-memory
+ * state (e.g. caches) only when the database changes it reflects were really committed.
+ *
+ * If no transaction is active then the actions run immediately.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class TransactionCallbacks {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    @Resource
+    private TransactionSynchronizationRegistry registry;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected TransactionCallbacks() {
+    }
+
+    /**
+     * Create the instance with given registry.
+     *
+     * @param registry  Transaction synchronization registry, pass null for running all actions immediately
+     */
+    public TransactionCallbacks(TransactionSynchronizationRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Check if a transaction is active on the current thread.
+     *
+     * @return  Return true if a transaction is active
+     */
+    public boolean isTransactionActive() {
+        return (registry != null) && (registry.getTransactionStatus() == Status.STATUS_ACTIVE);
+    }
+
+    /**
+     * Run an action after the current transaction was committed. The action is dropped if the
+     * transaction is rolled back.
+     *
+     * @param action    Action to run, it must not access the database
+     */
+    public void afterCommit(@NotNull Runnable action) {
+        afterCompletion(committed -> {
+            if (committed) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Run an action after the current transaction completed.
+     *
+     * @param action    Action to run, it gets true if the transaction was committed
+     */
+    public void afterCompletion(@NotNull CompletionAction action) {
+        if (!isTransactionActive()) {
+            run(action, true);
+            return;
+        }
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                run(action, status == Status.STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void run(CompletionAction action, boolean committed) {
+        try {
+            action.completed(committed);
+        }
+        catch (RuntimeException ex) {
+            LOGGER.warn("*** Problem occurred while running a transaction callback, reason: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * An action run on completion of a transaction.
+     */
+    @FunctionalInterface
+    public interface CompletionAction {
+
+        /**
+         * @param committed Is true if the transaction was committed, false if it was rolled back
+         */
+        void completed(boolean committed);
+    }
+}
@@ -61,6 +61,69 @@ public class AppConfiguration {
      */
     public final static String TOKEN_ACC_REGISTRATION_CONFIG_FILE = "AccountRegistrationConfigFile";
 
+    /**
+     * Configuration token name for the maximal count of live vote count updates per second and event.
+     */
+    public final static String TOKEN_VOTE_UPDATES_PER_SECOND = "VoteUpdatesPerSecond";
+
+    /**
+     * Configuration token name for the iteration count of new password hashes.
+     */
+    public final static String TOKEN_PASSWORD_HASH_ITERATIONS = "PasswordHashIterations";
+
+    /**
+     * Configuration token name for keeping the legacy login of older clients ("true" or "false"), see Passwords.isLegacyLogin.
+     */
+    public final static String TOKEN_LEGACY_PASSWORD_LOGIN = "LegacyPasswordLogin";
+
+    /**
+     * Configuration token name for enabling the stateless authentication by session tokens ("true" or "false").
+     */
+    public final static String TOKEN_STATELESS_AUTH = "StatelessAuth";
+
+    /**
+     * Configuration token name for the lifetime of session tokens in minutes.
+     */
+    public final static String TOKEN_SESSION_TOKEN_LIFETIME = "SessionTokenLifetime";
+
+    /**
+     * Configuration token name for the Base64 encoded secret of the first session token key. If it is not set
+     * then the first key is random. The nodes of a cluster share the keys by the database, see SessionTokenKeys.
+     */
+    public final static String TOKEN_SESSION_TOKEN_SECRET = "SessionTokenSecret";
+
+    /**
+     * Configuration token name for the window of the login throttle in seconds.
+     */
+    public final static String TOKEN_LOGIN_THROTTLE_WINDOW = "LoginThrottleWindow";
+
+    /**
+     * Configuration token name for the maximal count of failed logins of a user in the login throttle window.
+     */
+    public final static String TOKEN_LOGIN_MAX_FAILURES = "LoginMaxFailures";
+
+    /**
+     * Configuration token name for the maximal count of login attempts from a client address in the login throttle window.
+     */
+    public final static String TOKEN_LOGIN_MAX_ATTEMPTS_PER_ADDRESS = "LoginMaxAttemptsPerAddress";
+
+    /**
+     * The context parameters of web.xml which are copied into the configuration on startup
+     */
+    static final String[] CONTEXT_PARAMS = {
+            TOKEN_APP_VERSION,
+            TOKEN_MAILER_CONFIG_FILE,
+            TOKEN_VOTE_UPDATES_PER_SECOND,
+            TOKEN_PASSWORD_HASH_ITERATIONS,
+            TOKEN_LEGACY_PASSWORD_LOGIN,
+            TOKEN_STATELESS_AUTH,
+            TOKEN_SESSION_TOKEN_LIFETIME,
+            TOKEN_SESSION_TOKEN_SECRET,
+            TOKEN_LOGIN_THROTTLE_WINDOW,
+            TOKEN_LOGIN_MAX_FAILURES,
+            TOKEN_LOGIN_MAX_ATTEMPTS_PER_ADDRESS
+    };
+
     /**
      * All settings found in account registration file, if one exists.
      */
@@ -123,10 +186,9 @@ public class AppConfiguration {
 
     protected void setup(ServletContext context) {
         // save the context parameters in app configuration
-        String appVersion = context.getInitParameter(AppConfiguration.TOKEN_APP_VERSION);
-        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_APP_VERSION, appVersion);
-        String mailerCfg = context.getInitParameter(AppConfiguration.TOKEN_MAILER_CONFIG_FILE);
-        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_MAILER_CONFIG_FILE, mailerCfg);
+        for (String token: CONTEXT_PARAMS) {
+            AppConfiguration.getInstance().setConfigValue(token, context.getInitParameter(token));
+        }
 
         // setup the user registration configuration
         String accountRegCfg = context.getInitParameter(AppConfiguration.TOKEN_ACC_REGISTRATION_CONFIG_FILE);
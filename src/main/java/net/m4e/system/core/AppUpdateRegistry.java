@@ -9,6 +9,7 @@ package net.m4e.system.core;
 
 import net.m4e.system.deployment.UpdateInit;
 import net.m4e.system.deployment.Update_0_1_0;
+import net.m4e.system.deployment.Update_0_9_5;
 
 /**
  * Central place for registering all available update classes. This is used
@@ -30,5 +31,6 @@ public class AppUpdateRegistry {
     public void registerAllUpdaters(AppUpdater updater) {
         updater.registerUpdater(new UpdateInit());
         updater.registerUpdater(new Update_0_1_0());
+        updater.registerUpdater(new Update_0_9_5());
     }
 }
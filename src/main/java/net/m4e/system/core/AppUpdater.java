@@ -150,7 +150,7 @@ public class AppUpdater {
 
         if (indexcurrent < 0) {
             LOGGER.warn("   Current version had no updater, update to new version skipping potential versions in between!");
-            indexcurrent = indexnew;
+            indexcurrent = indexnew - 1;
         }
 
         // do some deployment consistency checks
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.core;
+
+import net.m4e.app.event.business.*;
+import net.m4e.app.user.business.UserEntity;
+import net.m4e.common.*;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.*;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Live counters of users, events and event locations which are not marked as deleted.
+ * The counters are maintained on every creation, deletion and marking as deleted, so
+ * reading them needs no database access. A change is applied after its transaction was
+ * committed, a rolled back change is dropped.
+ *
+ * The counters start with the database values (entity count minus purge count in app info)
+ * on first access, and they are periodically reconciled against the database in order to
+ * correct any drift, e.g. caused by changes racing with a reconciliation.
+ *
+ * NOTE: The counters are local to the node, they are not shared in a cluster.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+@ApplicationScoped
+public class EntityCounters {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final Entities entities;
+
+    private final AppInfos appInfos;
+
+    private final TransactionCallbacks transactionCallbacks;
+
+    private final AtomicLong users = new AtomicLong();
+
+    private final AtomicLong events = new AtomicLong();
+
+    private final AtomicLong locations = new AtomicLong();
+
+    private volatile boolean initialized;
+
+
+    /**
+     * Default constructor needed by the container.
+     */
+    protected EntityCounters() {
+        entities = null;
+        appInfos = null;
+        transactionCallbacks = null;
+    }
+
+    /**
+     * Create the counters.
+     *
+     * @param entities  Entities instance
+     * @param appInfos  AppInfos instance
+     * @param transactionCallbacks  TransactionCallbacks instance
+     */
+    @Inject
+    public EntityCounters(@NotNull Entities entities,
+                          @NotNull AppInfos appInfos,
+                          @NotNull TransactionCallbacks transactionCallbacks) {
+        this.entities = entities;
+        this.appInfos = appInfos;
+        this.transactionCallbacks = transactionCallbacks;
+    }
+
+    /**
+     * Get the count of users which are not marked as deleted.
+     */
+    public long getUserCount() {
+        ensureInitialized();
+        return users.get();
+    }
+
+    /**
+     * Get the count of events which are not marked as deleted.
+     */
+    public long getEventCount() {
+        ensureInitialized();
+        return events.get();
+    }
+
+    /**
+     * Get the count of event locations which are not marked as deleted.
+     */
+    public long getLocationCount() {
+        ensureInitialized();
+        return locations.get();
+    }
+
+    /**
+     * Add given delta to the user count after the current transaction was committed.
+     */
+    public void addUsers(long delta) {
+        add(users, delta);
+    }
+
+    /**
+     * Add given delta to the event count after the current transaction was committed.
+     */
+    public void addEvents(long delta) {
+        add(events, delta);
+    }
+
+    /**
+     * Add given delta to the event location count after the current transaction was committed.
+     */
+    public void addLocations(long delta) {
+        add(locations, delta);
+    }
+
+    /**
+     * Set all counters to the current database values. Changes which happen while reconciling
+     * may get lost, they are corrected on next reconciliation.
+     */
+    public synchronized void reconcile() {
+        AppInfoEntity appInfo = appInfos.getAppInfoEntity();
+        if (appInfo == null) {
+            LOGGER.warn("Could not reconcile the entity counters, no app info available");
+            return;
+        }
+        users.set(entities.getCount(UserEntity.class) - appInfo.getUserCountPurge());
+        events.set(entities.getCount(EventEntity.class) - appInfo.getEventCountPurge());
+        locations.set(entities.getCount(EventLocationEntity.class) - appInfo.getEventLocationCountPurge());
+        initialized = true;
+    }
+
+    private void add(AtomicLong counter, long delta) {
+        if (delta != 0L) {
+            transactionCallbacks.afterCommit(() -> counter.addAndGet(delta));
+        }
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            reconcile();
+        }
+    }
+}
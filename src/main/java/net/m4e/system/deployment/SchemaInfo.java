@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.deployment;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.*;
+import java.util.*;
+
+
+/**
+ * Looks up the existing database structures for the deployment updaters. An updater checks
+ * the structure before creating it, a failing schema statement would mark the update
+ * transaction for rollback.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class SchemaInfo {
+
+    private final DatabaseMetaData metaData;
+
+
+    /**
+     * Create the schema info for given database.
+     *
+     * @param metaData  Meta data of the database connection
+     */
+    SchemaInfo(@NotNull DatabaseMetaData metaData) {
+        this.metaData = metaData;
+    }
+
+    /**
+     * Check if given table exists.
+     */
+    boolean hasTable(@NotNull String table) throws SQLException {
+        try (ResultSet result = metaData.getTables(null, null, toStoredCase(table), null)) {
+            return result.next();
+        }
+    }
+
+    /**
+     * Check if given table has a column with given name.
+     */
+    boolean hasColumn(@NotNull String table, @NotNull String column) throws SQLException {
+        try (ResultSet result = metaData.getColumns(null, null, toStoredCase(table), toStoredCase(column))) {
+            return result.next();
+        }
+    }
+
+    /**
+     * Check if given table has an index with given name.
+     */
+    boolean hasIndex(@NotNull String table, @NotNull String index) throws SQLException {
+        try (ResultSet result = metaData.getIndexInfo(null, null, toStoredCase(table), false, true)) {
+            while (result.next()) {
+                if (index.equalsIgnoreCase(result.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the database specific name of a column type.
+     *
+     * @param sqlTypes  Candidate JDBC types in order of preference, see java.sql.Types
+     * @return          The type name of the first candidate which the database supports
+     * @throws SQLException  Throws an exception if the database supports none of the candidates.
+     */
+    String getTypeName(@NotNull int... sqlTypes) throws SQLException {
+        Map<Integer, String> typeNames = new HashMap<>();
+        try (ResultSet result = metaData.getTypeInfo()) {
+            while (result.next()) {
+                // the types are ordered by how closely they match the JDBC type, keep the first one
+                typeNames.putIfAbsent(result.getInt("DATA_TYPE"), result.getString("TYPE_NAME"));
+            }
+        }
+        for (int sqlType: sqlTypes) {
+            String typeName = typeNames.get(sqlType);
+            if (typeName != null) {
+                return typeName;
+            }
+        }
+        throw new SQLException("Database supports none of the column types: " + Arrays.toString(sqlTypes));
+    }
+
+    /**
+     * Identifiers which are not quoted are stored in the case of the database.
+     */
+    private String toStoredCase(String identifier) throws SQLException {
+        if (metaData.storesLowerCaseIdentifiers()) {
+            return identifier.toLowerCase(Locale.ROOT);
+        }
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return identifier.toUpperCase(Locale.ROOT);
+        }
+        return identifier;
+    }
+}
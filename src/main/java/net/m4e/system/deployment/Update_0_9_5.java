@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.deployment;
+
+import net.m4e.app.event.business.EventLocationVoteEntity;
+import net.m4e.common.Entities;
+import net.m4e.system.core.AppUpdateBaseHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import java.lang.invoke.MethodHandles;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Deployment updater for version "0.9.5"
+ *
+ * Creates the indexes of location vote queries and event membership checks, and moves the voter IDs of location votes
+ * from their element collection table into the compact voter ID column. New installations
+ * get both by the schema generation, see EventLocationVoteEntity.
+ *
+ * Adds the coordinate columns of event locations, and the column of users' session token revocation time.
+ * Adds the optimistic locking version of location votes, it is initialized for the existing votes.
+ *
+ * The existing structures are looked up before, so no schema statement is expected to fail
+ * and abort the update transaction.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class Update_0_9_5 extends AppUpdateBaseHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Make sure to increment this number for every new update class.
+     */
+    private static final int    INC_NUMBER = 2;
+
+    /**
+     * App version this update belongs to
+     */
+    private static final String APP_VERSION = "0.9.5";
+
+    /**
+     * The location vote and event member indexes
+     */
+    static final IndexDefinition[] INDEXES = {
+        new IndexDefinition("IDX_LOCATIONVOTE_EVENT_TIME", "EVENTLOCATIONVOTEENTITY", "EVENTID, CREATIONTIME"),
+        new IndexDefinition("IDX_LOCATIONVOTE_LOCATION_TIME", "EVENTLOCATIONVOTEENTITY", "LOCATIONID, CREATIONTIME"),
+        new IndexDefinition("IDX_EVENTMEMBER_EVENT_MEMBER", "EVENTENTITY_USERENTITY", "EVENTENTITY_ID, MEMBERS_ID")
+    };
+
+    /**
+     * The compact voter ID column, its binary type is named differently by the databases
+     */
+    static final ColumnDefinition VOTER_IDS_COLUMN =
+        new ColumnDefinition("EVENTLOCATIONVOTEENTITY", "VOTERIDS", Types.BLOB, Types.LONGVARBINARY, Types.VARBINARY, Types.BINARY);
+
+    /**
+     * The location coordinate columns
+     */
+    static final ColumnDefinition[] COORDINATE_COLUMNS = {
+        new ColumnDefinition("EVENTLOCATIONENTITY", "LATITUDE", Types.DOUBLE, Types.FLOAT),
+        new ColumnDefinition("EVENTLOCATIONENTITY", "LONGITUDE", Types.DOUBLE, Types.FLOAT)
+    };
+
+    /**
+     * The time after which the users' session tokens were issued for being valid, see UserEntity
+     */
+    static final ColumnDefinition TOKENS_VALID_AFTER_COLUMN =
+        new ColumnDefinition("USERENTITY", "TOKENSVALIDAFTER", Types.BIGINT, Types.NUMERIC);
+
+    /**
+     * The optimistic locking version of location votes, see EventLocationVoteEntity
+     */
+    static final ColumnDefinition VOTE_VERSION_COLUMN =
+        new ColumnDefinition("EVENTLOCATIONVOTEENTITY", "ENTITYVERSION", Types.BIGINT, Types.NUMERIC);
+
+    /**
+     * Statement for initializing the version of existing location votes
+     */
+    static final String INIT_VOTE_VERSION = "UPDATE EVENTLOCATIONVOTEENTITY SET ENTITYVERSION = 0 WHERE ENTITYVERSION IS NULL";
+
+    /**
+     * The former element collection table of the voter IDs
+     */
+    static final String USER_IDS_TABLE = "EVENTLOCATIONVOTEENTITY_USERIDS";
+
+    /**
+     * Statement for reading the voter IDs from the former element collection table
+     */
+    static final String SELECT_USER_IDS = "SELECT EVENTLOCATIONVOTEENTITY_ID, USERIDS FROM EVENTLOCATIONVOTEENTITY_USERIDS";
+
+    /**
+     * Construct the update instance.
+     */
+    public Update_0_9_5() {
+        incUpdateNumber = INC_NUMBER;
+        appVersion = APP_VERSION;
+    }
+
+    /**
+     * Perform the update.
+     * 
+     * @param entityManager   For the case that any entity structure manipulation is needed
+     * @param entities        Entities contains entity related operations
+     * @throws Exception      Throws an exception if a structure could not be created.
+     */
+    @Override
+    public void performUpdate(EntityManager entityManager, Entities entities) throws Exception {
+        performUpdate(entityManager, entities, new SchemaInfo(entityManager.unwrap(Connection.class).getMetaData()));
+    }
+
+    void performUpdate(EntityManager entityManager, Entities entities, SchemaInfo schemaInfo) throws Exception {
+        LOGGER.debug("Updating to version: " + appVersion + " (" + incUpdateNumber + ")");
+        addColumn(entityManager, schemaInfo, VOTER_IDS_COLUMN);
+        if (schemaInfo.hasTable(USER_IDS_TABLE)) {
+            migrateVoterIds(entityManager, entities);
+        }
+        for (IndexDefinition index: INDEXES) {
+            if (!schemaInfo.hasIndex(index.table, index.name)) {
+                executeStatement(entityManager, index.getStatement());
+            }
+        }
+        for (ColumnDefinition column: COORDINATE_COLUMNS) {
+            addColumn(entityManager, schemaInfo, column);
+        }
+        addColumn(entityManager, schemaInfo, TOKENS_VALID_AFTER_COLUMN);
+        if (addColumn(entityManager, schemaInfo, VOTE_VERSION_COLUMN)) {
+            executeStatement(entityManager, INIT_VOTE_VERSION);
+        }
+        LOGGER.debug(" Updating to version: " + appVersion + " (" + incUpdateNumber + ") completed");
+    }
+
+    /**
+     * Execute a schema statement, a failure fails the update.
+     */
+    private void executeStatement(EntityManager entityManager, String statement) {
+        entityManager.createNativeQuery(statement).executeUpdate();
+        LOGGER.debug("  Executed: " + statement);
+    }
+
+    /**
+     * Add a column if it does not exist yet, its type is the first one the database supports.
+     *
+     * @return  Return true if the column was added
+     */
+    private boolean addColumn(EntityManager entityManager, SchemaInfo schemaInfo, ColumnDefinition column) throws SQLException {
+        if (schemaInfo.hasColumn(column.table, column.name)) {
+            return false;
+        }
+        executeStatement(entityManager, column.getStatement(schemaInfo.getTypeName(column.sqlTypes)));
+        return true;
+    }
+
+    /**
+     * Copy the voter IDs of all location votes into the compact voter ID column. A failure fails the update,
+     * the former table is kept so the update can be repeated.
+     */
+    private void migrateVoterIds(EntityManager entityManager, Entities entities) {
+        List<Object[]> rows = entityManager.createNativeQuery(SELECT_USER_IDS).getResultList();
+
+        Map<Long, Set<Long>> voterIds = new HashMap<>();
+        rows.forEach(row -> voterIds.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashSet<>()).add(((Number) row[1]).longValue()));
+
+        voterIds.forEach((votesId, userIds) -> {
+            EventLocationVoteEntity voteEntity = entities.find(EventLocationVoteEntity.class, votesId);
+            if (voteEntity != null) {
+                voteEntity.setUserIds(userIds);
+                entities.update(voteEntity);
+            }
+        });
+        LOGGER.debug("  Migrated the voter IDs of location votes: " + voterIds.size());
+    }
+
+    /**
+     * An index which is created if it does not exist
+     */
+    static final class IndexDefinition {
+
+        final String name;
+
+        final String table;
+
+        final String columns;
+
+        IndexDefinition(String name, String table, String columns) {
+            this.name = name;
+            this.table = table;
+            this.columns = columns;
+        }
+
+        String getStatement() {
+            return "CREATE INDEX " + name + " ON " + table + " (" + columns + ")";
+        }
+    }
+
+    /**
+     * A column which is added if it does not exist
+     */
+    static final class ColumnDefinition {
+
+        final String table;
+
+        final String name;
+
+        /**
+         * Candidate JDBC types in order of preference, see java.sql.Types
+         */
+        final int[] sqlTypes;
+
+        ColumnDefinition(String table, String name, int... sqlTypes) {
+            this.table = table;
+            this.name = name;
+            this.sqlTypes = sqlTypes;
+        }
+
+        String getStatement(String typeName) {
+            return "ALTER TABLE " + table + " ADD " + name + " " + typeName;
+        }
+    }
+}
@@ -7,6 +7,7 @@
  */
 package net.m4e.system.maintenance;
 
+import net.m4e.system.core.EntityCounters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,21 +33,26 @@ public class MaintenanceCronJobs {
 
     private final Maintenance maintenance;
 
+    private final EntityCounters entityCounters;
+
     /**
      * EJB's default constructor.
      */
     public MaintenanceCronJobs() {
         this.maintenance = null;
+        this.entityCounters = null;
     }
 
     /**
      * Create the bean.
      * 
-     * @param maintenance   The maintenance instance
+     * @param maintenance     The maintenance instance
+     * @param entityCounters  The entity counters
      */
     @Inject
-    public MaintenanceCronJobs(Maintenance maintenance) {
+    public MaintenanceCronJobs(Maintenance maintenance, EntityCounters entityCounters) {
         this.maintenance = maintenance;
+        this.entityCounters = entityCounters;
     }
 
     /**
@@ -58,4 +64,12 @@ public class MaintenanceCronJobs {
         int countpurges = maintenance.purgeExpiredResources();
         LOGGER.info(" count of purged expired resource: " + countpurges);
     }
+
+    /**
+     * Correct any drift of the live entity counters.
+     */
+    @Schedule(hour="*", minute="*/10", persistent=false)
+    public void reconcileCounters() {
+        entityCounters.reconcile();
+    }
 }
@@ -8,12 +8,12 @@
 package net.m4e.system.maintenance.rest;
 
 import io.swagger.annotations.*;
-import net.m4e.app.auth.AuthRole;
+import net.m4e.app.auth.*;
 import net.m4e.common.GenericResponseResult;
 import net.m4e.system.core.*;
 import net.m4e.system.maintenance.Maintenance;
 import net.m4e.system.maintenance.business.MaintenanceInfo;
-import net.m4e.system.maintenance.rest.comm.PurgeCount;
+import net.m4e.system.maintenance.rest.comm.*;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.*;
 
@@ -22,6 +22,8 @@ import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * REST Web Service for maintenance tasks
@@ -40,12 +42,18 @@ public class MaintenanceRestService {
 
     private final AppInfos appInfos;
 
+    private final LoginThrottle loginThrottle;
+
+    private final SessionTokenKeys sessionTokenKeys;
+
     /**
      * Make the EJB container happy (e.g. for the case that we want to inject this bean in another bean).
      */
     protected MaintenanceRestService() {
         maintenance = null;
         appInfos = null;
+        loginThrottle = null;
+        sessionTokenKeys = null;
     }
 
     /**
@@ -53,11 +61,16 @@ public class MaintenanceRestService {
      * 
      * @param maintenance   The maintenance instance
      * @param appInfos      AppInfos instance used for accessing application information such as version and stats
+     * @param loginThrottle The login throttle instance
+     * @param sessionTokenKeys The session token keys shared by the cluster nodes
      */
     @Inject
-    public MaintenanceRestService(@NotNull Maintenance maintenance, @NotNull AppInfos appInfos) {
+    public MaintenanceRestService(@NotNull Maintenance maintenance, @NotNull AppInfos appInfos, @NotNull LoginThrottle loginThrottle,
+                                  @NotNull SessionTokenKeys sessionTokenKeys) {
         this.maintenance = maintenance;
         this.appInfos = appInfos;
+        this.loginThrottle = loginThrottle;
+        this.sessionTokenKeys = sessionTokenKeys;
     }
 
     /**
@@ -78,6 +91,77 @@ public class MaintenanceRestService {
         return GenericResponseResult.ok("System maintenance stats", maintenance.exportInfo(infoEntity));
     }
 
+    /**
+     * Get the metrics of the login throttle.
+     * 
+     * @return JSON response
+     */
+    @GET
+    @Path("loginthrottle")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.USER_ROLE_ADMIN})
+    @ApiOperation(value = "Get the metrics of the login brute-force protection")
+    public GenericResponseResult<LoginThrottleInfo> loginThrottle() {
+        return GenericResponseResult.ok("Login throttle metrics", new LoginThrottleInfo(
+                loginThrottle.getCountBlockedByLogin(),
+                loginThrottle.getCountBlockedByAddress(),
+                loginThrottle.getCountUntracked(),
+                loginThrottle.getCountTrackedLogins(),
+                loginThrottle.getCountTrackedAddresses()));
+    }
+
+    /**
+     * Get the session token keys shared by the cluster nodes.
+     *
+     * @return JSON response
+     */
+    @GET
+    @Path("tokenkeys")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.USER_ROLE_ADMIN})
+    @ApiOperation(value = "Get the keys of the session tokens")
+    public GenericResponseResult<List<SessionTokenKeyInfo>> tokenKeys() {
+        String signingKeyId = AuthorityConfig.getInstance().getSessionTokens().getSigningKeyId();
+        List<SessionTokenKeyInfo> keys = sessionTokenKeys.getKeys().stream()
+                .map(key -> new SessionTokenKeyInfo(key.getKeyId(), key.getActivationTime(), key.getKeyId().equals(signingKeyId)))
+                .collect(Collectors.toList());
+        return GenericResponseResult.ok("Session token keys", keys);
+    }
+
+    /**
+     * Rotate the session token key on all cluster nodes, the new key signs new tokens after a delay.
+     *
+     * @return JSON response
+     */
+    @POST
+    @Path("tokenkeys")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.USER_ROLE_ADMIN})
+    @ApiOperation(value = "Rotate the key of the session tokens on all cluster nodes")
+    public GenericResponseResult<String> rotateTokenKey() {
+        String keyId = sessionTokenKeys.rotateKey();
+        return GenericResponseResult.ok("Session token key was rotated, it signs new tokens in "
+                + (SessionTokenKeys.ACTIVATION_DELAY / 1000) + " seconds.", keyId);
+    }
+
+    /**
+     * Remove a session token key on all cluster nodes, all tokens signed by it become invalid.
+     *
+     * @param keyId Key ID
+     * @return JSON response
+     */
+    @DELETE
+    @Path("tokenkeys/{keyId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.USER_ROLE_ADMIN})
+    @ApiOperation(value = "Remove a key of the session tokens on all cluster nodes")
+    public GenericResponseResult<String> removeTokenKey(@PathParam("keyId") String keyId) {
+        if (!sessionTokenKeys.removeKey(keyId)) {
+            return GenericResponseResult.notAcceptable("Failed to remove the session token key. It does not exist, signs new tokens or is not active yet.", keyId);
+        }
+        return GenericResponseResult.ok("Session token key was removed.", keyId);
+    }
+
     /**
      * Perform purging resources.
      * 
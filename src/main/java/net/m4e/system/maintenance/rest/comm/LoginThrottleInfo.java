@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.maintenance.rest.comm;
+
+/**
+ * Metrics of the login throttle, see LoginThrottle.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class LoginThrottleInfo {
+
+    private final long countBlockedByLogin;
+    private final long countBlockedByAddress;
+    private final long countUntracked;
+    private final int countTrackedLogins;
+    private final int countTrackedAddresses;
+
+    public LoginThrottleInfo(final long countBlockedByLogin,
+                             final long countBlockedByAddress,
+                             final long countUntracked,
+                             final int countTrackedLogins,
+                             final int countTrackedAddresses) {
+        this.countBlockedByLogin = countBlockedByLogin;
+        this.countBlockedByAddress = countBlockedByAddress;
+        this.countUntracked = countUntracked;
+        this.countTrackedLogins = countTrackedLogins;
+        this.countTrackedAddresses = countTrackedAddresses;
+    }
+
+    /**
+     * Count of attempts blocked because of too many failed logins of a user
+     */
+    public long getCountBlockedByLogin() {
+        return countBlockedByLogin;
+    }
+
+    /**
+     * Count of attempts blocked because of too many attempts from a client address
+     */
+    public long getCountBlockedByAddress() {
+        return countBlockedByAddress;
+    }
+
+    /**
+     * Count of attempts which were counted approximately because of too many tracked logins or addresses
+     */
+    public long getCountUntracked() {
+        return countUntracked;
+    }
+
+    public int getCountTrackedLogins() {
+        return countTrackedLogins;
+    }
+
+    public int getCountTrackedAddresses() {
+        return countTrackedAddresses;
+    }
+}
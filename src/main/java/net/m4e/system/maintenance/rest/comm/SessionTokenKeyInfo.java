@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.maintenance.rest.comm;
+
+/**
+ * A session token key shared by the cluster nodes, see SessionTokenKeys. The secret is not exposed.
+ *
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class SessionTokenKeyInfo {
+
+    private final String keyId;
+    private final long activationTime;
+    private final boolean signing;
+
+    public SessionTokenKeyInfo(final String keyId, final long activationTime, final boolean signing) {
+        this.keyId = keyId;
+        this.activationTime = activationTime;
+        this.signing = signing;
+    }
+
+    /**
+     * Key ID used in the tokens
+     */
+    public String getKeyId() {
+        return keyId;
+    }
+
+    /**
+     * Time from which on the key signs new tokens (milliseconds since epoch)
+     */
+    public long getActivationTime() {
+        return activationTime;
+    }
+
+    /**
+     * Is true if the key signs new tokens on this node
+     */
+    public boolean isSigning() {
+        return signing;
+    }
+}
@@ -18,7 +18,7 @@ import org.slf4j.*;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.ws.rs.*;
-import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.*;
 import java.lang.invoke.MethodHandles;
 import java.util.*;
 
@@ -180,6 +180,19 @@ public class UpdateCheckRestService {
         return GenericResponseResult.ok("Update entries", foundEntities);
     }
 
+    /**
+     * Get all available update entries. The entries are streamed to the client while they are
+     * fetched from database.
+     */
+    @GET
+    @Path("stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    @net.m4e.app.auth.AuthRole(grantRoles={AuthRole.USER_ROLE_ADMIN})
+    @ApiOperation(value = "Stream all update check entries")
+    public StreamingOutput streamAllUpdates() {
+        return StreamingResponseResult.ok("Update entries", sink -> entities.processAll(UpdateCheckEntity.class, stream -> stream.forEach(sink)));
+    }
+
     /**
      * Get update entries in given range.
      */
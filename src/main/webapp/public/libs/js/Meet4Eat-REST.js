@@ -638,7 +638,9 @@ function Meet4EatAuth() {
 	};
 
 	/**
-	 * Try to login the user.
+	 * Try to login the user. The login data contains the password hash salted by the
+	 * session ID, which is checked for legacy passwords, and on secure connections the
+	 * password hash itself, which is checked for passwords hashed on the server.
 	 *
 	 * @param {string} userName           User name
 	 * @param {string} userPassword       Plain user password, it will be hashed before transmission.
@@ -663,9 +665,13 @@ function Meet4EatAuth() {
 						resultsCallback.error("Exception occurred while parsing JSON response of auth state, reason: " + e, data);
 					}
 				}
-				var pw = self.createHash(userPassword);
-				pw = self.createHash(pw + sid);
+				var pwDigest = self.createHash(userPassword);
+				var pw = self.createHash(pwDigest + sid);
 				var data = {'login' : userName, 'password' : pw};
+				// the password hash must not be sent in clear text, the server ignores it anyway
+				if (window.location.protocol === 'https:') {
+					data.passwordDigest = pwDigest;
+				}
 				self._fcnRequestJson(self._rootPath + '/login', data, 'POST', resultsCallback);
 			},
 			error: function(err) {
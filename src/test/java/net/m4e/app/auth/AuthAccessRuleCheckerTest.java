@@ -232,4 +232,31 @@ class AuthAccessRuleCheckerTest {
         assertThat(str).isNotNull();
         assertThat(str).isNotEmpty();
     }
+
+    @Test
+    void checkRoles_mask() {
+        String path = "/path/{id}";
+        AuthAccessRuleChecker checker = new AuthAccessRuleChecker(path);
+        assertThat(checker.addAccessRoles("GET", Arrays.asList(AuthRole.USER_ROLE_MODERATOR, "UNKNOWN_ROLE"))).isTrue();
+        assertThat(checker.addAccessRoles("PUT", Arrays.asList(AuthRole.VIRT_ENDPOINT_CHECK))).isTrue();
+        assertThat(checker.addAccessRoles("INVALID", Arrays.asList(AuthRole.VIRT_ENDPOINT_CHECK))).isTrue();
+
+        assertThat(checker.checkRoles("GET", AppRoles.MODERATOR.getMask() | AppRoles.USER.getMask())).isTrue();
+        assertThat(checker.checkRoles("GET", AppRoles.USER.getMask())).isFalse();
+        assertThat(checker.checkRoles("GET", 0)).isFalse();
+        assertThat(checker.checkRoles("PUT", 0)).isTrue();
+        assertThat(checker.checkRoles("POST", AppRoles.MODERATOR.getMask())).isFalse();
+        assertThat(checker.checkRoles("INVALID", AppRoles.MODERATOR.getMask())).isFalse();
+        assertThat(checker.checkRoles(null, AppRoles.MODERATOR.getMask())).isFalse();
+
+        assertThat(checker.checkComplexPath("/path/42", "GET", AppRoles.MODERATOR.getMask())).isTrue();
+        assertThat(checker.checkComplexPath("/other/42", "GET", AppRoles.MODERATOR.getMask())).isFalse();
+        assertThat(checker.checkComplexPath("/path/42", "GET", AppRoles.USER.getMask())).isFalse();
+
+        AuthAccessRuleChecker fixChecker = new AuthAccessRuleChecker("/path");
+        assertThat(fixChecker.addAccessRoles("DELETE", Arrays.asList(AuthRole.USER_ROLE_ADMIN))).isTrue();
+        assertThat(fixChecker.checkFixPath("/path", "DELETE", AppRoles.ADMIN.getMask())).isTrue();
+        assertThat(fixChecker.checkFixPath("/path", "DELETE", AppRoles.MODERATOR.getMask())).isFalse();
+        assertThat(fixChecker.checkFixPath("/path", "GET", AppRoles.ADMIN.getMask())).isFalse();
+    }
 }
@@ -159,4 +159,22 @@ class AuthCheckerTest {
         List<String> nohitroles = Arrays.asList(AuthRole.USER_ROLE_ADMIN);
         assertThat(authChecker.checkAccess(REQ_BASE_PATH, request, nohitroles)).isTrue();
     }
+
+    @Test
+    void checkAccess_roles_mask() {
+        authChecker.setGrantAlwaysRoles(Arrays.asList(AuthRole.USER_ROLE_ADMIN));
+
+        HttpServletRequest request = mockHttpRequest(BEAN_BASE_PATH1 + "/m1", "GET");
+        assertThat(authChecker.checkAccess(REQ_BASE_PATH, request, AppRoles.USER.getMask())).isTrue();
+        assertThat(authChecker.checkAccess(REQ_BASE_PATH, request, AppRoles.MODERATOR.getMask())).isFalse();
+        assertThat(authChecker.checkAccess(REQ_BASE_PATH, request, AppRoles.GUEST.getMask())).isFalse();
+        assertThat(authChecker.checkAccess(REQ_BASE_PATH, request, 0)).isFalse();
+
+        request = mockHttpRequest(BEAN_BASE_PATH1 + "/m3/myID", "PUT");
+        assertThat(authChecker.checkAccess(REQ_BASE_PATH, request, AppRoles.USER.getMask())).isFalse();
+        assertThat(authChecker.checkAccess(REQ_BASE_PATH, request, AppRoles.ADMIN.getMask() | AppRoles.USER.getMask())).isTrue();
+
+        request = mockHttpRequest(BEAN_BASE_PATH2 + "/m2", "POST");
+        assertThat(authChecker.checkAccess(REQ_BASE_PATH, request, AppRoles.GUEST.getMask())).isTrue();
+    }
 }
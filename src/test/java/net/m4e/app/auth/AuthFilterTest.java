@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.app.user.business.UserEntity;
+import net.m4e.common.UserEntityCreator;
+import net.m4e.system.core.AppConfiguration;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+import java.io.*;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class AuthFilterTest {
+
+    @Mock
+    FilterConfig filterConfig;
+
+    @Mock
+    FilterChain chain;
+
+    @Mock
+    HttpServletResponse response;
+
+    @Mock
+    HttpSession session;
+
+    private StringWriter responseText;
+
+    private String authorization;
+
+    private AuthFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+
+        Mockito.when(filterConfig.getInitParameter(eq("basePath"))).thenReturn("m4e");
+        Mockito.when(filterConfig.getInitParameter(eq("publicBasePath"))).thenReturn("public");
+        Mockito.when(filterConfig.getInitParameter(eq("protectedBasePath"))).thenReturn("webresources");
+
+        responseText = new StringWriter();
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(responseText));
+
+        filter = new AuthFilter();
+        filter.init(filterConfig);
+    }
+
+    @Test
+    void publicResources() throws Exception {
+        assertThat(filter("/m4e/", "GET")).isTrue();
+        assertThat(filter("/m4e/index.html", "GET")).isTrue();
+        assertThat(filter("/m4e/public/images/logo.png", "GET")).isTrue();
+        assertThat(filter("/m4e/ws", "GET")).isTrue();
+        assertThat(filter("/m4e/webresources/swagger.json", "GET")).isTrue();
+
+        assertThat(filter("/m4e/.htm", "GET")).isFalse();
+        assertThat(filter("/m4e/webresources/swagger", "GET")).isFalse();
+    }
+
+    @Test
+    void otherApplications() throws Exception {
+        assertThat(filter("/other/index.html", "GET")).isFalse();
+        assertThat(responseText.toString()).isEmpty();
+    }
+
+    @Test
+    void guestAccess() throws Exception {
+        assertThat(filter("/m4e/webresources/rest/authentication/state", "GET")).isTrue();
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isFalse();
+        assertThat(responseText.toString()).contains("/m4e/webresources/rest/authentication/logout");
+    }
+
+    @Test
+    void userAccess() throws Exception {
+        UserEntity user = UserEntityCreator.create();
+        Mockito.when(session.getAttribute(eq(AuthorityConfig.SESSION_ATTR_USER))).thenReturn(user);
+
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isTrue();
+        assertThat(filter("/m4e/webresources/rest/authentication/logout/", "POST")).isTrue();
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "GET")).isFalse();
+        assertThat(filter("/m4e/webresources/rest/authentication/unknown", "POST")).isFalse();
+        assertThat(filter("/m4e/webresourcesrest/authentication/logout", "POST")).isFalse();
+    }
+
+    @Test
+    void adminAccess() throws Exception {
+        UserEntity admin = UserEntityCreator.createWithRoles(Collections.singletonList(AuthRole.USER_ROLE_ADMIN));
+        Mockito.when(session.getAttribute(eq(AuthorityConfig.SESSION_ATTR_USER))).thenReturn(admin);
+
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "GET")).isTrue();
+        assertThat(filter("/m4e/webresources/rest/unknown", "DELETE")).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        AuthorityConfig.getInstance().setTokenUserResolver(null);
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH, "false");
+    }
+
+    @Test
+    void tokenAccess() throws Exception {
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH, "true");
+        try {
+            UserEntity user = UserEntityCreator.create();
+            AuthorityConfig.getInstance().setTokenUserResolver(id -> (id == user.getId()) ? user : null);
+            String token = AuthorityConfig.getInstance().getSessionTokens().issue(user.getId(), AppRoles.USER.getMask());
+
+            authorization = AuthFilter.AUTHORIZATION_BEARER + token;
+            assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isTrue();
+            assertThat(filter("/m4e/webresources/rest/authentication/logout", "GET")).isFalse();
+
+            authorization = AuthFilter.AUTHORIZATION_BEARER + token + "x";
+            assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isFalse();
+        }
+        finally {
+            AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH, "false");
+        }
+    }
+
+    @Test
+    void tokenOfUnknownUserIsUnauthorized() throws Exception {
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH, "true");
+        AuthorityConfig.getInstance().setTokenUserResolver(id -> null);
+        authorization = AuthFilter.AUTHORIZATION_BEARER + AuthorityConfig.getInstance().getSessionTokens().issue(42L, AppRoles.USER.getMask());
+
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isFalse();
+        Mockito.verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    }
+
+    @Test
+    void revokedTokenIsUnauthorized() throws Exception {
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH, "true");
+        UserEntity user = UserEntityCreator.create();
+        AuthorityConfig.getInstance().setTokenUserResolver(id -> user);
+        authorization = AuthFilter.AUTHORIZATION_BEARER + AuthorityConfig.getInstance().getSessionTokens().issue(user.getId(), AppRoles.USER.getMask());
+        user.setTokensValidAfter(System.currentTimeMillis());
+
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isFalse();
+        Mockito.verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    }
+
+    @Test
+    void tokenRolesAreSigned() throws Exception {
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH, "true");
+        UserEntity user = UserEntityCreator.create();
+        AtomicInteger countLoads = new AtomicInteger();
+        AuthorityConfig.getInstance().setTokenUserResolver(id -> {
+            countLoads.incrementAndGet();
+            return user;
+        });
+        authorization = AuthFilter.AUTHORIZATION_BEARER + AuthorityConfig.getInstance().getSessionTokens().issue(user.getId(), AppRoles.ADMIN.getMask());
+
+        assertThat(filter("/m4e/webresources/rest/unknown", "DELETE")).isTrue();
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isTrue();
+
+        // the user is not loaded on every request
+        assertThat(countLoads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void revokedTokenIsUnauthorizedAtOnce() throws Exception {
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH, "true");
+        UserEntity user = UserEntityCreator.create();
+        AuthorityConfig.getInstance().setTokenUserResolver(id -> user);
+        authorization = AuthFilter.AUTHORIZATION_BEARER + AuthorityConfig.getInstance().getSessionTokens().issue(user.getId(), AppRoles.USER.getMask());
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isTrue();
+
+        AuthorityConfig.getInstance().getTokenRevocations().revoke(user.getId(), System.currentTimeMillis());
+
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isFalse();
+        Mockito.verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    }
+
+    @Test
+    void tokenIgnoredIfDisabled() throws Exception {
+        authorization = AuthFilter.AUTHORIZATION_BEARER + AuthorityConfig.getInstance().getSessionTokens().issue(42L, AppRoles.USER.getMask());
+
+        assertThat(filter("/m4e/webresources/rest/authentication/logout", "POST")).isFalse();
+    }
+
+    private boolean filter(String requestURI, String accessMethod) throws IOException, ServletException {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getHeader(eq(AuthFilter.HEADER_AUTHORIZATION))).thenReturn(authorization);
+        Mockito.when(request.getRequestURI()).thenReturn(requestURI);
+        Mockito.when(request.getMethod()).thenReturn(accessMethod);
+        Mockito.when(request.getSession()).thenReturn(session);
+
+        Mockito.reset(chain);
+        filter.doFilter(request, response, chain);
+
+        // the filter must not parse the request URL
+        Mockito.verify(request, Mockito.never()).getRequestURL();
+        return Mockito.mockingDetails(chain).getInvocations().size() > 0;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class AuthRouteTrieTest {
+
+    private AuthRouteTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new AuthRouteTrie();
+        addRule("/rest/users/{id}");
+        addRule("/rest/users/{from}/{to}");
+        addRule("/rest/users//search/{keyword}");
+        addRule("/rest/users/activate/{token}");
+        addRule("/rest/events/{id}/members/{memberId}");
+    }
+
+    @Test
+    void placeholderMatchesOneSegment() {
+        assertThat(findPath("/rest/users/42")).isEqualTo("/rest/users/{id}");
+        assertThat(findPath("/rest/users/42/")).isEqualTo("/rest/users/{id}");
+        assertThat(findPath("/rest/users/0/10")).isEqualTo("/rest/users/{from}/{to}");
+        assertThat(findPath("/rest/events/1/members/2")).isEqualTo("/rest/events/{id}/members/{memberId}");
+
+        assertThat(trie.findRules("/rest/users")).isNull();
+        assertThat(trie.findRules("/rest/users/1/2/3")).isNull();
+        assertThat(trie.findRules("/rest/users//42")).isNull();
+        assertThat(trie.findRules("/rest/events/1/members")).isNull();
+        assertThat(trie.findRules("")).isNull();
+    }
+
+    @Test
+    void literalsArePreferred() {
+        assertThat(findPath("/rest/users/search/anna")).isEqualTo("/rest/users//search/{keyword}");
+        assertThat(findPath("/rest/users/activate/token")).isEqualTo("/rest/users/activate/{token}");
+        // no literal path with one segment, so the placeholder path is taken
+        assertThat(findPath("/rest/users/search")).isEqualTo("/rest/users/{id}");
+    }
+
+    @Test
+    void literalDeadEndsFallBackToPlaceholders() {
+        addRule("/rest/users/{id}/photo");
+        addRule("/rest/users/search/{keyword}/page");
+
+        assertThat(findPath("/rest/users/search/photo")).isEqualTo("/rest/users//search/{keyword}");
+        assertThat(findPath("/rest/users/activate/photo")).isEqualTo("/rest/users/activate/{token}");
+        assertThat(findPath("/rest/users/42/photo")).isEqualTo("/rest/users/{id}/photo");
+    }
+
+    @Test
+    void rulesOfEqualPathsAreKept() {
+        addRule("/rest/users/{userId}");
+
+        assertThat(trie.findRules("/rest/users/42")).extracting(AuthAccessRuleChecker::getResourcePath)
+                .containsExactly("/rest/users/{id}", "/rest/users/{userId}");
+        assertThat(trie.getSize()).isEqualTo(6);
+    }
+
+    @Test
+    void findWithOffset() {
+        assertThat(trie.findRules("/m4e/rest/users/42", 4).get(0).getResourcePath()).isEqualTo("/rest/users/{id}");
+    }
+
+    @Test
+    void unsupportedSegments() {
+        assertThat(trie.addRule(new AuthAccessRuleChecker("/rest/documents/file.{ext}"))).isFalse();
+        assertThat(trie.addRule(new AuthAccessRuleChecker("/rest/documents/{a}{b}"))).isFalse();
+        assertThat(trie.addRule(new AuthAccessRuleChecker("/rest/documents/{id"))).isFalse();
+        assertThat(trie.getSize()).isEqualTo(5);
+    }
+
+    /**
+     * Every complex path of the REST services must be found by the trie.
+     */
+    @Test
+    void allRestServices() {
+        AuthRouteTrie restTrie = new AuthRouteTrie();
+        List<String> paths = new ArrayList<>();
+        Annotations annotations = new Annotations();
+        for (Class<?> cls: AuthorityConfig.getInstance().getAccessBeanClasses()) {
+            String classPath = annotations.getClassPath(cls);
+            annotations.getMethodsAuthRoles(cls).forEach((path, roles) -> {
+                String fullPath = classPath + (path.isEmpty() ? "" : "/" + path);
+                if (fullPath.contains("{")) {
+                    assertThat(restTrie.addRule(new AuthAccessRuleChecker(fullPath))).isTrue();
+                    paths.add(fullPath);
+                }
+            });
+        }
+        assertThat(paths).isNotEmpty();
+
+        for (String path: paths) {
+            String requestPath = path.replaceAll("\\{[^}]+\\}", "42").replace("//", "/");
+            List<AuthAccessRuleChecker> rules = restTrie.findRules(requestPath);
+            assertThat(rules).as(path).isNotNull();
+            assertThat(rules.stream().map(AuthAccessRuleChecker::getResourcePath)).as(path).contains(path);
+        }
+    }
+
+    /**
+     * Compare the lookup in many paths with a brute-force scan using regular expressions.
+     */
+    @Test
+    void manyPaths() {
+        String[] words = {"users", "events", "locations", "members", "search", "photo", "mails", "votes"};
+        Random random = new Random(3);
+        AuthRouteTrie manyTrie = new AuthRouteTrie();
+        Set<String> paths = new LinkedHashSet<>();
+        while (paths.size() < 2000) {
+            StringBuilder path = new StringBuilder();
+            int segments = 1 + random.nextInt(5);
+            for (int i = 0; i < segments; i++) {
+                path.append('/').append(random.nextInt(3) == 0 ? "{p" + i + "}" : words[random.nextInt(words.length)]);
+            }
+            if (paths.add(path.toString())) {
+                manyTrie.addRule(new AuthAccessRuleChecker(path.toString()));
+            }
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder requestPath = new StringBuilder();
+            int segments = 1 + random.nextInt(5);
+            for (int n = 0; n < segments; n++) {
+                requestPath.append('/').append(random.nextInt(4) == 0 ? "42" : words[random.nextInt(words.length)]);
+            }
+
+            // the best path has literals where the others have placeholders, reading segments from left
+            String request = requestPath.toString();
+            Optional<String> expected = paths.stream()
+                    .filter(path -> request.matches(path.replaceAll("\\{[^}]+\\}", "[^/]+")))
+                    .min(Comparator.comparing(path -> path.replaceAll("[^/{]+", "").replace('/', '0').replace('{', '1')));
+
+            List<AuthAccessRuleChecker> rules = manyTrie.findRules(request);
+            if (expected.isPresent()) {
+                assertThat(rules).as(request).isNotNull();
+                assertThat(rules.get(0).getResourcePath()).as(request).isEqualTo(expected.get());
+            }
+            else {
+                assertThat(rules).as(request).isNull();
+            }
+        }
+    }
+
+    private void addRule(String path) {
+        assertThat(trie.addRule(new AuthAccessRuleChecker(path))).isTrue();
+    }
+
+    private String findPath(String path) {
+        List<AuthAccessRuleChecker> rules = trie.findRules(path);
+        assertThat(rules).as(path).isNotNull();
+        return rules.stream().map(AuthAccessRuleChecker::getResourcePath).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class LoginThrottleTest {
+
+    private static final long WINDOW = 100;
+    private static final long WINDOW_MILLIS = WINDOW * 1000;
+    private static final int MAX_FAILURES = 3;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String LOGIN = "user";
+    private static final String ADDRESS = "10.0.0.1";
+
+    private AtomicLong now;
+
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000_000L);
+        throttle = new LoginThrottle(now::get, WINDOW, MAX_FAILURES, MAX_ATTEMPTS);
+    }
+
+    @Test
+    void blockByLogin() {
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            assertThat(throttle.tryAttempt(LOGIN, "address" + i)).isTrue();
+            throttle.loginFailed(LOGIN);
+        }
+
+        assertThat(throttle.tryAttempt(LOGIN, "other")).isFalse();
+        assertThat(throttle.tryAttempt("otheruser", "other")).isTrue();
+        assertThat(throttle.getCountBlockedByLogin()).isEqualTo(1);
+        assertThat(throttle.getCountBlockedByAddress()).isEqualTo(0);
+    }
+
+    @Test
+    void blockByAddress() {
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            assertThat(throttle.tryAttempt("user" + i, ADDRESS)).isTrue();
+        }
+
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isFalse();
+        assertThat(throttle.tryAttempt(LOGIN, "10.0.0.2")).isTrue();
+        assertThat(throttle.getCountBlockedByAddress()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownAddress() {
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            assertThat(throttle.tryAttempt(LOGIN, null)).isTrue();
+        }
+        assertThat(throttle.tryAttempt(LOGIN, null)).isFalse();
+    }
+
+    @Test
+    void successResetsFailures() {
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            throttle.loginFailed(LOGIN);
+        }
+        throttle.loginSucceeded(LOGIN);
+
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isTrue();
+        assertThat(throttle.getCountTrackedLogins()).isEqualTo(0);
+    }
+
+    @Test
+    void windowSlides() {
+        long bucketMillis = WINDOW_MILLIS / 10;
+        throttle.loginFailed(LOGIN);
+        now.addAndGet(WINDOW_MILLIS / 2);
+        throttle.loginFailed(LOGIN);
+        throttle.loginFailed(LOGIN);
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isFalse();
+
+        // the first failure leaves the window
+        now.addAndGet(WINDOW_MILLIS / 2);
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isTrue();
+        throttle.loginFailed(LOGIN);
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isFalse();
+
+        // the second and third failures leave the window
+        now.addAndGet(WINDOW_MILLIS / 2 - bucketMillis);
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isFalse();
+        now.addAndGet(bucketMillis);
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isTrue();
+    }
+
+    @Test
+    void expiredCountersAreRemoved() {
+        for (int i = 0; i < 100; i++) {
+            throttle.tryAttempt("user" + i, "address" + i);
+            throttle.loginFailed("user" + i);
+        }
+        assertThat(throttle.getCountTrackedLogins()).isEqualTo(100);
+        assertThat(throttle.getCountTrackedAddresses()).isEqualTo(100);
+
+        now.addAndGet(2 * WINDOW_MILLIS);
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isTrue();
+
+        assertThat(throttle.getCountTrackedLogins()).isEqualTo(0);
+        assertThat(throttle.getCountTrackedAddresses()).isEqualTo(1);
+    }
+
+    @Test
+    void untrackedAddressIsBlocked() {
+        LoginThrottle throttle = new LoginThrottle(now::get, WINDOW, MAX_FAILURES, MAX_ATTEMPTS, 10);
+        for (int i = 0; i < 10; i++) {
+            throttle.tryAttempt(LOGIN, "address" + i);
+        }
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isTrue();
+        }
+
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isFalse();
+        assertThat(throttle.getCountTrackedAddresses()).isEqualTo(10);
+        assertThat(throttle.getCountUntracked()).isEqualTo(MAX_ATTEMPTS + 1);
+    }
+
+    @Test
+    void untrackedLoginIsBlocked() {
+        LoginThrottle throttle = new LoginThrottle(now::get, WINDOW, MAX_FAILURES, MAX_ATTEMPTS, 10);
+        for (int i = 0; i < 10; i++) {
+            throttle.loginFailed("user" + i);
+        }
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            assertThat(throttle.tryAttempt(LOGIN, "address" + i)).isTrue();
+            throttle.loginFailed(LOGIN);
+        }
+
+        assertThat(throttle.tryAttempt(LOGIN, "other")).isFalse();
+        assertThat(throttle.getCountTrackedLogins()).isEqualTo(10);
+    }
+
+    @Test
+    void expiredCountersMakeRoom() {
+        LoginThrottle throttle = new LoginThrottle(now::get, WINDOW, MAX_FAILURES, MAX_ATTEMPTS, 10);
+        throttle.tryAttempt(LOGIN, "first");
+        now.addAndGet(WINDOW_MILLIS / 2);
+        for (int i = 0; i < 9; i++) {
+            throttle.tryAttempt(LOGIN, "address" + i);
+        }
+        // the periodic sweep removes only the first counter
+        now.addAndGet(WINDOW_MILLIS / 2);
+        throttle.tryAttempt(LOGIN, "other");
+        assertThat(throttle.getCountTrackedAddresses()).isEqualTo(10);
+
+        // the counters expire before the next periodic sweep
+        now.addAndGet(WINDOW_MILLIS * 6 / 10);
+        assertThat(throttle.tryAttempt(LOGIN, ADDRESS)).isTrue();
+        assertThat(throttle.getCountUntracked()).isEqualTo(0);
+        assertThat(throttle.getCountTrackedAddresses()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentAttempts() throws Exception {
+        LoginThrottle throttle = new LoginThrottle(now::get, WINDOW, MAX_FAILURES, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                results.add(executor.submit(() -> throttle.tryAttempt(LOGIN, ADDRESS)));
+            }
+            int countAllowed = 0;
+            for (Future<Boolean> result: results) {
+                countAllowed += result.get() ? 1 : 0;
+            }
+            assertThat(countAllowed).isEqualTo(1000);
+            assertThat(throttle.getCountBlockedByAddress()).isEqualTo(1000);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
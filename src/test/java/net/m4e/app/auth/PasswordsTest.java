@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.system.core.AppConfiguration;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class PasswordsTest {
+
+    private Pbkdf2PasswordHasher hasher;
+
+    private ExecutorService executor;
+
+    private Passwords passwords;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        hasher = new Pbkdf2PasswordHasher(1000);
+        passwords = new Passwords(hasher, Collections.singletonList(new OtherHasher()), createManagedExecutor(executor), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    static ManagedExecutorService createManagedExecutor(ExecutorService executor) {
+        return Mockito.mock(ManagedExecutorService.class, AdditionalAnswers.delegatesTo(executor));
+    }
+
+    @Test
+    void defaultConstructor() {
+        new Passwords();
+    }
+
+    @Test
+    void hashAndVerify() throws Exception {
+        String hash = passwords.hash("secret");
+
+        assertThat(passwords.isLegacyHash(hash)).isFalse();
+        assertThat(passwords.verify("secret", hash)).isTrue();
+        assertThat(passwords.verify("wrong", hash)).isFalse();
+        assertThat(passwords.needsRehash(hash)).isFalse();
+    }
+
+    @Test
+    void otherHashers() throws Exception {
+        assertThat(passwords.verify("secret", "$other$secret")).isTrue();
+        assertThat(passwords.needsRehash("$other$secret")).isTrue();
+
+        assertThat(passwords.verify("secret", "$unknown$secret")).isFalse();
+        assertThat(passwords.verify("secret", "$")).isFalse();
+    }
+
+    @Test
+    void legacyHashes() {
+        String legacyHash = AuthorityConfig.getInstance().createPassword("secret");
+
+        assertThat(passwords.isLegacyLogin()).isTrue();
+        assertThat(passwords.isLegacyHash(legacyHash)).isTrue();
+        assertThat(passwords.needsRehash(legacyHash)).isFalse();
+        assertThat(passwords.needsRehash(new Pbkdf2PasswordHasher(500).hash("secret"))).isTrue();
+
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_LEGACY_PASSWORD_LOGIN, "false");
+        try {
+            assertThat(passwords.isLegacyLogin()).isFalse();
+            assertThat(passwords.needsRehash(legacyHash)).isTrue();
+        }
+        finally {
+            AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_LEGACY_PASSWORD_LOGIN, null);
+        }
+    }
+
+    @Test
+    void busyHashing() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingHasher blockingHasher = new BlockingHasher(release);
+        ExecutorService busyExecutor = Executors.newSingleThreadExecutor();
+        Passwords busyPasswords = new Passwords(blockingHasher, Collections.emptyList(), createManagedExecutor(busyExecutor), 2);
+
+        ExecutorService requests = Executors.newFixedThreadPool(2);
+        try {
+            // one hash is running, one is waiting
+            Future<String> running = requests.submit(() -> busyPasswords.hash("first"));
+            blockingHasher.started.await(5, TimeUnit.SECONDS);
+            Future<String> waiting = requests.submit(() -> busyPasswords.hash("second"));
+            while (busyPasswords.getCountPendingHashes() < 2) {
+                Thread.sleep(1);
+            }
+
+            assertThatThrownBy(() -> busyPasswords.hash("third")).hasMessageContaining("busy");
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("$blocking$first");
+            assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo("$blocking$second");
+            assertThat(busyPasswords.getCountPendingHashes()).isEqualTo(0);
+        }
+        finally {
+            release.countDown();
+            requests.shutdownNow();
+            busyExecutor.shutdownNow();
+        }
+    }
+
+    private static class OtherHasher implements PasswordHasher {
+        @Override
+        public String getId() {
+            return "other";
+        }
+
+        @Override
+        public String hash(String password) {
+            return "$other$" + password;
+        }
+
+        @Override
+        public boolean verify(String password, String hash) {
+            return hash.equals(hash(password));
+        }
+
+        @Override
+        public boolean needsRehash(String hash) {
+            return false;
+        }
+    }
+
+    private static class BlockingHasher extends OtherHasher {
+        private final CountDownLatch release;
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private BlockingHasher(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String getId() {
+            return "blocking";
+        }
+
+        @Override
+        public String hash(String password) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "$blocking$" + password;
+        }
+    }
+}
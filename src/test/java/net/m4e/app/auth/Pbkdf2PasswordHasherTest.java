@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class Pbkdf2PasswordHasherTest {
+
+    private Pbkdf2PasswordHasher hasher;
+
+    @BeforeEach
+    void setUp() {
+        hasher = new Pbkdf2PasswordHasher(1000);
+    }
+
+    @Test
+    void defaultConstructor() {
+        assertThat(new Pbkdf2PasswordHasher().getIterations()).isEqualTo(Pbkdf2PasswordHasher.DEFAULT_ITERATIONS);
+    }
+
+    @Test
+    void hashAndVerify() {
+        String hash = hasher.hash("secret");
+
+        assertThat(hash).startsWith("$pbkdf2-sha256$i=1000$");
+        assertThat(hash.split("\\$")).hasSize(5);
+        assertThat(hasher.verify("secret", hash)).isTrue();
+        assertThat(hasher.verify("Secret", hash)).isFalse();
+        assertThat(hasher.verify("", hash)).isFalse();
+    }
+
+    @Test
+    void hashesAreSalted() {
+        assertThat(hasher.hash("secret")).isNotEqualTo(hasher.hash("secret"));
+    }
+
+    @Test
+    void otherIterationCounts() {
+        String weakHash = new Pbkdf2PasswordHasher(500).hash("secret");
+
+        assertThat(hasher.verify("secret", weakHash)).isTrue();
+        assertThat(hasher.needsRehash(weakHash)).isTrue();
+        assertThat(hasher.needsRehash(hasher.hash("secret"))).isFalse();
+        assertThat(hasher.needsRehash(new Pbkdf2PasswordHasher(2000).hash("secret"))).isFalse();
+    }
+
+    @Test
+    void malformedHashes() {
+        assertThat(hasher.verify("secret", "abcdef")).isFalse();
+        assertThat(hasher.verify("secret", "$pbkdf2-sha256$i=x$AAAA$AAAA")).isFalse();
+        assertThat(hasher.verify("secret", "$pbkdf2-sha256$i=1000$AAAA")).isFalse();
+        assertThat(hasher.verify("secret", "$pbkdf2-sha256$i=1000$#$#")).isFalse();
+        assertThat(hasher.verify("secret", "$pbkdf2-sha256$i=0$AAAA$AAAA")).isFalse();
+        assertThat(hasher.needsRehash("abcdef")).isTrue();
+        assertThat(hasher.needsRehash("$pbkdf2-sha256$i=x$AAAA$AAAA")).isTrue();
+    }
+
+    @Test
+    void calibrateIterations() {
+        int iterations = Pbkdf2PasswordHasher.calibrateIterations(50);
+
+        assertThat(iterations).isGreaterThanOrEqualTo(1000);
+        assertThat(Pbkdf2PasswordHasher.calibrateIterations(0)).isEqualTo(1000);
+    }
+}
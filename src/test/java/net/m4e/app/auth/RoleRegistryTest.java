@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.common.Entities;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+import org.mockito.stubbing.Answer;
+
+import javax.persistence.EntityManager;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class RoleRegistryTest {
+
+    @Mock
+    Entities entities;
+    @Mock
+    EntityManager entityManager;
+
+    private RoleRegistry roleRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        Mockito.when(entities.findAll(RoleEntity.class)).thenReturn(Arrays.asList(
+                createRole(1L, AuthRole.USER_ROLE_ADMIN),
+                createRole(2L, AuthRole.USER_ROLE_MODERATOR),
+                createRole(3L, AuthRole.USER_ROLE_ADMIN)));
+
+        Mockito.when(entityManager.getReference(eq(RoleEntity.class), anyLong()))
+                .thenAnswer((Answer<RoleEntity>) invocation -> createRole(invocation.getArgumentAt(1, Long.class), null));
+
+        roleRegistry = new RoleRegistry(entities, entityManager);
+    }
+
+    @Test
+    void defaultConstructor() {
+        new RoleRegistry();
+    }
+
+    @Test
+    void rolesAreLoadedOnce() {
+        assertThat(roleRegistry.findRole(AuthRole.USER_ROLE_ADMIN).getId()).isEqualTo(1L);
+        assertThat(roleRegistry.findRole(AuthRole.USER_ROLE_MODERATOR).getId()).isEqualTo(2L);
+        assertThat(roleRegistry.findRole("INVALID_ROLE")).isNull();
+
+        Mockito.verify(entities, Mockito.times(1)).findAll(RoleEntity.class);
+    }
+
+    @Test
+    void rolesAreReferencesOfCurrentPersistenceContext() {
+        RoleEntity role1 = roleRegistry.findRole(AuthRole.USER_ROLE_ADMIN);
+        RoleEntity role2 = roleRegistry.findRole(AuthRole.USER_ROLE_ADMIN);
+
+        assertThat(role1).isNotSameAs(role2);
+        assertThat(roleRegistry.findRoleId(AuthRole.USER_ROLE_ADMIN)).isEqualTo(1L);
+        Mockito.verify(entityManager, Mockito.times(2)).getReference(RoleEntity.class, 1L);
+    }
+
+    @Test
+    void missingApplicationRolesAreLoadedAgain() {
+        Mockito.when(entities.findAll(RoleEntity.class))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(Collections.singletonList(createRole(1L, AuthRole.USER_ROLE_ADMIN)));
+
+        assertThat(roleRegistry.findRole(AuthRole.USER_ROLE_ADMIN).getId()).isEqualTo(1L);
+        Mockito.verify(entities, Mockito.times(2)).findAll(RoleEntity.class);
+    }
+
+    @Test
+    void rolesMask() {
+        assertThat(AppRoles.getRolesMask(Collections.emptyList())).isEqualTo(0);
+        assertThat(AppRoles.getRolesMask(Arrays.asList(AuthRole.USER_ROLE_ADMIN, "INVALID_ROLE"))).isEqualTo(AppRoles.ADMIN.getMask());
+        assertThat(AppRoles.getRolesMask(Arrays.asList(AuthRole.USER_ROLE_ADMIN, AuthRole.USER_ROLE_MODERATOR)))
+                .isEqualTo(AppRoles.ADMIN.getMask() | AppRoles.MODERATOR.getMask());
+        assertThat(AppRoles.ADMIN.getMask() & AppRoles.MODERATOR.getMask()).isEqualTo(0);
+    }
+
+    private static RoleEntity createRole(Long id, String name) {
+        RoleEntity role = new RoleEntity();
+        role.setId(id);
+        role.setName(name);
+        return role;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import net.m4e.common.Entities;
+import net.m4e.system.core.AppConfiguration;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class SessionTokenKeysTest {
+
+    private static final long LIFETIME = 3600;
+
+    @Mock
+    Entities entities;
+
+    private List<SessionTokenKeyEntity> storedKeys;
+
+    private AtomicLong now;
+
+    private SessionTokens node1;
+
+    private SessionTokens node2;
+
+    private SessionTokenKeys keys1;
+
+    private SessionTokenKeys keys2;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        storedKeys = new ArrayList<>();
+        Mockito.when(entities.findAll(SessionTokenKeyEntity.class)).thenAnswer(invocation -> new ArrayList<>(storedKeys));
+        Mockito.doAnswer(invocation -> {
+            SessionTokenKeyEntity key = invocation.getArgumentAt(0, SessionTokenKeyEntity.class);
+            key.setId((long) storedKeys.size() + 1);
+            storedKeys.add(key);
+            return null;
+        }).when(entities).create(any(SessionTokenKeyEntity.class));
+        Mockito.doAnswer(invocation -> storedKeys.remove(invocation.getArgumentAt(0, SessionTokenKeyEntity.class)))
+                .when(entities).delete(any(SessionTokenKeyEntity.class));
+
+        now = new AtomicLong(1_000_000_000);
+        node1 = new SessionTokens(LIFETIME, now::get);
+        node2 = new SessionTokens(LIFETIME, now::get);
+        keys1 = new SessionTokenKeys(entities, node1, now::get);
+        keys2 = new SessionTokenKeys(entities, node2, now::get);
+    }
+
+    @Test
+    void firstKeyIsCreated() {
+        keys1.synchronize();
+        keys2.synchronize();
+
+        assertThat(storedKeys).hasSize(1);
+        assertThat(node1.getSigningKeyId()).isEqualTo(storedKeys.get(0).getKeyId());
+        assertThat(node2.getSigningKeyId()).isEqualTo(storedKeys.get(0).getKeyId());
+        assertThat(node2.validate(node1.issue(42L, 0))).isNotNull();
+    }
+
+    @Test
+    void firstKeyOfConfiguredSecret() {
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_SESSION_TOKEN_SECRET,
+                Base64.getEncoder().encodeToString("a secret shared by the nodes".getBytes()));
+        try {
+            keys1.synchronize();
+        }
+        finally {
+            AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_SESSION_TOKEN_SECRET, "");
+        }
+
+        assertThat(node1.getKeyIds()).containsExactly(SessionTokenKeys.SHARED_KEY_ID);
+    }
+
+    @Test
+    void rotateKeyOnAllNodes() {
+        keys1.synchronize();
+        keys2.synchronize();
+        String oldKeyId = node1.getSigningKeyId();
+        String oldToken = node1.issue(42L, 0);
+
+        String newKeyId = keys1.rotateKey();
+        keys2.synchronize();
+
+        // the new key is known on all nodes before it signs
+        assertThat(node1.getKeyIds()).containsExactly(oldKeyId, newKeyId);
+        assertThat(node2.getKeyIds()).containsExactly(oldKeyId, newKeyId);
+        assertThat(node1.getSigningKeyId()).isEqualTo(oldKeyId);
+
+        now.addAndGet(SessionTokenKeys.ACTIVATION_DELAY);
+        keys1.synchronize();
+        keys2.synchronize();
+
+        assertThat(node1.getSigningKeyId()).isEqualTo(newKeyId);
+        assertThat(node2.getSigningKeyId()).isEqualTo(newKeyId);
+        assertThat(node1.validate(node2.issue(42L, 0))).isNotNull();
+        assertThat(node2.validate(oldToken)).isNotNull();
+    }
+
+    @Test
+    void rotateKeyRemovesOldest() {
+        keys1.synchronize();
+        String oldestKeyId = node1.getSigningKeyId();
+        for (int i = 0; i < SessionTokens.MAX_KEYS; i++) {
+            keys1.rotateKey();
+            now.addAndGet(SessionTokenKeys.ACTIVATION_DELAY);
+        }
+        keys1.synchronize();
+
+        assertThat(storedKeys).hasSize(SessionTokens.MAX_KEYS);
+        assertThat(node1.getKeyIds()).hasSize(SessionTokens.MAX_KEYS).doesNotContain(oldestKeyId);
+    }
+
+    @Test
+    void removeKeyOnAllNodes() {
+        keys1.synchronize();
+        String oldKeyId = node1.getSigningKeyId();
+        String oldToken = node1.issue(42L, 0);
+        String newKeyId = keys1.rotateKey();
+
+        // the old key still signs and the new one is not active
+        assertThat(keys2.removeKey(oldKeyId)).isFalse();
+        assertThat(keys2.removeKey(newKeyId)).isFalse();
+        assertThat(keys2.removeKey("unknown")).isFalse();
+
+        now.addAndGet(SessionTokenKeys.ACTIVATION_DELAY);
+        assertThat(keys2.removeKey(newKeyId)).isFalse();
+        assertThat(keys2.removeKey(oldKeyId)).isTrue();
+        keys1.synchronize();
+
+        assertThat(node1.getKeyIds()).containsExactly(newKeyId);
+        assertThat(node1.validate(oldToken)).isNull();
+        assertThat(node2.validate(oldToken)).isNull();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.junit.jupiter.api.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class SessionTokensTest {
+
+    private static final long LIFETIME = 60;
+
+    private AtomicLong now;
+
+    private SessionTokens sessionTokens;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000_000);
+        sessionTokens = new SessionTokens(LIFETIME, now::get);
+    }
+
+    @Test
+    void issueAndValidate() {
+        String token = sessionTokens.issue(42L, AppRoles.MODERATOR.getMask());
+
+        SessionTokens.SessionToken sessionToken = sessionTokens.validate(token);
+        assertThat(sessionToken).isNotNull();
+        assertThat(sessionToken.getUserId()).isEqualTo(42L);
+        assertThat(sessionToken.getRolesMask()).isEqualTo(AppRoles.MODERATOR.getMask());
+        assertThat(sessionToken.getIssued()).isEqualTo(now.get());
+        assertThat(sessionToken.getExpiry()).isEqualTo(now.get() / 1000 + LIFETIME);
+    }
+
+    @Test
+    void expiry() {
+        String token = sessionTokens.issue(42L, 0);
+
+        now.addAndGet((LIFETIME - 1) * 1000);
+        assertThat(sessionTokens.validate(token)).isNotNull();
+        now.addAndGet(1000);
+        assertThat(sessionTokens.validate(token)).isNull();
+    }
+
+    @Test
+    void malformed() {
+        assertThat(sessionTokens.validate(null)).isNull();
+        assertThat(sessionTokens.validate("")).isNull();
+        assertThat(sessionTokens.validate(".")).isNull();
+        assertThat(sessionTokens.validate("abc")).isNull();
+        assertThat(sessionTokens.validate(sessionTokens.getSigningKeyId() + ".t.1.2.3.4")).isNull();
+        assertThat(sessionTokens.validate(sessionTokens.getSigningKeyId() + ".t.1.2.3.4.!!")).isNull();
+    }
+
+    @Test
+    void tampered() {
+        String token = sessionTokens.issue(42L, AppRoles.USER.getMask());
+        String[] fields = token.split("\\.");
+
+        assertThat(sessionTokens.validate(replaceField(fields, 2, "43"))).isNull();
+        assertThat(sessionTokens.validate(replaceField(fields, 3, String.valueOf(AppRoles.ADMIN.getMask())))).isNull();
+        assertThat(sessionTokens.validate(replaceField(fields, 4, String.valueOf(now.get() + 1000)))).isNull();
+        assertThat(sessionTokens.validate(replaceField(fields, 5, String.valueOf(now.get() / 1000 + 10 * LIFETIME)))).isNull();
+    }
+
+    @Test
+    void ticket() {
+        String ticket = sessionTokens.issueTicket(42L, AppRoles.USER.getMask());
+
+        SessionTokens.SessionToken sessionToken = sessionTokens.validateTicket(ticket);
+        assertThat(sessionToken).isNotNull();
+        assertThat(sessionToken.getUserId()).isEqualTo(42L);
+        assertThat(sessionToken.getExpiry()).isEqualTo(now.get() / 1000 + SessionTokens.TICKET_LIFETIME);
+    }
+
+    @Test
+    void ticketIsUsedOnce() {
+        String ticket = sessionTokens.issueTicket(42L, 0);
+
+        assertThat(sessionTokens.validateTicket(ticket)).isNotNull();
+        assertThat(sessionTokens.validateTicket(ticket)).isNull();
+    }
+
+    @Test
+    void ticketExpiry() {
+        String ticket = sessionTokens.issueTicket(42L, 0);
+
+        now.addAndGet(SessionTokens.TICKET_LIFETIME * 1000);
+        assertThat(sessionTokens.validateTicket(ticket)).isNull();
+    }
+
+    @Test
+    void ticketAndTokenAreNotExchangeable() {
+        String token = sessionTokens.issue(42L, 0);
+        String ticket = sessionTokens.issueTicket(42L, 0);
+
+        assertThat(sessionTokens.validate(ticket)).isNull();
+        assertThat(sessionTokens.validateTicket(token)).isNull();
+    }
+
+    @Test
+    void setKeys() {
+        SessionTokens otherNode = new SessionTokens(LIFETIME, now::get);
+        Map<String, byte[]> secrets = new LinkedHashMap<>();
+        secrets.put("key1", "the first secret of the cluster".getBytes());
+        secrets.put("key2", "the second secret of the cluster".getBytes());
+        otherNode.setKeys(secrets, "key2");
+        sessionTokens.setKeys(secrets, "key1");
+
+        assertThat(sessionTokens.getKeyIds()).containsExactly("key1", "key2");
+        assertThat(sessionTokens.getSigningKeyId()).isEqualTo("key1");
+        assertThat(sessionTokens.validate(otherNode.issue(42L, 0))).isNotNull();
+        assertThatThrownBy(() -> sessionTokens.setKeys(secrets, "key3")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unknownKey() {
+        String token = new SessionTokens(LIFETIME, now::get).issue(42L, 0);
+
+        assertThat(sessionTokens.validate(token)).isNull();
+    }
+
+    @Test
+    void rotateKey() {
+        String oldKeyId = sessionTokens.getSigningKeyId();
+        String oldToken = sessionTokens.issue(42L, 0);
+
+        String newKeyId = sessionTokens.rotateKey();
+        String newToken = sessionTokens.issue(42L, 0);
+
+        assertThat(newKeyId).isNotEqualTo(oldKeyId);
+        assertThat(sessionTokens.getSigningKeyId()).isEqualTo(newKeyId);
+        assertThat(newToken).startsWith(newKeyId + ".");
+        assertThat(sessionTokens.validate(oldToken)).isNotNull();
+        assertThat(sessionTokens.validate(newToken)).isNotNull();
+    }
+
+    @Test
+    void rotateKeyRemovesOldest() {
+        String oldestKeyId = sessionTokens.getSigningKeyId();
+        String oldestToken = sessionTokens.issue(42L, 0);
+
+        sessionTokens.rotateKey();
+        sessionTokens.rotateKey();
+        assertThat(sessionTokens.getKeyIds()).hasSize(3).contains(oldestKeyId);
+        assertThat(sessionTokens.validate(oldestToken)).isNotNull();
+
+        sessionTokens.rotateKey();
+        assertThat(sessionTokens.getKeyIds()).hasSize(3).doesNotContain(oldestKeyId);
+        assertThat(sessionTokens.validate(oldestToken)).isNull();
+    }
+
+    @Test
+    void sharedKey() {
+        byte[] secret = "a secret shared by the nodes".getBytes();
+        SessionTokens otherNode = new SessionTokens(LIFETIME, now::get);
+        otherNode.addKey("shared", secret, true);
+        sessionTokens.addKey("shared", secret, false);
+
+        String token = otherNode.issue(42L, 0);
+
+        assertThat(sessionTokens.validate(token)).isNotNull();
+        assertThat(sessionTokens.getSigningKeyId()).isNotEqualTo("shared");
+    }
+
+    @Test
+    void addKeyInvalid() {
+        assertThatThrownBy(() -> sessionTokens.addKey("", new byte[16], false)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sessionTokens.addKey("a.b", new byte[16], false)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sessionTokens.addKey("key", new byte[15], false)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void removeKey() {
+        String oldKeyId = sessionTokens.getSigningKeyId();
+        String oldToken = sessionTokens.issue(42L, 0);
+        String newKeyId = sessionTokens.rotateKey();
+
+        assertThat(sessionTokens.removeKey(newKeyId)).isFalse();
+        assertThat(sessionTokens.removeKey("unknown")).isFalse();
+        assertThat(sessionTokens.removeKey(oldKeyId)).isTrue();
+        assertThat(sessionTokens.validate(oldToken)).isNull();
+        assertThat(sessionTokens.getKeyIds()).containsExactly(newKeyId);
+    }
+
+    private static String replaceField(String[] fields, int index, String value) {
+        String[] newFields = fields.clone();
+        newFields[index] = value;
+        return String.join(".", newFields);
+    }
+}
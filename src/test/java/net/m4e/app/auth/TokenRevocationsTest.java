@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.auth;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class TokenRevocationsTest {
+
+    private Map<Long, Long> storedTimes;
+
+    private AtomicInteger countLoads;
+
+    private AtomicLong now;
+
+    private TokenRevocations revocations;
+
+    @BeforeEach
+    void setUp() {
+        storedTimes = new HashMap<>();
+        countLoads = new AtomicInteger();
+        now = new AtomicLong(1_000_000);
+        revocations = new TokenRevocations(userId -> {
+            countLoads.incrementAndGet();
+            return storedTimes.getOrDefault(userId, TokenRevocations.ALL_REVOKED);
+        }, now::get);
+    }
+
+    @Test
+    void loadedOnce() {
+        storedTimes.put(1L, 500L);
+
+        assertThat(revocations.isRevoked(1L, 500L)).isTrue();
+        assertThat(revocations.isRevoked(1L, 501L)).isFalse();
+        assertThat(revocations.isRevoked(2L, now.get())).isTrue();
+
+        assertThat(countLoads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void reloadedAfterRefreshInterval() {
+        storedTimes.put(1L, 0L);
+        assertThat(revocations.isRevoked(1L, 500L)).isFalse();
+
+        // revoked on another node
+        storedTimes.put(1L, 1000L);
+        assertThat(revocations.isRevoked(1L, 500L)).isFalse();
+
+        now.addAndGet(TokenRevocations.REFRESH_INTERVAL + 1);
+        assertThat(revocations.isRevoked(1L, 500L)).isTrue();
+        assertThat(countLoads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void revokedAtOnce() {
+        storedTimes.put(1L, 0L);
+        assertThat(revocations.isRevoked(1L, 500L)).isFalse();
+
+        revocations.revoke(1L, 1000L);
+        assertThat(revocations.isRevoked(1L, 500L)).isTrue();
+
+        // an older revocation does not take back a newer one
+        revocations.revoke(1L, 100L);
+        assertThat(revocations.isRevoked(1L, 500L)).isTrue();
+        assertThat(countLoads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void sizeIsLimited() {
+        for (long userId = 0; userId < TokenRevocations.MAX_ENTRIES + 10; userId++) {
+            storedTimes.put(userId, 0L);
+            revocations.isRevoked(userId, 500L);
+        }
+
+        assertThat(revocations.getSize()).isLessThanOrEqualTo(TokenRevocations.MAX_ENTRIES);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.app.event.rest.comm.EventMember;
+import net.m4e.app.user.business.UserEntity;
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.transaction.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class EventInfoCacheTest extends EventsTestBase {
+
+    private static final Long MEMBER_ID = 5000L;
+    private static final Long LOCATION_ID = 6000L;
+
+    private EventEntity event;
+
+    @BeforeEach
+    void setupEvent() {
+        UserEntity member = UserEntityCreator.create();
+        member.setId(MEMBER_ID);
+
+        EventLocationEntity location = EventLocationEntityCreator.create();
+        location.setId(LOCATION_ID);
+
+        event = EventEntityCreator.create();
+        event.setMembers(new ArrayList<>(Collections.singletonList(member)));
+        event.setLocations(new ArrayList<>(Collections.singletonList(location)));
+
+        Mockito.doReturn(UserEntityCreator.create()).when(users).findUser(anyLong());
+    }
+
+    @Test
+    void snapshotIsReused() {
+        AtomicInteger builds = new AtomicInteger();
+
+        eventInfoCache.getOrCreate(event.getId(), () -> { builds.incrementAndGet(); return EventInfo.createSnapshot(event, users); });
+        eventInfoCache.getOrCreate(event.getId(), () -> { builds.incrementAndGet(); return EventInfo.createSnapshot(event, users); });
+
+        assertThat(builds.get()).isEqualTo(1);
+        assertThat(eventInfoCache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void exportPatchesOnlineStatus() {
+        events.exportEvent(event);
+
+        Mockito.doReturn(new UserEntity()).when(connectedClients).getConnectedUser(eq(MEMBER_ID));
+        EventInfo eventInfo = events.exportEvent(event);
+
+        assertThat(eventInfoCache.getSize()).isEqualTo(1);
+        assertThat(eventInfo.getMembers()).hasSize(1);
+        assertThat(eventInfo.getMembers().get(0).getStatus()).isEqualTo(EventMember.OnlineStatus.online);
+        assertThat(eventInfo.getOwnerStatus()).isEqualTo(EventMember.OnlineStatus.offline);
+    }
+
+    @Test
+    void updateEventRefreshesSnapshot() {
+        events.exportEvent(event);
+
+        event.setName("New Name");
+        events.updateEvent(event);
+
+        assertThat(eventInfoCache.getSize()).isEqualTo(0);
+        assertThat(events.exportEvent(event).getName()).isEqualTo("New Name");
+    }
+
+    @Test
+    void invalidateLocation() {
+        events.exportEvent(event);
+
+        eventInfoCache.invalidateLocation(LOCATION_ID);
+
+        assertThat(eventInfoCache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    void invalidateUser() {
+        events.exportEvent(event);
+
+        eventInfoCache.invalidateUser(MEMBER_ID + 1);
+        assertThat(eventInfoCache.getSize()).isEqualTo(1);
+
+        eventInfoCache.invalidateUser(MEMBER_ID);
+        assertThat(eventInfoCache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    void staleSnapshotIsNotStored() {
+        eventInfoCache.getOrCreate(event.getId(), () -> {
+            eventInfoCache.invalidateEvent(event.getId());
+            return EventInfo.createSnapshot(event, users);
+        });
+
+        assertThat(eventInfoCache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    void invalidateAfterCommit() {
+        TransactionSynchronizationRegistry registry = Mockito.mock(TransactionSynchronizationRegistry.class);
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        EventInfoCache cache = new EventInfoCache(new TransactionCallbacks(registry));
+
+        cache.invalidateEvent(event.getId());
+        // an export before the commit builds a snapshot of the old data
+        cache.getOrCreate(event.getId(), () -> EventInfo.createSnapshot(event, users));
+        assertThat(cache.getSize()).isEqualTo(1);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        Mockito.verify(registry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertThat(cache.getSize()).isEqualTo(0);
+        assertThat(cache.getCountLocations()).isEqualTo(0);
+    }
+
+    @Test
+    void snapshotExpires() {
+        AtomicLong now = new AtomicLong(1000);
+        EventInfoCache cache = new EventInfoCache(new TransactionCallbacks(null), now::get);
+        AtomicInteger builds = new AtomicInteger();
+
+        cache.getOrCreate(event.getId(), () -> { builds.incrementAndGet(); return EventInfo.createSnapshot(event, users); });
+        now.addAndGet(EventInfoCache.SNAPSHOT_LIFETIME - 1);
+        cache.getOrCreate(event.getId(), () -> { builds.incrementAndGet(); return EventInfo.createSnapshot(event, users); });
+        assertThat(builds.get()).isEqualTo(1);
+
+        now.incrementAndGet();
+        cache.getOrCreate(event.getId(), () -> { builds.incrementAndGet(); return EventInfo.createSnapshot(event, users); });
+        assertThat(builds.get()).isEqualTo(2);
+    }
+
+    @Test
+    void sizeIsBounded() {
+        AtomicLong now = new AtomicLong(1000);
+        EventInfoCache cache = new EventInfoCache(new TransactionCallbacks(null), now::get);
+        EventInfo snapshot = EventInfo.createSnapshot(event, users);
+
+        for (long id = 0; id < EventInfoCache.MAX_SNAPSHOTS + 10; id++) {
+            cache.getOrCreate(id, () -> snapshot);
+        }
+        assertThat(cache.getSize()).isEqualTo(EventInfoCache.MAX_SNAPSHOTS);
+
+        // expired snapshots make room for new ones
+        now.addAndGet(EventInfoCache.SNAPSHOT_LIFETIME);
+        cache.getOrCreate(-1L, () -> snapshot);
+        assertThat(cache.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void locationsArePruned() {
+        events.exportEvent(event);
+        assertThat(eventInfoCache.getCountLocations()).isEqualTo(1);
+
+        eventInfoCache.invalidateEvent(event.getId());
+
+        assertThat(eventInfoCache.getCountLocations()).isEqualTo(0);
+    }
+}
@@ -33,30 +33,40 @@ public class EventLocationsCreationDeletionTest extends EventLocationsTestBase {
     @Test
     void createNewLocation() {
         EventLocationEntity locationEntity = EventLocationEntityCreator.create();
-        eventLocations.createNewLocation(locationEntity, 0L, new EventEntity());
+        locationEntity.setLatitude(52.52);
+        locationEntity.setLongitude(13.405);
+        EventEntity event = EventEntityCreator.create();
+
+        EventLocationEntity newLocation = eventLocations.createNewLocation(locationEntity, 0L, event);
+
+        assertThat(newLocation.getHasCoordinates()).isTrue();
+        Mockito.verify(locationGeoIndex).putLocation(event.getId(), newLocation);
+        Mockito.verify(eventSearchIndex).putLocation(event.getId(), newLocation);
     }
 
     @Test
     void createOrUpdateVote() {
         UserEntity voter = UserEntityCreator.create();
         EventEntity event = EventEntityCreator.create();
-        EventLocationEntity location = new EventLocationEntity();
+        EventLocationEntity location = EventLocationEntityCreator.create();
         boolean vote = true;
 
         EventLocations partialMockedEventLocations = Mockito.spy(eventLocations);
 
-        Mockito.doReturn(false).when(partialMockedEventLocations).calculateVoteBeginAndEndTime(anyObject());
+        Mockito.doReturn(null).when(partialMockedEventLocations).getCurrentVoteWindow(anyObject());
 
-        EventLocationVoteEntity entity = partialMockedEventLocations.createOrUpdateVote(voter, event, location, vote);
+        VoteTally tally = partialMockedEventLocations.createOrUpdateVote(voter, event, location, vote);
 
-        assertThat(entity).isNull();
+        assertThat(tally).isNull();
 
-        Mockito.doReturn(true).when(partialMockedEventLocations).calculateVoteBeginAndEndTime(anyObject());
-        Mockito.doReturn(new EventLocationVoteEntity()).when(partialMockedEventLocations).getOrCreateVoteEntity(anyObject(), anyObject());
+        Mockito.doReturn(new VoteWindow(0L, 10L)).when(partialMockedEventLocations).getCurrentVoteWindow(anyObject());
+        Mockito.doReturn(new EventLocationVoteEntity()).when(partialMockedEventLocations).getOrCreateVoteEntity(anyObject(), anyObject(), anyObject());
 
-        entity = partialMockedEventLocations.createOrUpdateVote(voter, event, location, vote);
+        tally = partialMockedEventLocations.createOrUpdateVote(voter, event, location, vote);
 
-        assertThat(entity).isNotNull();
+        assertThat(tally).isNotNull();
+        assertThat(tally.getUserIds()).containsExactly(voter.getId());
+        assertThat(tally.isDirty()).isTrue();
     }
 
     @Test
@@ -68,12 +78,33 @@ public class EventLocationsCreationDeletionTest extends EventLocationsTestBase {
 
         EventLocations partialMockedEventLocations = Mockito.spy(eventLocations);
 
-        Mockito.doReturn(true).when(partialMockedEventLocations).calculateVoteBeginAndEndTime(anyObject());
-        Mockito.doReturn(new EventLocationVoteEntity()).when(partialMockedEventLocations).getOrCreateVoteEntity(anyObject(), anyObject());
+        Mockito.doReturn(new VoteWindow(0L, 10L)).when(partialMockedEventLocations).getCurrentVoteWindow(anyObject());
+        Mockito.doReturn(new EventLocationVoteEntity()).when(partialMockedEventLocations).getOrCreateVoteEntity(anyObject(), anyObject(), anyObject());
+
+        VoteTally tally = partialMockedEventLocations.createOrUpdateVote(voter, event, location, vote);
+
+        assertThat(tally).isNotNull();
+        assertThat(tally.getUserIds()).isEmpty();
+    }
+
+    @Test
+    void votesOfLocationShareOneTally() {
+        EventEntity event = EventEntityCreator.create();
+        EventLocationEntity location = EventLocationEntityCreator.create();
 
-        EventLocationVoteEntity entity = partialMockedEventLocations.createOrUpdateVote(voter, event, location, vote);
+        EventLocations partialMockedEventLocations = Mockito.spy(eventLocations);
+        Mockito.doReturn(new VoteWindow(0L, 10L)).when(partialMockedEventLocations).getCurrentVoteWindow(anyObject());
+
+        for (long userId = 1; userId <= 10; userId++) {
+            UserEntity voter = UserEntityCreator.create();
+            voter.setId(userId);
+            voter.setName("user" + userId);
+            partialMockedEventLocations.createOrUpdateVote(voter, event, location, true);
+        }
 
-        assertThat(entity).isNotNull();
+        assertThat(voteTallyEngine.getSize()).isEqualTo(1);
+        Mockito.verify(partialMockedEventLocations, Mockito.times(1)).getOrCreateVoteEntity(anyObject(), anyObject(), anyObject());
+        Mockito.verify(entities, Mockito.never()).update(anyObject());
     }
 
     @Test
@@ -82,11 +113,11 @@ public class EventLocationsCreationDeletionTest extends EventLocationsTestBase {
         EventLocationEntity location = EventLocationEntityCreator.create();
         EventLocationVoteEntity vote = new EventLocationVoteEntity();
 
-        assertThat(eventLocations.getOrCreateVoteEntity(event, location)).isNotNull();
+        assertThat(eventLocations.getOrCreateVoteEntity(event, location, new VoteWindow(0L, 10L))).isNotNull();
 
         mockNamedQuery(Arrays.asList(vote));
 
-        assertThat(eventLocations.getOrCreateVoteEntity(event, location)).isNotNull();
+        assertThat(eventLocations.getOrCreateVoteEntity(event, location, new VoteWindow(0L, 10L))).isNotNull();
     }
 
     @Nested
@@ -109,7 +140,8 @@ public class EventLocationsCreationDeletionTest extends EventLocationsTestBase {
             } catch(Exception e){
             }
 
-            eventEntity.setLocations(Collections.emptyList());
+            eventLocationEntity.setId(null);
+            mockEventLocationQuery(Collections.singletonList(eventLocationEntity));
             try {
                 eventLocations.markLocationAsDeleted(eventEntity, eventLocationEntity);
                 fail("Location does not belonging to event was not detected!");
@@ -129,7 +161,7 @@ public class EventLocationsCreationDeletionTest extends EventLocationsTestBase {
 
         @Test
         void markAsDeletedInvalidAppInfos() {
-            eventEntity.setLocations(Arrays.asList(eventLocationEntity));
+            mockEventLocationQuery(Arrays.asList(eventLocationEntity));
             Mockito.when(appInfos.getAppInfoEntity()).thenReturn(null);
             try {
                 eventLocations.markLocationAsDeleted(eventEntity, eventLocationEntity);
@@ -140,12 +172,14 @@ public class EventLocationsCreationDeletionTest extends EventLocationsTestBase {
 
         @Test
         void markAsDeleted() throws Exception {
-            eventEntity.setLocations(Arrays.asList(eventLocationEntity));
+            mockEventLocationQuery(Arrays.asList(eventLocationEntity));
             Mockito.when(appInfos.getAppInfoEntity()).thenReturn(new AppInfoEntity());
 
             eventLocations.markLocationAsDeleted(eventEntity, eventLocationEntity);
 
             assertThat(eventLocationEntity.getStatus().getIsDeleted()).isTrue();
+            Mockito.verify(locationGeoIndex).removeLocation(eventLocationEntity.getId());
+            Mockito.verify(eventSearchIndex).removeLocation(eventLocationEntity.getId());
         }
 
         @Test
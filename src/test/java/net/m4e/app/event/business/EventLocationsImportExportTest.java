@@ -120,6 +120,19 @@ public class EventLocationsImportExportTest extends EventLocationsTestBase {
             softly.assertAll();
         }
 
+        @Test
+        void exportVotesWithPendingTallyChanges() {
+            EventLocationVoteEntity voteEntity = EventLocationVoteEntityCreator.create();
+            VoteWindow window = new VoteWindow(voteEntity.getVoteTimeBegin(), voteEntity.getVoteTimeEnd());
+            VoteTally tally = voteTallyEngine.getOrCreateTally(voteEntity.getLocationId(), window, () -> voteEntity);
+            tally.vote(4242L, true);
+
+            LocationVoteInfo voteInfo = eventLocations.exportLocationVotes(voteEntity);
+
+            assertThat(voteInfo.getUserIds()).contains(4242L).hasSize(EventLocationVoteEntityCreator.VOTE_USER_IDS.size() + 1);
+            assertThat(voteInfo.getUserNames()).contains("User 4242").containsAll(EventLocationVoteEntityCreator.VOTE_USER_NAMES);
+        }
+
         @Test
         void exportVotesList() {
             EventLocationVoteEntity voteEntity1 = EventLocationVoteEntityCreator.create();
@@ -8,8 +8,13 @@
 package net.m4e.app.event.business;
 
 import net.m4e.app.resources.DocumentEntity;
+import net.m4e.common.*;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 
 /**
  * Base class for event related tests
@@ -29,6 +34,36 @@ public class EventLocationsMiscTest extends EventLocationsTestBase {
         eventLocations.getVotes(new EventEntity(), 0L, 0L);
     }
 
+    @Test
+    void warmVoteTallies() {
+        EventLocationVoteEntity voteEntity = EventLocationVoteEntityCreator.create();
+        mockNamedQuery(Collections.singletonList(voteEntity));
+        VoteWindow window = new VoteWindow(voteEntity.getVoteTimeBegin(), voteEntity.getVoteTimeEnd());
+
+        assertThat(eventLocations.warmVoteTallies(EventEntityCreator.create(), window)).isEqualTo(1);
+
+        VoteTally tally = voteTallyEngine.getTally(voteEntity.getId());
+        assertThat(tally).isNotNull();
+        assertThat(tally.getUserIds()).isEqualTo(voteEntity.getUserIds());
+    }
+
+    @Test
+    void voteSchedulesAreRemoved() {
+        EventEntity event = EventEntityCreator.create();
+        eventLocations.getVoteSchedule(event);
+        eventLocations.getVoteSchedule(event);
+        assertThat(eventLocations.getCountVoteSchedules()).isEqualTo(1);
+
+        eventLocations.removeVoteSchedule(event.getId());
+        eventLocations.removeVoteSchedule(null);
+        assertThat(eventLocations.getCountVoteSchedules()).isEqualTo(0);
+
+        // the schedules of inactive events are not kept
+        event.getStatus().setEnabled(false);
+        assertThat(eventLocations.getVoteSchedule(event)).isNotNull();
+        assertThat(eventLocations.getCountVoteSchedules()).isEqualTo(0);
+    }
+
     @Test
     void findLocation() {
         eventLocations.findLocation(0L);
@@ -8,8 +8,9 @@
 package net.m4e.app.event.business;
 
 import net.m4e.app.resources.DocumentPool;
+import net.m4e.app.user.business.UserNameCache;
 import net.m4e.common.*;
-import net.m4e.system.core.AppInfos;
+import net.m4e.system.core.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.*;
 
@@ -35,6 +36,19 @@ public class EventLocationsTestBase {
     AppInfos appInfos;
     @Mock
     DocumentPool docPool;
+    @Mock
+    EventInfoCache eventInfoCache;
+
+    @Mock
+    EntityCounters entityCounters;
+    @Mock
+    UserNameCache userNameCache;
+    @Mock
+    LocationGeoIndex locationGeoIndex;
+    @Mock
+    EventSearchIndex eventSearchIndex;
+
+    VoteTallyEngine voteTallyEngine;
 
     EventLocations eventLocations;
 
@@ -42,9 +56,19 @@ public class EventLocationsTestBase {
     void setup() {
         MockitoAnnotations.initMocks(this);
 
-        eventLocations = new EventLocations(entityManager, entities, appInfos, docPool);
+        voteTallyEngine = new VoteTallyEngine(entities, new TransactionCallbacks(null));
+        eventLocations = new EventLocations(entityManager, entities, appInfos, docPool, eventInfoCache, entityCounters, voteTallyEngine, userNameCache,
+                locationGeoIndex, eventSearchIndex, new LocationVoteStore(entityManager, entities));
+
+        Mockito.when(userNameCache.getNames(anyCollectionOf(Long.class))).thenAnswer(invocation -> {
+            Map<Long, String> names = new HashMap<>();
+            invocation.getArgumentAt(0, Collection.class).forEach(id ->
+                    names.put((Long) id, EventLocationVoteEntityCreator.VOTE_USER_NAMES_BY_ID.getOrDefault(id, "User " + id)));
+            return names;
+        });
 
         mockNamedQuery(Collections.emptyList());
+        mockEventLocationQuery(Collections.emptyList());
     }
 
     protected void mockNamedQuery(List<EventLocationVoteEntity> voteEntities) {
@@ -53,4 +77,10 @@ public class EventLocationsTestBase {
         Mockito.when(mockedTypedQuery.setMaxResults(anyInt())).thenReturn(mockedTypedQuery);
         Mockito.when(mockedTypedQuery.getResultList()).thenReturn(voteEntities);
     }
+
+    protected void mockEventLocationQuery(List<EventLocationEntity> locations) {
+        TypedQuery mockedTypedQuery = Mockito.mock(TypedQuery.class);
+        Mockito.when(entityManager.createNamedQuery(eq("EventEntity.findLocation"), eq(EventLocationEntity.class))).thenReturn(mockedTypedQuery);
+        Mockito.when(mockedTypedQuery.getResultList()).thenReturn(locations);
+    }
 }
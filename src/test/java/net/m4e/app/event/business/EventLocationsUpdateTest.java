@@ -93,5 +93,20 @@ public class EventLocationsUpdateTest extends EventLocationsTestBase {
             assertThat(updatedEntity.getDescription()).isEqualTo(DESCRIPTION);
             assertThat(updatedEntity.getPhoto()).isNotNull();
         }
+
+        @Test
+        void updateLocationCoordinates() throws Exception {
+            inputLocation.setLatitude(52.52);
+            inputLocation.setLongitude(13.405);
+
+            Mockito.when(entities.find(anyObject(), anyLong())).thenReturn(eventLocationEntity);
+
+            EventLocationEntity updatedEntity = eventLocations.updateLocation(inputLocation);
+
+            assertThat(updatedEntity.getLatitude()).isEqualTo(52.52);
+            assertThat(updatedEntity.getLongitude()).isEqualTo(13.405);
+            Mockito.verify(locationGeoIndex).updateLocation(updatedEntity);
+            Mockito.verify(eventSearchIndex).updateLocation(updatedEntity);
+        }
     }
 }
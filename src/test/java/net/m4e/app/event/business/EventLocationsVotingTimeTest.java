@@ -7,15 +7,18 @@
  */
 package net.m4e.app.event.business;
 
-import net.m4e.common.EventEntityCreator;
+import net.m4e.common.*;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Calendar;
+import java.util.*;
+import java.util.concurrent.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 
 
 /**
@@ -33,14 +36,14 @@ public class EventLocationsVotingTimeTest extends EventLocationsTestBase {
         void voteBeginAndEndTimeInVotingWindow() {
             EventEntity event = createEventEntityForVotingWindow(1, 2);
 
-            assertThat(eventLocations.calculateVoteBeginAndEndTime(event)).isTrue();
+            assertThat(eventLocations.getCurrentVoteWindow(event)).isNotNull();
         }
 
         @Test
         void voteBeginAndEndTimeOutOfVotingWindow() {
             EventEntity event = createEventEntityForVotingWindow(-2, 1);
 
-            assertThat(eventLocations.calculateVoteBeginAndEndTime(event)).isFalse();
+            assertThat(eventLocations.getCurrentVoteWindow(event)).isNull();
         }
 
         @NotNull
@@ -63,14 +66,14 @@ public class EventLocationsVotingTimeTest extends EventLocationsTestBase {
         void voteBeginAndEndTimeInVotingWindow() {
             EventEntity event = createRepeatedEventEntityForVotingWindow(1, 2, 0);
 
-            assertThat(eventLocations.calculateVoteBeginAndEndTime(event)).isTrue();
+            assertThat(eventLocations.getCurrentVoteWindow(event)).isNotNull();
         }
 
         @Test
         void voteBeginAndEndTimeOutOfVotingWindow() {
             EventEntity event = createRepeatedEventEntityForVotingWindow(1, 2, 1);
 
-            assertThat(eventLocations.calculateVoteBeginAndEndTime(event)).isFalse();
+            assertThat(eventLocations.getCurrentVoteWindow(event)).isNull();
         }
 
         @NotNull
@@ -91,4 +94,68 @@ public class EventLocationsVotingTimeTest extends EventLocationsTestBase {
             return event;
         }
     }
+
+    @Nested
+    class ConcurrentVoting {
+
+        private static final int COUNT_EVENTS = 16;
+        private static final int COUNT_THREADS = 8;
+        private static final int COUNT_VOTES = 500;
+
+        @Test
+        void everyVoteGetsTheWindowOfItsEvent() throws Exception {
+            List<EventEntity> votingEvents = new ArrayList<>();
+            long now = Instant.now().getEpochSecond();
+            for (int i = 0; i < COUNT_EVENTS; i++) {
+                EventEntity event = EventEntityCreator.create();
+                event.setId((long) i);
+                event.setRepeatWeekDays(0L);
+                event.setEventStart(now + 60L * 60L + i * 60L);
+                event.setVotingTimeBegin(2 * 60L * 60L + i);
+                votingEvents.add(event);
+            }
+
+            Queue<String> wrongWindows = new ConcurrentLinkedQueue<>();
+            Mockito.doAnswer(invocation -> {
+                EventLocationVoteEntity vote = invocation.getArgumentAt(0, EventLocationVoteEntity.class);
+                EventEntity event = votingEvents.get(vote.getEventId().intValue());
+                if ((vote.getVoteTimeEnd() != event.getEventStart().longValue()) ||
+                    (vote.getVoteTimeBegin() != event.getEventStart() - event.getVotingTimeBegin())) {
+                    wrongWindows.add("event " + event.getId() + ": " + vote.getVoteTimeBegin() + " - " + vote.getVoteTimeEnd());
+                }
+                return null;
+            }).when(entities).create(any(EventLocationVoteEntity.class));
+
+            ExecutorService executor = Executors.newFixedThreadPool(COUNT_THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < COUNT_THREADS; t++) {
+                final int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < COUNT_VOTES; i++) {
+                        EventEntity event = votingEvents.get((thread + i) % COUNT_EVENTS);
+                        EventLocationEntity location = EventLocationEntityCreator.create();
+                        eventLocations.createOrUpdateVote(UserEntityCreator.create(), event, location, true);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result: results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            assertThat(wrongWindows).isEmpty();
+            // all votes of a location in a window go to one tally
+            Mockito.verify(entities, Mockito.times(COUNT_EVENTS)).create(any(EventLocationVoteEntity.class));
+            assertThat(voteTallyEngine.getSize()).isEqualTo(COUNT_EVENTS);
+            for (EventEntity event: votingEvents) {
+                List<VoteTally> tallies = voteTallyEngine.getEventTallies(event.getId());
+                assertThat(tallies).hasSize(1);
+                assertThat(tallies.get(0).getWindow()).isEqualTo(new VoteWindow(event.getEventStart() - event.getVotingTimeBegin(), event.getEventStart()));
+            }
+        }
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.TransactionCallbacks;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import javax.transaction.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class EventMemberIndexTest {
+
+    private static final Long EVENT_ID = 1000L;
+    private static final int COUNT_MEMBERS = 1000;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    TypedQuery<Long> query;
+
+    @Mock
+    TypedQuery<Long> countQuery;
+
+    private AtomicLong now;
+
+    private EventMemberIndex eventMemberIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        // every second ID is a member, in random order as returned by the database
+        List<Long> memberIds = LongStream.range(0, COUNT_MEMBERS).map(i -> i * 2).boxed().collect(Collectors.toList());
+        Collections.shuffle(memberIds, new Random(42));
+
+        Mockito.when(entityManager.createNamedQuery(eq("EventEntity.findMemberIds"), eq(Long.class))).thenReturn(query);
+        Mockito.when(query.getResultList()).thenReturn(memberIds);
+        Mockito.when(entityManager.createNamedQuery(eq("EventEntity.countMember"), eq(Long.class))).thenReturn(countQuery);
+
+        now = new AtomicLong(1000);
+        eventMemberIndex = new EventMemberIndex(entityManager, new TransactionCallbacks(null), now::get);
+    }
+
+    @Test
+    void defaultConstructor() {
+        new EventMemberIndex();
+    }
+
+    @Test
+    void isMemberQueriesDatabase() {
+        Mockito.when(countQuery.getSingleResult()).thenReturn(1L, 0L);
+
+        assertThat(eventMemberIndex.isMember(EVENT_ID, 2L)).isTrue();
+        assertThat(eventMemberIndex.isMember(EVENT_ID, 2L)).isFalse();
+        assertThat(eventMemberIndex.isMember(EVENT_ID, null)).isFalse();
+
+        Mockito.verify(countQuery, Mockito.times(2)).setParameter(eq("eventId"), eq(EVENT_ID));
+        Mockito.verify(countQuery, Mockito.times(2)).setParameter(eq("memberId"), eq(2L));
+        Mockito.verifyZeroInteractions(query);
+        assertThat(eventMemberIndex.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    void memberIdsAreLoaded() {
+        long[] ids = eventMemberIndex.getMemberIds(EVENT_ID);
+
+        assertThat(ids).hasSize(COUNT_MEMBERS);
+        Set<Long> uniqueIds = LongStream.of(ids).boxed().collect(Collectors.toSet());
+        for (long id = 0; id < COUNT_MEMBERS * 2; id++) {
+            assertThat(uniqueIds.contains(id)).isEqualTo(id % 2 == 0);
+        }
+    }
+
+    @Test
+    void memberIdsAreCached() {
+        eventMemberIndex.getMemberIds(EVENT_ID);
+        eventMemberIndex.getMemberIds(EVENT_ID);
+
+        Mockito.verify(query, Mockito.times(1)).getResultList();
+        Mockito.verify(query).setParameter(eq("eventId"), eq(EVENT_ID));
+    }
+
+    @Test
+    void memberIdsExpire() {
+        eventMemberIndex.getMemberIds(EVENT_ID);
+        now.addAndGet(EventMemberIndex.ENTRY_LIFETIME - 1);
+        eventMemberIndex.getMemberIds(EVENT_ID);
+        Mockito.verify(query, Mockito.times(1)).getResultList();
+
+        now.incrementAndGet();
+        eventMemberIndex.getMemberIds(EVENT_ID);
+        Mockito.verify(query, Mockito.times(2)).getResultList();
+    }
+
+    @Test
+    void noMembers() {
+        Mockito.when(query.getResultList()).thenReturn(Collections.emptyList());
+
+        assertThat(eventMemberIndex.getMemberIds(EVENT_ID)).isEmpty();
+        assertThat(eventMemberIndex.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateEvent() {
+        eventMemberIndex.getMemberIds(EVENT_ID);
+
+        eventMemberIndex.invalidateEvent(EVENT_ID);
+        assertThat(eventMemberIndex.getSize()).isEqualTo(0);
+
+        eventMemberIndex.getMemberIds(EVENT_ID);
+        Mockito.verify(query, Mockito.times(2)).getResultList();
+    }
+
+    @Test
+    void invalidateEventAfterCommit() {
+        TransactionSynchronizationRegistry registry = Mockito.mock(TransactionSynchronizationRegistry.class);
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        EventMemberIndex index = new EventMemberIndex(entityManager, new TransactionCallbacks(registry), now::get);
+
+        index.invalidateEvent(EVENT_ID);
+        // a load before the commit gets the old members
+        index.getMemberIds(EVENT_ID);
+        assertThat(index.getSize()).isEqualTo(1);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        Mockito.verify(registry).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+
+        assertThat(index.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    void staleMemberIdsAreNotStored() {
+        Mockito.when(query.getResultList()).thenAnswer(invocation -> {
+            eventMemberIndex.invalidateEvent(EVENT_ID);
+            return Arrays.asList(1L, 2L);
+        });
+
+        assertThat(eventMemberIndex.getMemberIds(EVENT_ID)).containsExactly(1L, 2L);
+        assertThat(eventMemberIndex.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    void clear() {
+        eventMemberIndex.getMemberIds(EVENT_ID);
+        eventMemberIndex.clear();
+
+        assertThat(eventMemberIndex.getSize()).isEqualTo(0);
+    }
+}
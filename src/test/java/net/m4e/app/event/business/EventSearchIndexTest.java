@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class EventSearchIndexTest {
+
+    @Mock
+    Entities entities;
+
+    private EventEntity lunchEvent;
+
+    private EventEntity dinnerEvent;
+
+    private EventSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        lunchEvent = createEvent(1L, "Team Lunch", "Lunch with the whole team");
+        lunchEvent.getLocations().add(createLocation(10L, "Pizzeria Roma", "Italian food"));
+        lunchEvent.getLocations().add(createLocation(11L, "Sushi Bar", "Japanese food"));
+
+        dinnerEvent = createEvent(2L, "Friday Dinner", null);
+        dinnerEvent.getLocations().add(createLocation(20L, "Steak House", "Burgers and steaks"));
+
+        EventEntity deletedEvent = createEvent(3L, "Old Lunch", null);
+        deletedEvent.getStatus().setDateDeletion(1L);
+
+        Mockito.when(entities.findAll(EventEntity.class)).thenReturn(Arrays.asList(lunchEvent, dinnerEvent, deletedEvent));
+
+        searchIndex = new EventSearchIndex(entities);
+    }
+
+    @Test
+    void defaultConstructor() {
+        new EventSearchIndex();
+    }
+
+    @Test
+    void loadOnFirstUse() {
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+        Mockito.verify(entities).findAll(EventEntity.class);
+
+        searchIndex.clear();
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+        Mockito.verify(entities, Mockito.times(2)).findAll(EventEntity.class);
+    }
+
+    @Test
+    void searchEventsAndLocations() {
+        List<EventSearchIndex.EventSearchHit> hits = searchIndex.search("lunch", id -> true, 10);
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).getEventId()).isEqualTo(1L);
+        assertThat(hits.get(0).getLocationId()).isNull();
+
+        hits = searchIndex.search("food", id -> true, 10);
+        assertThat(getLocationIds(hits)).containsExactlyInAnyOrder(10L, 11L);
+        assertThat(hits.stream().map(EventSearchIndex.EventSearchHit::getEventId).collect(Collectors.toSet())).containsExactly(1L);
+
+        // prefix and fuzzy
+        assertThat(getLocationIds(searchIndex.search("stea", id -> true, 10))).containsExactly(20L);
+        assertThat(getLocationIds(searchIndex.search("pizeria", id -> true, 10))).containsExactly(10L);
+    }
+
+    @Test
+    void searchWithFilterAndLimit() {
+        assertThat(searchIndex.search("food", id -> id == 2L, 10)).isEmpty();
+        assertThat(searchIndex.search("food", id -> true, 1)).hasSize(1);
+    }
+
+    @Test
+    void incrementalChanges() {
+        searchIndex.getSize();
+
+        lunchEvent.setName("Team Brunch");
+        searchIndex.putEvent(lunchEvent);
+        assertThat(searchIndex.search("brunch", id -> true, 10)).hasSize(1);
+
+        EventLocationEntity location = createLocation(12L, "Curry Corner", null);
+        searchIndex.putLocation(lunchEvent.getId(), location);
+        assertThat(getLocationIds(searchIndex.search("curry", id -> true, 10))).containsExactly(12L);
+
+        location.setName("Noodle Corner");
+        searchIndex.updateLocation(location);
+        assertThat(searchIndex.search("curry", id -> true, 10)).isEmpty();
+        assertThat(getLocationIds(searchIndex.search("noodle", id -> true, 10))).containsExactly(12L);
+
+        searchIndex.removeLocation(12L);
+        assertThat(searchIndex.search("noodle", id -> true, 10)).isEmpty();
+
+        // unknown locations are not added by an update
+        searchIndex.updateLocation(createLocation(13L, "Unknown", null));
+        assertThat(searchIndex.search("unknown", id -> true, 10)).isEmpty();
+    }
+
+    @Test
+    void removeEventWithLocations() {
+        searchIndex.getSize();
+
+        searchIndex.removeEvent(lunchEvent.getId());
+
+        assertThat(searchIndex.getSize()).isEqualTo(2);
+        assertThat(searchIndex.search("food", id -> true, 10)).isEmpty();
+    }
+
+    @Test
+    void inactiveEntriesAreRemoved() {
+        searchIndex.getSize();
+
+        dinnerEvent.getStatus().setDateDeletion(1L);
+        searchIndex.putEvent(dinnerEvent);
+        assertThat(searchIndex.search("steak", id -> true, 10)).isEmpty();
+
+        EventLocationEntity location = lunchEvent.getLocations().iterator().next();
+        location.getStatus().setDateDeletion(1L);
+        searchIndex.putLocation(lunchEvent.getId(), location);
+        assertThat(searchIndex.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void changesBeforeLoadingAreSkipped() {
+        searchIndex.putEvent(createEvent(4L, "New Event", null));
+        searchIndex.putLocation(4L, createLocation(40L, "New Location", null));
+        searchIndex.removeEvent(1L);
+        searchIndex.removeLocation(10L);
+
+        Mockito.verify(entities, Mockito.never()).findAll(EventEntity.class);
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+    }
+
+    private static List<Long> getLocationIds(List<EventSearchIndex.EventSearchHit> hits) {
+        return hits.stream().map(EventSearchIndex.EventSearchHit::getLocationId).collect(Collectors.toList());
+    }
+
+    private static EventEntity createEvent(Long id, String name, String description) {
+        EventEntity event = EventEntityCreator.create();
+        event.setId(id);
+        event.setName(name);
+        event.setDescription(description);
+        event.setLocations(new ArrayList<>());
+        return event;
+    }
+
+    private static EventLocationEntity createLocation(Long id, String name, String description) {
+        EventLocationEntity location = EventLocationEntityCreator.create();
+        location.setId(id);
+        location.setName(name);
+        location.setDescription(description);
+        return location;
+    }
+}
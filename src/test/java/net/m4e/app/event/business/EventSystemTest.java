@@ -30,7 +30,7 @@ class EventSystemTest {
         entity.setId(42L);
         ConnectedClients connections = Mockito.mock(ConnectedClients.class);
         Mockito.when(connections.getConnectedUser(any())).thenReturn(entity);
-        EventSystem eventSystem = new EventSystem(events, connections);
+        EventSystem eventSystem = new EventSystem(events, connections, Mockito.mock(VoteCountPublisher.class));
 
         ChannelEventEvent event = new ChannelEventEvent();
         event.setSenderId(1L);
@@ -40,6 +40,40 @@ class EventSystemTest {
         Mockito.verify(connections).sendPacket(any(), eq(singletonList(42L)));
     }
 
+    @Test
+    void subscribeAndUnsubscribeVotes() {
+        UserEntity entity = new UserEntity();
+        entity.setId(42L);
+        ConnectedClients connections = Mockito.mock(ConnectedClients.class);
+        Mockito.when(connections.getConnectedUser(any())).thenReturn(entity);
+        VoteCountPublisher voteCountPublisher = Mockito.mock(VoteCountPublisher.class);
+        EventSystem eventSystem = new EventSystem(Mockito.mock(Events.class), connections, voteCountPublisher);
+
+        ChannelEventEvent event = new ChannelEventEvent();
+        event.setSenderId(42L);
+        event.setPacket(buildPacket());
+        event.getPacket().getData().put("cmd", EventSystem.CMD_SUBSCRIBE_VOTES);
+        eventSystem.dispatchMessage(event);
+
+        Mockito.verify(voteCountPublisher).subscribe(eq(entity), eq(15L));
+
+        event.getPacket().getData().put("cmd", EventSystem.CMD_UNSUBSCRIBE_VOTES);
+        eventSystem.dispatchMessage(event);
+
+        Mockito.verify(voteCountPublisher).unsubscribe(eq(42L), eq(15L));
+        Mockito.verify(connections, Mockito.never()).sendPacket(any(), anyListOf(Long.class));
+    }
+
+    @Test
+    void pushVoteCounts() {
+        VoteCountPublisher voteCountPublisher = Mockito.mock(VoteCountPublisher.class);
+        EventSystem eventSystem = new EventSystem(Mockito.mock(Events.class), Mockito.mock(ConnectedClients.class), voteCountPublisher);
+
+        eventSystem.pushVoteCounts();
+
+        Mockito.verify(voteCountPublisher).pushPending();
+    }
+
     Packet<Map<String, Object>> buildPacket() {
         Map<String, Object> innerData = new HashMap<>();
         innerData.put("eventId", "15");
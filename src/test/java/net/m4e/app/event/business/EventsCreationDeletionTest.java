@@ -31,7 +31,9 @@ public class EventsCreationDeletionTest extends EventsTestBase {
     @Test
     void createNewLocation() {
         EventEntity eventEntity = EventEntityCreator.create();
-        events.createNewEvent(eventEntity, 0L);
+        EventEntity newEvent = events.createNewEvent(eventEntity, 0L);
+
+        Mockito.verify(eventSearchIndex).putEvent(newEvent);
     }
 
     @Nested
@@ -47,6 +49,9 @@ public class EventsCreationDeletionTest extends EventsTestBase {
         @Test
         void deleteEvent() {
             events.deleteEvent(eventEntity);
+
+            Mockito.verify(eventSearchIndex).removeEvent(eventEntity.getId());
+            Mockito.verify(eventLocations).removeVoteSchedule(eventEntity.getId());
         }
 
         @Test
@@ -76,6 +81,8 @@ public class EventsCreationDeletionTest extends EventsTestBase {
             events.markEventAsDeleted(eventEntity);
 
             assertThat(eventEntity.getStatus().getIsDeleted()).isTrue();
+            Mockito.verify(eventSearchIndex).removeEvent(eventEntity.getId());
+            Mockito.verify(eventLocations).removeVoteSchedule(eventEntity.getId());
         }
 
         @Test
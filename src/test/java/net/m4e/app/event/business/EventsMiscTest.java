@@ -7,11 +7,14 @@
  */
 package net.m4e.app.event.business;
 
+import net.m4e.app.user.business.UserEntity;
 import net.m4e.common.*;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
 
-import java.util.Arrays;
+import javax.persistence.TypedQuery;
+import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.mockito.Matchers.*;
@@ -35,6 +38,133 @@ public class EventsMiscTest extends EventsTestBase {
         events.updateEvent(new EventEntity());
     }
 
+    @Nested
+    class Membership {
+
+        private final Long EVENT_ID = 1000L;
+        private final Long MEMBER_ID = 2000L;
+
+        private EventEntity event;
+        private UserEntity user;
+
+        @BeforeEach
+        void setup() {
+            event = EventEntityCreator.create();
+            event.setId(EVENT_ID);
+            user = UserEntityCreator.create();
+            user.setId(MEMBER_ID);
+        }
+
+        @Test
+        void owner() {
+            event.getStatus().setIdOwner(MEMBER_ID);
+
+            assertThat(events.getUserIsEventOwnerOrMember(user, event)).isTrue();
+            Mockito.verifyZeroInteractions(eventMemberIndex);
+        }
+
+        @Test
+        void memberFromIndex() {
+            Mockito.doReturn(true).when(eventMemberIndex).isMember(eq(EVENT_ID), eq(MEMBER_ID));
+            event.setMembers(null);
+
+            assertThat(events.getUserIsEventOwnerOrMember(user, event)).isTrue();
+        }
+
+        @Test
+        void noMember() {
+            assertThat(events.getUserIsEventOwnerOrMember(user, event)).isFalse();
+        }
+
+        @Test
+        void notPersistedEvent() {
+            event.setId(null);
+            event.setMembers(Arrays.asList(user));
+
+            assertThat(events.getUserIsEventOwnerOrMember(user, event)).isTrue();
+            Mockito.verifyZeroInteractions(eventMemberIndex);
+        }
+
+        @Test
+        void getMembers() {
+            event.getStatus().setIdOwner(MEMBER_ID);
+            Mockito.doReturn(event).when(entities).find(eq(EventEntity.class), eq(EVENT_ID));
+            Mockito.doReturn(new long[] {MEMBER_ID, 3000L}).when(eventMemberIndex).getMemberIds(eq(EVENT_ID));
+
+            assertThat(events.getMembers(EVENT_ID)).containsOnly(MEMBER_ID, 3000L);
+        }
+    }
+
+    @Nested
+    class BulkMembers {
+
+        private EventEntity event;
+        private UserEntity member;
+        private UserEntity newMember;
+
+        @BeforeEach
+        void setup() {
+            member = UserEntityCreator.create();
+            member.setId(2000L);
+            newMember = UserEntityCreator.create();
+            newMember.setId(3000L);
+
+            event = EventEntityCreator.create();
+            event.setId(1000L);
+            event.getStatus().setIdOwner(4000L);
+            event.setMembers(new ArrayList<>(Arrays.asList(member)));
+        }
+
+        @Test
+        void addMembers() {
+            UserEntity owner = UserEntityCreator.create();
+            owner.setId(4000L);
+
+            List<UserEntity> added = events.addMembers(event, Arrays.asList(member, newMember, owner, newMember));
+
+            assertThat(added).containsExactly(newMember);
+            assertThat(event.getMembers()).containsExactly(member, newMember);
+            Mockito.verify(entities, Mockito.times(1)).update(eq(event));
+            Mockito.verify(eventMemberIndex).invalidateEvent(eq(1000L));
+        }
+
+        @Test
+        void addMembersWithoutChange() {
+            assertThat(events.addMembers(event, Arrays.asList(member))).isEmpty();
+            Mockito.verify(entities, Mockito.never()).update(anyObject());
+        }
+
+        @Test
+        void removeMembers() {
+            List<UserEntity> removed = events.removeMembers(event, Arrays.asList(member, newMember));
+
+            assertThat(removed).containsExactly(member);
+            assertThat(event.getMembers()).isEmpty();
+            Mockito.verify(entities, Mockito.times(1)).update(eq(event));
+        }
+
+        @Test
+        void createMails() throws Exception {
+            UserEntity owner = UserEntityCreator.create();
+            Mockito.doReturn(owner).when(entities).find(eq(UserEntity.class), anyLong());
+
+            events.createEventJoiningMails(event, Arrays.asList(member, newMember));
+            Mockito.verify(mails, Mockito.times(2)).createMail(anyObject());
+
+            Mockito.reset(mails);
+            events.createEventLeavingMails(event, Arrays.asList(member, newMember));
+            Mockito.verify(mails, Mockito.times(3)).createMail(anyObject());
+        }
+
+        @Test
+        void createLeavingMailsWithoutOwner() throws Exception {
+            Mockito.doReturn(null).when(entities).find(eq(UserEntity.class), anyLong());
+
+            events.createEventLeavingMails(event, Arrays.asList(member, newMember));
+            Mockito.verify(mails, Mockito.times(2)).createMail(anyObject());
+        }
+    }
+
     @Nested
     class FindEvent {
 
@@ -67,10 +197,25 @@ public class EventsMiscTest extends EventsTestBase {
             inactiveEvent.getStatus().setEnabled(false);
 
             Mockito.doReturn(validEvent).when(entities).find(eq(EventEntity.class), eq(VALID_EVENT_ID));
+            mockEventLocationQuery(validEvent);
             Mockito.doReturn(inactiveEvent).when(entities).find(eq(EventEntity.class), eq(INACTIVE_EVENT_ID));
             Mockito.doReturn(null).when(entities).find(eq(EventEntity.class), eq(INVALID_EVENT_ID));
         }
 
+        @SuppressWarnings("unchecked")
+        private void mockEventLocationQuery(EventEntity event) {
+            Map<String, Object> parameters = new HashMap<>();
+            TypedQuery<EventLocationEntity> query = Mockito.mock(TypedQuery.class);
+            Mockito.when(entityManager.createNamedQuery(eq("EventEntity.findLocation"), eq(EventLocationEntity.class))).thenReturn(query);
+            Mockito.when(query.setParameter(anyString(), anyObject())).thenAnswer(invocation -> {
+                parameters.put(invocation.getArgumentAt(0, String.class), invocation.getArgumentAt(1, Object.class));
+                return query;
+            });
+            Mockito.when(query.getResultList()).thenAnswer(invocation -> event.getLocations().stream()
+                    .filter(location -> event.getId().equals(parameters.get("eventId")) && location.getId().equals(parameters.get("locationId")))
+                    .collect(Collectors.toList()));
+        }
+
         @Test
         void findEvent() {
             events.findEvent(0L);
@@ -102,5 +247,14 @@ public class EventsMiscTest extends EventsTestBase {
         void findEventLocationSuccess() {
             assertThat(events.findEventLocation(VALID_EVENT_ID, VALID_LOCATION_ID)).isEqualTo(validEventLocation);
         }
+
+        @Test
+        void findEventLocationOfOtherEvent() {
+            EventEntity otherEvent = EventEntityCreator.create();
+            otherEvent.setId(VALID_EVENT_ID + 1);
+            Mockito.doReturn(otherEvent).when(entities).find(eq(EventEntity.class), eq(otherEvent.getId()));
+
+            assertThat(events.findEventLocation(otherEvent.getId(), VALID_LOCATION_ID)).isNull();
+        }
     }
 }
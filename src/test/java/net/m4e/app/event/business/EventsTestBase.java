@@ -11,11 +11,13 @@ import net.m4e.app.communication.ConnectedClients;
 import net.m4e.app.mailbox.business.Mails;
 import net.m4e.app.resources.DocumentPool;
 import net.m4e.app.user.business.Users;
-import net.m4e.common.Entities;
-import net.m4e.system.core.AppInfos;
+import net.m4e.common.*;
+import net.m4e.system.core.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.*;
 
+import javax.persistence.EntityManager;
+
 
 /**
  * Base class for Events related tests
@@ -25,6 +27,8 @@ import org.mockito.*;
  */
 public class EventsTestBase {
 
+    @Mock
+    EntityManager entityManager;
     @Mock
     Users users;
     @Mock
@@ -37,6 +41,18 @@ public class EventsTestBase {
     DocumentPool docPool;
     @Mock
     ConnectedClients connectedClients;
+    @Mock
+    EntityCounters entityCounters;
+    @Mock
+    EventMemberIndex eventMemberIndex;
+    @Mock
+    VoteWindowScheduler voteWindowScheduler;
+    @Mock
+    EventSearchIndex eventSearchIndex;
+    @Mock
+    EventLocations eventLocations;
+
+    EventInfoCache eventInfoCache;
 
     Events events;
 
@@ -44,6 +60,8 @@ public class EventsTestBase {
     void setup() {
         MockitoAnnotations.initMocks(this);
 
-        events = new Events(entities, users, appInfos, mails, docPool, connectedClients);
+        eventInfoCache = new EventInfoCache(new TransactionCallbacks(null));
+        events = new Events(entityManager, entities, users, appInfos, mails, docPool, connectedClients, eventInfoCache, entityCounters, eventMemberIndex, voteWindowScheduler,
+                eventSearchIndex, eventLocations);
     }
 }
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.EventLocationEntityCreator;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class LocationGeoIndexTest {
+
+    private static final Long EVENT_ID = 100L;
+    private static final Long OTHER_EVENT_ID = 200L;
+
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    TypedQuery<Object[]> coordinatesQuery;
+    @Mock
+    TypedQuery<Long> eventIdQuery;
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    private LocationGeoIndex geoIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        Mockito.when(entityManager.createNamedQuery(eq("EventEntity.findLocationCoordinates"), eq(Object[].class))).thenReturn(coordinatesQuery);
+        Mockito.when(coordinatesQuery.getResultList()).thenReturn(rows);
+        Mockito.when(entityManager.createNamedQuery(eq("EventEntity.findLocationEventId"), eq(Long.class))).thenReturn(eventIdQuery);
+        Mockito.when(eventIdQuery.getResultList()).thenReturn(Collections.emptyList());
+
+        geoIndex = new LocationGeoIndex(entityManager);
+    }
+
+    @Test
+    void defaultConstructor() {
+        new LocationGeoIndex();
+    }
+
+    @Test
+    void validCoordinates() {
+        assertThat(LocationGeoIndex.isValidCoordinate(52.52, 13.405)).isTrue();
+        assertThat(LocationGeoIndex.isValidCoordinate(-90.0, 180.0)).isTrue();
+        assertThat(LocationGeoIndex.isValidCoordinate(null, 13.405)).isFalse();
+        assertThat(LocationGeoIndex.isValidCoordinate(52.52, null)).isFalse();
+        assertThat(LocationGeoIndex.isValidCoordinate(90.1, 0.0)).isFalse();
+        assertThat(LocationGeoIndex.isValidCoordinate(0.0, -180.1)).isFalse();
+    }
+
+    @Test
+    void distance() {
+        // Berlin - Paris is about 878 km
+        assertThat(LocationGeoIndex.getDistance(52.5200, 13.4050, 48.8566, 2.3522)).isBetween(875_000.0, 881_000.0);
+        assertThat(LocationGeoIndex.getDistance(10.0, 10.0, 10.0, 10.0)).isEqualTo(0.0);
+        assertThat(LocationGeoIndex.getDistance(0.0, 0.0, 0.0, 180.0)).isCloseTo(Math.PI * LocationGeoIndex.EARTH_RADIUS, within(1.0));
+    }
+
+    @Test
+    void loadOnFirstUse() {
+        addRow(EVENT_ID, 1L, 52.52, 13.405);
+        addRow(EVENT_ID, 2L, 48.8566, 2.3522);
+
+        assertThat(geoIndex.getSize()).isEqualTo(2);
+        assertThat(geoIndex.getSize()).isEqualTo(2);
+        Mockito.verify(coordinatesQuery).getResultList();
+
+        geoIndex.clear();
+        assertThat(geoIndex.getSize()).isEqualTo(2);
+        Mockito.verify(coordinatesQuery, Mockito.times(2)).getResultList();
+    }
+
+    @Test
+    void findWithinRadius() {
+        // Berlin center, Potsdam (~27 km), Hamburg (~255 km)
+        addRow(EVENT_ID, 1L, 52.5200, 13.4050);
+        addRow(EVENT_ID, 2L, 52.3906, 13.0645);
+        addRow(OTHER_EVENT_ID, 3L, 53.5511, 9.9937);
+
+        assertThat(getLocationIds(geoIndex.findWithinRadius(52.52, 13.405, 30_000.0, id -> true, 10))).containsExactly(1L, 2L);
+        assertThat(getLocationIds(geoIndex.findWithinRadius(52.52, 13.405, 300_000.0, id -> true, 10))).containsExactly(1L, 2L, 3L);
+        assertThat(getLocationIds(geoIndex.findWithinRadius(52.52, 13.405, 300_000.0, id -> true, 2))).containsExactly(1L, 2L);
+        assertThat(getLocationIds(geoIndex.findWithinRadius(52.52, 13.405, 300_000.0, OTHER_EVENT_ID::equals, 10))).containsExactly(3L);
+        assertThat(geoIndex.findWithinRadius(0.0, 0.0, 300_000.0, id -> true, 10)).isEmpty();
+    }
+
+    @Test
+    void findAcrossDateLine() {
+        addRow(EVENT_ID, 1L, -17.0, 179.95);
+        addRow(EVENT_ID, 2L, -17.0, -179.95);
+
+        List<LocationGeoIndex.GeoMatch> matches = geoIndex.findWithinRadius(-17.0, -179.99, 20_000.0, id -> true, 10);
+        assertThat(getLocationIds(matches)).containsExactly(2L, 1L);
+
+        assertThat(getLocationIds(geoIndex.findNearest(-17.0, 179.99, 1, id -> true))).containsExactly(1L);
+        assertThat(getLocationIds(geoIndex.findNearest(-17.0, -179.99, 2, id -> true))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void findAroundPole() {
+        addRow(EVENT_ID, 1L, 89.95, 0.0);
+        addRow(EVENT_ID, 2L, 89.95, 180.0);
+        addRow(EVENT_ID, 3L, 80.0, 90.0);
+
+        assertThat(getLocationIds(geoIndex.findWithinRadius(90.0, 0.0, 10_000.0, id -> true, 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(getLocationIds(geoIndex.findNearest(89.99, -90.0, 3, id -> true))).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void findNearest() {
+        addRow(EVENT_ID, 1L, 52.5200, 13.4050);
+        addRow(EVENT_ID, 2L, 52.3906, 13.0645);
+        addRow(OTHER_EVENT_ID, 3L, 53.5511, 9.9937);
+        addRow(OTHER_EVENT_ID, 4L, -33.8688, 151.2093);
+
+        assertThat(getLocationIds(geoIndex.findNearest(52.4, 13.1, 2, id -> true))).containsExactly(2L, 1L);
+        assertThat(getLocationIds(geoIndex.findNearest(52.4, 13.1, 10, id -> true))).containsExactly(2L, 1L, 3L, 4L);
+        assertThat(getLocationIds(geoIndex.findNearest(52.4, 13.1, 1, OTHER_EVENT_ID::equals))).containsExactly(3L);
+        assertThat(geoIndex.findNearest(52.4, 13.1, 1, id -> false)).isEmpty();
+        assertThat(geoIndex.findNearest(52.4, 13.1, 0, id -> true)).isEmpty();
+    }
+
+    @Test
+    void filterIsCalledOutsideOfLock() {
+        addRow(EVENT_ID, 1L, 52.5200, 13.4050);
+        addRow(OTHER_EVENT_ID, 2L, 52.3906, 13.0645);
+
+        // a filter changing the index would dead-lock if it was called while holding the read lock
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertThat(getLocationIds(geoIndex.findWithinRadius(52.4, 13.1, 50_000.0, id -> {
+                geoIndex.removeLocation(1L);
+                return true;
+            }, 10))).containsExactly(2L, 1L);
+            assertThat(getLocationIds(geoIndex.findNearest(52.4, 13.1, 5, id -> {
+                geoIndex.removeLocation(2L);
+                return true;
+            }))).containsExactly(2L);
+        });
+    }
+
+    @Test
+    void filterStopsAtLimit() {
+        addRow(EVENT_ID, 1L, 52.5200, 13.4050);
+        addRow(OTHER_EVENT_ID, 2L, 52.3906, 13.0645);
+        addRow(300L, 3L, 53.5511, 9.9937);
+
+        List<Long> testedEvents = new ArrayList<>();
+        assertThat(getLocationIds(geoIndex.findWithinRadius(52.4, 13.1, 1_000_000.0, id -> testedEvents.add(id) && !id.equals(OTHER_EVENT_ID), 1)))
+                .containsExactly(1L);
+        assertThat(testedEvents).containsExactly(OTHER_EVENT_ID, EVENT_ID);
+    }
+
+    @Test
+    void incrementalChanges() {
+        addRow(EVENT_ID, 1L, 52.5200, 13.4050);
+        assertThat(geoIndex.getSize()).isEqualTo(1);
+
+        EventLocationEntity location = createLocation(2L, 52.3906, 13.0645);
+        geoIndex.putLocation(EVENT_ID, location);
+        assertThat(getLocationIds(geoIndex.findWithinRadius(52.39, 13.06, 1_000.0, id -> true, 10))).containsExactly(2L);
+
+        // move the location to Hamburg
+        location.setLatitude(53.5511);
+        location.setLongitude(9.9937);
+        geoIndex.updateLocation(location);
+        assertThat(geoIndex.findWithinRadius(52.39, 13.06, 1_000.0, id -> true, 10)).isEmpty();
+        List<LocationGeoIndex.GeoMatch> matches = geoIndex.findWithinRadius(53.55, 9.99, 1_000.0, id -> true, 10);
+        assertThat(getLocationIds(matches)).containsExactly(2L);
+        assertThat(matches.get(0).getEventId()).isEqualTo(EVENT_ID);
+
+        geoIndex.removeLocation(2L);
+        assertThat(geoIndex.getSize()).isEqualTo(1);
+        assertThat(geoIndex.findWithinRadius(53.55, 9.99, 1_000.0, id -> true, 10)).isEmpty();
+
+        // deleted locations and locations without coordinates are not indexed
+        location.getStatus().setDateDeletion(1L);
+        geoIndex.putLocation(EVENT_ID, location);
+        geoIndex.putLocation(EVENT_ID, createLocation(3L, null, null));
+        assertThat(geoIndex.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void updateUnindexedLocation() {
+        addRow(EVENT_ID, 1L, 52.5200, 13.4050);
+        geoIndex.getSize();
+
+        EventLocationEntity location = createLocation(2L, 48.8566, 2.3522);
+        Mockito.when(eventIdQuery.getResultList()).thenReturn(Collections.singletonList(OTHER_EVENT_ID));
+        geoIndex.updateLocation(location);
+
+        List<LocationGeoIndex.GeoMatch> matches = geoIndex.findNearest(48.85, 2.35, 1, id -> true);
+        assertThat(getLocationIds(matches)).containsExactly(2L);
+        assertThat(matches.get(0).getEventId()).isEqualTo(OTHER_EVENT_ID);
+        Mockito.verify(eventIdQuery).setParameter("locationId", 2L);
+    }
+
+    @Test
+    void changesBeforeLoadingAreSkipped() {
+        geoIndex.putLocation(EVENT_ID, createLocation(1L, 52.52, 13.405));
+        geoIndex.updateLocation(createLocation(1L, 52.52, 13.405));
+        geoIndex.removeLocation(1L);
+
+        Mockito.verify(entityManager, Mockito.never()).createNamedQuery(anyString(), anyObject());
+        assertThat(geoIndex.getSize()).isEqualTo(0);
+    }
+
+    /**
+     * Check the search results on a large amount of locations against a brute-force search.
+     */
+    @Test
+    void manyLocations() {
+        Random random = new Random(42);
+        List<Object[]> locations = new ArrayList<>();
+        for (long id = 1; id <= 100_000; id++) {
+            // most locations are clustered in some cities, the rest is spread all over the world
+            double latitude;
+            double longitude;
+            if (id % 4 == 0) {
+                latitude = random.nextDouble() * 180.0 - 90.0;
+                longitude = random.nextDouble() * 360.0 - 180.0;
+            }
+            else {
+                int city = (int) (id % 10);
+                latitude = Math.max(-90.0, Math.min(90.0, -60.0 + city * 14.0 + random.nextGaussian() * 0.3));
+                longitude = Math.max(-180.0, Math.min(180.0, -170.0 + city * 37.0 + random.nextGaussian() * 0.3));
+            }
+            locations.add(new Object[]{id % 50, id, latitude, longitude});
+        }
+        rows.addAll(locations);
+        assertThat(geoIndex.getSize()).isEqualTo(locations.size());
+
+        for (int i = 0; i < 20; i++) {
+            // every other search point is next to a city
+            int city = i % 10;
+            double latitude = (i % 2 == 0) ? -60.0 + city * 14.0 + random.nextGaussian() : random.nextDouble() * 180.0 - 90.0;
+            double longitude = (i % 2 == 0) ? -170.0 + city * 37.0 + random.nextGaussian() : random.nextDouble() * 360.0 - 180.0;
+            double radius = random.nextDouble() * 200_000.0;
+
+            double[] distances = new double[locations.size()];
+            for (int n = 0; n < distances.length; n++) {
+                distances[n] = getDistance(locations.get(n), latitude, longitude);
+            }
+            List<Integer> byDistance = new ArrayList<>();
+            for (int n = 0; n < distances.length; n++) {
+                byDistance.add(n);
+            }
+            byDistance.sort(Comparator.comparingDouble(n -> distances[n]));
+
+            List<Long> expectedInRadius = byDistance.stream()
+                    .filter(n -> distances[n] <= radius)
+                    .map(n -> (Long) locations.get(n)[1])
+                    .collect(Collectors.toList());
+            assertThat(getLocationIds(geoIndex.findWithinRadius(latitude, longitude, radius, id -> true, Integer.MAX_VALUE)))
+                    .containsExactlyElementsOf(expectedInRadius);
+
+            List<Long> expectedNearest = byDistance.stream()
+                    .filter(n -> ((Long) locations.get(n)[0]) % 3 == 0)
+                    .limit(10)
+                    .map(n -> (Long) locations.get(n)[1])
+                    .collect(Collectors.toList());
+            assertThat(getLocationIds(geoIndex.findNearest(latitude, longitude, 10, id -> id % 3 == 0)))
+                    .containsExactlyElementsOf(expectedNearest);
+        }
+    }
+
+    private void addRow(Long eventId, Long locationId, double latitude, double longitude) {
+        rows.add(new Object[]{eventId, locationId, latitude, longitude});
+    }
+
+    private EventLocationEntity createLocation(Long id, Double latitude, Double longitude) {
+        EventLocationEntity location = EventLocationEntityCreator.create();
+        location.setId(id);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+
+    private static double getDistance(Object[] row, double latitude, double longitude) {
+        return LocationGeoIndex.getDistance(latitude, longitude, (Double) row[2], (Double) row[3]);
+    }
+
+    private static List<Long> getLocationIds(List<LocationGeoIndex.GeoMatch> matches) {
+        return matches.stream().map(LocationGeoIndex.GeoMatch::getLocationId).collect(Collectors.toList());
+    }
+}
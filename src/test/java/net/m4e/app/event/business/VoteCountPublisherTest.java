@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.app.communication.*;
+import net.m4e.app.user.business.UserEntity;
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class VoteCountPublisherTest {
+
+    private static final Long EVENT_ID = 1000L;
+    private static final Long USER_ID = 42L;
+    private static final VoteWindow WINDOW = new VoteWindow(1000L, 2000L);
+    private static final int UPDATES_PER_SECOND = 2;
+    private static final long START_TIME = 1_000_000L;
+
+    @Mock
+    Entities entities;
+    @Mock
+    Events events;
+    @Mock
+    ConnectedClients connections;
+
+    private UserEntity user;
+
+    private VoteCountPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        user = UserEntityCreator.create();
+        user.setId(USER_ID);
+
+        Mockito.when(entities.find(eq(EventEntity.class), eq(EVENT_ID))).thenReturn(EventEntityCreator.create());
+        Mockito.when(events.getUserIsEventOwnerOrMember(anyObject(), anyObject())).thenReturn(true);
+        Mockito.when(events.getMembers(EVENT_ID)).thenReturn(new HashSet<>(Collections.singletonList(USER_ID)));
+        Mockito.when(connections.getConnectedUser(USER_ID)).thenReturn(user);
+
+        publisher = new VoteCountPublisher(entities, events, connections, UPDATES_PER_SECOND);
+    }
+
+    @Test
+    void defaultConstructor() {
+        new VoteCountPublisher();
+    }
+
+    @Test
+    void subscribeNonMember() {
+        Mockito.when(events.getUserIsEventOwnerOrMember(anyObject(), anyObject())).thenReturn(false);
+
+        assertThat(publisher.subscribe(user, EVENT_ID)).isFalse();
+        assertThat(publisher.getSubscribers(EVENT_ID)).isEmpty();
+    }
+
+    @Test
+    void subscribeInvalidEvent() {
+        assertThat(publisher.subscribe(user, 9999L)).isFalse();
+    }
+
+    @Test
+    void subscribeAndUnsubscribe() {
+        assertThat(publisher.subscribe(user, EVENT_ID)).isTrue();
+        assertThat(publisher.getSubscribers(EVENT_ID)).containsExactly(USER_ID);
+
+        publisher.unsubscribe(USER_ID, EVENT_ID);
+        assertThat(publisher.getSubscribers(EVENT_ID)).isEmpty();
+    }
+
+    @Test
+    void removedMemberIsDropped() {
+        publisher.subscribe(user, EVENT_ID);
+        Mockito.when(events.getMembers(EVENT_ID)).thenReturn(new HashSet<>());
+
+        publisher.publishVote(createTally(1L, 1), START_TIME);
+
+        assertThat(publisher.getSubscribers(EVENT_ID)).isEmpty();
+        Mockito.verify(connections, Mockito.never()).sendPacket(anyObject(), anyListOf(Long.class));
+    }
+
+    @Test
+    void ownerIsKept() {
+        EventEntity event = EventEntityCreator.create();
+        event.getStatus().setIdOwner(USER_ID);
+        Mockito.when(entities.find(eq(EventEntity.class), eq(EVENT_ID))).thenReturn(event);
+        Mockito.when(events.getMembers(EVENT_ID)).thenReturn(new HashSet<>());
+
+        publisher.subscribe(user, EVENT_ID);
+        publisher.publishVote(createTally(1L, 1), START_TIME);
+
+        assertThat(publisher.getSubscribers(EVENT_ID)).containsExactly(USER_ID);
+        captureUpdates(1);
+    }
+
+    @Test
+    void noPushWithoutSubscribers() {
+        publisher.publishVote(createTally(1L, 1), START_TIME);
+
+        Mockito.verify(connections, Mockito.never()).sendPacket(anyObject(), anyListOf(Long.class));
+    }
+
+    @Test
+    void pushCountAndDelta() {
+        publisher.subscribe(user, EVENT_ID);
+        VoteTally tally = createTally(1L, 2);
+
+        publisher.publishVote(tally, START_TIME);
+
+        VoteCountUpdate update = captureUpdates(1).get(0);
+        assertThat(update.getType()).isEqualTo(VoteCountUpdate.TYPE);
+        assertThat(update.getEventId()).isEqualTo(EVENT_ID.toString());
+        assertThat(update.getTimeBegin()).isEqualTo(WINDOW.getBegin());
+        assertThat(update.getTimeEnd()).isEqualTo(WINDOW.getEnd());
+        assertThat(update.getCounts()).hasSize(1);
+        assertThat(update.getCounts().get(0).getLocationId()).isEqualTo("1");
+        assertThat(update.getCounts().get(0).getCount()).isEqualTo(2);
+        assertThat(update.getCounts().get(0).getDelta()).isEqualTo(2);
+
+        tally.vote(100L, false);
+        publisher.publishVote(tally, START_TIME + 1000);
+
+        update = captureUpdates(2).get(1);
+        assertThat(update.getCounts().get(0).getCount()).isEqualTo(1);
+        assertThat(update.getCounts().get(0).getDelta()).isEqualTo(-1);
+    }
+
+    @Test
+    void updatesAreThrottledAndCoalesced() {
+        publisher.subscribe(user, EVENT_ID);
+        VoteTally tally1 = createTally(1L, 0);
+        VoteTally tally2 = createTally(2L, 0);
+
+        // many votes within one second
+        for (int i = 0; i < 100; i++) {
+            VoteTally tally = (i % 2 == 0) ? tally1 : tally2;
+            tally.vote((long) i, true);
+            publisher.publishVote(tally, START_TIME + i);
+        }
+        publisher.pushPending(START_TIME + 100);
+        captureUpdates(1);
+
+        publisher.pushPending(START_TIME + 1000 / UPDATES_PER_SECOND);
+        List<VoteCountUpdate> updates = captureUpdates(2);
+
+        VoteCountUpdate lastUpdate = updates.get(1);
+        assertThat(lastUpdate.getCounts()).hasSize(2);
+        int total = 0;
+        for (VoteCountUpdate update: updates) {
+            for (VoteCountUpdate.LocationCount count: update.getCounts()) {
+                total += count.getDelta();
+            }
+        }
+        assertThat(total).isEqualTo(100);
+
+        // nothing changed, nothing to push
+        publisher.pushPending(START_TIME + 10000);
+        captureUpdates(2);
+    }
+
+    @Test
+    void disconnectedSubscribersAreDropped() {
+        publisher.subscribe(user, EVENT_ID);
+        Mockito.when(connections.getConnectedUser(USER_ID)).thenReturn(null);
+
+        publisher.publishVote(createTally(1L, 1), START_TIME);
+
+        assertThat(publisher.getSubscribers(EVENT_ID)).isEmpty();
+        Mockito.verify(connections, Mockito.never()).sendPacket(anyObject(), anyListOf(Long.class));
+    }
+
+    private VoteTally createTally(Long locationId, int countVotes) {
+        EventLocationVoteEntity voteEntity = new EventLocationVoteEntity();
+        voteEntity.setId(locationId + 100);
+        voteEntity.setEventId(EVENT_ID);
+        voteEntity.setLocationId(locationId);
+        VoteTally tally = new VoteTally(voteEntity, WINDOW);
+        for (long i = 0; i < countVotes; i++) {
+            tally.vote(100L + i, true);
+        }
+        return tally;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<VoteCountUpdate> captureUpdates(int expectedCount) {
+        ArgumentCaptor<Packet> captor = ArgumentCaptor.forClass(Packet.class);
+        Mockito.verify(connections, Mockito.times(expectedCount)).sendPacket(captor.capture(), eq(Collections.singletonList(USER_ID)));
+        List<VoteCountUpdate> updates = new ArrayList<>();
+        captor.getAllValues().forEach(packet -> {
+            assertThat(packet.getChannel()).isEqualTo(Packet.CHANNEL_EVENT);
+            updates.add((VoteCountUpdate) packet.getData());
+        });
+        return updates;
+    }
+}
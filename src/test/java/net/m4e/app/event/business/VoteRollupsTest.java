@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.Entities;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class VoteRollupsTest {
+
+    private static final Long EVENT_ID = 1000L;
+    private static final Long LOCATION_A = 1L;
+    private static final Long LOCATION_B = 2L;
+    private static final long DAY = 60 * 60 * 24;
+    private static final long DAY_BEGIN = 20000;
+
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    Entities entities;
+    @Mock
+    EventMemberIndex eventMemberIndex;
+    @Mock
+    TypedQuery<EventLocationVoteEntity> votesQuery;
+    @Mock
+    TypedQuery<Long> countWindowQuery;
+    @Mock
+    TypedQuery<EventVoteRollupEntity> eventRangeQuery;
+    @Mock
+    TypedQuery<EventLocationVoteRollupEntity> locationRangeQuery;
+    @Mock
+    TypedQuery<Object[]> missedWindowsQuery;
+
+    private final List<EventLocationVoteEntity> votes = new ArrayList<>();
+    private final List<EventVoteRollupEntity> eventRollups = new ArrayList<>();
+    private final List<EventLocationVoteRollupEntity> locationRollups = new ArrayList<>();
+    private final List<EventVoteWindowEntity> markers = new ArrayList<>();
+    private final Map<String, Object> parameters = new HashMap<>();
+    private long nextId = 1;
+
+    private VoteRollups voteRollups;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        mockQuery("EventLocationVoteEntity.findVotes", EventLocationVoteEntity.class, votesQuery);
+        mockQuery("EventVoteWindowEntity.countWindow", Long.class, countWindowQuery);
+        mockQuery("EventVoteRollupEntity.findRange", EventVoteRollupEntity.class, eventRangeQuery);
+        mockQuery("EventLocationVoteRollupEntity.findRange", EventLocationVoteRollupEntity.class, locationRangeQuery);
+        mockQuery("EventLocationVoteEntity.findMissedWindows", Object[].class, missedWindowsQuery);
+
+        Mockito.when(votesQuery.getResultList()).thenAnswer(invocation -> votes.stream()
+                .filter(vote -> (vote.getCreationTime() >= (Long) parameters.get("timeBegin")) && (vote.getCreationTime() <= (Long) parameters.get("timeEnd")))
+                .collect(Collectors.toList()));
+        Mockito.when(countWindowQuery.getSingleResult()).thenAnswer(invocation -> markers.stream()
+                .filter(marker -> marker.getEventId().equals(parameters.get("eventId")) &&
+                        marker.getWindowBegin().equals(parameters.get("windowBegin")) &&
+                        marker.getWindowEnd().equals(parameters.get("windowEnd")))
+                .count());
+        Mockito.when(missedWindowsQuery.getResultList()).thenAnswer(invocation -> votes.stream()
+                .filter(vote -> ((Collection<?>) parameters.get("eventIds")).contains(vote.getEventId()) &&
+                        (vote.getCreationTime() >= (Long) parameters.get("timeBegin")) &&
+                        (vote.getVoteTimeEnd() < (Long) parameters.get("timeEnd")) &&
+                        markers.stream().noneMatch(marker -> marker.getEventId().equals(vote.getEventId()) &&
+                                marker.getWindowBegin().equals(vote.getVoteTimeBegin()) && marker.getWindowEnd().equals(vote.getVoteTimeEnd())))
+                .map(vote -> Arrays.asList(vote.getEventId(), vote.getVoteTimeBegin(), vote.getVoteTimeEnd()))
+                .distinct()
+                .map(List::toArray)
+                .collect(Collectors.toList()));
+        Mockito.when(eventRangeQuery.getResultList()).thenAnswer(invocation -> eventRollups.stream()
+                .filter(rollup -> inDayRange(rollup.getDay()))
+                .collect(Collectors.toList()));
+        Mockito.when(locationRangeQuery.getResultList()).thenAnswer(invocation -> locationRollups.stream()
+                .filter(rollup -> inDayRange(rollup.getDay()))
+                .collect(Collectors.toList()));
+
+        Mockito.doAnswer(invocation -> {
+            Object entity = invocation.getArgumentAt(0, Object.class);
+            if (entity instanceof EventVoteRollupEntity) {
+                ((EventVoteRollupEntity) entity).setId(nextId++);
+                eventRollups.add((EventVoteRollupEntity) entity);
+            }
+            else if (entity instanceof EventLocationVoteRollupEntity) {
+                ((EventLocationVoteRollupEntity) entity).setId(nextId++);
+                locationRollups.add((EventLocationVoteRollupEntity) entity);
+            }
+            else if (entity instanceof EventVoteWindowEntity) {
+                ((EventVoteWindowEntity) entity).setId(nextId++);
+                markers.add((EventVoteWindowEntity) entity);
+            }
+            return null;
+        }).when(entities).create(anyObject());
+
+        // two members and the owner
+        Mockito.when(eventMemberIndex.getMemberIds(EVENT_ID)).thenReturn(new long[]{10L, 11L});
+
+        voteRollups = new VoteRollups(entityManager, entities, eventMemberIndex);
+    }
+
+    @Test
+    void defaultConstructor() {
+        new VoteRollups();
+    }
+
+    @Test
+    void addWindow() {
+        VoteWindow window = createWindow(0);
+        addVotes(window, LOCATION_A, 10L, 11L);
+        addVotes(window, LOCATION_B, 10L);
+
+        assertThat(voteRollups.addWindow(EVENT_ID, window)).isTrue();
+
+        assertThat(eventRollups).hasSize(1);
+        EventVoteRollupEntity eventRollup = eventRollups.get(0);
+        assertThat(eventRollup.getDay()).isEqualTo(DAY_BEGIN);
+        assertThat(eventRollup.getCountWindows()).isEqualTo(1L);
+        assertThat(eventRollup.getCountParticipants()).isEqualTo(2L);
+        assertThat(eventRollup.getCountMembers()).isEqualTo(3L);
+
+        assertThat(locationRollups).hasSize(2);
+        assertThat(getLocationRollup(LOCATION_A).getCountVotes()).isEqualTo(2L);
+        assertThat(getLocationRollup(LOCATION_A).getCountWins()).isEqualTo(1L);
+        assertThat(getLocationRollup(LOCATION_B).getCountVotes()).isEqualTo(1L);
+        assertThat(getLocationRollup(LOCATION_B).getCountWins()).isEqualTo(0L);
+    }
+
+    @Test
+    void windowIsAddedOnce() {
+        VoteWindow window = createWindow(0);
+        addVotes(window, LOCATION_A, 10L);
+
+        assertThat(voteRollups.addWindow(EVENT_ID, window)).isTrue();
+        assertThat(voteRollups.addWindow(EVENT_ID, window)).isFalse();
+
+        assertThat(eventRollups.get(0).getCountWindows()).isEqualTo(1L);
+        assertThat(getLocationRollup(LOCATION_A).getCountVotes()).isEqualTo(1L);
+    }
+
+    @Test
+    void tiesAreWinsForAll() {
+        VoteWindow window = createWindow(0);
+        addVotes(window, LOCATION_A, 10L);
+        addVotes(window, LOCATION_B, 11L);
+
+        voteRollups.addWindow(EVENT_ID, window);
+
+        assertThat(getLocationRollup(LOCATION_A).getCountWins()).isEqualTo(1L);
+        assertThat(getLocationRollup(LOCATION_B).getCountWins()).isEqualTo(1L);
+    }
+
+    @Test
+    void windowsAreAddedInAnyOrder() {
+        VoteWindow earlyWindow = createWindow(0);
+        VoteWindow lateWindow = new VoteWindow(earlyWindow.getEnd() + 1000, earlyWindow.getEnd() + 2000);
+        addVotes(earlyWindow, LOCATION_A, 10L);
+        addVotes(lateWindow, LOCATION_A, 11L);
+
+        assertThat(voteRollups.addWindow(EVENT_ID, lateWindow)).isTrue();
+        assertThat(voteRollups.addWindow(EVENT_ID, earlyWindow)).isTrue();
+        assertThat(voteRollups.addWindow(EVENT_ID, earlyWindow)).isFalse();
+
+        assertThat(eventRollups).hasSize(1);
+        assertThat(eventRollups.get(0).getCountWindows()).isEqualTo(2L);
+        assertThat(eventRollups.get(0).getLastWindowEnd()).isEqualTo(lateWindow.getEnd());
+        assertThat(markers).hasSize(2);
+    }
+
+    @Test
+    void queuedWindowBecomesDue() {
+        VoteWindow window = createWindow(0);
+        voteRollups.queueWindow(EVENT_ID, window);
+        voteRollups.queueWindow(EVENT_ID, window);
+
+        assertThat(voteRollups.getCountPendingWindows()).isEqualTo(1);
+        assertThat(voteRollups.getDueWindows(window.getEnd() + VoteTallyEngine.EVICTION_DELAY - 1)).isEmpty();
+
+        List<VoteRollups.PendingWindow> dueWindows = voteRollups.getDueWindows(window.getEnd() + VoteTallyEngine.EVICTION_DELAY);
+        assertThat(dueWindows).hasSize(1);
+        assertThat(dueWindows.get(0).getEventId()).isEqualTo(EVENT_ID);
+        assertThat(dueWindows.get(0).getWindow()).isEqualTo(window);
+
+        voteRollups.completeWindow(dueWindows.get(0));
+        assertThat(voteRollups.getCountPendingWindows()).isEqualTo(0);
+    }
+
+    @Test
+    void failingWindowIsDroppedAfterAttempts() {
+        VoteWindow window = createWindow(0);
+        voteRollups.queueWindow(EVENT_ID, window);
+        VoteRollups.PendingWindow pendingWindow = voteRollups.getDueWindows(Long.MAX_VALUE).get(0);
+
+        for (int i = 1; i < VoteRollups.MAX_ADD_ATTEMPTS; i++) {
+            voteRollups.failWindow(pendingWindow);
+        }
+        assertThat(voteRollups.getCountPendingWindows()).isEqualTo(1);
+
+        voteRollups.failWindow(pendingWindow);
+        assertThat(voteRollups.getCountPendingWindows()).isEqualTo(0);
+    }
+
+    @Test
+    void missedWindowsAreQueued() {
+        VoteWindow addedWindow = createWindow(0);
+        addVotes(addedWindow, LOCATION_A, 10L);
+        voteRollups.addWindow(EVENT_ID, addedWindow);
+
+        VoteWindow missedWindow = createWindow(1);
+        addVotes(missedWindow, LOCATION_A, 10L);
+        addVotes(missedWindow, LOCATION_B, 11L);
+        VoteWindow openWindow = createWindow(2);
+        addVotes(openWindow, LOCATION_A, 10L);
+
+        long now = openWindow.getEnd();
+        assertThat(voteRollups.queueMissedWindows(Collections.singletonList(EVENT_ID), now)).isEqualTo(1);
+        assertThat(voteRollups.queueMissedWindows(Collections.singletonList(EVENT_ID), now)).isEqualTo(0);
+
+        List<VoteRollups.PendingWindow> dueWindows = voteRollups.getDueWindows(now);
+        assertThat(dueWindows).hasSize(1);
+        assertThat(dueWindows.get(0).getWindow()).isEqualTo(missedWindow);
+
+        // windows older than the recovery period are not searched, the formerly open window is closed now
+        voteRollups.completeWindow(dueWindows.get(0));
+        assertThat(voteRollups.queueMissedWindows(Collections.singletonList(EVENT_ID), missedWindow.getBegin() + VoteRollups.RECOVERY_PERIOD + 1)).isEqualTo(1);
+        assertThat(voteRollups.getDueWindows(Long.MAX_VALUE).get(0).getWindow()).isEqualTo(openWindow);
+        assertThat(voteRollups.queueMissedWindows(Collections.emptyList(), now)).isEqualTo(0);
+    }
+
+    @Test
+    void statsOverSeveralDays() {
+        // location A gets more votes every day, location B less
+        for (int day = 0; day < 3; day++) {
+            VoteWindow window = createWindow(day);
+            addVotes(window, LOCATION_A, voterIds(day + 1));
+            addVotes(window, LOCATION_B, voterIds(3 - day));
+            voteRollups.addWindow(EVENT_ID, window);
+        }
+        // the third day has a second window without any votes for location B
+        VoteWindow lateWindow = new VoteWindow((DAY_BEGIN + 2) * DAY + 2000, (DAY_BEGIN + 2) * DAY + 3000);
+        addVotes(lateWindow, LOCATION_A, 10L);
+        voteRollups.addWindow(EVENT_ID, lateWindow);
+
+        VoteStats stats = voteRollups.getStats(EVENT_ID, DAY_BEGIN * DAY, (DAY_BEGIN + 2) * DAY + 100);
+
+        assertThat(stats.getEventId()).isEqualTo(EVENT_ID.toString());
+        assertThat(stats.getDayBegin()).isEqualTo(DAY_BEGIN);
+        assertThat(stats.getDayEnd()).isEqualTo(DAY_BEGIN + 2);
+        assertThat(stats.getCountWindows()).isEqualTo(4);
+        assertThat(stats.getCountParticipants()).isEqualTo(3 + 2 + 3 + 1);
+        assertThat(stats.getParticipationRate()).isCloseTo(9.0 / 12.0, within(0.0001));
+
+        assertThat(stats.getLocations()).hasSize(2);
+        VoteStats.LocationStats statsA = stats.getLocations().get(0);
+        VoteStats.LocationStats statsB = stats.getLocations().get(1);
+
+        assertThat(statsA.getLocationId()).isEqualTo(LOCATION_A.toString());
+        assertThat(statsA.getCountVotes()).isEqualTo(1 + 2 + 3 + 1);
+        assertThat(statsA.getCountWins()).isEqualTo(3);
+        assertThat(statsA.getWinRate()).isCloseTo(0.75, within(0.0001));
+        assertThat(statsA.getTrend()).isCloseTo(1.5, within(0.0001));
+
+        assertThat(statsB.getCountVotes()).isEqualTo(3 + 2 + 1);
+        assertThat(statsB.getCountWins()).isEqualTo(2);
+        assertThat(statsB.getTrend()).isCloseTo(-1.0, within(0.0001));
+    }
+
+    @Test
+    void statsWithoutRollups() {
+        VoteStats stats = voteRollups.getStats(EVENT_ID, 0L, DAY);
+
+        assertThat(stats.getCountWindows()).isEqualTo(0);
+        assertThat(stats.getParticipationRate()).isEqualTo(0.0);
+        assertThat(stats.getLocations()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void mockQuery(String name, Class<T> type, TypedQuery<T> query) {
+        Mockito.when(entityManager.createNamedQuery(eq(name), eq(type))).thenReturn(query);
+        Mockito.when(query.setMaxResults(anyInt())).thenReturn(query);
+        Mockito.when(query.setParameter(anyString(), anyObject())).thenAnswer(invocation -> {
+            parameters.put(invocation.getArgumentAt(0, String.class), invocation.getArgumentAt(1, Object.class));
+            return query;
+        });
+    }
+
+    private boolean inDayRange(Long day) {
+        return (day >= (Long) parameters.get("dayBegin")) && (day <= (Long) parameters.get("dayEnd"));
+    }
+
+    private VoteWindow createWindow(int day) {
+        long begin = (DAY_BEGIN + day) * DAY + 1000;
+        return new VoteWindow(begin, begin + 500);
+    }
+
+    private Long[] voterIds(int count) {
+        Long[] ids = new Long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = 10L + i;
+        }
+        return ids;
+    }
+
+    private void addVotes(VoteWindow window, Long locationId, Long... userIds) {
+        EventLocationVoteEntity vote = new EventLocationVoteEntity();
+        vote.setId(nextId++);
+        vote.setEventId(EVENT_ID);
+        vote.setLocationId(locationId);
+        vote.setLocationName("Location " + locationId);
+        vote.setVoteTimeBegin(window.getBegin());
+        vote.setVoteTimeEnd(window.getEnd());
+        vote.setCreationTime(window.getBegin());
+        vote.setUserIds(new HashSet<>(Arrays.asList(userIds)));
+        votes.add(vote);
+    }
+
+    private EventLocationVoteRollupEntity getLocationRollup(Long locationId) {
+        return locationRollups.stream().filter(rollup -> rollup.getLocationId().equals(locationId)).findFirst().orElse(null);
+    }
+}
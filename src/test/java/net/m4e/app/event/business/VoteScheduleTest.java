@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.EventEntityCreator;
+import org.junit.jupiter.api.*;
+
+import java.time.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class VoteScheduleTest {
+
+    private static final long HOUR = 60L * 60L;
+    private static final long DAY = 24L * HOUR;
+
+    /**
+     * 2026-10-19 00:00 UTC, a Monday
+     */
+    private static final long MONDAY = LocalDate.of(2026, 10, 19).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+
+    @Test
+    void oneShotEvent() {
+        EventEntity event = EventEntityCreator.create();
+        event.setRepeatWeekDays(0L);
+        event.setEventStart(MONDAY + 12 * HOUR);
+        event.setVotingTimeBegin(2 * HOUR);
+
+        VoteSchedule schedule = VoteSchedule.fromEvent(event);
+
+        assertThat(schedule.isRepeated()).isFalse();
+        assertThat(schedule.getWindowAt(MONDAY + 11 * HOUR, ZoneOffset.UTC)).isEqualTo(new VoteWindow(MONDAY + 10 * HOUR, MONDAY + 12 * HOUR));
+        assertThat(schedule.getWindowAt(MONDAY + 12 * HOUR, ZoneOffset.UTC)).isNotNull();
+        assertThat(schedule.getWindowAt(MONDAY + 9 * HOUR, ZoneOffset.UTC)).isNull();
+        assertThat(schedule.getWindowAt(MONDAY + 12 * HOUR + 1, ZoneOffset.UTC)).isNull();
+    }
+
+    @Test
+    void repeatedEvent() {
+        EventEntity event = EventEntityCreator.create();
+        // Monday and Wednesday
+        event.setRepeatWeekDays(1L | 4L);
+        event.setRepeatDayTime(12 * HOUR);
+        event.setVotingTimeBegin(2 * HOUR);
+
+        VoteSchedule schedule = VoteSchedule.fromEvent(event);
+
+        assertThat(schedule.isRepeated()).isTrue();
+        assertThat(schedule.getWindowAt(MONDAY + 11 * HOUR, ZoneOffset.UTC)).isEqualTo(new VoteWindow(MONDAY + 10 * HOUR, MONDAY + 12 * HOUR));
+        assertThat(schedule.getWindowAt(MONDAY + DAY + 11 * HOUR, ZoneOffset.UTC)).isNull();
+        assertThat(schedule.getWindowAt(MONDAY + 2 * DAY + 11 * HOUR, ZoneOffset.UTC))
+                .isEqualTo(new VoteWindow(MONDAY + 2 * DAY + 10 * HOUR, MONDAY + 2 * DAY + 12 * HOUR));
+        assertThat(schedule.getWindowAt(MONDAY + 13 * HOUR, ZoneOffset.UTC)).isNull();
+    }
+
+    @Test
+    void windowCrossingLocalMidnight() {
+        EventEntity event = EventEntityCreator.create();
+        // Tuesday only
+        event.setRepeatWeekDays(2L);
+        // ends on Tuesday 01:30 in Berlin (UTC+2), which is Monday 23:30 UTC
+        event.setRepeatDayTime(23 * HOUR + HOUR / 2);
+        event.setVotingTimeBegin(3 * HOUR);
+
+        VoteSchedule schedule = VoteSchedule.fromEvent(event);
+        ZoneId berlin = ZoneId.of("Europe/Berlin");
+        VoteWindow window = new VoteWindow(MONDAY + 20 * HOUR + HOUR / 2, MONDAY + 23 * HOUR + HOUR / 2);
+
+        assertThat(schedule.getNextWindow(MONDAY, berlin)).isEqualTo(window);
+        // Monday 23:00 in Berlin, before local midnight
+        assertThat(schedule.getWindowAt(MONDAY + 21 * HOUR, berlin)).isEqualTo(window);
+        // Tuesday 01:00 in Berlin, after local midnight
+        assertThat(schedule.getWindowAt(MONDAY + 23 * HOUR, berlin)).isEqualTo(window);
+        assertThat(schedule.getWindowAt(MONDAY + 21 * HOUR, ZoneOffset.UTC)).isNull();
+    }
+
+    @Test
+    void windowCrossingUtcMidnight() {
+        EventEntity event = EventEntityCreator.create();
+        // Tuesday only
+        event.setRepeatWeekDays(2L);
+        event.setRepeatDayTime(HOUR);
+        event.setVotingTimeBegin(2 * HOUR);
+
+        VoteSchedule schedule = VoteSchedule.fromEvent(event);
+        VoteWindow window = new VoteWindow(MONDAY + 23 * HOUR, MONDAY + DAY + HOUR);
+
+        assertThat(schedule.getNextWindow(MONDAY, ZoneOffset.UTC)).isEqualTo(window);
+        assertThat(schedule.getWindowAt(MONDAY + 23 * HOUR + HOUR / 2, ZoneOffset.UTC)).isEqualTo(window);
+        assertThat(schedule.getWindowAt(MONDAY + DAY + HOUR / 2, ZoneOffset.UTC)).isEqualTo(window);
+    }
+
+    @Test
+    void weekDayUsesGivenZone() {
+        EventEntity event = EventEntityCreator.create();
+        // Sunday only
+        event.setRepeatWeekDays(64L);
+        event.setRepeatDayTime(2 * HOUR);
+        event.setVotingTimeBegin(2 * HOUR);
+
+        VoteSchedule schedule = VoteSchedule.fromEvent(event);
+
+        // Monday 01:00 UTC is still Sunday in UTC-5
+        assertThat(schedule.getWindowAt(MONDAY + HOUR, ZoneOffset.UTC)).isNull();
+        assertThat(schedule.getWindowAt(MONDAY + HOUR, ZoneOffset.ofHours(-5))).isNotNull();
+    }
+
+    @Test
+    void nextWindowOfOneShotEvent() {
+        EventEntity event = EventEntityCreator.create();
+        event.setRepeatWeekDays(0L);
+        event.setEventStart(MONDAY + 12 * HOUR);
+        event.setVotingTimeBegin(2 * HOUR);
+
+        VoteSchedule schedule = VoteSchedule.fromEvent(event);
+
+        VoteWindow window = new VoteWindow(MONDAY + 10 * HOUR, MONDAY + 12 * HOUR);
+        assertThat(schedule.getNextWindow(MONDAY, ZoneOffset.UTC)).isEqualTo(window);
+        assertThat(schedule.getNextWindow(MONDAY + 11 * HOUR, ZoneOffset.UTC)).isEqualTo(window);
+        assertThat(schedule.getNextWindow(MONDAY + 12 * HOUR + 1, ZoneOffset.UTC)).isNull();
+    }
+
+    @Test
+    void nextWindowOfRepeatedEvent() {
+        EventEntity event = EventEntityCreator.create();
+        // Monday and Wednesday
+        event.setRepeatWeekDays(1L | 4L);
+        event.setRepeatDayTime(12 * HOUR);
+        event.setVotingTimeBegin(2 * HOUR);
+
+        VoteSchedule schedule = VoteSchedule.fromEvent(event);
+
+        assertThat(schedule.getNextWindow(MONDAY, ZoneOffset.UTC)).isEqualTo(new VoteWindow(MONDAY + 10 * HOUR, MONDAY + 12 * HOUR));
+        assertThat(schedule.getNextWindow(MONDAY + 12 * HOUR + 1, ZoneOffset.UTC))
+                .isEqualTo(new VoteWindow(MONDAY + 2 * DAY + 10 * HOUR, MONDAY + 2 * DAY + 12 * HOUR));
+        // from Wednesday evening to next Monday
+        assertThat(schedule.getNextWindow(MONDAY + 2 * DAY + 13 * HOUR, ZoneOffset.UTC))
+                .isEqualTo(new VoteWindow(MONDAY + 7 * DAY + 10 * HOUR, MONDAY + 7 * DAY + 12 * HOUR));
+    }
+
+    @Test
+    void matches() {
+        EventEntity event = EventEntityCreator.create();
+        VoteSchedule schedule = VoteSchedule.fromEvent(event);
+
+        assertThat(schedule.matches(event)).isTrue();
+
+        event.setVotingTimeBegin(event.getVotingTimeBegin() + 1);
+        assertThat(schedule.matches(event)).isFalse();
+    }
+
+    @Test
+    void voteWindow() {
+        VoteWindow window = new VoteWindow(10L, 20L);
+
+        assertThat(window.contains(10L)).isTrue();
+        assertThat(window.contains(20L)).isTrue();
+        assertThat(window.contains(21L)).isFalse();
+        assertThat(window).isEqualTo(new VoteWindow(10L, 20L));
+        assertThat(window.hashCode()).isEqualTo(new VoteWindow(10L, 20L).hashCode());
+        assertThat(window).isNotEqualTo(new VoteWindow(10L, 21L));
+        assertThat(window.toString()).contains("10", "20");
+    }
+}
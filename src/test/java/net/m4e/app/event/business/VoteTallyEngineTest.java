@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.transaction.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class VoteTallyEngineTest {
+
+    private static final Long VOTES_ID = 100L;
+    private static final Long EVENT_ID = 200L;
+    private static final Long LOCATION_ID = 300L;
+    private static final VoteWindow WINDOW = new VoteWindow(1000L, 2000L);
+
+    @Mock
+    Entities entities;
+
+    @Mock
+    TransactionSynchronizationRegistry registry;
+
+    private EventLocationVoteEntity voteEntity;
+
+    private VoteTallyEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        voteEntity = new EventLocationVoteEntity();
+        voteEntity.setId(VOTES_ID);
+        voteEntity.setEventId(EVENT_ID);
+        voteEntity.setLocationId(LOCATION_ID);
+        voteEntity.setVoteTimeBegin(WINDOW.getBegin());
+        voteEntity.setVoteTimeEnd(WINDOW.getEnd());
+
+        Mockito.when(entities.findUncached(eq(EventLocationVoteEntity.class), eq(VOTES_ID))).thenReturn(voteEntity);
+
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        engine = new VoteTallyEngine(entities, new TransactionCallbacks(registry));
+    }
+
+    @Test
+    void defaultConstructor() {
+        new VoteTallyEngine();
+    }
+
+    @Test
+    void loaderIsCalledOncePerTally() {
+        AtomicInteger countLoads = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> {
+                countLoads.incrementAndGet();
+                return voteEntity;
+            });
+        }
+
+        assertThat(countLoads.get()).isEqualTo(1);
+        assertThat(engine.getSize()).isEqualTo(1);
+        assertThat(engine.getTally(VOTES_ID)).isNotNull();
+        assertThat(engine.getTally(null)).isNull();
+        assertThat(engine.getEventTallies(EVENT_ID)).hasSize(1);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        Assertions.assertThrows(IllegalStateException.class, () -> engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertThat(engine.getSize()).isEqualTo(0);
+
+        assertThat(engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity)).isNotNull();
+        assertThat(engine.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void flushedAfterCommit() {
+        VoteTally tally = engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+        tally.vote(1L, true);
+
+        Synchronization synchronization = flushInTransaction();
+
+        assertThat(tally.isDirty()).isTrue();
+        assertThat(engine.evictClosed(Long.MAX_VALUE)).isEmpty();
+
+        synchronization.afterCompletion(Status.STATUS_COMMITTED);
+
+        assertThat(tally.isDirty()).isFalse();
+        assertThat(engine.evictClosed(Long.MAX_VALUE)).containsExactly(tally);
+    }
+
+    @Test
+    void rolledBackFlushIsRetried() {
+        VoteTally tally = engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+        tally.vote(1L, true);
+
+        flushInTransaction().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertThat(tally.isDirty()).isTrue();
+        assertThat(engine.evictClosed(Long.MAX_VALUE)).isEmpty();
+
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        assertThat(engine.flush()).isEqualTo(1);
+        assertThat(tally.isDirty()).isFalse();
+    }
+
+    @Test
+    void flushWritesChangedTallies() {
+        VoteTally tally = engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+
+        assertThat(engine.flush()).isEqualTo(0);
+
+        tally.vote(1L, true);
+        tally.vote(2L, true);
+        tally.vote(1L, false);
+
+        assertThat(engine.flush()).isEqualTo(1);
+        assertThat(voteEntity.getUserIds()).containsExactly(2L);
+        assertThat(tally.isDirty()).isFalse();
+        Mockito.verify(entities, Mockito.times(1)).update(eq(voteEntity));
+
+        // nothing changed, nothing to write
+        assertThat(engine.flush()).isEqualTo(0);
+        Mockito.verify(entities, Mockito.times(1)).update(eq(voteEntity));
+    }
+
+    @Test
+    void votesOfOtherNodesAreMerged() {
+        voteEntity.setUserIds(new HashSet<>(Arrays.asList(7L, 8L)));
+        VoteTally tally = engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+
+        // another node adds voter 5 and removes voter 7
+        voteEntity.setUserIds(new HashSet<>(Arrays.asList(5L, 8L)));
+
+        tally.vote(1L, true);
+        tally.vote(8L, false);
+
+        assertThat(engine.flush()).isEqualTo(1);
+        assertThat(voteEntity.getUserIds()).containsOnly(1L, 5L);
+        assertThat(tally.getUserIds()).containsOnly(1L, 5L);
+        assertThat(tally.isDirty()).isFalse();
+    }
+
+    @Test
+    void votesDuringFlushAreKept() {
+        VoteTally tally = engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+        tally.vote(1L, true);
+
+        Synchronization synchronization = flushInTransaction();
+        tally.vote(2L, true);
+        tally.vote(1L, false);
+        synchronization.afterCompletion(Status.STATUS_COMMITTED);
+
+        assertThat(tally.isDirty()).isTrue();
+        assertThat(tally.getUserIds()).containsOnly(2L);
+
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        assertThat(engine.flush()).isEqualTo(1);
+        assertThat(voteEntity.getUserIds()).containsOnly(2L);
+        assertThat(tally.isDirty()).isFalse();
+    }
+
+    @Test
+    void closedFlushedTalliesAreEvicted() {
+        VoteTally tally = engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+        tally.vote(1L, true);
+
+        long afterEviction = WINDOW.getEnd() + VoteTallyEngine.EVICTION_DELAY + 1;
+        assertThat(engine.evictClosed(afterEviction)).isEmpty();
+        assertThat(engine.getSize()).isEqualTo(1);
+
+        assertThat(engine.flush()).isEqualTo(1);
+        assertThat(engine.evictClosed(afterEviction)).containsExactly(tally);
+
+        assertThat(voteEntity.getUserIds()).containsExactly(1L);
+        assertThat(engine.getSize()).isEqualTo(0);
+        assertThat(engine.getTally(VOTES_ID)).isNull();
+    }
+
+    @Test
+    void tallyIsKeptDuringEvictionDelay() {
+        engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+
+        assertThat(engine.evictClosed(WINDOW.getEnd() + 1)).isEmpty();
+
+        assertThat(engine.getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        VoteTally tally = engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+        tally.vote(1L, true);
+
+        Mockito.doThrow(new IllegalStateException("database down")).when(entities).update(anyObject());
+        assertThat(engine.flush()).isEqualTo(0);
+        assertThat(tally.isDirty()).isTrue();
+        assertThat(engine.evictClosed(Long.MAX_VALUE)).isEmpty();
+        assertThat(engine.getSize()).isEqualTo(1);
+
+        Mockito.doNothing().when(entities).update(anyObject());
+        assertThat(engine.flush()).isEqualTo(1);
+        assertThat(tally.isDirty()).isFalse();
+    }
+
+    @Test
+    void votesOfDeletedEntityAreDropped() {
+        Mockito.when(entities.findUncached(eq(EventLocationVoteEntity.class), eq(VOTES_ID))).thenReturn(null);
+
+        VoteTally tally = engine.getOrCreateTally(LOCATION_ID, WINDOW, () -> voteEntity);
+        tally.vote(1L, true);
+
+        assertThat(engine.flush()).isEqualTo(0);
+        assertThat(engine.evictClosed(Long.MAX_VALUE)).hasSize(1);
+        assertThat(engine.getSize()).isEqualTo(0);
+    }
+
+    private Synchronization flushInTransaction() {
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        assertThat(engine.flush()).isEqualTo(1);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        Mockito.verify(registry).registerInterposedSynchronization(synchronization.capture());
+        return synchronization.getValue();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.PersistenceException;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class VoteTallyFlushJobTest {
+
+    private static final Long EVENT_ID = 200L;
+    private static final VoteWindow WINDOW = new VoteWindow(1000L, 2000L);
+
+    @Mock
+    Entities entities;
+    @Mock
+    VoteRollups voteRollups;
+
+    private VoteTallyEngine voteTallyEngine;
+
+    private VoteTallyFlushJob flushJob;
+
+    private VoteRollups.PendingWindow pendingWindow;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        voteTallyEngine = new VoteTallyEngine(entities, new TransactionCallbacks(null));
+        flushJob = new VoteTallyFlushJob(voteTallyEngine, voteRollups);
+
+        pendingWindow = new VoteRollups.PendingWindow(EVENT_ID, WINDOW);
+        Mockito.when(voteRollups.getDueWindows(anyLong())).thenReturn(Collections.singletonList(pendingWindow));
+    }
+
+    @Test
+    void dueWindowIsAdded() {
+        Mockito.when(voteRollups.addWindow(EVENT_ID, WINDOW)).thenReturn(true);
+
+        flushJob.flush();
+
+        Mockito.verify(voteRollups).addWindow(EVENT_ID, WINDOW);
+        Mockito.verify(voteRollups).completeWindow(pendingWindow);
+    }
+
+    @Test
+    void windowWithLocalTallyIsPostponed() {
+        EventLocationVoteEntity voteEntity = new EventLocationVoteEntity();
+        voteEntity.setId(100L);
+        voteEntity.setEventId(EVENT_ID);
+        voteTallyEngine.getOrCreateTally(300L, WINDOW, () -> voteEntity).vote(1L, true);
+        // the flush fails, so the tally is kept
+        Mockito.when(entities.findUncached(eq(EventLocationVoteEntity.class), anyLong())).thenThrow(new PersistenceException("database down"));
+
+        flushJob.flush();
+
+        assertThat(voteTallyEngine.getSize()).isEqualTo(1);
+        Mockito.verify(voteRollups, Mockito.never()).addWindow(anyLong(), anyObject());
+        Mockito.verify(voteRollups, Mockito.never()).completeWindow(anyObject());
+    }
+
+    @Test
+    void failedWindowIsRetried() {
+        Mockito.when(voteRollups.addWindow(EVENT_ID, WINDOW)).thenThrow(new PersistenceException("duplicate window"));
+
+        flushJob.flush();
+
+        Mockito.verify(voteRollups).failWindow(pendingWindow);
+        Mockito.verify(voteRollups, Mockito.never()).completeWindow(anyObject());
+    }
+}
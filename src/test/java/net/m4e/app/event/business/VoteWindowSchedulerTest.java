@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class VoteWindowSchedulerTest {
+
+    private static final long HOUR = 60L * 60L;
+    private static final long DAY = 24L * HOUR;
+
+    /**
+     * 2026-10-19 00:00 UTC, a Monday
+     */
+    private static final long MONDAY = LocalDate.of(2026, 10, 19).atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+
+    private static final VoteWindow MONDAY_WINDOW = new VoteWindow(MONDAY + 10 * HOUR, MONDAY + 12 * HOUR);
+    private static final VoteWindow WEDNESDAY_WINDOW = new VoteWindow(MONDAY + 2 * DAY + 10 * HOUR, MONDAY + 2 * DAY + 12 * HOUR);
+
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    TypedQuery<Object[]> timingsQuery;
+    @Mock
+    Entities entities;
+    @Mock
+    EventLocations eventLocations;
+    @Mock
+    EventNotifications eventNotifications;
+    @Mock
+    EventMemberIndex eventMemberIndex;
+    @Mock
+    VoteRollups voteRollups;
+
+    private final AtomicLong clock = new AtomicLong(MONDAY);
+
+    private EventEntity event;
+
+    private VoteWindowScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        event = EventEntityCreator.create();
+        // Monday and Wednesday
+        event.setRepeatWeekDays(1L | 4L);
+        event.setRepeatDayTime(12 * HOUR);
+        event.setVotingTimeBegin(2 * HOUR);
+
+        Mockito.when(entities.find(eq(EventEntity.class), eq(event.getId()))).thenReturn(event);
+        Mockito.when(entityManager.createNamedQuery("EventEntity.findActiveTimings", Object[].class)).thenReturn(timingsQuery);
+        Mockito.when(timingsQuery.getResultList()).thenAnswer(invocation -> Collections.singletonList(new Object[]{
+                event.getId(), event.getEventStart(), event.getRepeatWeekDays(), event.getRepeatDayTime(), event.getVotingTimeBegin()}));
+        Mockito.when(eventMemberIndex.getMemberIds(anyLong())).thenReturn(new long[0]);
+
+        VoteWindowTasks voteWindowTasks = new VoteWindowTasks(entityManager, entities, eventLocations, eventNotifications, eventMemberIndex,
+                voteRollups, ZoneOffset.UTC);
+        scheduler = new VoteWindowScheduler(voteWindowTasks, clock::get, ZoneOffset.UTC);
+    }
+
+    @Test
+    void defaultConstructor() {
+        new VoteWindowScheduler();
+        new VoteWindowTasks();
+    }
+
+    @Test
+    void refreshSchedulesActiveEvents() {
+        scheduler.voteWindowSchedulerInit();
+
+        assertThat(scheduler.getScheduledWindow(event.getId())).isEqualTo(MONDAY_WINDOW);
+        Mockito.verify(entities, Mockito.never()).findAll(anyObject());
+        Mockito.verify(voteRollups).queueMissedWindows(eq(Collections.singleton(event.getId())), eq(MONDAY));
+    }
+
+    @Test
+    void failingRecoveryDoesNotStopRefresh() {
+        Mockito.when(voteRollups.queueMissedWindows(anyObject(), anyLong())).thenThrow(new PersistenceException("database down"));
+
+        scheduler.refresh();
+
+        assertThat(scheduler.getScheduledWindow(event.getId())).isEqualTo(MONDAY_WINDOW);
+    }
+
+    @Test
+    void refreshUnschedulesInactiveEvents() {
+        scheduler.refresh();
+
+        Mockito.when(timingsQuery.getResultList()).thenReturn(Collections.emptyList());
+        scheduler.refresh();
+
+        assertThat(scheduler.getScheduledWindow(event.getId())).isNull();
+    }
+
+    @Test
+    void windowOpensAndCloses() {
+        scheduler.refresh();
+
+        advanceTo(MONDAY_WINDOW.getBegin() - 1);
+        Mockito.verify(eventNotifications, Mockito.never()).sendNotifyVotingWindow(anyBoolean(), anyObject(), anyObject());
+
+        advanceTo(MONDAY_WINDOW.getBegin());
+        Mockito.verify(eventLocations).warmVoteTallies(event, MONDAY_WINDOW);
+        Mockito.verify(eventNotifications).sendNotifyVotingWindow(true, event, MONDAY_WINDOW);
+
+        // the end is still part of the window
+        advanceTo(MONDAY_WINDOW.getEnd());
+        Mockito.verify(eventNotifications, Mockito.never()).sendNotifyVotingWindow(eq(false), anyObject(), anyObject());
+
+        advanceTo(MONDAY_WINDOW.getEnd() + 1);
+        Mockito.verify(voteRollups).queueWindow(event.getId(), MONDAY_WINDOW);
+        Mockito.verify(voteRollups, Mockito.never()).addWindow(anyLong(), anyObject());
+        Mockito.verify(eventNotifications).sendNotifyVotingWindow(false, event, MONDAY_WINDOW);
+
+        // the next window is on Wednesday
+        assertThat(scheduler.getScheduledWindow(event.getId())).isEqualTo(WEDNESDAY_WINDOW);
+        advanceTo(WEDNESDAY_WINDOW.getBegin());
+        Mockito.verify(eventNotifications).sendNotifyVotingWindow(true, event, WEDNESDAY_WINDOW);
+    }
+
+    @Test
+    void openWindowGetsNoOpeningNotification() {
+        clock.set(MONDAY_WINDOW.getBegin() + 10);
+        scheduler.scheduleEvent(event);
+
+        advanceTo(MONDAY_WINDOW.getEnd() + 1);
+
+        Mockito.verify(eventNotifications, Mockito.never()).sendNotifyVotingWindow(eq(true), anyObject(), anyObject());
+        Mockito.verify(eventNotifications).sendNotifyVotingWindow(false, event, MONDAY_WINDOW);
+    }
+
+    @Test
+    void changedEventIsRescheduled() {
+        scheduler.scheduleEvent(event);
+
+        event.setRepeatDayTime(14 * HOUR);
+        scheduler.scheduleEvent(event);
+
+        VoteWindow window = new VoteWindow(MONDAY + 12 * HOUR, MONDAY + 14 * HOUR);
+        assertThat(scheduler.getScheduledWindow(event.getId())).isEqualTo(window);
+
+        advanceTo(MONDAY_WINDOW.getEnd() + 1);
+        Mockito.verify(eventNotifications, Mockito.never()).sendNotifyVotingWindow(eq(false), anyObject(), anyObject());
+
+        advanceTo(window.getEnd() + 1);
+        Mockito.verify(eventNotifications).sendNotifyVotingWindow(false, event, window);
+    }
+
+    @Test
+    void eventChangedOnAnotherNode() {
+        scheduler.scheduleEvent(event);
+
+        // the change is not reported to this scheduler
+        event.setRepeatDayTime(14 * HOUR);
+        advanceTo(MONDAY_WINDOW.getBegin());
+
+        Mockito.verify(eventNotifications, Mockito.never()).sendNotifyVotingWindow(anyBoolean(), anyObject(), anyObject());
+        assertThat(scheduler.getScheduledWindow(event.getId())).isEqualTo(new VoteWindow(MONDAY + 12 * HOUR, MONDAY + 14 * HOUR));
+    }
+
+    @Test
+    void deletedEventIsUnscheduled() {
+        scheduler.scheduleEvent(event);
+
+        event.getStatus().setDateDeletion(1L);
+        advanceTo(MONDAY_WINDOW.getEnd() + 1);
+
+        Mockito.verify(eventNotifications, Mockito.never()).sendNotifyVotingWindow(anyBoolean(), anyObject(), anyObject());
+        assertThat(scheduler.getScheduledWindow(event.getId())).isNull();
+    }
+
+    @Test
+    void unscheduleEvent() {
+        scheduler.scheduleEvent(event);
+        scheduler.unscheduleEvent(event.getId());
+
+        advanceTo(MONDAY_WINDOW.getEnd() + 1);
+
+        Mockito.verify(eventNotifications, Mockito.never()).sendNotifyVotingWindow(anyBoolean(), anyObject(), anyObject());
+        Mockito.verify(voteRollups, Mockito.never()).queueWindow(anyLong(), anyObject());
+    }
+
+    @Test
+    void oneShotEventInThePast() {
+        event.setRepeatWeekDays(0L);
+        event.setEventStart(MONDAY - HOUR);
+
+        scheduler.scheduleEvent(event);
+
+        assertThat(scheduler.getScheduledWindow(event.getId())).isNull();
+    }
+
+    @Test
+    void failingTaskDoesNotStopOthers() {
+        EventEntity otherEvent = EventEntityCreator.create();
+        otherEvent.setId(event.getId() + 1);
+        otherEvent.setRepeatWeekDays(event.getRepeatWeekDays());
+        otherEvent.setRepeatDayTime(event.getRepeatDayTime());
+        otherEvent.setVotingTimeBegin(event.getVotingTimeBegin());
+        Mockito.when(entities.find(eq(EventEntity.class), eq(otherEvent.getId()))).thenReturn(otherEvent);
+        Mockito.doThrow(new IllegalStateException("failed")).when(eventLocations).warmVoteTallies(eq(event), anyObject());
+
+        scheduler.scheduleEvent(event);
+        scheduler.scheduleEvent(otherEvent);
+        advanceTo(MONDAY_WINDOW.getBegin());
+
+        Mockito.verify(eventNotifications).sendNotifyVotingWindow(true, otherEvent, MONDAY_WINDOW);
+    }
+
+    /**
+     * Advance the clock second by second, like the timer service does.
+     */
+    private void advanceTo(long time) {
+        while (clock.get() < time) {
+            clock.incrementAndGet();
+            scheduler.tick();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.event.business;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class VoterIdsTest {
+
+    @Test
+    void encodeAndDecode() {
+        byte[] encoded = VoterIds.encode(Arrays.asList(30L, 10L, 20L, 10L, null));
+
+        assertThat(encoded).hasSize(3 * Long.BYTES);
+        assertThat(VoterIds.count(encoded)).isEqualTo(3);
+        assertThat(VoterIds.decode(encoded)).containsExactly(10L, 20L, 30L);
+        assertThat(VoterIds.toSet(encoded)).containsExactlyInAnyOrder(10L, 20L, 30L);
+    }
+
+    @Test
+    void emptyIds() {
+        assertThat(VoterIds.encode(null)).isEmpty();
+        assertThat(VoterIds.encode(Collections.emptySet())).isEmpty();
+        assertThat(VoterIds.decode(null)).isEmpty();
+        assertThat(VoterIds.toSet(null)).isEmpty();
+        assertThat(VoterIds.count(null)).isEqualTo(0);
+    }
+
+    @Test
+    void largeIds() {
+        byte[] encoded = VoterIds.encode(Arrays.asList(Long.MAX_VALUE, 1L, Long.MAX_VALUE - 1));
+
+        assertThat(VoterIds.decode(encoded)).containsExactly(1L, Long.MAX_VALUE - 1, Long.MAX_VALUE);
+    }
+
+    @Test
+    void entityStoresVotersInOneColumn() {
+        EventLocationVoteEntity voteEntity = new EventLocationVoteEntity();
+        assertThat(voteEntity.getUserIds()).isEmpty();
+
+        voteEntity.addUserId(2L);
+        voteEntity.addUserId(1L);
+        voteEntity.addUserId(2L);
+        assertThat(voteEntity.getUserIds()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(voteEntity.getCountVoters()).isEqualTo(2);
+
+        assertThat(voteEntity.removeUserId(1L)).isTrue();
+        assertThat(voteEntity.removeUserId(1L)).isFalse();
+        assertThat(voteEntity.getUserIds()).containsExactly(2L);
+    }
+}
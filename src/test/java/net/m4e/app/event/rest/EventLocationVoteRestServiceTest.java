@@ -51,6 +51,10 @@ public class EventLocationVoteRestServiceTest {
     @Mock
     EventLocations eventLocations;
     @Mock
+    VoteCountPublisher voteCountPublisher;
+    @Mock
+    VoteRollups voteRollups;
+    @Mock
     HttpServletRequest request;
     @Mock
     HttpSession session;
@@ -65,7 +69,7 @@ public class EventLocationVoteRestServiceTest {
 
         Mockito.when(session.getId()).thenReturn(SESSION_ID);
         Mockito.when(request.getSession()).thenReturn(session);
-        voteRestService = new EventLocationVoteRestService(events, entities, eventLocations, eventNotifications);
+        voteRestService = new EventLocationVoteRestService(events, entities, eventLocations, eventNotifications, voteCountPublisher, voteRollups);
 
         eventEntityCreator = new EventEntityCreator();
 
@@ -157,6 +161,7 @@ public class EventLocationVoteRestServiceTest {
             GenericResponseResult<LocationVote> result = getVoteResponse(locationVote);
 
             ResponseAssertions.assertThat(result).codeIsOk();
+            Mockito.verify(voteCountPublisher).publishVote(anyObject());
         }
 
         @Test
@@ -172,7 +177,8 @@ public class EventLocationVoteRestServiceTest {
             EventLocationEntity location = EventLocationEntityCreator.create();
 
             Mockito.doReturn(location).when(events).findEventLocation(anyLong(), anyLong());
-            Mockito.doReturn(voteEntity).when(eventLocations).createOrUpdateVote(anyObject(), anyObject(), anyObject(), anyBoolean());
+            VoteTally voteTally = (voteEntity != null) ? new VoteTally(voteEntity, new VoteWindow(voteEntity.getVoteTimeBegin(), voteEntity.getVoteTimeEnd())) : null;
+            Mockito.doReturn(voteTally).when(eventLocations).createOrUpdateVote(anyObject(), anyObject(), anyObject(), anyBoolean());
 
             return voteRestService.setVote(
                     EXISTING_EVENT_ID,
@@ -297,4 +303,60 @@ public class EventLocationVoteRestServiceTest {
             ResponseAssertions.assertThat(result).codeIsOk();
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class Stats {
+
+        @Test
+        void getStatsInvalidRange() {
+            mockOwnerOrMember(true);
+
+            GenericResponseResult<VoteStats> result = voteRestService.getStats(
+                    EXISTING_EVENT_ID,
+                    100L,
+                    0L,
+                    request);
+
+            ResponseAssertions.assertThat(result).codeIsBadRequest();
+        }
+
+        @Test
+        void getStatsNonExistingEvent() {
+            GenericResponseResult<VoteStats> result = voteRestService.getStats(
+                    NON_EXISTING_EVENT_ID,
+                    0L,
+                    0L,
+                    request);
+
+            ResponseAssertions.assertThat(result).codeIsBadRequest();
+        }
+
+        @Test
+        void getStatsNoPrivilege() {
+            mockOwnerOrMember(false);
+
+            GenericResponseResult<VoteStats> result = voteRestService.getStats(
+                    EXISTING_EVENT_ID,
+                    0L,
+                    0L,
+                    request);
+
+            ResponseAssertions.assertThat(result).codeIsUnauthorized();
+        }
+
+        @Test
+        void getStats() {
+            mockOwnerOrMember(true);
+            Mockito.doReturn(new VoteStats(EXISTING_EVENT_ID.toString(), 0L, 0L, 0L, 0L, 0.0)).when(voteRollups).getStats(anyLong(), anyLong(), anyLong());
+
+            GenericResponseResult<VoteStats> result = voteRestService.getStats(
+                    EXISTING_EVENT_ID,
+                    0L,
+                    0L,
+                    request);
+
+            ResponseAssertions.assertThat(result).codeIsOk();
+            Mockito.verify(voteRollups).getStats(EXISTING_EVENT_ID, 0L, 0L);
+        }
+    }
+}
@@ -7,15 +7,20 @@
  */
 package net.m4e.app.event.rest;
 
-import net.m4e.app.event.business.EventInfo;
-import net.m4e.common.GenericResponseResult;
+import net.m4e.app.event.business.*;
+import net.m4e.app.event.rest.comm.SearchHitEvent;
+import net.m4e.common.*;
 import net.m4e.tests.ResponseAssertions;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
 
-import java.util.List;
+import javax.json.*;
+import java.io.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.*;
 
 /**
  * @author boto
@@ -84,6 +89,20 @@ class EventRestServiceFindTest extends EventRestServiceTestBase {
             ResponseAssertions.assertThat(response.getData()).hasSize(2);
         }
 
+        @Test
+        void streamAllEvents() throws Exception {
+            Mockito.doReturn(true).when(events).getUserIsEventOwnerOrMember(anyObject(), anyObject());
+            Mockito.doReturn(new EventInfo()).when(events).exportEvent(anyObject());
+            Mockito.doAnswer(invocation -> { ((Consumer<Stream<EventEntity>>) invocation.getArguments()[1]).accept(Stream.of(EventEntityCreator.create(), EventEntityCreator.create())); return null; })
+                    .when(entities).processAll(eq(EventEntity.class), anyObject());
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            restService.streamAllEvents(request).write(output);
+
+            JsonObject response = Json.createReader(new StringReader(output.toString("UTF-8"))).readObject();
+            ResponseAssertions.assertThat(response.getJsonArray("data")).hasSize(2);
+        }
+
         @Test
         void findRange() {
             Mockito.doReturn(true).when(events).getUserIsEventOwnerOrMember(anyObject(), anyObject());
@@ -93,4 +112,43 @@ class EventRestServiceFindTest extends EventRestServiceTestBase {
             ResponseAssertions.assertThat(response.getData()).hasSize(2);
         }
     }
+
+    @Nested
+    class Search {
+
+        @BeforeEach
+        void setup() {
+            setupEvents();
+            setupLocations();
+        }
+
+        @Test
+        void searchShortKeyword() {
+            GenericResponseResult<List<SearchHitEvent>> response = restService.search(" a ", request);
+
+            ResponseAssertions.assertThat(response).hasStatusOk();
+            ResponseAssertions.assertThat(response.getData()).isEmpty();
+            Mockito.verify(eventSearchIndex, Mockito.never()).search(anyString(), anyObject(), anyInt());
+        }
+
+        @Test
+        void search() {
+            Mockito.when(eventSearchIndex.search(eq("my event"), anyObject(), eq(EventRestService.MAX_SEARCH_RESULTS))).thenReturn(Arrays.asList(
+                    new EventSearchIndex.EventSearchHit(VALID_EVENT_ID, null, 3.0f),
+                    new EventSearchIndex.EventSearchHit(VALID_EVENT_ID, VALID_LOCATION_ID, 2.0f),
+                    new EventSearchIndex.EventSearchHit(INACTIVE_EVENT_ID, null, 1.5f),
+                    new EventSearchIndex.EventSearchHit(VALID_EVENT_ID, INACTIVE_LOCATION_ID, 1.0f)));
+
+            GenericResponseResult<List<SearchHitEvent>> response = restService.search("my event", request);
+
+            ResponseAssertions.assertThat(response).hasStatusOk();
+            List<SearchHitEvent> hits = response.getData();
+            // inactive events and locations are skipped
+            ResponseAssertions.assertThat(hits).hasSize(2);
+            ResponseAssertions.assertThat(hits.get(0).getEventId()).isEqualTo(VALID_EVENT_ID.toString());
+            ResponseAssertions.assertThat(hits.get(0).getLocationId()).isEmpty();
+            ResponseAssertions.assertThat(hits.get(1).getLocationId()).isEqualTo(VALID_LOCATION_ID.toString());
+            ResponseAssertions.assertThat(hits.get(1).getScore()).isEqualTo(2.0f);
+        }
+    }
 }
@@ -16,6 +16,10 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
 
+import java.util.*;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.*;
 
 /**
@@ -170,6 +174,106 @@ class EventRestServiceLocationsTest extends EventRestServiceTestBase {
         }
     }
 
+    @Nested
+    class GeoSearch {
+
+        @BeforeEach
+        void setup() {
+            mockSessionUser(UserEntityCreator.create());
+        }
+
+        @Test
+        void findNearbyInvalidInput() {
+            ResponseAssertions.assertThat(restService.findNearbyLocations(91.0, 0.0, 100.0, request))
+                    .hasStatusNotOk()
+                    .codeIsBadRequest();
+
+            ResponseAssertions.assertThat(restService.findNearbyLocations(0.0, 181.0, 100.0, request))
+                    .hasStatusNotOk()
+                    .codeIsBadRequest();
+
+            ResponseAssertions.assertThat(restService.findNearbyLocations(0.0, 0.0, -1.0, request))
+                    .hasStatusNotOk()
+                    .codeIsBadRequest();
+
+            ResponseAssertions.assertThat(restService.findNearbyLocations(0.0, 0.0, EventRestService.MAX_GEO_RADIUS + 1, request))
+                    .hasStatusNotOk()
+                    .codeIsBadRequest();
+        }
+
+        @Test
+        void findNearestInvalidInput() {
+            ResponseAssertions.assertThat(restService.findNearestLocations(null, 0.0, 1, request))
+                    .hasStatusNotOk()
+                    .codeIsBadRequest();
+
+            ResponseAssertions.assertThat(restService.findNearestLocations(0.0, 0.0, 0, request))
+                    .hasStatusNotOk()
+                    .codeIsBadRequest();
+
+            ResponseAssertions.assertThat(restService.findNearestLocations(0.0, 0.0, EventRestService.MAX_GEO_RESULTS + 1, request))
+                    .hasStatusNotOk()
+                    .codeIsBadRequest();
+        }
+
+        @Test
+        void findNearby() {
+            Mockito.when(locationGeoIndex.findWithinRadius(anyDouble(), anyDouble(), anyDouble(), anyObject(), anyInt()))
+                    .thenReturn(createMatches());
+
+            GenericResponseResult<List<NearbyLocation>> response = restService.findNearbyLocations(52.52, 13.405, 1000.0, request);
+
+            ResponseAssertions.assertThat(response)
+                    .hasStatusOk();
+            assertExportedMatches(response.getData());
+        }
+
+        @Test
+        void findNearest() {
+            Mockito.when(locationGeoIndex.findNearest(anyDouble(), anyDouble(), anyInt(), anyObject()))
+                    .thenReturn(createMatches());
+
+            GenericResponseResult<List<NearbyLocation>> response = restService.findNearestLocations(52.52, 13.405, 10, request);
+
+            ResponseAssertions.assertThat(response)
+                    .hasStatusOk();
+            assertExportedMatches(response.getData());
+        }
+
+        @Test
+        void eventAccessFilter() {
+            EventEntity publicEvent = EventEntityCreator.create();
+            publicEvent.setId(ANY_EVENT_ID);
+            publicEvent.setIsPublic(true);
+            Mockito.when(events.findEvent(eq(publicEvent.getId()))).thenReturn(publicEvent);
+
+            Predicate<Long> filter = restService.createEventAccessFilter(UserEntityCreator.create());
+
+            assertThat(filter.test(publicEvent.getId())).isTrue();
+            assertThat(filter.test(VALID_EVENT_ID)).isFalse();
+            assertThat(filter.test(INVALID_EVENT_ID)).isFalse();
+            assertThat(filter.test(INACTIVE_EVENT_ID)).isFalse();
+
+            // every event is looked up once
+            assertThat(filter.test(publicEvent.getId())).isTrue();
+            Mockito.verify(events).findEvent(publicEvent.getId());
+        }
+
+        private List<LocationGeoIndex.GeoMatch> createMatches() {
+            return Arrays.asList(
+                    new LocationGeoIndex.GeoMatch(VALID_LOCATION_ID, VALID_EVENT_ID, 10.0),
+                    new LocationGeoIndex.GeoMatch(INVALID_LOCATION_ID, VALID_EVENT_ID, 20.0),
+                    new LocationGeoIndex.GeoMatch(INACTIVE_LOCATION_ID, VALID_EVENT_ID, 30.0));
+        }
+
+        private void assertExportedMatches(List<NearbyLocation> nearbyLocations) {
+            // missing and inactive locations are skipped
+            assertThat(nearbyLocations).hasSize(1);
+            assertThat(nearbyLocations.get(0).getEventId()).isEqualTo(VALID_EVENT_ID.toString());
+            assertThat(nearbyLocations.get(0).getDistance()).isEqualTo(10.0);
+        }
+    }
+
     protected void mockLocationNameValidation(boolean pass) {
         Mockito.when(validator.validateUniqueLocationName(anyObject(), anyObject())).thenReturn(pass);
     }
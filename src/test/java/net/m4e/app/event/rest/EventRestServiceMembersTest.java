@@ -7,14 +7,18 @@
  */
 package net.m4e.app.event.rest;
 
-import net.m4e.app.event.rest.comm.AddRemoveEventMember;
+import net.m4e.app.event.business.EventNotifications;
+import net.m4e.app.event.rest.comm.*;
 import net.m4e.app.user.business.UserEntity;
 import net.m4e.common.GenericResponseResult;
 import net.m4e.tests.ResponseAssertions;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
 
-import static org.mockito.Matchers.anyObject;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
 
 /**
  * @author boto
@@ -238,4 +242,122 @@ class EventRestServiceMembersTest extends EventRestServiceTestBase {
             ResponseAssertions.assertThat(response).hasStatusOk();
         }
     }
+
+    @Nested
+    class BulkMemberAddRemove {
+
+        private UserEntity validMember;
+        private UserEntity inactiveMember;
+
+        @BeforeEach
+        void setup() {
+            setupEvents();
+
+            validMember = userMockUp.mockSomeUser();
+            validMember.setId(VALID_MEMBER_ID);
+            inactiveMember = userMockUp.mockSomeUser();
+            inactiveMember.setId(INACTIVE_MEMBER_ID);
+            inactiveMember.getStatus().setEnabled(false);
+
+            Mockito.when(users.findUsers(anyObject())).thenReturn(Arrays.asList(validMember, inactiveMember));
+            Mockito.when(events.addMembers(anyObject(), anyObject())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgumentAt(1, Collection.class)));
+            Mockito.when(events.removeMembers(anyObject(), anyObject())).thenAnswer(invocation -> new ArrayList<>(invocation.getArgumentAt(1, Collection.class)));
+        }
+
+        @Test
+        void invalidInput() {
+            ResponseAssertions.assertThat(restService.addMembers(null, createCmd(VALID_MEMBER_ID), request))
+                    .hasStatusNotOk()
+                    .codeIsNotAcceptable();
+
+            ResponseAssertions.assertThat(restService.addMembers(VALID_EVENT_ID, null, request))
+                    .hasStatusNotOk()
+                    .codeIsNotAcceptable();
+
+            ResponseAssertions.assertThat(restService.removeMembers(VALID_EVENT_ID, createCmd(), request))
+                    .hasStatusNotOk()
+                    .codeIsNotAcceptable();
+        }
+
+        @Test
+        void tooManyMembers() {
+            Long[] ids = new Long[EventRestService.MAX_BULK_MEMBERS + 1];
+            Arrays.fill(ids, VALID_MEMBER_ID);
+
+            ResponseAssertions.assertThat(restService.addMembers(VALID_EVENT_ID, createCmd(ids), request))
+                    .hasStatusNotOk()
+                    .codeIsNotAcceptable();
+        }
+
+        @Test
+        void invalidEvent() {
+            ResponseAssertions.assertThat(restService.addMembers(INVALID_EVENT_ID, createCmd(VALID_MEMBER_ID), request))
+                    .hasStatusNotOk()
+                    .codeIsNotFound();
+
+            ResponseAssertions.assertThat(restService.removeMembers(INACTIVE_EVENT_ID, createCmd(VALID_MEMBER_ID), request))
+                    .hasStatusNotOk()
+                    .codeIsNotFound();
+        }
+
+        @Test
+        void nonPrivileged() {
+            mockNonPrivilegedUser();
+
+            ResponseAssertions.assertThat(restService.addMembers(VALID_EVENT_ID, createCmd(VALID_MEMBER_ID), request))
+                    .hasStatusNotOk()
+                    .codeIsUnauthorized();
+
+            ResponseAssertions.assertThat(restService.removeMembers(VALID_EVENT_ID, createCmd(VALID_MEMBER_ID), request))
+                    .hasStatusNotOk()
+                    .codeIsUnauthorized();
+        }
+
+        @Test
+        void addMembersSuccess() {
+            mockPrivilegedUser();
+
+            GenericResponseResult<AddRemoveEventMembers> response = restService.addMembers(VALID_EVENT_ID,
+                    createCmd(VALID_MEMBER_ID, INACTIVE_MEMBER_ID, INVALID_MEMBER_ID), request);
+
+            ResponseAssertions.assertThat(response)
+                    .hasStatusOk()
+                    .hasData();
+            assertThat(response.getData().getMemberIds()).containsExactly(VALID_MEMBER_ID.toString());
+            assertThat(response.getData().getSkippedMemberIds()).containsExactly(INACTIVE_MEMBER_ID.toString(), INVALID_MEMBER_ID.toString());
+
+            Mockito.verify(events).addMembers(anyObject(), eq(Collections.singletonList(validMember)));
+            Mockito.verify(eventNotifications, Mockito.times(1)).sendNotifyMembersChanged(eq(EventNotifications.ChangeType.Add), anyObject(), anyObject(), eq(Collections.singletonList(VALID_MEMBER_ID)));
+            Mockito.verify(events).createEventJoiningMails(anyObject(), eq(Collections.singletonList(validMember)));
+        }
+
+        @Test
+        void removeMembersSuccess() {
+            mockPrivilegedUser();
+
+            GenericResponseResult<AddRemoveEventMembers> response = restService.removeMembers(VALID_EVENT_ID, createCmd(VALID_MEMBER_ID), request);
+
+            ResponseAssertions.assertThat(response).hasStatusOk();
+            assertThat(response.getData().getMemberIds()).containsExactly(VALID_MEMBER_ID.toString());
+
+            Mockito.verify(eventNotifications, Mockito.times(1)).sendNotifyMembersChanged(eq(EventNotifications.ChangeType.Remove), anyObject(), anyObject(), anyListOf(Long.class));
+            Mockito.verify(events).createEventLeavingMails(anyObject(), eq(Collections.singletonList(validMember)));
+        }
+
+        @Test
+        void nothingChanged() {
+            mockPrivilegedUser();
+            Mockito.doReturn(new ArrayList<>()).when(events).addMembers(anyObject(), anyObject());
+
+            GenericResponseResult<AddRemoveEventMembers> response = restService.addMembers(VALID_EVENT_ID, createCmd(VALID_MEMBER_ID), request);
+
+            ResponseAssertions.assertThat(response).hasStatusOk();
+            assertThat(response.getData().getSkippedMemberIds()).containsExactly(VALID_MEMBER_ID.toString());
+            Mockito.verifyZeroInteractions(eventNotifications);
+        }
+
+        private EventMembersCmd createCmd(Long... ids) {
+            return new EventMembersCmd(Arrays.asList(ids));
+        }
+    }
 }
@@ -9,11 +9,12 @@ package net.m4e.app.event.rest;
 
 import net.m4e.app.event.rest.comm.EventCount;
 import net.m4e.common.GenericResponseResult;
-import net.m4e.system.core.AppInfoEntity;
 import net.m4e.tests.ResponseAssertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 /**
  * @author boto
  * Date of creation February 20, 2018
@@ -27,12 +28,14 @@ class EventRestServiceMiscTest extends EventRestServiceTestBase {
 
     @Test
     void countEvents() {
-        Mockito.when(appInfos.getAppInfoEntity()).thenReturn(new AppInfoEntity());
+        Mockito.when(entityCounters.getEventCount()).thenReturn(42L);
 
         GenericResponseResult<EventCount> response = restService.count();
 
         ResponseAssertions.assertThat(response)
                 .hasStatusOk()
                 .hasData();
+        assertThat(response.getData().getCount()).isEqualTo(42L);
+        Mockito.verifyZeroInteractions(entities);
     }
 }
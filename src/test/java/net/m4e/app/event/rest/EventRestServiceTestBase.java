@@ -12,7 +12,7 @@ import net.m4e.app.event.business.*;
 import net.m4e.app.event.rest.comm.*;
 import net.m4e.app.user.business.*;
 import net.m4e.common.*;
-import net.m4e.system.core.AppInfos;
+import net.m4e.system.core.EntityCounters;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.mockito.*;
@@ -58,9 +58,13 @@ class EventRestServiceTestBase {
     @Mock
     EventLocations eventLocations;
     @Mock
-    AppInfos appInfos;
+    EntityCounters entityCounters;
     @Mock
     EventNotifications eventNotifications;
+    @Mock
+    LocationGeoIndex locationGeoIndex;
+    @Mock
+    EventSearchIndex eventSearchIndex;
 
     @Mock
     HttpServletRequest request;
@@ -78,7 +82,8 @@ class EventRestServiceTestBase {
         Mockito.when(session.getId()).thenReturn(SESSION_ID);
         Mockito.when(request.getSession()).thenReturn(session);
 
-        restService = new EventRestService(entities, events, users, validator, eventLocations, eventNotifications, appInfos);
+        restService = new EventRestService(entities, events, users, validator, eventLocations, eventNotifications, entityCounters,
+                locationGeoIndex, eventSearchIndex);
         userMockUp = new UserMockUp(users);
     }
 
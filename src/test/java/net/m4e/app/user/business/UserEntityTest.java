@@ -78,4 +78,21 @@ class UserEntityTest extends UserEntityCreator {
 
         Assertions.assertThat(entity.getRolesAsString()).isEmpty();
     }
+
+    @Test
+    void getRolesMask() {
+        UserEntity entity = new UserEntity();
+        Assertions.assertThat(entity.getRolesMask()).isEqualTo(0);
+
+        List<RoleEntity> roles = new ArrayList<>(createRoleEntities(Collections.singletonList(AuthRole.USER_ROLE_MODERATOR)));
+        entity.setRoles(roles);
+        Assertions.assertThat(entity.getRolesMask()).isEqualTo(AppRoles.MODERATOR.getMask());
+
+        // changes of the role collection are seen too
+        roles.addAll(createRoleEntities(Collections.singletonList(AuthRole.USER_ROLE_ADMIN)));
+        Assertions.assertThat(entity.getRolesMask()).isEqualTo(AppRoles.MODERATOR.getMask() | AppRoles.ADMIN.getMask());
+
+        entity.setRoles(null);
+        Assertions.assertThat(entity.getRolesMask()).isEqualTo(0);
+    }
 }
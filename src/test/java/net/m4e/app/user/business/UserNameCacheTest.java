@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.business;
+
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class UserNameCacheTest {
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    TypedQuery<Object[]> query;
+
+    private UserNameCache userNameCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        Mockito.when(entityManager.createNamedQuery(eq("UserEntity.findNames"), eq(Object[].class))).thenReturn(query);
+        Mockito.when(query.getResultList()).thenReturn(Arrays.asList(new Object[]{1L, "User 1"}, new Object[]{2L, "User 2"}));
+
+        userNameCache = new UserNameCache(entityManager);
+    }
+
+    @Test
+    void defaultConstructor() {
+        new UserNameCache();
+    }
+
+    @Test
+    void namesAreLoadedOnce() {
+        Map<Long, String> names = userNameCache.getNames(Arrays.asList(1L, 2L, 3L));
+
+        assertThat(names).containsEntry(1L, "User 1").containsEntry(2L, "User 2").doesNotContainKey(3L);
+
+        names = userNameCache.getNames(Arrays.asList(1L, 2L));
+        assertThat(names).hasSize(2);
+
+        Mockito.verify(query, Mockito.times(1)).getResultList();
+        Mockito.verify(query).setParameter(eq("ids"), eq(Arrays.asList(1L, 2L, 3L)));
+        assertThat(userNameCache.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateUser() {
+        userNameCache.getNames(Arrays.asList(1L, 2L));
+
+        userNameCache.invalidateUser(1L);
+        userNameCache.invalidateUser(null);
+        assertThat(userNameCache.getSize()).isEqualTo(1);
+
+        userNameCache.getNames(Collections.singletonList(1L));
+        Mockito.verify(query, Mockito.times(2)).getResultList();
+    }
+
+    @Test
+    void staleNamesAreNotStored() {
+        Mockito.when(query.getResultList()).thenAnswer(invocation -> {
+            userNameCache.invalidateUser(1L);
+            return Collections.singletonList(new Object[]{1L, "Old Name"});
+        });
+
+        assertThat(userNameCache.getNames(Collections.singletonList(1L))).containsEntry(1L, "Old Name");
+        assertThat(userNameCache.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    void clear() {
+        userNameCache.getNames(Arrays.asList(1L, 2L));
+        userNameCache.clear();
+
+        assertThat(userNameCache.getSize()).isEqualTo(0);
+    }
+}
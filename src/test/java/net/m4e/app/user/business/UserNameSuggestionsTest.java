@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.business;
+
+import net.m4e.app.auth.AuthRole;
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import javax.transaction.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class UserNameSuggestionsTest {
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    TypedQuery<Object[]> query;
+
+    private UserNameSuggestions suggestions;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{1L, "Anna Schmidt", 100L, "etag-1"},
+                new Object[]{2L, "Hannah Müller", null, null},
+                new Object[]{3L, "Anna", null, null},
+                new Object[]{4L, "Ännie", null, null},
+                new Object[]{5L, "Bob Annan", 105L, "etag-5"});
+
+        Mockito.when(entityManager.createNamedQuery(eq("UserEntity.findSuggestions"), eq(Object[].class))).thenReturn(query);
+        Mockito.when(query.getResultList()).thenReturn(rows);
+
+        suggestions = new UserNameSuggestions(entityManager, new TransactionCallbacks(null));
+    }
+
+    @Test
+    void defaultConstructor() {
+        new UserNameSuggestions();
+    }
+
+    @Test
+    void buildOnFirstUse() {
+        suggestions.refresh();
+        Mockito.verify(query, Mockito.never()).getResultList();
+
+        assertThat(suggestions.getSize()).isEqualTo(5);
+        assertThat(suggestions.getSize()).isEqualTo(5);
+        Mockito.verify(query).setParameter(eq("adminRole"), eq(AuthRole.USER_ROLE_ADMIN));
+        Mockito.verify(query, Mockito.times(1)).getResultList();
+
+        suggestions.refresh();
+        Mockito.verify(query, Mockito.times(2)).getResultList();
+    }
+
+    @Test
+    void nameMatchesComeFirst() {
+        assertThat(suggest("an", 10)).containsExactly(3L, 1L, 4L, 5L);
+        assertThat(suggest("AN", 2)).containsExactly(3L, 1L);
+        assertThat(suggest("müll", 10)).containsExactly(2L);
+        assertThat(suggest("schmidt", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void noSuggestions() {
+        assertThat(suggest("xyz", 10)).isEmpty();
+        assertThat(suggest(" ", 10)).isEmpty();
+        assertThat(suggest("an", 0)).isEmpty();
+    }
+
+    @Test
+    void suggestionsHavePhotos() {
+        UserNameSuggestions.UserSuggestion suggestion = suggestions.suggest("bob", 10).get(0);
+
+        assertThat(suggestion.getUserId()).isEqualTo(5L);
+        assertThat(suggestion.getName()).isEqualTo("Bob Annan");
+        assertThat(suggestion.getPhotoId()).isEqualTo(105L);
+        assertThat(suggestion.getPhotoETag()).isEqualTo("etag-5");
+        assertThat(suggestions.suggest("hannah", 10).get(0).getPhotoId()).isNull();
+    }
+
+    @Test
+    void singleUserChanges() {
+        suggestions.getSize();
+
+        UserEntity user = UserEntityCreator.create();
+        user.setId(6L);
+        user.setName("Annabelle");
+        suggestions.putUser(user);
+        assertThat(suggest("an", 10)).containsExactly(3L, 1L, 6L, 4L, 5L);
+        assertThat(suggestions.suggest("annab", 10).get(0).getPhotoETag()).isEqualTo(UserEntityCreator.USER_PHOTO_ETAG);
+
+        // renamed user
+        user = UserEntityCreator.create();
+        user.setId(1L);
+        user.setName("Zoe Schmidt");
+        suggestions.putUser(user);
+        assertThat(suggest("anna", 10)).containsExactly(3L, 6L, 5L);
+        assertThat(suggest("zo", 10)).containsExactly(1L);
+
+        suggestions.removeUser(3L);
+        assertThat(suggest("anna", 10)).containsExactly(6L, 5L);
+        assertThat(suggestions.getSize()).isEqualTo(5);
+    }
+
+    @Test
+    void inactiveUsersAndAdminsAreRemoved() {
+        suggestions.getSize();
+
+        UserEntity user = UserEntityCreator.create();
+        user.setId(3L);
+        user.setName("Anna");
+        user.getStatus().setEnabled(false);
+        suggestions.putUser(user);
+
+        UserEntity admin = UserEntityCreator.createWithRoles(Collections.singletonList(AuthRole.USER_ROLE_ADMIN));
+        admin.setId(5L);
+        suggestions.putUser(admin);
+
+        assertThat(suggest("an", 10)).containsExactly(1L, 4L);
+        assertThat(suggestions.getSize()).isEqualTo(3);
+    }
+
+    @Test
+    void rebuildDropsAppliedChanges() {
+        suggestions.getSize();
+        suggestions.removeUser(3L);
+
+        // the rebuild sees the user changed in database
+        Mockito.when(query.getResultList()).thenReturn(Collections.singletonList(new Object[]{1L, "Anna Schmidt", null, null}));
+        suggestions.rebuild();
+        assertThat(suggest("an", 10)).containsExactly(1L);
+
+        // changes during a rebuild are kept
+        Mockito.when(query.getResultList()).thenAnswer(invocation -> {
+            suggestions.removeUser(1L);
+            return Collections.singletonList(new Object[]{1L, "Anna Schmidt", null, null});
+        });
+        suggestions.rebuild();
+        assertThat(suggest("an", 10)).isEmpty();
+    }
+
+    @Test
+    void changesAreAppliedAfterCommit() {
+        TransactionSynchronizationRegistry registry = Mockito.mock(TransactionSynchronizationRegistry.class);
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        UserNameSuggestions nameSuggestions = new UserNameSuggestions(entityManager, new TransactionCallbacks(registry));
+        nameSuggestions.getSize();
+
+        UserEntity user = UserEntityCreator.create();
+        user.setId(6L);
+        user.setName("Annabelle");
+        nameSuggestions.putUser(user);
+        nameSuggestions.removeUser(3L);
+        assertThat(nameSuggestions.suggest("annab", 10)).isEmpty();
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        Mockito.verify(registry, Mockito.times(2)).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+        synchronization.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertThat(nameSuggestions.suggest("annab", 10)).hasSize(1);
+        assertThat(nameSuggestions.suggest("anna", 10).stream().map(UserNameSuggestions.UserSuggestion::getUserId)).contains(3L);
+    }
+
+    @Test
+    void changesBeforeBuildingAreSkipped() {
+        UserEntity user = UserEntityCreator.create();
+        user.setId(6L);
+        suggestions.putUser(user);
+        suggestions.removeUser(1L);
+
+        Mockito.verify(query, Mockito.never()).getResultList();
+        assertThat(suggestions.getSize()).isEqualTo(5);
+    }
+
+    /**
+     * Compare the suggestions over many users with a brute-force scan.
+     */
+    @Test
+    void manyUsers() {
+        String[] syllables = {"an", "na", "jo", "han", "mar", "tin", "ka", "ri", "el", "le", "sa", "bo", "to", "mi", "lu"};
+        Random random = new Random(5);
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 0; id < 200_000; id++) {
+            String name = syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)] + " " +
+                          syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)];
+            rows.add(new Object[]{id, name, null, null});
+        }
+        Mockito.when(query.getResultList()).thenReturn(rows);
+        assertThat(suggestions.getSize()).isEqualTo(rows.size());
+
+        for (int i = 0; i < 20; i++) {
+            String prefix = syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)].substring(0, 1);
+            Comparator<Object[]> byName = Comparator.comparing(row -> (String) row[1]);
+            List<Long> expected = rows.stream()
+                    .filter(row -> ((String) row[1]).startsWith(prefix))
+                    .sorted(byName.thenComparing(row -> (Long) row[0]))
+                    .map(row -> (Long) row[0])
+                    .limit(10)
+                    .collect(Collectors.toList());
+            if (expected.size() < 10) {
+                rows.stream()
+                        .filter(row -> !((String) row[1]).startsWith(prefix) && ((String) row[1]).contains(" " + prefix))
+                        .sorted(Comparator.<Object[], String>comparing(row -> ((String) row[1]).substring(((String) row[1]).indexOf(' ') + 1))
+                                .thenComparing(row -> (Long) row[0]))
+                        .map(row -> (Long) row[0])
+                        .limit(10 - expected.size())
+                        .forEach(expected::add);
+            }
+
+            assertThat(suggest(prefix, 10)).isEqualTo(expected);
+        }
+    }
+
+    private List<Long> suggest(String prefix, int maxResults) {
+        return suggestions.suggest(prefix, maxResults).stream()
+                .map(UserNameSuggestions.UserSuggestion::getUserId)
+                .collect(Collectors.toList());
+    }
+}
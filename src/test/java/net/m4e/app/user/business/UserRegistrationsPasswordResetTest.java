@@ -7,7 +7,6 @@
  */
 package net.m4e.app.user.business;
 
-import net.m4e.app.auth.AuthorityConfig;
 import net.m4e.app.notification.SendEmailEvent;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
@@ -115,7 +114,8 @@ class UserRegistrationsPasswordResetTest extends UserRegistrationsTest {
         final Instant dateExpired = Instant.now().minus(UserResourcePurger.REGISTER_EXPIRATION_HOURS + 1, ChronoUnit.HOURS);
 
         @BeforeEach
-        void setUp() {
+        void setUp() throws Exception {
+            Mockito.when(users.hashPassword(anyString())).thenAnswer(invocation -> "$test$" + invocation.getArgumentAt(0, String.class));
 
             mockPasswordResetEntry(createEnabledUserEntity(), RESET_TOKEN, dateNotExpired);
             mockPasswordResetEntry(createEnabledUserEntity(), RESET_TOKEN_EXPIRED, dateExpired);
@@ -164,10 +164,7 @@ class UserRegistrationsPasswordResetTest extends UserRegistrationsTest {
             UserPasswordResetEntity resetEntity = userRegistrations.getUserPasswordResetEntity(RESET_TOKEN);
             UserEntity user = resetEntity.getUser();
 
-            String passwordHash = AuthorityConfig.getInstance().createPassword(user.getPassword());
-            String newPasswordHash = AuthorityConfig.getInstance().createPassword(newPassword);
-
-            assertThat(passwordHash).isEqualTo(newPasswordHash);
+            assertThat(user.getPassword()).isEqualTo("$test$" + newPassword);
         }
 
         @Test
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.app.user.business;
+
+import net.m4e.app.auth.AuthRole;
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import javax.transaction.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class UserSearchIndexTest {
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    TypedQuery<Object[]> query;
+
+    private UserSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{1L, "Anna Schmidt", "anna@example.com"},
+                new Object[]{2L, "Hannah Müller", "hannah@mail.org"},
+                new Object[]{3L, "Anna", "a.schmidt@example.com"},
+                new Object[]{4L, "Johanna", "jo@example.com"},
+                new Object[]{5L, "Bob Annan", "bob@mail.org"});
+
+        Mockito.when(entityManager.createNamedQuery(eq("UserEntity.findSearchable"), eq(Object[].class))).thenReturn(query);
+        Mockito.when(query.getResultList()).thenReturn(rows);
+
+        searchIndex = new UserSearchIndex(entityManager, new TransactionCallbacks(null));
+    }
+
+    @Test
+    void defaultConstructor() {
+        new UserSearchIndex();
+    }
+
+    @Test
+    void loadOnFirstUse() {
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+        Mockito.verify(query).setParameter(eq("adminRole"), eq(AuthRole.USER_ROLE_ADMIN));
+        Mockito.verify(query, Mockito.times(1)).getResultList();
+
+        searchIndex.clear();
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+        Mockito.verify(query, Mockito.times(2)).getResultList();
+    }
+
+    @Test
+    void normalize() {
+        assertThat(UserSearchIndex.normalize(" Hannah Müller ")).isEqualTo("hannah muller");
+        assertThat(UserSearchIndex.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void hitsAreRankedByMatchQuality() {
+        // equal, prefix, word prefix, substring
+        assertThat(searchIndex.search("anna", false, 10)).containsExactly(3L, 1L, 5L, 4L, 2L);
+        assertThat(searchIndex.search("ANNA", false, 2)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void searchEmails() {
+        assertThat(searchIndex.search("schmidt@", false, 10)).isEmpty();
+        assertThat(searchIndex.search("schmidt@", true, 10)).containsExactly(3L);
+        assertThat(searchIndex.search("mail.org", true, 10)).containsExactly(5L, 2L);
+    }
+
+    @Test
+    void shortKeywordsAndNoHits() {
+        assertThat(searchIndex.search("bo", false, 10)).containsExactly(5L);
+        assertThat(searchIndex.search("muller", false, 10)).containsExactly(2L);
+        assertThat(searchIndex.search("nobody", true, 10)).isEmpty();
+        assertThat(searchIndex.search(" ", true, 10)).isEmpty();
+        assertThat(searchIndex.search("anna", true, 0)).isEmpty();
+    }
+
+    @Test
+    void putAndRemoveUsers() {
+        searchIndex.getSize();
+
+        UserEntity user = UserEntityCreator.create();
+        user.setId(6L);
+        user.setName("Annabelle");
+        searchIndex.putUser(user);
+        assertThat(searchIndex.search("annab", false, 10)).containsExactly(6L);
+
+        user.setName("Isabelle");
+        searchIndex.putUser(user);
+        assertThat(searchIndex.search("annab", false, 10)).isEmpty();
+        assertThat(searchIndex.search("isabelle", false, 10)).containsExactly(6L);
+
+        searchIndex.removeUser(6L);
+        searchIndex.removeUser(100L);
+        assertThat(searchIndex.search("isabelle", false, 10)).isEmpty();
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+    }
+
+    @Test
+    void inactiveUsersAndAdminsAreRemoved() {
+        searchIndex.getSize();
+
+        UserEntity user = UserEntityCreator.create();
+        user.setId(1L);
+        user.setName("Anna Schmidt");
+        user.getStatus().setEnabled(false);
+        searchIndex.putUser(user);
+        assertThat(searchIndex.search("schmidt", false, 10)).isEmpty();
+
+        UserEntity admin = UserEntityCreator.createWithRoles(Collections.singletonList(AuthRole.USER_ROLE_ADMIN));
+        admin.setId(3L);
+        searchIndex.putUser(admin);
+        assertThat(searchIndex.getSize()).isEqualTo(3);
+    }
+
+    @Test
+    void changesAreAppliedAfterCommit() {
+        TransactionSynchronizationRegistry registry = Mockito.mock(TransactionSynchronizationRegistry.class);
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        UserSearchIndex index = new UserSearchIndex(entityManager, new TransactionCallbacks(registry));
+        index.getSize();
+
+        UserEntity user = UserEntityCreator.create();
+        user.setId(6L);
+        user.setName("Annabelle");
+        index.putUser(user);
+        index.removeUser(1L);
+        assertThat(index.search("annab", false, 10)).isEmpty();
+        assertThat(index.search("schmidt", false, 10)).containsExactly(1L);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        Mockito.verify(registry, Mockito.times(2)).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+        synchronization.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertThat(index.search("annab", false, 10)).containsExactly(6L);
+        assertThat(index.search("schmidt", false, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void refreshPicksUpDatabaseChanges() {
+        searchIndex.refresh();
+        Mockito.verify(query, Mockito.never()).getResultList();
+        searchIndex.getSize();
+
+        Mockito.when(query.getResultList()).thenReturn(Arrays.asList(
+                new Object[]{1L, "Anna Schmidt", "anna@example.com"},
+                new Object[]{7L, "Annika", "annika@example.com"}));
+        searchIndex.refresh();
+
+        assertThat(searchIndex.getSize()).isEqualTo(2);
+        assertThat(searchIndex.search("anni", false, 10)).containsExactly(7L);
+        assertThat(searchIndex.search("hannah", false, 10)).isEmpty();
+    }
+
+    @Test
+    void changesDuringRebuildAreKept() {
+        searchIndex.getSize();
+
+        UserEntity user = UserEntityCreator.create();
+        user.setId(6L);
+        user.setName("Annabelle");
+        // the user is created while the users are loaded
+        Mockito.when(query.getResultList()).thenAnswer(invocation -> {
+            searchIndex.putUser(user);
+            searchIndex.removeUser(2L);
+            return Arrays.asList(
+                    new Object[]{1L, "Anna Schmidt", "anna@example.com"},
+                    new Object[]{2L, "Hannah Müller", "hannah@mail.org"});
+        });
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.getSize()).isEqualTo(2);
+        assertThat(searchIndex.search("annab", false, 10)).containsExactly(6L);
+        assertThat(searchIndex.search("hannah", false, 10)).isEmpty();
+    }
+
+    @Test
+    void failingRebuildKeepsIndex() {
+        searchIndex.getSize();
+        Mockito.when(query.getResultList()).thenThrow(new PersistenceException("failure"));
+
+        Assertions.assertThrows(PersistenceException.class, () -> searchIndex.rebuild());
+
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+    }
+
+    @Test
+    void changesBeforeLoadingAreSkipped() {
+        UserEntity user = UserEntityCreator.create();
+        user.setId(6L);
+        searchIndex.putUser(user);
+        searchIndex.removeUser(1L);
+
+        Mockito.verify(query, Mockito.never()).getResultList();
+        assertThat(searchIndex.getSize()).isEqualTo(5);
+    }
+
+    /**
+     * Search a large index and compare the hits with a brute-force substring scan.
+     */
+    @Test
+    void manyUsers() {
+        String[] syllables = {"an", "na", "jo", "han", "mar", "tin", "ka", "ri", "el", "le", "sa", "bo", "to", "mi", "lu"};
+        Random random = new Random(11);
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 0; id < 200_000; id++) {
+            String name = syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)] + " " +
+                          syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)] +
+                          syllables[random.nextInt(syllables.length)];
+            rows.add(new Object[]{id, name, "user" + id + "@example.com"});
+        }
+        Mockito.when(query.getResultList()).thenReturn(rows);
+        assertThat(searchIndex.getSize()).isEqualTo(rows.size());
+
+        for (int i = 0; i < 20; i++) {
+            String keyword = syllables[random.nextInt(syllables.length)] + syllables[random.nextInt(syllables.length)] +
+                             syllables[random.nextInt(syllables.length)];
+            Set<Long> expected = rows.stream()
+                    .filter(row -> ((String) row[1]).contains(keyword))
+                    .map(row -> (Long) row[0])
+                    .collect(Collectors.toSet());
+
+            assertThat(new HashSet<>(searchIndex.search(keyword, false, Integer.MAX_VALUE))).isEqualTo(expected);
+
+            List<Long> topHits = searchIndex.search(keyword, false, 10);
+            assertThat(topHits).hasSize(Math.min(10, expected.size()));
+            assertThat(topHits).isEqualTo(searchIndex.search(keyword, false, Integer.MAX_VALUE).subList(0, topHits.size()));
+        }
+
+        assertThat(searchIndex.search("user4711@", true, 10)).containsExactly(4711L);
+    }
+}
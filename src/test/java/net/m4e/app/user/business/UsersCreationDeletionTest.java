@@ -15,7 +15,7 @@ import org.mockito.Mockito;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.*;
 
 /**
  * @author boto
@@ -27,7 +27,7 @@ class UsersCreationDeletionTest extends UsersTestBase {
     class CreateNewUser {
 
         @Test
-        void noCreatorID() {
+        void noCreatorID() throws Exception {
             Long NEW_USER_ID = 10L;
             UserEntity inputEntity = UserEntityCreator.create();
 
@@ -41,10 +41,11 @@ class UsersCreationDeletionTest extends UsersTestBase {
 
             assertThat(newUser.getStatus().getIdOwner()).isEqualTo(NEW_USER_ID);
             assertThat(newUser.getStatus().getIdCreator()).isEqualTo(NEW_USER_ID);
+            Mockito.verify(entityCounters).addUsers(1);
         }
 
         @Test
-        void withCreatorID() {
+        void withCreatorID() throws Exception {
             Long NEW_USER_ID = 10L;
             Long CREATOR_ID = 300L;
             UserEntity inputEntity = UserEntityCreator.create();
@@ -62,13 +63,35 @@ class UsersCreationDeletionTest extends UsersTestBase {
         }
 
         @Test
-        void withRoles() {
+        void withRoles() throws Exception {
             UserEntity inputEntity = createWithRoles(Arrays.asList(AuthRole.USER_ROLE_ADMIN, AuthRole.USER_ROLE_MODERATOR));
 
             UserEntity newUser = users.createNewUser(inputEntity, null);
 
             assertThat(newUser.getRolesAsString()).contains(AuthRole.USER_ROLE_ADMIN, AuthRole.USER_ROLE_MODERATOR);
         }
+
+        @Test
+        void passwordIsHashed() throws Exception {
+            UserEntity inputEntity = UserEntityCreator.create();
+            inputEntity.setPassword("password");
+
+            assertThat(users.createNewUser(inputEntity, null).getPassword()).isEqualTo("$test$password");
+
+            // the password of an imported user is hashed already
+            inputEntity.setPassword("$test$password");
+            assertThat(users.createNewUser(inputEntity, null).getPassword()).isEqualTo("$test$password");
+        }
+
+        @Test
+        void passwordIsKeptForLegacyLogin() throws Exception {
+            Mockito.when(passwords.isLegacyLogin()).thenReturn(true);
+            UserEntity inputEntity = UserEntityCreator.create();
+            inputEntity.setPassword("password");
+
+            assertThat(users.createNewUser(inputEntity, null).getPassword()).isEqualTo("password");
+            Mockito.verify(passwords, Mockito.never()).hash(anyString());
+        }
     }
 
     @Nested
@@ -107,6 +130,7 @@ class UsersCreationDeletionTest extends UsersTestBase {
                 users.markUserAsDeleted(user);
 
                 assertThat(user.getStatus().getIsDeleted()).isTrue();
+                Mockito.verify(entityCounters).addUsers(-1);
 
             } catch (Exception ex) {
                 fail("Could not mark user as deleted, reason: " + ex.getMessage());
@@ -135,6 +159,15 @@ class UsersCreationDeletionTest extends UsersTestBase {
         void deleteUser() {
             UserEntity user = UserEntityCreator.create();
             users.deleteUser(user);
+            Mockito.verify(entityCounters).addUsers(-1);
+        }
+
+        @Test
+        void deleteUserMarkedAsDeleted() {
+            UserEntity user = UserEntityCreator.create();
+            user.getStatus().setDateDeletion(1L);
+            users.deleteUser(user);
+            Mockito.verify(entityCounters, Mockito.never()).addUsers(anyLong());
         }
     }
 }
@@ -105,7 +105,7 @@ class UsersExportImportTest extends UsersTestBase {
     @Nested
     class ImportUser {
 
-       @Test void importWithPhoto() {
+       @Test void importWithPhoto() throws Exception {
             UserCmd cmd = createUserCmd();
 
             UserEntity importedUser = users.importUser(cmd);
@@ -113,11 +113,11 @@ class UsersExportImportTest extends UsersTestBase {
             assertThat(importedUser.getName()).isEqualTo(cmd.getName());
             assertThat(importedUser.getLogin()).isEqualTo(cmd.getLogin());
             assertThat(importedUser.getEmail()).isEqualTo(cmd.getEmail());
-            assertThat(importedUser.getPassword()).isEqualTo(cmd.getPassword());
+            assertThat(importedUser.getPassword()).isEqualTo("$test$" + cmd.getPassword());
             assertThat(importedUser.getRolesAsString()).containsAll(cmd.getRoles());
         }
 
-        @Test void importWithoutPhoto() {
+        @Test void importWithoutPhoto() throws Exception {
             UserCmd cmd = createUserCmd();
             cmd.setPhoto(null);
 
@@ -126,7 +126,7 @@ class UsersExportImportTest extends UsersTestBase {
             assertThat(importedUser.getPhoto()).isNull();
         }
 
-        @Test void importWithoutRoles() {
+        @Test void importWithoutRoles() throws Exception {
             UserCmd cmd = createUserCmd();
             cmd.setRoles(null);
 
@@ -10,8 +10,12 @@ package net.m4e.app.user.business;
 import net.m4e.app.resources.DocumentEntity;
 import net.m4e.common.UserEntityCreator;
 import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+
+import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
 
 /**
  * Base test class for Users
@@ -42,6 +46,31 @@ class UsersMiscTest extends UsersTestBase {
             users.updateUserImage(user, photo);
         }
 
+        @Test
+        void searchUsers() {
+            UserEntity user1 = UserEntityCreator.create();
+            user1.setId(1L);
+            UserEntity user2 = UserEntityCreator.create();
+            user2.setId(2L);
+            UserEntity inactiveUser = UserEntityCreator.create();
+            inactiveUser.setId(3L);
+            inactiveUser.getStatus().setEnabled(false);
+
+            Mockito.when(userSearchIndex.search(anyString(), anyBoolean(), anyInt())).thenReturn(Arrays.asList(2L, 3L, 1L, 4L));
+            Mockito.when(entities.findByIds(eq(UserEntity.class), anyCollectionOf(Long.class))).thenReturn(Arrays.asList(user1, user2, inactiveUser));
+
+            // the index order is kept, inactive and missing users are skipped
+            assertThat(users.searchUsers("user", false, 10)).containsExactly(user2, user1);
+        }
+
+        @Test
+        void searchUsersWithoutHits() {
+            Mockito.when(userSearchIndex.search(anyString(), anyBoolean(), anyInt())).thenReturn(new ArrayList<>());
+
+            assertThat(users.searchUsers("user", false, 10)).isEmpty();
+            Mockito.verify(entities, Mockito.never()).findByIds(any(), anyCollectionOf(Long.class));
+        }
+
         @Test
         void getUserRelatives() {
             UserEntity user = UserEntityCreator.create();
@@ -56,7 +56,7 @@ class UsersRolesTest extends UsersTestBase {
         void addRoleInternalError() {
             UserEntity user = UserEntityCreator.create();
 
-            Mockito.when(entities.findByField(eq(RoleEntity.class), eq("name"), anyString())).thenReturn(Arrays.asList());
+            Mockito.when(roleRegistry.findRole(anyString())).thenReturn(null);
 
             users.addUserRoles(user, Arrays.asList(AuthRole.USER_ROLE_ADMIN));
 
@@ -119,6 +119,8 @@ class UsersRolesTest extends UsersTestBase {
             UserEntity user = createWithRoles(Arrays.asList(AuthRole.USER_ROLE_ADMIN, AuthRole.USER_ROLE_MODERATOR));
 
             assertThat(users.checkUserRoles(user, Arrays.asList(AuthRole.USER_ROLE_ADMIN))).isTrue();
+            assertThat(users.checkUserRoles(user, AppRoles.MODERATOR.getMask())).isTrue();
+            assertThat(users.checkUserRoles(user, Arrays.asList("UNKNOWN_ROLE"))).isFalse();
         }
     }
 
@@ -7,7 +7,8 @@
  */
 package net.m4e.app.user.business;
 
-import net.m4e.app.auth.RoleEntity;
+import net.m4e.app.auth.*;
+import net.m4e.app.event.business.EventInfoCache;
 import net.m4e.app.resources.DocumentPool;
 import net.m4e.common.*;
 import net.m4e.system.core.*;
@@ -39,29 +40,53 @@ class UsersTestBase extends UserEntityCreator {
     @Mock
     DocumentPool docPool;
 
+    @Mock
+    EventInfoCache eventInfoCache;
+
+    @Mock
+    EntityCounters entityCounters;
+
+    @Mock
+    UserNameCache userNameCache;
+
+    @Mock
+    UserSearchIndex userSearchIndex;
+
+    @Mock
+    UserNameSuggestions userNameSuggestions;
+
+    @Mock
+    RoleRegistry roleRegistry;
+
+    @Mock
+    Passwords passwords;
+
     Users users;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
 
-        users = new Users(entities, appInfos, docPool);
+        users = new Users(entities, appInfos, docPool, eventInfoCache, entityCounters, userNameCache, userSearchIndex, userNameSuggestions, roleRegistry, passwords);
+
+        Mockito.when(passwords.hash(anyString())).thenAnswer(invocation -> "$test$" + invocation.getArgumentAt(0, String.class));
+        Mockito.when(passwords.isLegacyHash(anyString())).thenCallRealMethod();
 
         Mockito.when(appInfos.getAppInfoEntity()).thenReturn(appInfo);
 
-        Mockito.when(entities.findByField(eq(RoleEntity.class), eq("name"), anyString()))
-                .thenAnswer((Answer<List<RoleEntity>>) invocationOnMock -> {
+        Mockito.when(roleRegistry.findRole(anyString()))
+                .thenAnswer((Answer<RoleEntity>) invocationOnMock -> {
 
-                    String roleName = invocationOnMock.getArgumentAt(2, String.class);
+                    String roleName = invocationOnMock.getArgumentAt(0, String.class);
 
                     if (Users.getAvailableUserRoles().contains(roleName) ) {
                         RoleEntity roleEntity = new RoleEntity();
                         roleEntity.setId(200L);
                         roleEntity.setName(roleName);
-                        return Arrays.asList(roleEntity);
+                        return roleEntity;
                     }
 
-                    return Collections.emptyList();
+                    return null;
                 });
     }
 }
@@ -7,16 +7,22 @@
  */
 package net.m4e.app.user.rest;
 
-import net.m4e.app.auth.AuthorityConfig;
+import net.m4e.app.auth.*;
 import net.m4e.app.resources.StatusEntity;
 import net.m4e.app.user.business.*;
 import net.m4e.app.user.rest.comm.*;
 import net.m4e.common.GenericResponseResult;
+import net.m4e.system.core.AppConfiguration;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
 
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.servlet.http.*;
+import java.util.Collections;
+import java.util.concurrent.*;
+
+import static org.mockito.Matchers.*;
 
 /**
  * @author ybroeker
@@ -29,6 +35,9 @@ class UserAuthenticationRestServiceTest {
 
     private final static String SESSION_ID = "session_id";
 
+    private final static int MAX_FAILURES = 3;
+    private final static int MAX_ATTEMPTS_PER_ADDRESS = 10;
+
     private final static LoginCmd  RIGHT_CREDENTIALS = new LoginCmd(EXISTING_USER, clientSideHash(PASSWORD, SESSION_ID));
     private final static LoginCmd  WRONG_CREDENTIALS = new LoginCmd(EXISTING_USER, clientSideHash("wrong", "salt"));
     private final static LoginCmd  NON_EXITING_USER_CREDENTIALS = new LoginCmd(NON_EXISTING_USER, clientSideHash("wrong", "salt"));
@@ -45,15 +54,26 @@ class UserAuthenticationRestServiceTest {
 
     UserAuthenticationRestService userAuthentication;
 
+    Pbkdf2PasswordHasher hasher;
+
+    UserEntity userEntity;
+
+    ExecutorService executor;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
 
         Mockito.when(session.getId()).thenReturn(SESSION_ID);
         Mockito.when(request.getSession()).thenReturn(session);
-        userAuthentication = new UserAuthenticationRestService(users);
-
-        UserEntity userEntity = new UserEntity();
+        Mockito.when(request.isSecure()).thenReturn(true);
+        hasher = new Pbkdf2PasswordHasher(1000);
+        executor = Executors.newSingleThreadExecutor();
+        ManagedExecutorService managedExecutor = Mockito.mock(ManagedExecutorService.class, AdditionalAnswers.delegatesTo(executor));
+        userAuthentication = new UserAuthenticationRestService(users, new Passwords(hasher, Collections.singletonList(hasher), managedExecutor, 4),
+                new LoginThrottle(60, MAX_FAILURES, MAX_ATTEMPTS_PER_ADDRESS));
+
+        userEntity = new UserEntity();
         userEntity.setStatus(new StatusEntity());
         userEntity.setPassword(AuthorityConfig.getInstance().createPassword(PASSWORD));
         userEntity.setLogin(EXISTING_USER);
@@ -62,6 +82,13 @@ class UserAuthenticationRestServiceTest {
         Mockito.when(users.findUser(NON_EXISTING_USER)).thenReturn(null);
     }
 
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        AuthorityConfig.getInstance().setTokenUserResolver(null);
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_LEGACY_PASSWORD_LOGIN, null);
+    }
+
     private static String clientSideHash(String plainPassword, String salt) {
         return AuthorityConfig.getInstance().createPassword(
                 AuthorityConfig.getInstance().createPassword(plainPassword) + salt);
@@ -90,11 +117,130 @@ class UserAuthenticationRestServiceTest {
         Assertions.assertThat(userAuthentication.login(RIGHT_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_OK);
     }
 
+    @Test
+    void loginLegacyPasswordKeepsPassword() {
+        Assertions.assertThat(userAuthentication.login(RIGHT_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_OK);
+        Mockito.verify(users, Mockito.never()).updateUserPassword(any(), any());
+    }
+
+    @Test
+    void loginLegacyPasswordIsKeptForLegacyLogin() {
+        String clientHash = AuthorityConfig.getInstance().createPassword(PASSWORD);
+
+        Assertions.assertThat(userAuthentication.login(new LoginCmd(EXISTING_USER, clientSideHash(PASSWORD, SESSION_ID), clientHash), request).getCode())
+                .isEqualTo(GenericResponseResult.CODE_OK);
+        Mockito.verify(users, Mockito.never()).updateUserPassword(any(), any());
+    }
+
+    @Test
+    void loginLegacyPasswordIsUpgraded() {
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_LEGACY_PASSWORD_LOGIN, "false");
+        String clientHash = AuthorityConfig.getInstance().createPassword(PASSWORD);
+
+        Assertions.assertThat(userAuthentication.login(new LoginCmd(EXISTING_USER, clientSideHash(PASSWORD, SESSION_ID), clientHash), request).getCode())
+                .isEqualTo(GenericResponseResult.CODE_OK);
+
+        ArgumentCaptor<String> newPassword = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(users).updateUserPassword(eq(userEntity), newPassword.capture());
+        Assertions.assertThat(newPassword.getValue()).startsWith("$pbkdf2-sha256$i=1000$");
+        Assertions.assertThat(hasher.verify(clientHash, newPassword.getValue())).isTrue();
+    }
+
+    @Test
+    void loginLegacyPasswordIsNotReplayed() {
+        String clientHash = AuthorityConfig.getInstance().createPassword(PASSWORD);
+
+        // the stored password itself is no valid salted password
+        Assertions.assertThat(userAuthentication.login(new LoginCmd(EXISTING_USER, clientHash), request).getCode()).isEqualTo(GenericResponseResult.CODE_UNAUTHORIZED);
+        Assertions.assertThat(userAuthentication.login(new LoginCmd(EXISTING_USER, clientHash, clientHash), request).getCode()).isEqualTo(GenericResponseResult.CODE_UNAUTHORIZED);
+
+        // a digest not matching to the salted password is not taken over
+        String otherHash = AuthorityConfig.getInstance().createPassword("other");
+        Assertions.assertThat(userAuthentication.login(new LoginCmd(EXISTING_USER, clientSideHash(PASSWORD, SESSION_ID), otherHash), request).getCode())
+                .isEqualTo(GenericResponseResult.CODE_OK);
+        Mockito.verify(users, Mockito.never()).updateUserPassword(any(), any());
+    }
+
+    @Test
+    void loginHashedPassword() {
+        String clientHash = AuthorityConfig.getInstance().createPassword(PASSWORD);
+        userEntity.setPassword(hasher.hash(clientHash));
+
+        Assertions.assertThat(userAuthentication.login(new LoginCmd(EXISTING_USER, clientSideHash(PASSWORD, SESSION_ID), clientHash), request).getCode())
+                .isEqualTo(GenericResponseResult.CODE_OK);
+        Mockito.verify(users, Mockito.never()).updateUserPassword(any(), any());
+
+        // the salted hash of legacy clients cannot be checked against a hashed password
+        Assertions.assertThat(userAuthentication.login(RIGHT_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_UNAUTHORIZED);
+        Assertions.assertThat(userAuthentication.login(new LoginCmd(EXISTING_USER, clientSideHash(PASSWORD, SESSION_ID), clientHash + "0"), request).getCode())
+                .isEqualTo(GenericResponseResult.CODE_UNAUTHORIZED);
+    }
+
+    @Test
+    void loginDigestOnInsecureRequest() {
+        AppConfiguration.getInstance().setConfigValue(AppConfiguration.TOKEN_LEGACY_PASSWORD_LOGIN, "false");
+        Mockito.when(request.isSecure()).thenReturn(false);
+        String clientHash = AuthorityConfig.getInstance().createPassword(PASSWORD);
+        LoginCmd loginCmd = new LoginCmd(EXISTING_USER, clientSideHash(PASSWORD, SESSION_ID), clientHash);
+
+        // the legacy password is checked by the salted hash, but the digest is not taken over
+        Assertions.assertThat(userAuthentication.login(loginCmd, request).getCode()).isEqualTo(GenericResponseResult.CODE_OK);
+        Mockito.verify(users, Mockito.never()).updateUserPassword(any(), any());
+
+        userEntity.setPassword(hasher.hash(clientHash));
+        Assertions.assertThat(userAuthentication.login(loginCmd, request).getCode()).isEqualTo(GenericResponseResult.CODE_UNAUTHORIZED);
+    }
+
+    @Test
+    void loginWeakHashedPasswordIsUpgraded() {
+        String clientHash = AuthorityConfig.getInstance().createPassword(PASSWORD);
+        userEntity.setPassword(new Pbkdf2PasswordHasher(500).hash(clientHash));
+
+        Assertions.assertThat(userAuthentication.login(new LoginCmd(EXISTING_USER, clientSideHash(PASSWORD, SESSION_ID), clientHash), request).getCode())
+                .isEqualTo(GenericResponseResult.CODE_OK);
+        Mockito.verify(users).updateUserPassword(eq(userEntity), startsWith("$pbkdf2-sha256$i=1000$"));
+    }
+
     @Test
     void loginWrongCredentials() {
         Assertions.assertThat(userAuthentication.login(WRONG_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_UNAUTHORIZED);
     }
 
+    @Test
+    void loginThrottledByLogin() {
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            Assertions.assertThat(userAuthentication.login(WRONG_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_UNAUTHORIZED);
+        }
+        Mockito.reset(users);
+
+        Assertions.assertThat(userAuthentication.login(RIGHT_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_TOO_MANY_REQUESTS);
+        Mockito.verify(users, Mockito.never()).findUser(anyString());
+    }
+
+    @Test
+    void loginThrottledByAddress() {
+        Mockito.when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        for (int i = 0; i < MAX_ATTEMPTS_PER_ADDRESS; i++) {
+            Assertions.assertThat(userAuthentication.login(new LoginCmd(NON_EXISTING_USER + i, "pw"), request).getCode()).isEqualTo(GenericResponseResult.CODE_NOT_FOUND);
+        }
+        Assertions.assertThat(userAuthentication.login(RIGHT_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_TOO_MANY_REQUESTS);
+
+        Mockito.when(request.getRemoteAddr()).thenReturn("10.0.0.2");
+        Assertions.assertThat(userAuthentication.login(RIGHT_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_OK);
+    }
+
+    @Test
+    void loginSuccessResetsFailures() {
+        for (int i = 0; i < MAX_FAILURES - 1; i++) {
+            userAuthentication.login(WRONG_CREDENTIALS, request);
+        }
+        Assertions.assertThat(userAuthentication.login(RIGHT_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_OK);
+        for (int i = 0; i < MAX_FAILURES - 1; i++) {
+            userAuthentication.login(WRONG_CREDENTIALS, request);
+        }
+        Assertions.assertThat(userAuthentication.login(RIGHT_CREDENTIALS, request).getCode()).isEqualTo(GenericResponseResult.CODE_OK);
+    }
+
     @Test
     void loginAlreadyLoggedInUser() {
         LoginCmd input = RIGHT_CREDENTIALS;
@@ -147,6 +293,40 @@ class UserAuthenticationRestServiceTest {
 
 
         Assertions.assertThat(userAuthentication.logout(request).getCode()).isEqualTo(GenericResponseResult.CODE_OK);
+        Mockito.verify(users, Mockito.never()).revokeUserTokens(anyObject());
+    }
+
+    @Test
+    void logoutWithTokenRevokesTokens() {
+        authorizeByToken();
+
+        Assertions.assertThat(userAuthentication.logout(request).getCode()).isEqualTo(GenericResponseResult.CODE_OK);
+        Mockito.verify(users).revokeUserTokens(userEntity);
+    }
+
+    @Test
+    void webSocketTicket() {
+        authorizeByToken();
+
+        GenericResponseResult<WebSocketTicket> result = userAuthentication.webSocketTicket(request);
+
+        Assertions.assertThat(result.getCode()).isEqualTo(GenericResponseResult.CODE_OK);
+        SessionTokens.SessionToken ticket = AuthorityConfig.getInstance().getSessionTokens().validateTicket(result.getData().getTicket());
+        Assertions.assertThat(ticket).isNotNull();
+        Assertions.assertThat(ticket.getUserId()).isEqualTo(userEntity.getId());
+    }
+
+    @Test
+    void webSocketTicketWithoutToken() {
+        Mockito.when(session.getAttribute(AuthorityConfig.SESSION_ATTR_USER)).thenReturn(userEntity);
+
+        Assertions.assertThat(userAuthentication.webSocketTicket(request).getCode()).isEqualTo(GenericResponseResult.CODE_NOT_ACCEPTABLE);
+    }
+
+    private void authorizeByToken() {
+        AuthorityConfig.getInstance().setTokenUserResolver(id -> userEntity);
+        Mockito.when(request.getAttribute(AuthorityConfig.REQUEST_ATTR_SESSION_TOKEN))
+                .thenReturn(new SessionTokens.SessionToken(userEntity.getId(), 0, System.currentTimeMillis(), Long.MAX_VALUE));
     }
 
     @Test
@@ -18,9 +18,14 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
 
+import javax.json.*;
 import javax.servlet.http.*;
+import java.io.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.*;
 
 /**
@@ -40,7 +45,7 @@ class UserRestServiceTest {
     @Mock
     UserRegistrations registration;
     @Mock
-    AppInfos appInfos;
+    EntityCounters entityCounters;
     @Mock
     ConnectedClients connections;
 
@@ -54,15 +59,16 @@ class UserRestServiceTest {
     UserRestService restService;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
 
         Mockito.when(users.importUser(anyObject())).thenCallRealMethod();
+        Mockito.when(users.hashPassword(anyString())).thenAnswer(invocation -> "$test$" + invocation.getArgumentAt(0, String.class));
         Mockito.when(users.createNewUser(anyObject(), anyLong())).thenReturn(UserEntityCreator.create());
         Mockito.when(session.getId()).thenReturn(SESSION_ID);
         Mockito.when(request.getSession()).thenReturn(session);
 
-        restService = new UserRestService(users, entities, validator, registration, appInfos, connections);
+        restService = new UserRestService(users, entities, validator, registration, entityCounters, connections);
         userMockUp = new UserMockUp(users);
     }
 
@@ -213,6 +219,31 @@ class UserRestServiceTest {
                     .hasData();
         }
 
+        @Test
+        void streamAllUsersAsAdmin() throws Exception {
+            mockSessionUser(userMockUp.mockAdminUser());
+            Mockito.when(users.checkUserRoles(anyObject(), anyListOf(String.class))).thenReturn(true);
+            Mockito.doAnswer(invocation -> { ((Consumer<Stream<UserEntity>>) invocation.getArguments()[1]).accept(Stream.of(UserEntityCreator.create(), UserEntityCreator.create())); return null; })
+                    .when(entities).processAll(eq(UserEntity.class), anyObject());
+
+            assertThat(streamUsers().getJsonArray("data")).hasSize(2);
+        }
+
+        @Test
+        void streamAllUsersAsNonAdmin() throws Exception {
+            mockSessionUser(userMockUp.mockSomeUser());
+
+            assertThat(streamUsers().getJsonArray("data")).hasSize(1);
+            Mockito.verify(entities, Mockito.never()).processAll(anyObject(), anyObject());
+        }
+
+        private JsonObject streamUsers() throws IOException {
+            Mockito.doReturn(new UserInfo()).when(users).exportUser(anyObject(), anyObject());
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            restService.streamAllUsers(request).write(output);
+            return Json.createReader(new StringReader(output.toString("UTF-8"))).readObject();
+        }
+
         @Test
         void findAllUsersWithRange() {
             mockSessionUser(userMockUp.mockSomeUser());
@@ -231,11 +262,8 @@ class UserRestServiceTest {
         void setup() {
             UserEntity user1 = UserEntityCreator.create();
             UserEntity user2 = UserEntityCreator.create();
-            UserEntity inactiveUser = UserEntityCreator.create();
-            inactiveUser.getStatus().setEnabled(false);
 
-            Mockito.when(entities.searchForString(anyObject(), anyString(), anyListOf(String.class), anyInt()))
-                    .thenReturn(Arrays.asList(user1, user2, inactiveUser));
+            Mockito.when(users.searchUsers(anyString(), anyBoolean(), anyInt())).thenReturn(Arrays.asList(user1, user2));
         }
 
         @Test
@@ -264,6 +292,7 @@ class UserRestServiceTest {
             GenericResponseResult<List<SearchHitUser>> response = restService.search("theusername");
 
             checkHasHits(response, 2);
+            Mockito.verify(users).searchUsers(eq("theusername"), eq(false), anyInt());
         }
 
         @Test
@@ -271,11 +300,12 @@ class UserRestServiceTest {
             GenericResponseResult<List<SearchHitUser>> response = restService.search("theuser@email.com");
 
             checkHasHits(response, 2);
+            Mockito.verify(users).searchUsers(eq("theuser@email.com"), eq(true), anyInt());
         }
 
         @Test
-        void noHitsOfAdmins() {
-            Mockito.when(users.checkUserRoles(anyObject(), anyListOf(String.class))).thenReturn(true);
+        void noHits() {
+            Mockito.when(users.searchUsers(anyString(), anyBoolean(), anyInt())).thenReturn(new ArrayList<>());
 
             GenericResponseResult<List<SearchHitUser>> response = restService.search("theusername");
 
@@ -299,15 +329,53 @@ class UserRestServiceTest {
         }
     }
 
+    @Nested
+    class SuggestUsers {
+
+        @Test
+        void emptyPrefix() {
+            GenericResponseResult<List<SearchHitUser>> response = restService.suggest(" ");
+
+            ResponseAssertions.assertThat(response)
+                    .hasStatusOk()
+                    .hasData();
+            ResponseAssertions.assertThat(response.getData()).hasSize(0);
+            Mockito.verify(users, Mockito.never()).suggestUsers(anyString(), anyInt());
+        }
+
+        @Test
+        void suggestionsWithAndWithoutPhoto() {
+            Mockito.when(users.suggestUsers(anyString(), anyInt())).thenReturn(Arrays.asList(
+                    new UserNameSuggestions.UserSuggestion(1L, "Anna", 10L, "etag"),
+                    new UserNameSuggestions.UserSuggestion(2L, "Annabelle", null, null)));
+
+            GenericResponseResult<List<SearchHitUser>> response = restService.suggest("an");
+
+            ResponseAssertions.assertThat(response)
+                    .hasStatusOk()
+                    .hasData();
+            List<SearchHitUser> hits = response.getData();
+            assertThat(hits).hasSize(2);
+            assertThat(hits.get(0).getId()).isEqualTo("1");
+            assertThat(hits.get(0).getPhotoId()).isEqualTo("10");
+            assertThat(hits.get(0).getPhotoETag()).isEqualTo("etag");
+            assertThat(hits.get(1).getPhotoId()).isEmpty();
+            assertThat(hits.get(1).getPhotoETag()).isEmpty();
+            Mockito.verify(users).suggestUsers(eq("an"), eq(UserRestService.MAX_SUGGESTIONS));
+        }
+    }
+
     @Test
     void countUsers() {
-        Mockito.when(appInfos.getAppInfoEntity()).thenReturn(new AppInfoEntity());
+        Mockito.when(entityCounters.getUserCount()).thenReturn(42L);
 
         GenericResponseResult<UserCount> response = restService.count();
 
         ResponseAssertions.assertThat(response)
                 .hasStatusOk()
                 .hasData();
+        assertThat(response.getData().getCount()).isEqualTo(42L);
+        Mockito.verifyZeroInteractions(entities);
     }
 
     private void mockSessionUser(UserEntity user) {
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import net.m4e.app.user.business.UserEntity;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import javax.persistence.criteria.CriteriaQuery;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class EntitiesTest {
+
+    private EntityManager entityManager;
+
+    private TypedQuery query;
+
+    private Entities entities;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = Mockito.mock(EntityManager.class, Mockito.RETURNS_DEEP_STUBS);
+        query = Mockito.mock(TypedQuery.class);
+        Mockito.when(entityManager.createQuery(any(CriteriaQuery.class))).thenReturn(query);
+        entities = new Entities(entityManager);
+    }
+
+    @Test
+    void streamAllUsesCursor() {
+        TestCursor cursor = new TestCursor(3);
+        Mockito.when(query.getSingleResult()).thenReturn(cursor);
+
+        try (Stream<UserEntity> stream = entities.streamAll(UserEntity.class)) {
+            assertThat(stream.count()).isEqualTo(3);
+        }
+
+        Mockito.verify(query).setHint(eq("eclipselink.cursor.scrollable"), eq(Boolean.TRUE));
+        Mockito.verify(query).setHint(eq("eclipselink.jdbc.fetch-size"), eq(Entities.STREAM_FETCH_SIZE));
+        Mockito.verify(query, Mockito.never()).getResultList();
+        assertThat(cursor.closed).isTrue();
+    }
+
+    @Test
+    void streamAllClearsPersistenceContext() {
+        Mockito.when(query.getSingleResult()).thenReturn(new TestCursor(2 * Entities.STREAM_FETCH_SIZE + 1), new TestCursor(2 * Entities.STREAM_FETCH_SIZE + 1));
+
+        try (Stream<UserEntity> stream = entities.streamAll(UserEntity.class)) {
+            stream.limit(Entities.STREAM_FETCH_SIZE - 1).forEach(user -> {});
+            Mockito.verify(entityManager, Mockito.never()).clear();
+        }
+        try (Stream<UserEntity> stream = entities.streamAll(UserEntity.class)) {
+            stream.forEach(user -> {});
+            Mockito.verify(entityManager, Mockito.times(2)).clear();
+        }
+    }
+
+    @Test
+    void processAllClosesStream() {
+        TestCursor cursor = new TestCursor(2);
+        Mockito.when(query.getSingleResult()).thenReturn(cursor);
+        List<UserEntity> processed = new ArrayList<>();
+
+        entities.processAll(UserEntity.class, stream -> stream.forEach(processed::add));
+
+        assertThat(processed).hasSize(2);
+        assertThat(cursor.closed).isTrue();
+    }
+
+    @Test
+    void streamAllWithoutCursor() {
+        Mockito.when(query.getSingleResult()).thenReturn(new UserEntity());
+
+        assertThatThrownBy(() -> entities.streamAll(UserEntity.class)).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Like a cursor of EclipseLink, it is an iterator which must be closed.
+     */
+    public static class TestCursor implements Iterator<UserEntity> {
+
+        private int countRows;
+
+        private boolean closed;
+
+        TestCursor(int countRows) {
+            this.countRows = countRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return countRows > 0;
+        }
+
+        @Override
+        public UserEntity next() {
+            countRows--;
+            return new UserEntity();
+        }
+
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -31,6 +31,10 @@ public class EventLocationVoteEntityCreator {
     public static Long VOTE_TIME_END = Instant.now().plus(1, ChronoUnit.DAYS).toEpochMilli();
     public static Set<Long> VOTE_USER_IDS = new HashSet<>(Arrays.asList(2000L, 3000L));
     public static Set<String> VOTE_USER_NAMES = new HashSet<>(Arrays.asList("Name 1", "Name 2"));
+    public static Map<Long, String> VOTE_USER_NAMES_BY_ID = new HashMap<Long, String>() {{
+        put(2000L, "Name 1");
+        put(3000L, "Name 2");
+    }};
 
     static public EventLocationVoteEntity create() {
         EventLocationVoteEntity voteEntity = new EventLocationVoteEntity();
@@ -42,7 +46,6 @@ public class EventLocationVoteEntityCreator {
         voteEntity.setVoteTimeBegin(VOTE_TIME_BEGIN);
         voteEntity.setVoteTimeEnd(VOTE_TIME_END);
         voteEntity.setUserIds(VOTE_USER_IDS);
-        voteEntity.setUserNames(VOTE_USER_NAMES);
 
         return voteEntity;
     }
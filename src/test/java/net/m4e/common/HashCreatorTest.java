@@ -9,7 +9,13 @@ package net.m4e.common;
 
 import org.junit.jupiter.api.Test;
 
-import static org.assertj.core.api.Assertions.assertThat;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
 
 /**
  * @author boto
@@ -19,13 +25,95 @@ class HashCreatorTest {
 
     final String CONTENT = "This is a content for hashing";
 
+    final String SHA256_ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    final String SHA512_ABC = "ddaf35a193617abacc417349ae20413112e6fa4e89a97ea20a9eeee64b55d39a" +
+                              "2192992a274fc1a836ba3c23a3feebbd454d4423643ce80e2a9ac94fa54ca49f";
+
     @Test
     void createSHA256() throws Exception {
         assertThat(HashCreator.createSHA256(CONTENT.getBytes())).isNotEmpty();
+        assertThat(HashCreator.createSHA256("abc".getBytes(StandardCharsets.US_ASCII))).isEqualTo(SHA256_ABC);
     }
 
     @Test
     void createSHA512() throws Exception {
         assertThat(HashCreator.createSHA512(CONTENT.getBytes())).isNotEmpty();
+        assertThat(HashCreator.createSHA512("abc".getBytes(StandardCharsets.US_ASCII))).isEqualTo(SHA512_ABC);
+    }
+
+    @Test
+    void toHex() {
+        assertThat(HashCreator.toHex(new byte[]{})).isEmpty();
+        assertThat(HashCreator.toHex(new byte[]{0, 1, 0x0f, 0x10, 0x7f, (byte)0x80, (byte)0xff})).isEqualTo("00010f107f80ff");
+    }
+
+    @Test
+    void streamedContent() throws Exception {
+        byte[] content = new byte[100_000];
+        new Random(1).nextBytes(content);
+
+        assertThat(HashCreator.createSHA256(new ByteArrayInputStream(content))).isEqualTo(HashCreator.createSHA256(content));
+        assertThat(HashCreator.createSHA512(new ByteArrayInputStream(content))).isEqualTo(HashCreator.createSHA512(content));
+        assertThat(HashCreator.createSHA256(new ByteArrayInputStream(new byte[0]))).isEqualTo(HashCreator.createSHA256(new byte[0]));
+    }
+
+    @Test
+    void bufferedContent() throws Exception {
+        byte[] content = new byte[100_000];
+        new Random(2).nextBytes(content);
+
+        ByteBuffer heapBuffer = ByteBuffer.wrap(content);
+        assertThat(HashCreator.createSHA256(heapBuffer)).isEqualTo(HashCreator.createSHA256(content));
+        assertThat(heapBuffer.remaining()).isEqualTo(content.length);
+
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(content.length);
+        directBuffer.put(content).flip();
+        directBuffer.position(10);
+        assertThat(HashCreator.createSHA256(directBuffer)).isEqualTo(HashCreator.createSHA256(Arrays.copyOfRange(content, 10, content.length)));
+        assertThat(directBuffer.position()).isEqualTo(10);
+    }
+
+    @Test
+    void failedStreamDoesNotAffectNextHash() throws Exception {
+        InputStream failingStream = new InputStream() {
+            private int count;
+
+            @Override
+            public int read() throws IOException {
+                if (++count > 100) {
+                    throw new IOException("stream failed");
+                }
+                return 42;
+            }
+        };
+
+        assertThatThrownBy(() -> HashCreator.createSHA256(failingStream)).hasMessage("stream failed");
+        assertThat(HashCreator.createSHA256("abc".getBytes(StandardCharsets.US_ASCII))).isEqualTo(SHA256_ABC);
+    }
+
+    @Test
+    void concurrentHashing() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    for (int n = 0; n < 1000; n++) {
+                        byte[] content = ("content " + n).getBytes(StandardCharsets.US_ASCII);
+                        if (!HashCreator.createSHA256(content).equals(HashCreator.createSHA256(new ByteArrayInputStream(content)))) {
+                            return false;
+                        }
+                    }
+                    return HashCreator.createSHA256("abc".getBytes(StandardCharsets.US_ASCII)).equals(SHA256_ABC);
+                }));
+            }
+            for (Future<Boolean> result: results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
     }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import net.m4e.update.rest.comm.UpdateCheckId;
+import org.junit.jupiter.api.Test;
+
+import javax.json.*;
+import javax.json.bind.*;
+import java.io.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+public class StreamingResponseResultTest {
+
+    @Test
+    void sameFieldsAsGenericResponse() throws IOException {
+        StreamingResponseResult<UpdateCheckId> response = StreamingResponseResult.ok("List of ids",
+                () -> Stream.of(new UpdateCheckId("1"), new UpdateCheckId("2")));
+
+        JsonObject streamed = writeAndRead(response);
+        JsonObject generic = read(GenericResponseResult.ok("List of ids", new UpdateCheckId[] {new UpdateCheckId("1")}).toJSON());
+
+        assertThat(streamed.keySet()).containsOnlyElementsOf(generic.keySet()).hasSameSizeAs(generic.keySet());
+        assertThat(streamed.getString("status")).isEqualTo(GenericResponseResult.STATUS_OK);
+        assertThat(streamed.getInt("code")).isEqualTo(GenericResponseResult.CODE_OK);
+        assertThat(streamed.getString("description")).isEqualTo("List of ids");
+    }
+
+    @Test
+    void elementsAreSerializedLikeJsonB() throws IOException {
+        UpdateCheckId id = new UpdateCheckId("42");
+        StreamingResponseResult<UpdateCheckId> response = StreamingResponseResult.ok("List of ids", () -> Stream.of(id));
+
+        JsonArray data = writeAndRead(response).getJsonArray("data");
+
+        assertThat(data).hasSize(1);
+        assertThat(data.getJsonObject(0)).isEqualTo(read(JsonbBuilder.create().toJson(id)));
+    }
+
+    @Test
+    void streamIsClosed() throws IOException {
+        boolean[] closed = {false};
+        StreamingResponseResult<UpdateCheckId> response = StreamingResponseResult.ok("List of ids",
+                () -> Stream.<UpdateCheckId>empty().onClose(() -> closed[0] = true));
+
+        assertThat(writeAndRead(response).getJsonArray("data")).isEmpty();
+        assertThat(closed[0]).isTrue();
+    }
+
+    private JsonObject writeAndRead(StreamingResponseResult<?> response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.write(output);
+        return read(output.toString("UTF-8"));
+    }
+
+    private JsonObject read(String json) {
+        try (JsonReader reader = Json.createReader(new StringReader(json))) {
+            return reader.readObject();
+        }
+    }
+}
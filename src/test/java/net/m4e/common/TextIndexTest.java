@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class TextIndexTest {
+
+    private TextIndex<Long> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TextIndex<>();
+        index.put(1L, texts("Pizza Napoli", "Best pizza in town"));
+        index.put(2L, texts("Sushi Bar", "Fresh fish, also pizza on fridays"));
+        index.put(3L, texts("Café Crème", "Coffee and cakes"));
+        index.put(4L, texts("Pizzeria Roma", null));
+    }
+
+    @Test
+    void tokenize() {
+        assertThat(TextIndex.tokenize("Café Crème, 2x-Pizza!")).containsExactly("cafe", "creme", "2x", "pizza");
+        assertThat(TextIndex.tokenize("  ")).isEmpty();
+        assertThat(TextIndex.tokenize(null)).isEmpty();
+        assertThat(TextIndex.tokenize("ThisIsAVeryLongWordWhichIsLongerThanTheLimit").get(0)).hasSize(TextIndex.MAX_TERM_LENGTH);
+    }
+
+    @Test
+    void editDistance() {
+        assertThat(TextIndex.getEditDistance("pizza", "pizza", 2)).isEqualTo(0);
+        assertThat(TextIndex.getEditDistance("pizza", "piza", 2)).isEqualTo(1);
+        assertThat(TextIndex.getEditDistance("pizza", "pizzeria", 2)).isEqualTo(3);
+        assertThat(TextIndex.getEditDistance("sushi", "shusi", 2)).isEqualTo(2);
+        assertThat(TextIndex.getEditDistance("a", "abcd", 2)).isEqualTo(3);
+    }
+
+    @Test
+    void exactMatchesAreRankedByWeight() {
+        // a term in the name weighs more than in the description
+        assertThat(searchKeys("pizza")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void allTermsMustMatch() {
+        assertThat(searchKeys("fresh pizza")).containsExactly(2L);
+        assertThat(searchKeys("fresh coffee")).isEmpty();
+    }
+
+    @Test
+    void prefixMatches() {
+        assertThat(searchKeys("pizz")).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(searchKeys("caf")).containsExactly(3L);
+        assertThat(searchKeys("cafe")).containsExactly(3L);
+    }
+
+    @Test
+    void fuzzyMatches() {
+        assertThat(searchKeys("piza")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(searchKeys("suhsi")).isEmpty();
+        assertThat(searchKeys("napolli")).containsExactly(1L);
+        assertThat(searchKeys("pizzaria")).containsExactly(4L);
+    }
+
+    @Test
+    void exactMatchBeatsFuzzyMatch() {
+        index.put(5L, texts("Pasta", null));
+        index.put(6L, texts("Pasto", null));
+
+        assertThat(searchKeys("pasta")).containsExactly(5L, 6L);
+    }
+
+    @Test
+    void filterAndLimit() {
+        assertThat(index.search("pizza", key -> key != 1L, 10).stream().map(TextIndex.Hit::getKey).collect(Collectors.toList()))
+                .containsExactly(2L);
+        assertThat(index.search("pizza", key -> true, 1).stream().map(TextIndex.Hit::getKey).collect(Collectors.toList()))
+                .containsExactly(1L);
+        assertThat(index.search("pizza", key -> true, 0)).isEmpty();
+        assertThat(index.search(" , ", key -> true, 10)).isEmpty();
+    }
+
+    @Test
+    void filterIsCalledOutsideOfLockUntilLimit() {
+        List<Long> testedKeys = new ArrayList<>();
+        // a filter changing the index would dead-lock if it was called while holding the read lock
+        List<TextIndex.Hit<Long>> hits = index.search("pizza", key -> {
+            testedKeys.add(key);
+            index.remove(key);
+            return key != 1L;
+        }, 1);
+
+        assertThat(hits.stream().map(TextIndex.Hit::getKey).collect(Collectors.toList())).containsExactly(2L);
+        assertThat(testedKeys).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void replaceAndRemove() {
+        assertThat(index.getSize()).isEqualTo(4);
+
+        index.put(1L, texts("Burger Place", null));
+        assertThat(searchKeys("napoli")).isEmpty();
+        assertThat(searchKeys("burger")).containsExactly(1L);
+
+        index.remove(1L);
+        index.remove(100L);
+        assertThat(searchKeys("burger")).isEmpty();
+        assertThat(index.getSize()).isEqualTo(3);
+
+        // documents without any terms are not kept
+        index.put(2L, texts(null, " "));
+        assertThat(index.getSize()).isEqualTo(2);
+
+        index.clear();
+        assertThat(index.getSize()).isEqualTo(0);
+        assertThat(index.getCountTerms()).isEqualTo(0);
+    }
+
+    @Test
+    void unusedTermsAreDropped() {
+        int countTerms = index.getCountTerms();
+        index.put(5L, texts("Unique", null));
+        assertThat(index.getCountTerms()).isEqualTo(countTerms + 1);
+
+        index.remove(5L);
+        assertThat(index.getCountTerms()).isEqualTo(countTerms);
+    }
+
+    /**
+     * Search a large index and compare the exact matches with a brute-force scan.
+     */
+    @Test
+    void manyDocuments() {
+        String[] words = {"pizza", "pasta", "sushi", "burger", "salad", "curry", "noodles", "tacos", "kebab", "steak",
+                          "lunch", "dinner", "team", "friday", "office", "garden", "corner", "downtown", "river", "market"};
+        Random random = new Random(7);
+        TextIndex<Long> largeIndex = new TextIndex<>();
+        Map<Long, Set<String>> documentTerms = new HashMap<>();
+        for (long key = 0; key < 50_000; key++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + key;
+            String description = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            largeIndex.put(key, texts(name, description));
+            documentTerms.put(key, new HashSet<>(TextIndex.tokenize(name + " " + description)));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            String word1 = words[random.nextInt(words.length)];
+            String word2 = words[random.nextInt(words.length)];
+            Set<Long> expected = documentTerms.entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(word1) && entry.getValue().contains(word2))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+
+            List<TextIndex.Hit<Long>> hits = largeIndex.search(word1 + " " + word2, key -> true, Integer.MAX_VALUE);
+            assertThat(hits.stream().map(TextIndex.Hit::getKey).collect(Collectors.toSet())).containsAll(expected);
+
+            List<TextIndex.Hit<Long>> topHits = largeIndex.search(word1 + " " + word2, key -> true, 10);
+            assertThat(topHits).hasSize(Math.min(10, hits.size()));
+            for (int n = 0; n < topHits.size(); n++) {
+                assertThat(topHits.get(n).getScore()).isEqualTo(hits.get(n).getScore());
+            }
+        }
+    }
+
+    private List<Long> searchKeys(String query) {
+        return index.search(query, key -> true, 10).stream().map(TextIndex.Hit::getKey).collect(Collectors.toList());
+    }
+
+    private static Map<String, Float> texts(String name, String description) {
+        Map<String, Float> texts = new HashMap<>();
+        texts.put(name, 2.0f);
+        texts.put(description, 1.0f);
+        return texts;
+    }
+}
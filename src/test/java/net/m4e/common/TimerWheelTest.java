@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class TimerWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void invalidDimension() {
+        assertThatThrownBy(() -> new TimerWheel<String>(0, 10, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimerWheel<String>(1, 0, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tasksBecomeDueInOrder() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 16, START);
+        wheel.schedule(START + 5, "b");
+        wheel.schedule(START + 2, "a");
+        wheel.schedule(START + 9, "c");
+
+        assertThat(wheel.getSize()).isEqualTo(3);
+        assertThat(wheel.advance(START + 1)).isEmpty();
+        assertThat(wheel.advance(START + 5)).containsExactly("a", "b");
+        assertThat(wheel.advance(START + 9)).containsExactly("c");
+        assertThat(wheel.getSize()).isEqualTo(0);
+    }
+
+    @Test
+    void tasksBeyondOneRevolution() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 8, START);
+        wheel.schedule(START + 3, "near");
+        wheel.schedule(START + 3 + 8 * 5, "far");
+
+        assertThat(wheel.advance(START + 3)).containsExactly("near");
+        for (long time = START + 4; time < START + 3 + 8 * 5; time++) {
+            assertThat(wheel.advance(time)).isEmpty();
+        }
+        assertThat(wheel.advance(START + 3 + 8 * 5)).containsExactly("far");
+    }
+
+    @Test
+    void longPauseTakesAllDueTasks() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 8, START);
+        wheel.schedule(START + 1, "a");
+        wheel.schedule(START + 20, "b");
+        wheel.schedule(START + 500, "c");
+
+        assertThat(wheel.advance(START + 100)).containsExactly("a", "b");
+        assertThat(wheel.advance(START + 500)).containsExactly("c");
+    }
+
+    @Test
+    void pastTasksAreDueOnNextAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 8, START);
+        wheel.advance(START + 10);
+        wheel.schedule(START, "late");
+
+        assertThat(wheel.advance(START + 10)).isEmpty();
+        assertThat(wheel.advance(START + 11)).containsExactly("late");
+    }
+
+    @Test
+    void tickDuration() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 8, START);
+        wheel.schedule(START + 15, "a");
+
+        assertThat(wheel.advance(START + 9)).isEmpty();
+        assertThat(wheel.advance(START + 10)).containsExactly("a");
+    }
+
+    @Test
+    void removeTasks() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 8, START);
+        wheel.schedule(START + 1, "a");
+        wheel.schedule(START + 2, "b");
+        wheel.schedule(START + 30, "a");
+
+        assertThat(wheel.remove("a"::equals)).isEqualTo(2);
+        assertThat(wheel.getSize()).isEqualTo(1);
+        assertThat(wheel.advance(START + 100)).containsExactly("b");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.common;
+
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.transaction.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class TransactionCallbacksTest {
+
+    @Mock
+    TransactionSynchronizationRegistry registry;
+
+    private TransactionCallbacks transactionCallbacks;
+
+    private AtomicInteger countRuns;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        transactionCallbacks = new TransactionCallbacks(registry);
+        countRuns = new AtomicInteger();
+    }
+
+    @Test
+    void noTransaction() {
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        transactionCallbacks.afterCommit(countRuns::incrementAndGet);
+        new TransactionCallbacks(null).afterCommit(countRuns::incrementAndGet);
+
+        assertThat(countRuns.get()).isEqualTo(2);
+        Mockito.verify(registry, Mockito.never()).registerInterposedSynchronization(Matchers.any());
+    }
+
+    @Test
+    void commit() {
+        Synchronization synchronization = register();
+
+        assertThat(countRuns.get()).isEqualTo(0);
+        synchronization.afterCompletion(Status.STATUS_COMMITTED);
+        assertThat(countRuns.get()).isEqualTo(1);
+    }
+
+    @Test
+    void rollback() {
+        Synchronization synchronization = register();
+
+        synchronization.afterCompletion(Status.STATUS_ROLLEDBACK);
+        assertThat(countRuns.get()).isEqualTo(0);
+    }
+
+    @Test
+    void failingAction() {
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+        transactionCallbacks.afterCommit(() -> { throw new IllegalStateException("failure"); });
+        transactionCallbacks.afterCommit(countRuns::incrementAndGet);
+
+        assertThat(countRuns.get()).isEqualTo(1);
+    }
+
+    private Synchronization register() {
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        transactionCallbacks.afterCommit(countRuns::incrementAndGet);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        Mockito.verify(registry).registerInterposedSynchronization(synchronization.capture());
+        return synchronization.getValue();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.core;
+
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.servlet.ServletContext;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class AppConfigurationTest {
+
+    @Mock
+    ServletContext context;
+
+    private final Map<String, String> previousValues = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        for (String token: AppConfiguration.CONTEXT_PARAMS) {
+            previousValues.put(token, AppConfiguration.getInstance().getConfigValue(token));
+        }
+        Mockito.when(context.getInitParameter(anyString())).thenAnswer(invocation -> "value of " + invocation.getArgumentAt(0, String.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        previousValues.forEach((token, value) -> AppConfiguration.getInstance().setConfigValue(token, value));
+    }
+
+    @Test
+    void contextParamsAreLoaded() {
+        AppConfiguration.getInstance().setup(context);
+
+        for (String token: AppConfiguration.CONTEXT_PARAMS) {
+            assertThat(AppConfiguration.getInstance().getConfigValue(token)).isEqualTo("value of " + token);
+        }
+    }
+
+    @Test
+    void passwordHashParamsAreLoaded() {
+        AppConfiguration.getInstance().setup(context);
+
+        assertThat(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_PASSWORD_HASH_ITERATIONS)).isEqualTo("value of PasswordHashIterations");
+        assertThat(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_LEGACY_PASSWORD_LOGIN)).isEqualTo("value of LegacyPasswordLogin");
+    }
+
+    @Test
+    void sessionTokenParamsAreLoaded() {
+        AppConfiguration.getInstance().setup(context);
+
+        assertThat(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_STATELESS_AUTH)).isEqualTo("value of StatelessAuth");
+        assertThat(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_SESSION_TOKEN_LIFETIME)).isEqualTo("value of SessionTokenLifetime");
+        assertThat(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_SESSION_TOKEN_SECRET)).isEqualTo("value of SessionTokenSecret");
+    }
+
+    @Test
+    void loginThrottleParamsAreLoaded() {
+        AppConfiguration.getInstance().setup(context);
+
+        assertThat(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_LOGIN_THROTTLE_WINDOW)).isEqualTo("value of LoginThrottleWindow");
+        assertThat(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_LOGIN_MAX_FAILURES)).isEqualTo("value of LoginMaxFailures");
+        assertThat(AppConfiguration.getInstance().getConfigValue(AppConfiguration.TOKEN_LOGIN_MAX_ATTEMPTS_PER_ADDRESS)).isEqualTo("value of LoginMaxAttemptsPerAddress");
+    }
+}
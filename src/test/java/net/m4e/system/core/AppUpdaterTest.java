@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.core;
+
+import net.m4e.common.Entities;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import java.sql.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class AppUpdaterTest {
+
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    Entities entities;
+    @Mock
+    AppInfos appInfos;
+    @Mock
+    Query query;
+    @Mock
+    Connection connection;
+    @Mock
+    DatabaseMetaData metaData;
+    @Mock
+    ResultSet emptyResult;
+
+    private AppUpdater appUpdater;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        Mockito.when(entityManager.unwrap(Connection.class)).thenReturn(connection);
+        Mockito.when(connection.getMetaData()).thenReturn(metaData);
+        Mockito.when(metaData.getTables(anyString(), anyString(), anyString(), any(String[].class))).thenReturn(emptyResult);
+        Mockito.when(metaData.getColumns(anyString(), anyString(), anyString(), anyString())).thenReturn(emptyResult);
+        Mockito.when(metaData.getIndexInfo(anyString(), anyString(), anyString(), anyBoolean(), anyBoolean())).thenReturn(emptyResult);
+        Mockito.when(metaData.getTypeInfo()).thenAnswer(invocation -> createTypeInfo());
+
+        appUpdater = new AppUpdater(entityManager, entities, appInfos);
+        appUpdater.registerAllUpdaters();
+    }
+
+    @Test
+    void allUpdatersAreRegistered() {
+        assertThat(appUpdater.findUpdater("0.0.0")).isNotNull();
+        assertThat(appUpdater.findUpdater("0.1.0")).isNotNull();
+        assertThat(appUpdater.findUpdater("0.9.5")).isNotNull();
+    }
+
+    @Test
+    void updateFromVersionWithoutUpdater() throws Exception {
+        appUpdater.performUpdate("0.9.4", "0.9.5");
+
+        Mockito.verify(query, Mockito.atLeastOnce()).executeUpdate();
+    }
+
+    @Test
+    void updateToVersionWithoutUpdater() throws Exception {
+        appUpdater.performUpdate("0.9.5", "0.9.6");
+
+        Mockito.verify(entityManager, Mockito.never()).createNativeQuery(anyString());
+    }
+
+    @Test
+    void updateFromOlderUpdater() throws Exception {
+        appUpdater.performUpdate("0.1.0", "0.9.5");
+
+        Mockito.verify(query, Mockito.atLeastOnce()).executeUpdate();
+    }
+
+    private ResultSet createTypeInfo() throws SQLException {
+        ResultSet typeInfo = Mockito.mock(ResultSet.class);
+        Mockito.when(typeInfo.next()).thenReturn(true, true, true, false);
+        Mockito.when(typeInfo.getInt("DATA_TYPE")).thenReturn(Types.BLOB, Types.DOUBLE, Types.BIGINT);
+        Mockito.when(typeInfo.getString("TYPE_NAME")).thenReturn("BLOB", "DOUBLE", "BIGINT");
+        return typeInfo;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.core;
+
+import net.m4e.app.event.business.*;
+import net.m4e.app.user.business.UserEntity;
+import net.m4e.common.*;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.transaction.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class EntityCountersTest {
+
+    @Mock
+    Entities entities;
+
+    @Mock
+    AppInfos appInfos;
+
+    private EntityCounters entityCounters;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        AppInfoEntity appInfo = new AppInfoEntity();
+        appInfo.setUserCountPurge(2L);
+        appInfo.setEventCountPurge(3L);
+        appInfo.setEventLocationCountPurge(4L);
+        Mockito.when(appInfos.getAppInfoEntity()).thenReturn(appInfo);
+
+        Mockito.when(entities.getCount(eq(UserEntity.class))).thenReturn(10);
+        Mockito.when(entities.getCount(eq(EventEntity.class))).thenReturn(20);
+        Mockito.when(entities.getCount(eq(EventLocationEntity.class))).thenReturn(30);
+
+        entityCounters = new EntityCounters(entities, appInfos, new TransactionCallbacks(null));
+    }
+
+    @Test
+    void defaultConstructor() {
+        new EntityCounters();
+    }
+
+    @Test
+    void initializedOnFirstAccess() {
+        assertThat(entityCounters.getUserCount()).isEqualTo(8L);
+        assertThat(entityCounters.getEventCount()).isEqualTo(17L);
+        assertThat(entityCounters.getLocationCount()).isEqualTo(26L);
+
+        Mockito.verify(appInfos, Mockito.times(1)).getAppInfoEntity();
+    }
+
+    @Test
+    void noDatabaseAccessAfterInitialization() {
+        entityCounters.getUserCount();
+        Mockito.reset(entities, appInfos);
+
+        entityCounters.addUsers(1);
+        entityCounters.addEvents(-1);
+        entityCounters.addLocations(2);
+
+        assertThat(entityCounters.getUserCount()).isEqualTo(9L);
+        assertThat(entityCounters.getEventCount()).isEqualTo(16L);
+        assertThat(entityCounters.getLocationCount()).isEqualTo(28L);
+        Mockito.verifyZeroInteractions(entities, appInfos);
+    }
+
+    @Test
+    void changesAreAppliedAfterCommit() {
+        TransactionSynchronizationRegistry registry = Mockito.mock(TransactionSynchronizationRegistry.class);
+        Mockito.when(registry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        EntityCounters counters = new EntityCounters(entities, appInfos, new TransactionCallbacks(registry));
+        counters.reconcile();
+
+        counters.addUsers(1);
+        counters.addEvents(-1);
+        assertThat(counters.getUserCount()).isEqualTo(8L);
+        assertThat(counters.getEventCount()).isEqualTo(17L);
+
+        ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+        Mockito.verify(registry, Mockito.times(2)).registerInterposedSynchronization(synchronization.capture());
+        synchronization.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+        synchronization.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertThat(counters.getUserCount()).isEqualTo(9L);
+        assertThat(counters.getEventCount()).isEqualTo(17L);
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        entityCounters.reconcile();
+        entityCounters.addUsers(5);
+
+        entityCounters.reconcile();
+
+        assertThat(entityCounters.getUserCount()).isEqualTo(8L);
+    }
+
+    @Test
+    void reconcileWithoutAppInfo() {
+        Mockito.when(appInfos.getAppInfoEntity()).thenReturn(null);
+
+        entityCounters.reconcile();
+
+        Mockito.verifyZeroInteractions(entities);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.deployment;
+
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import java.sql.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class SchemaInfoTest {
+
+    @Mock
+    DatabaseMetaData metaData;
+    @Mock
+    ResultSet result;
+
+    private SchemaInfo schemaInfo;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        schemaInfo = new SchemaInfo(metaData);
+    }
+
+    @Test
+    void hasTable() throws Exception {
+        Mockito.when(metaData.getTables(isNull(String.class), isNull(String.class), eq("MYTABLE"), isNull(String[].class))).thenReturn(result);
+        Mockito.when(result.next()).thenReturn(true);
+
+        assertThat(schemaInfo.hasTable("MYTABLE")).isTrue();
+        Mockito.verify(result).close();
+    }
+
+    @Test
+    void hasColumnInLowerCaseDatabase() throws Exception {
+        Mockito.when(metaData.storesLowerCaseIdentifiers()).thenReturn(true);
+        Mockito.when(metaData.getColumns(isNull(String.class), isNull(String.class), eq("mytable"), eq("mycolumn"))).thenReturn(result);
+        Mockito.when(result.next()).thenReturn(false);
+
+        assertThat(schemaInfo.hasColumn("MYTABLE", "MYCOLUMN")).isFalse();
+    }
+
+    @Test
+    void hasIndex() throws Exception {
+        Mockito.when(metaData.storesUpperCaseIdentifiers()).thenReturn(true);
+        Mockito.when(metaData.getIndexInfo(isNull(String.class), isNull(String.class), eq("MYTABLE"), eq(false), eq(true))).thenReturn(result);
+        Mockito.when(result.next()).thenReturn(true, true, false);
+        Mockito.when(result.getString("INDEX_NAME")).thenReturn("PRIMARY", "idx_my_index");
+
+        assertThat(schemaInfo.hasIndex("mytable", "IDX_MY_INDEX")).isTrue();
+
+        Mockito.when(result.next()).thenReturn(true, false);
+        Mockito.when(result.getString("INDEX_NAME")).thenReturn("PRIMARY");
+        assertThat(schemaInfo.hasIndex("mytable", "IDX_MY_INDEX")).isFalse();
+    }
+
+    @Test
+    void getTypeName() throws Exception {
+        Mockito.when(metaData.getTypeInfo()).thenReturn(result);
+        Mockito.when(result.next()).thenReturn(true, true, true, false);
+        Mockito.when(result.getInt("DATA_TYPE")).thenReturn(Types.LONGVARBINARY, Types.BINARY, Types.BINARY);
+        Mockito.when(result.getString("TYPE_NAME")).thenReturn("LONGBLOB", "BINARY", "RAW");
+
+        assertThat(schemaInfo.getTypeName(Types.BLOB, Types.BINARY, Types.LONGVARBINARY)).isEqualTo("BINARY");
+        Mockito.verify(result).close();
+
+        Mockito.when(result.next()).thenReturn(false);
+        Assertions.assertThrows(SQLException.class, () -> schemaInfo.getTypeName(Types.BLOB));
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017-2019 by Botorabi. All rights reserved.
+ * https://github.com/botorabi/Meet4Eat
+ *
+ * License: MIT License (MIT), read the LICENSE text in
+ *          main directory for more details.
+ */
+package net.m4e.system.deployment;
+
+import net.m4e.app.event.business.*;
+import net.m4e.common.Entities;
+import org.junit.jupiter.api.*;
+import org.mockito.*;
+
+import javax.persistence.*;
+import java.sql.*;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.*;
+
+/**
+ * @author boto
+ * Date of creation Oct 19, 2026
+ */
+class Update_0_9_5Test {
+
+    private static final String COLUMN_TYPE = "BINARYTYPE";
+
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    Entities entities;
+    @Mock
+    Query query;
+    @Mock
+    SchemaInfo schemaInfo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        Mockito.when(entityManager.createNativeQuery(anyString())).thenReturn(query);
+        Mockito.when(schemaInfo.getTypeName(Matchers.<int[]>anyVararg())).thenReturn(COLUMN_TYPE);
+    }
+
+    @Test
+    void version() {
+        Update_0_9_5 update = new Update_0_9_5();
+
+        assertThat(update.getAppVersion()).isEqualTo("0.9.5");
+        assertThat(update.getIncUpdateNumber()).isEqualTo(2);
+    }
+
+    @Test
+    void createStructures() throws Exception {
+        new Update_0_9_5().performUpdate(entityManager, entities, schemaInfo);
+
+        Mockito.verify(entityManager).createNativeQuery(eq(Update_0_9_5.VOTER_IDS_COLUMN.getStatement(COLUMN_TYPE)));
+        for (Update_0_9_5.IndexDefinition index: Update_0_9_5.INDEXES) {
+            Mockito.verify(entityManager).createNativeQuery(eq(index.getStatement()));
+        }
+        for (Update_0_9_5.ColumnDefinition column: Update_0_9_5.COORDINATE_COLUMNS) {
+            Mockito.verify(entityManager).createNativeQuery(eq(column.getStatement(COLUMN_TYPE)));
+        }
+        Mockito.verify(entityManager).createNativeQuery(eq(Update_0_9_5.TOKENS_VALID_AFTER_COLUMN.getStatement(COLUMN_TYPE)));
+        Mockito.verify(entityManager).createNativeQuery(eq(Update_0_9_5.VOTE_VERSION_COLUMN.getStatement(COLUMN_TYPE)));
+        Mockito.verify(entityManager).createNativeQuery(eq(Update_0_9_5.INIT_VOTE_VERSION));
+        Mockito.verify(query, Mockito.times(getCountStatements())).executeUpdate();
+    }
+
+    @Test
+    void existingStructuresAreSkipped() throws Exception {
+        Mockito.when(schemaInfo.hasIndex(anyString(), anyString())).thenReturn(true);
+        Mockito.when(schemaInfo.hasColumn(anyString(), anyString())).thenReturn(true);
+
+        new Update_0_9_5().performUpdate(entityManager, entities, schemaInfo);
+
+        for (Update_0_9_5.IndexDefinition index: Update_0_9_5.INDEXES) {
+            Mockito.verify(entityManager, Mockito.never()).createNativeQuery(eq(index.getStatement()));
+        }
+        for (Update_0_9_5.ColumnDefinition column: Update_0_9_5.COORDINATE_COLUMNS) {
+            Mockito.verify(entityManager, Mockito.never()).createNativeQuery(eq(column.getStatement(COLUMN_TYPE)));
+        }
+        Mockito.verify(entityManager, Mockito.never()).createNativeQuery(eq(Update_0_9_5.INIT_VOTE_VERSION));
+        Mockito.verify(query, Mockito.never()).executeUpdate();
+    }
+
+    @Test
+    void failedStatementFailsTheUpdate() {
+        Mockito.when(query.executeUpdate()).thenThrow(new PersistenceException("no privilege"));
+
+        Assertions.assertThrows(PersistenceException.class, () -> new Update_0_9_5().performUpdate(entityManager, entities, schemaInfo));
+    }
+
+    @Test
+    void schemaIsReadFromConnection() throws Exception {
+        Connection connection = Mockito.mock(Connection.class);
+        DatabaseMetaData metaData = Mockito.mock(DatabaseMetaData.class);
+        ResultSet emptyResult = Mockito.mock(ResultSet.class);
+        Mockito.when(entityManager.unwrap(Connection.class)).thenReturn(connection);
+        Mockito.when(connection.getMetaData()).thenReturn(metaData);
+        Mockito.when(metaData.getIndexInfo(anyString(), anyString(), anyString(), anyBoolean(), anyBoolean())).thenReturn(emptyResult);
+        Mockito.when(metaData.getTables(anyString(), anyString(), anyString(), any(String[].class))).thenReturn(emptyResult);
+        Mockito.when(metaData.getColumns(anyString(), anyString(), anyString(), anyString())).thenReturn(emptyResult);
+        Mockito.when(metaData.getTypeInfo()).thenAnswer(invocation -> createTypeInfo());
+
+        new Update_0_9_5().performUpdate(entityManager, entities);
+
+        Mockito.verify(query, Mockito.times(getCountStatements())).executeUpdate();
+    }
+
+    @Test
+    void migrateVoterIds() throws Exception {
+        EventLocationVoteEntity voteEntity1 = new EventLocationVoteEntity();
+        EventLocationVoteEntity voteEntity2 = new EventLocationVoteEntity();
+        Mockito.when(entities.find(eq(EventLocationVoteEntity.class), eq(1L))).thenReturn(voteEntity1);
+        Mockito.when(entities.find(eq(EventLocationVoteEntity.class), eq(2L))).thenReturn(voteEntity2);
+
+        Query selectQuery = Mockito.mock(Query.class);
+        Mockito.when(entityManager.createNativeQuery(eq(Update_0_9_5.SELECT_USER_IDS))).thenReturn(selectQuery);
+        Mockito.when(selectQuery.getResultList()).thenReturn(Arrays.asList(
+                new Object[]{1L, 10L}, new Object[]{1L, 11L}, new Object[]{2L, 20L}, new Object[]{3L, 30L}));
+
+        Mockito.when(schemaInfo.hasTable(Update_0_9_5.USER_IDS_TABLE)).thenReturn(true);
+        new Update_0_9_5().performUpdate(entityManager, entities, schemaInfo);
+
+        assertThat(voteEntity1.getUserIds()).containsExactlyInAnyOrder(10L, 11L);
+        assertThat(voteEntity2.getUserIds()).containsExactly(20L);
+        Mockito.verify(entities, Mockito.times(2)).update(anyObject());
+    }
+
+    @Test
+    void migrateWithoutFormerTable() throws Exception {
+        new Update_0_9_5().performUpdate(entityManager, entities, schemaInfo);
+
+        Mockito.verify(entityManager, Mockito.never()).createNativeQuery(eq(Update_0_9_5.SELECT_USER_IDS));
+        Mockito.verify(entities, Mockito.never()).update(anyObject());
+    }
+
+    @Test
+    void failedMigrationFailsTheUpdate() throws Exception {
+        Query selectQuery = Mockito.mock(Query.class);
+        Mockito.when(entityManager.createNativeQuery(eq(Update_0_9_5.SELECT_USER_IDS))).thenReturn(selectQuery);
+        Mockito.when(selectQuery.getResultList()).thenThrow(new PersistenceException("connection lost"));
+        Mockito.when(schemaInfo.hasTable(Update_0_9_5.USER_IDS_TABLE)).thenReturn(true);
+
+        Assertions.assertThrows(PersistenceException.class, () -> new Update_0_9_5().performUpdate(entityManager, entities, schemaInfo));
+    }
+
+    @Test
+    void unsupportedColumnTypeFailsTheUpdate() throws Exception {
+        Mockito.when(schemaInfo.getTypeName(Matchers.<int[]>anyVararg())).thenThrow(new SQLException("no binary type"));
+
+        Assertions.assertThrows(SQLException.class, () -> new Update_0_9_5().performUpdate(entityManager, entities, schemaInfo));
+        Mockito.verify(query, Mockito.never()).executeUpdate();
+    }
+
+    @Test
+    void indexesMatchTheEntity() {
+        Table table = EventLocationVoteEntity.class.getAnnotation(Table.class);
+        assertThat(table).isNotNull();
+
+        List<String> indexNames = new ArrayList<>();
+        for (Index index: table.indexes()) {
+            indexNames.add(index.name());
+        }
+        assertThat(indexNames).containsExactlyInAnyOrder("IDX_LOCATIONVOTE_EVENT_TIME", "IDX_LOCATIONVOTE_LOCATION_TIME");
+        for (Index index: getMembersJoinTable().indexes()) {
+            indexNames.add(index.name());
+        }
+        for (Update_0_9_5.IndexDefinition index: Update_0_9_5.INDEXES) {
+            assertThat(indexNames).contains(index.name);
+        }
+    }
+
+    private JoinTable getMembersJoinTable() {
+        try {
+            return EventEntity.class.getDeclaredField("members").getAnnotation(JoinTable.class);
+        }
+        catch (NoSuchFieldException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private int getCountStatements() {
+        return Update_0_9_5.INDEXES.length + Update_0_9_5.COORDINATE_COLUMNS.length + 4;
+    }
+
+    private ResultSet createTypeInfo() throws SQLException {
+        ResultSet typeInfo = Mockito.mock(ResultSet.class);
+        Mockito.when(typeInfo.next()).thenReturn(true, true, true, false);
+        Mockito.when(typeInfo.getInt("DATA_TYPE")).thenReturn(Types.BLOB, Types.DOUBLE, Types.BIGINT);
+        Mockito.when(typeInfo.getString("TYPE_NAME")).thenReturn("BLOB", "DOUBLE", "BIGINT");
+        return typeInfo;
+    }
+}
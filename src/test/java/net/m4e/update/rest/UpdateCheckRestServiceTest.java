@@ -14,8 +14,13 @@ import net.m4e.update.rest.comm.*;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
 
+import javax.json.Json;
+import java.io.*;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.*;
 
 /**
@@ -196,6 +201,17 @@ public class UpdateCheckRestServiceTest {
                     .hasData();
         }
 
+        @Test
+        void streamAll() throws Exception {
+            Mockito.doAnswer(invocation -> { ((Consumer<Stream<UpdateCheckEntity>>) invocation.getArguments()[1]).accept(Stream.of(new UpdateCheckEntity(), new UpdateCheckEntity())); return null; })
+                    .when(entities).processAll(eq(UpdateCheckEntity.class), anyObject());
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            restService.streamAllUpdates().write(output);
+
+            assertThat(Json.createReader(new StringReader(output.toString("UTF-8"))).readObject().getJsonArray("data")).hasSize(2);
+        }
+
         @Test
         void findRange() {
             GenericResponseResult<List<UpdateCheckEntity>> result = restService.findRange(0, 10);